@@ -4,6 +4,13 @@ public final class AppConstants {
 
     private AppConstants() {}
 
+    /**
+     * Block size of every entity ID sequence. Each sequence is created with this
+     * increment and read with the pooled-lo optimizer, so one nextval call covers
+     * this many inserts. The restarts in import.sql only need to point past the seeded IDs.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     public static final String ERR_WAREHOUSE_NULL = "Warehouse must not be null";
     public static final String ERR_STORE_NULL = "Store request must not be null";
 
@@ -22,6 +29,9 @@ public final class AppConstants {
     public static final String ERR_STORE_ID_MISMATCH =
             "Store id in path and body must match";
 
+    public static final String ERR_STORE_OUTBOX_FULL =
+            "Store changes are not accepted while %d changes await delivery to the legacy system";
+
     public static final String ERR_PRODUCT_NULL =
             "Product request must not be null";
 
@@ -70,9 +80,36 @@ public final class AppConstants {
     public static final String ERR_WAREHOUSE_LOCATION_CAPACITY_EXCEEDED =
             "Total warehouse capacity would exceed location maximum capacity";
 
+    public static final String ERR_WAREHOUSE_CONCURRENT_UPDATE =
+            "Warehouse was changed by a concurrent request, retry the request";
+
+    public static final String ERR_WAREHOUSE_IMPORT_CODE_REQUIRED =
+            "Business unit code must be provided";
+
+    public static final String ERR_WAREHOUSE_IMPORT_INVALID_RECORD =
+            "Invalid import record, expected businessUnitCode,location,capacity,stock: %s";
+
+    public static final String ERR_WAREHOUSE_IMPORT_ABORTED =
+            "Import stopped: the records could not be written, later records were not read";
+
+    public static final String ERR_WAREHOUSE_REPLACEMENT_DUPLICATE =
+            "Warehouse is replaced more than once in the same request";
+
+    public static final String ERR_WAREHOUSE_REPLACEMENT_BATCH_TOO_LARGE =
+            "A bulk replacement must not hold more than %d warehouse units";
+
     public static final String ERR_LOCATION_NOT_FOUND =
             "No location found for identifier: %s";
 
+    public static final String ERR_LOCATION_SOURCE_INVALID =
+            "Invalid location definition at %s line %d: %s";
+
+    public static final String ERR_LOCATION_SOURCE_UNREADABLE =
+            "Location source %s could not be read";
+
+    public static final String ERR_LOCATION_RELOAD_FAILED =
+            "Location reload failed, the current locations were kept";
+
     public static final String ERR_ASSIGN_MAX_WAREHOUSES_PER_PRODUCT =
             "Product can be fulfilled by max 2 warehouses per store";
 
@@ -85,6 +122,27 @@ public final class AppConstants {
     public static final String ERR_FULFILMENT_REQUEST_NULL =
             "Fulfilment request must not be null";
 
+    public static final String ERR_FULFILMENT_BATCH_NULL =
+            "Fulfilment batch must not be null";
+
+    public static final String ERR_FULFILMENT_BATCH_TOO_LARGE =
+            "Fulfilment batch must not hold more than %d items";
+
+    public static final String ERR_FULFILMENT_FIELDS_REQUIRED =
+            "Store id, product id and warehouse business unit code must be provided";
+
+    public static final String ERR_FULFILMENT_ASSIGNMENT_NOT_FOUND =
+            "Product %s of store %s is not assigned to warehouse %s";
+
+    public static final String ERR_FULFILMENT_WAREHOUSE_ARCHIVED =
+            "Warehouse %s is archived and cannot take new assignments";
+
+    public static final String ERR_RECOMMENDATION_FIELDS_REQUIRED =
+            "Store id and product id must be provided";
+
+    public static final String ERR_PAGE_LIMIT_INVALID =
+            "Page limit must be between 1 and %d";
+
     public static final String ERR_INTERNAL_SERVER =
             "Internal Server Error";
 }
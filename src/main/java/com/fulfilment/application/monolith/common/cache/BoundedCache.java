@@ -0,0 +1,136 @@
+package com.fulfilment.application.monolith.common.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU cache with hit/miss/eviction counters.
+ *
+ * <p>Loads are guarded by a write stamp: {@link #get(Object, Function)} only stores
+ * a loaded value if no invalidation happened while it was loading, so a slow reader
+ * can never put back a value that a concurrent writer has just invalidated.
+ * Absent values (loader returned {@code null}) are not cached.
+ *
+ * <p>With a time to live, an entry older than it counts as a miss and is reloaded,
+ * which bounds how long a write the cache never heard of (e.g. one made by another
+ * instance) can stay hidden.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxEntries;
+    // 0: entries never expire
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries;
+    private final AtomicLong writeStamp = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxEntries) {
+        this(maxEntries, Duration.ZERO);
+    }
+
+    public BoundedCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    BoundedCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached value for the key, or the loader's value (cached if non-null)
+     */
+    public V get(K key, Function<K, V> loader) {
+        synchronized (entries) {
+            Entry<V> cached = entries.get(key);
+            if (cached != null) {
+                if (ttlNanos == 0 || clock.getAsLong() - cached.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return cached.value;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+
+        long stamp = writeStamp.get();
+        long loadedAt = clock.getAsLong();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (entries) {
+                if (writeStamp.get() == stamp) {
+                    entries.put(key, new Entry<>(loaded, loadedAt));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            writeStamp.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            writeStamp.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private static final class Entry<V> {
+
+        final V value;
+        // taken before the load, so the entry never outlives the state it was read from
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
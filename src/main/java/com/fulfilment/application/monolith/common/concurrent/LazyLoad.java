@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.common.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * One-time load of an in-memory view, run by its first reader. Writers keeping the
+ * view current ask {@link #awaitLoaded} first: before the load their change can be
+ * dropped, since the load reads the committed state anyway, and a change racing the
+ * load waits for it to finish.
+ *
+ * <p>With a maximum age, the first reader after it has passed runs the loader again,
+ * which bounds how long writes the view never heard of (e.g. those of another
+ * instance) stay hidden. Other readers keep reading the current view meanwhile, so
+ * the loader must build the new view aside and swap it in.
+ */
+public final class LazyLoad {
+
+    private final Runnable loader;
+    // 0: the view never expires
+    private final long maxAgeNanos;
+    private final LongSupplier clock;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile boolean loaded;
+    private volatile long loadedAt;
+
+    public LazyLoad(Runnable loader) {
+        this(loader, Duration.ZERO);
+    }
+
+    public LazyLoad(Runnable loader, Duration maxAge) {
+        this(loader, maxAge, System::nanoTime);
+    }
+
+    LazyLoad(Runnable loader, Duration maxAge, LongSupplier clock) {
+        this.loader = loader;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * False while nothing has been loaded; waits for a load in progress
+     */
+    public boolean awaitLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                return loaded;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the load unless it already ran; concurrent callers wait for the one load.
+     * Once the view is older than the maximum age, one caller reloads it.
+     */
+    public void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    run();
+                }
+            }
+        } else if (isExpired() && reloading.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    if (isExpired()) {
+                        run();
+                    }
+                }
+            } finally {
+                reloading.set(false);
+            }
+        }
+    }
+
+    private boolean isExpired() {
+        return maxAgeNanos != 0 && clock.getAsLong() - loadedAt >= maxAgeNanos;
+    }
+
+    private void run() {
+        long startedAt = clock.getAsLong();
+        loader.run();
+        loadedAt = startedAt;
+        loaded = true;
+    }
+}
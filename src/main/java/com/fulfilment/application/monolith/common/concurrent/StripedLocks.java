@@ -0,0 +1,95 @@
+package com.fulfilment.application.monolith.common.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks addressed by key hash. Callers touching disjoint keys
+ * usually land on different stripes and run in parallel, while callers sharing
+ * a key are serialized. Multi-key acquisition always locks stripes in ascending
+ * index order, so two callers can never deadlock on each other.
+ */
+public final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLocks(int minimumStripes) {
+        int size = minimumStripes <= 1 ? 1 : Integer.highestOneBit(minimumStripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeOf(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        // spread the high bits, keys such as "store:1".."store:9" differ only in the low bits
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    /**
+     * Locks the stripes of all given keys and returns a handle releasing them.
+     * Keys mapping to the same stripe only lock it once.
+     */
+    public Held lockAll(Object... keys) {
+        int[] indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            indexes[i] = stripeOf(keys[i]);
+        }
+        Arrays.sort(indexes);
+
+        int distinct = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            if (i == 0 || indexes[i] != indexes[i - 1]) {
+                indexes[distinct++] = indexes[i];
+            }
+        }
+
+        int[] acquired = Arrays.copyOf(indexes, distinct);
+        int locked = 0;
+        try {
+            for (int index : acquired) {
+                stripes[index].lock();
+                locked++;
+            }
+        } catch (RuntimeException e) {
+            unlock(acquired, locked);
+            throw e;
+        }
+        return new Held(acquired);
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    /**
+     * Stripes held by one caller, released in reverse acquisition order on close.
+     */
+    public final class Held implements AutoCloseable {
+
+        private final int[] indexes;
+        private boolean released;
+
+        private Held(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                unlock(indexes, indexes.length);
+            }
+        }
+    }
+}
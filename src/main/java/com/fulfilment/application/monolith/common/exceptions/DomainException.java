@@ -1,7 +1,11 @@
 package com.fulfilment.application.monolith.common.exceptions;
 
+/**
+ * An expected, request-caused failure that maps to a fixed status code. These are
+ * routine under load and are never logged, so they skip capturing a stack trace.
+ */
 public abstract class DomainException extends RuntimeException {
     protected DomainException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.common.exceptions;
+
+/**
+ * The server is shedding load to protect a full queue, so the same request may
+ * succeed a little later. Mapped to 503 with Retry-After.
+ */
+public class OverloadedException extends UnavailableException {
+
+    public static final int RETRY_AFTER_SECONDS = 1;
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
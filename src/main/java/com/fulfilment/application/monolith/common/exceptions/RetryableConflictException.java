@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.common.exceptions;
+
+/**
+ * A conflict caused by a concurrent writer rather than by the request itself, so
+ * the same request may succeed when sent again. Mapped to 409 with Retry-After.
+ */
+public class RetryableConflictException extends ConflictException {
+
+    public static final int RETRY_AFTER_SECONDS = 1;
+
+    public RetryableConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.common.exceptions;
+
+/**
+ * The server cannot carry out the request in its current state, which it keeps
+ * unchanged. Mapped to 503.
+ */
+public class UnavailableException extends DomainException {
+
+    public UnavailableException(String message) {
+        super(message);
+    }
+}
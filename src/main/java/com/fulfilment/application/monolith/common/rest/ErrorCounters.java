@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.common.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mapped errors per response status, published as {@code http.server.errors{status}}.
+ * Counters are registered on the first error of a status and then held in a slot per
+ * status, so counting an error neither allocates nor looks anything up by name.
+ * Statuses outside the HTTP range share one counter tagged {@value #STATUS_OTHER}.
+ */
+@ApplicationScoped
+public class ErrorCounters {
+
+    static final String METRIC_NAME = "http.server.errors";
+    static final String TAG_STATUS = "status";
+    static final String STATUS_OTHER = "other";
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+    private static final int SLOT_OTHER = 0;
+
+    private final MeterRegistry registry;
+    private final AtomicReferenceArray<Counter> byStatus = new AtomicReferenceArray<>(MAX_STATUS + 1);
+
+    public ErrorCounters(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void count(int status) {
+        int slot = status < MIN_STATUS || status > MAX_STATUS ? SLOT_OTHER : status;
+        Counter counter = byStatus.get(slot);
+        if (counter == null) {
+            // registering twice returns the same meter, so a lost race is harmless
+            String tag = slot == SLOT_OTHER ? STATUS_OTHER : String.valueOf(status);
+            counter = Counter.builder(METRIC_NAME).tag(TAG_STATUS, tag).register(registry);
+            byStatus.set(slot, counter);
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.common.rest;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Error bodies as pre-serialized JSON, {@code {"exceptionType":..,"code":..,"error":..}}.
+ * Everything up to the message is rendered once per exception type and status; each
+ * error then only escapes its message into a single byte array.
+ */
+final class ErrorTemplates {
+
+    static final String JSON_EXCEPTION_TYPE = "exceptionType";
+    static final String JSON_CODE = "code";
+    static final String JSON_ERROR = "error";
+
+    private static final byte QUOTE = '"';
+    private static final byte END = '}';
+    private static final byte[] NULL_MESSAGE = "null}".getBytes(StandardCharsets.UTF_8);
+
+    private ErrorTemplates() {
+    }
+
+    /**
+     * The body up to and including {@code "error":}
+     */
+    static byte[] prefix(String exceptionType, int status) {
+        return ("{\"" + JSON_EXCEPTION_TYPE + "\":\"" + new String(escape(exceptionType), StandardCharsets.UTF_8)
+                + "\",\"" + JSON_CODE + "\":" + status
+                + ",\"" + JSON_ERROR + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] render(byte[] prefix, String message) {
+        if (message == null) {
+            return concat(prefix, NULL_MESSAGE);
+        }
+        byte[] escaped = escape(message);
+        byte[] body = new byte[prefix.length + escaped.length + 3];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        body[prefix.length] = QUOTE;
+        System.arraycopy(escaped, 0, body, prefix.length + 1, escaped.length);
+        body[body.length - 2] = QUOTE;
+        body[body.length - 1] = END;
+        return body;
+    }
+
+    private static byte[] escape(String value) {
+        return JsonStringEncoder.getInstance().quoteAsUTF8(value);
+    }
+
+    private static byte[] concat(byte[] head, byte[] tail) {
+        byte[] body = new byte[head.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(tail, 0, body, head.length, tail.length);
+        return body;
+    }
+}
@@ -2,31 +2,107 @@ package com.fulfilment.application.monolith.common.rest;
 
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.*;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
+import org.jboss.logging.Logger;
 
+/**
+ * The single error mapper of the application. Domain exceptions map to their fixed
+ * status with a body rendered from {@link ErrorTemplates}, and are only counted per
+ * status in {@link ErrorCounters}. Anything unexpected becomes a 500 with a constant
+ * body and is logged once with its stack trace.
+ */
 @Provider
 public class GlobalExceptionMapper implements ExceptionMapper<Throwable> {
 
+    private static final Logger LOGGER = Logger.getLogger(GlobalExceptionMapper.class);
+    private static final String LOG_UNEXPECTED = "Request failed with an unexpected error";
+
+    private static final ClassValue<byte[]> DOMAIN_PREFIXES = new ClassValue<>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return ErrorTemplates.prefix(type.getName(), statusOf(type));
+        }
+    };
+
+    private static final ClassValue<byte[]> INTERNAL_ERROR_BODIES = new ClassValue<>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return ErrorTemplates.render(
+                    ErrorTemplates.prefix(type.getName(), 500), AppConstants.ERR_INTERNAL_SERVER);
+        }
+    };
+
+    private final ErrorCounters counters;
+
+    @Inject
+    public GlobalExceptionMapper(ErrorCounters counters) {
+        this.counters = counters;
+    }
+
     @Override
     public Response toResponse(Throwable ex) {
 
-        if (ex instanceof ValidationException) {
-            return Response.status(400).entity(ex.getMessage()).build();
+        if (ex instanceof DomainException) {
+            int status = statusOf(ex.getClass());
+            counters.count(status);
+            Response.ResponseBuilder response =
+                    json(status, ErrorTemplates.render(DOMAIN_PREFIXES.get(ex.getClass()), ex.getMessage()));
+            if (ex instanceof RetryableConflictException) {
+                response.header(HttpHeaders.RETRY_AFTER, RetryableConflictException.RETRY_AFTER_SECONDS);
+            }
+            if (ex instanceof OverloadedException) {
+                response.header(HttpHeaders.RETRY_AFTER, OverloadedException.RETRY_AFTER_SECONDS);
+            }
+            return response.build();
         }
 
-        if (ex instanceof NotFoundException) {
-            return Response.status(404).entity(ex.getMessage()).build();
+        if (ex instanceof WebApplicationException) {
+            Response original = ((WebApplicationException) ex).getResponse();
+            int status = original.getStatus();
+            counters.count(status);
+            if (status >= 500) {
+                LOGGER.error(LOG_UNEXPECTED, ex);
+            }
+            if (original.hasEntity()) {
+                return original;
+            }
+            // keep what the thrower set, such as Allow or Location; only the body is ours
+            return Response.fromResponse(original)
+                    .header(HttpHeaders.CONTENT_LENGTH, null)
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .entity(ErrorTemplates.render(
+                            ErrorTemplates.prefix(ex.getClass().getName(), status), ex.getMessage()))
+                    .build();
         }
 
-        if (ex instanceof ConflictException) {
-            return Response.status(409).entity(ex.getMessage()).build();
+        counters.count(500);
+        LOGGER.error(LOG_UNEXPECTED, ex);
+        return json(500, INTERNAL_ERROR_BODIES.get(ex.getClass())).build();
+    }
+
+    static int statusOf(Class<?> type) {
+        if (ValidationException.class.isAssignableFrom(type)) {
+            return 400;
+        }
+        if (NotFoundException.class.isAssignableFrom(type)) {
+            return 404;
         }
+        if (ConflictException.class.isAssignableFrom(type)) {
+            return 409;
+        }
+        if (UnavailableException.class.isAssignableFrom(type)) {
+            return 503;
+        }
+        return 500;
+    }
 
-        return Response
-                .status(500)
-                .entity(AppConstants.ERR_INTERNAL_SERVER)
-                .build();
+    private static Response.ResponseBuilder json(int status, byte[] body) {
+        return Response.status(status).type(MediaType.APPLICATION_JSON_TYPE).entity(body);
     }
 }
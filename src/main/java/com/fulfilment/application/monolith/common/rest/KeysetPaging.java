@@ -0,0 +1,67 @@
+package com.fulfilment.application.monolith.common.rest;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset paging shared by the list endpoints. A page is the next {@code limit}
+ * rows in id order after the {@code after} cursor, so the database seeks on the
+ * primary key instead of skipping an offset, and a cursor stays valid while rows
+ * are inserted or deleted. A full page carries the cursor of the next one in the
+ * {@value #HEADER_NEXT_CURSOR} header.
+ */
+public final class KeysetPaging {
+
+    public static final String PARAM_AFTER = "after";
+    public static final String PARAM_LIMIT = "limit";
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    public static final String QUERY_AFTER_ID = "id > ?1";
+    public static final String SORT_ID = "id";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private KeysetPaging() {}
+
+    /**
+     * Without either parameter the endpoints keep returning the whole table.
+     */
+    public static boolean isRequested(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    public static long resolveAfter(Long after) {
+        return after == null ? Long.MIN_VALUE : after;
+    }
+
+    public static int resolveLimit(Integer limit) {
+        return resolveLimit(limit, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Same bounds, for endpoints whose responses are shorter by default.
+     */
+    public static int resolveLimit(Integer limit, int defaultLimit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException(String.format(AppConstants.ERR_PAGE_LIMIT_INVALID, MAX_LIMIT));
+        }
+        return limit;
+    }
+
+    /**
+     * Answers with {@code body}, carrying the next-page cursor when the page is full;
+     * a short page is the last one.
+     */
+    public static <T> Response respond(List<T> page, int limit, Function<T, Long> idOf, Object body) {
+        Response.ResponseBuilder response = Response.ok(body);
+        if (!page.isEmpty() && page.size() >= limit) {
+            response.header(HEADER_NEXT_CURSOR, idOf.apply(page.get(page.size() - 1)));
+        }
+        return response.build();
+    }
+}
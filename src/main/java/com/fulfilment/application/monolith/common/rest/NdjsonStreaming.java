@@ -0,0 +1,99 @@
+package com.fulfilment.application.monolith.common.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Function;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * Newline-delimited JSON over a forward-only Hibernate scroll. Rows are serialized
+ * as they are read and the persistence context is cleared every {@link #FETCH_SIZE}
+ * rows, so memory stays flat however large the table is.
+ */
+public final class NdjsonStreaming {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+    public static final String PATH_STREAM = "stream";
+
+    static final int FETCH_SIZE = 500;
+    private static final char LINE_SEPARATOR = '\n';
+
+    private NdjsonStreaming() {}
+
+    /**
+     * The query runs when the response body is written, in its own read-only
+     * transaction, so it does not depend on the resource method's transaction.
+     */
+    public static <T> StreamingOutput scroll(EntityManager entityManager, ObjectMapper objectMapper,
+            String query, Class<T> rowType, Function<T, ?> view) {
+        return scroll(entityManager, objectMapper, List.of(query), rowType, view);
+    }
+
+    /**
+     * Writes the rows of each query in turn, all in one transaction.
+     */
+    public static <T> StreamingOutput scroll(EntityManager entityManager, ObjectMapper objectMapper,
+            List<String> queries, Class<T> rowType, Function<T, ?> view) {
+        return output -> {
+            JsonGenerator generator = lineWriter(objectMapper, output);
+            try {
+                QuarkusTransaction.requiringNew().run(() -> {
+                    Session session = entityManager.unwrap(Session.class);
+                    for (String query : queries) {
+                        writeRows(session, generator, query, rowType, view);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.flush();
+        };
+    }
+
+    /**
+     * A generator writing one JSON value per line to the response body, leaving the
+     * body open when it is closed.
+     */
+    public static JsonGenerator lineWriter(ObjectMapper objectMapper, OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // lines are terminated by writeLine instead of space-separated
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    public static void writeLine(JsonGenerator generator, Object value) throws IOException {
+        generator.writeObject(value);
+        generator.writeRaw(LINE_SEPARATOR);
+    }
+
+    private static <T> void writeRows(Session session, JsonGenerator generator, String query,
+            Class<T> rowType, Function<T, ?> view) {
+        try (ScrollableResults<T> rows = session.createSelectionQuery(query, rowType)
+                .setReadOnly(true)
+                .setFetchSize(FETCH_SIZE)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            int written = 0;
+            while (rows.next()) {
+                writeLine(generator, view.apply(rows.get()));
+                if (++written % FETCH_SIZE == 0) {
+                    session.clear();
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
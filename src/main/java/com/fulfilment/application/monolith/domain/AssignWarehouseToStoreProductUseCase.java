@@ -1,98 +1,285 @@
 package com.fulfilment.application.monolith.fulfilment.domain.usecases;
 
 import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.concurrent.StripedLocks;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.fulfilment.domain.CompactAssignmentTable;
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
 import com.fulfilment.application.monolith.fulfilment.domain.ports.FulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 @ApplicationScoped
 public class AssignWarehouseToStoreProductUseCase {
 
+    static final int LOCK_STRIPES = 64;
+    // A batch locks the stripes of all its stores and warehouses at once; past a few
+    // hundred keys that is every stripe, so larger batches would serialize all writers
+    public static final int MAX_BATCH_SIZE = 500;
+    static final String LOCK_PREFIX_STORE = "store:";
+    static final String LOCK_PREFIX_WAREHOUSE = "warehouse:";
+
     private final FulfilmentAssignmentStore assignmentStore;
+    private final FulfilmentGraph graph;
+    // null: warehouse codes are taken as given
+    private final WarehouseStore warehouseStore;
+    private final FulfilmentConstraintEngine constraintEngine = new FulfilmentConstraintEngine();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
 
     public AssignWarehouseToStoreProductUseCase(
             FulfilmentAssignmentStore assignmentStore) {
+        this(assignmentStore, new FulfilmentGraph(assignmentStore));
+    }
+
+    public AssignWarehouseToStoreProductUseCase(
+            FulfilmentAssignmentStore assignmentStore,
+            FulfilmentGraph graph) {
+        this(assignmentStore, graph, null);
+    }
+
+    @Inject
+    public AssignWarehouseToStoreProductUseCase(
+            FulfilmentAssignmentStore assignmentStore,
+            FulfilmentGraph graph,
+            WarehouseStore warehouseStore) {
         this.assignmentStore = assignmentStore;
+        this.graph = graph;
+        this.warehouseStore = warehouseStore;
     }
 
+    @Transactional
     public void assign(String storeId,
                        String productId,
                        String warehouseBusinessUnitCode) {
 
-        List<FulfilmentAssignment> all = assignmentStore.getAll();
+        // The store key guards the per-store and per-store-product limits, the
+        // warehouse key guards the per-warehouse limit. Check and insert run in one
+        // transaction holding both keys in the store until it ends, so two requests
+        // for the same store or warehouse cannot both pass the checks, on any
+        // instance; requests on disjoint keys proceed in parallel. The stripes are
+        // the local fast path: threads of this instance queue on them, not on the rows.
+        // An archive holds the warehouse key until it commits, so a warehouse found
+        // active here stays active until this assignment is in.
+        String storeKey = LOCK_PREFIX_STORE + storeId;
+        String warehouseKey = LOCK_PREFIX_WAREHOUSE + warehouseBusinessUnitCode;
+        try (StripedLocks.Held held = locks.lockAll(storeKey, warehouseKey)) {
+            assignmentStore.lockKeys(List.of(storeKey, warehouseKey));
 
-        boolean alreadyAssigned =
-            all.stream().anyMatch(a ->
-                a.storeId.equals(storeId)
-                    && a.productId.equals(productId)
-                    && a.warehouseBusinessUnitCode.equals(warehouseBusinessUnitCode));
-
-        if (alreadyAssigned) {
-            return;
-        }
-
-        // Optimize: Single pass through all assignments to collect counts
-        long warehousesForProductInStore = 0;
-        long warehousesForStore = 0;
-        long productsInWarehouse = 0;
-        
-        Set<String> warehousesInProduct = new HashSet<>();
-        Set<String> warehousesInStore = new HashSet<>();
-        Set<String> productsInWarehouseSet = new HashSet<>();
-
-        for (FulfilmentAssignment a : all) {
-            // Constraint 1: Each Product → max 2 Warehouses per Store
-            if (a.storeId.equals(storeId) && a.productId.equals(productId)) {
-                warehousesInProduct.add(a.warehouseBusinessUnitCode);
+            if (!archivedOf(List.of(warehouseBusinessUnitCode)).isEmpty()) {
+                throw new ConflictException(
+                    String.format(AppConstants.ERR_FULFILMENT_WAREHOUSE_ARCHIVED, warehouseBusinessUnitCode));
             }
 
-            // Constraint 2: Each Store → max 3 Warehouses
-            if (a.storeId.equals(storeId)) {
-                warehousesInStore.add(a.warehouseBusinessUnitCode);
-            }
+            // Constraints are answered by keyed lookups on the store, never by a full scan
+            boolean isNew = constraintEngine.evaluate(
+                assignmentStore, storeId, productId, warehouseBusinessUnitCode);
 
-            // Constraint 3: Each Warehouse → max 5 Products
-            if (a.warehouseBusinessUnitCode.equals(warehouseBusinessUnitCode)) {
-                productsInWarehouseSet.add(a.productId);
+            if (!isNew) {
+                return;
             }
+
+            // Create and save the assignment
+            FulfilmentAssignment assignment = new FulfilmentAssignment(
+                storeId,
+                productId,
+                warehouseBusinessUnitCode
+            );
+            assignmentStore.create(assignment);
+            graph.add(assignment);
         }
+    }
 
-        warehousesForProductInStore = warehousesInProduct.size();
-        warehousesForStore = warehousesInStore.size();
-        productsInWarehouse = productsInWarehouseSet.size();
+    /**
+     * Validates a batch against one snapshot of the current assignments and inserts
+     * the accepted items together. The snapshot is a {@link CompactAssignmentTable}
+     * holding every row of the batch's stores and warehouses. Items are evaluated in
+     * order; each accepted item is added to the snapshot, so conflicts inside the
+     * batch are caught as well. Returns one result per requested item, in request order.
+     * Like {@link #assign}, the batch's keys stay locked in the store until it commits.
+     */
+    @Transactional
+    public List<FulfilmentAssignmentResult> assignAll(List<FulfilmentAssignment> requested) {
 
-        // Constraint 1 check (allow existing warehouse for this product in this store)
-        if (warehousesForProductInStore >= 2
-            && !warehousesInProduct.contains(warehouseBusinessUnitCode)) {
-            throw new ConflictException(
-                AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_PRODUCT);
+        if (requested == null) {
+            throw new ValidationException(AppConstants.ERR_FULFILMENT_BATCH_NULL);
+        }
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException(
+                String.format(AppConstants.ERR_FULFILMENT_BATCH_TOO_LARGE, MAX_BATCH_SIZE));
         }
 
-        // Constraint 2 check (allow existing warehouse for this store)
-        if (warehousesForStore >= 3
-            && !warehousesInStore.contains(warehouseBusinessUnitCode)) {
-            throw new ConflictException(
-                AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_STORE);
+        Set<String> storeIds = new LinkedHashSet<>();
+        Set<String> warehouseCodes = new LinkedHashSet<>();
+        List<String> lockKeys = new ArrayList<>();
+        for (FulfilmentAssignment a : requested) {
+            if (isComplete(a)) {
+                if (storeIds.add(a.storeId)) {
+                    lockKeys.add(LOCK_PREFIX_STORE + a.storeId);
+                }
+                if (warehouseCodes.add(a.warehouseBusinessUnitCode)) {
+                    lockKeys.add(LOCK_PREFIX_WAREHOUSE + a.warehouseBusinessUnitCode);
+                }
+            }
         }
 
-        // Constraint 3 check (allow existing product for this warehouse)
-        if (productsInWarehouse >= 5
-            && !productsInWarehouseSet.contains(productId)) {
-            throw new ConflictException(
-                AppConstants.ERR_ASSIGN_MAX_PRODUCTS_PER_WAREHOUSE);
+        List<FulfilmentAssignmentResult> results = new ArrayList<>(requested.size());
+
+        try (StripedLocks.Held held = locks.lockAll(lockKeys.toArray())) {
+            assignmentStore.lockKeys(lockKeys);
+            Set<String> archived = archivedOf(warehouseCodes);
+
+            // One read per dimension for the whole batch; rows of the batch's stores
+            // are already loaded, so only add the warehouse rows of other stores
+            CompactAssignmentTable snapshot = new CompactAssignmentTable();
+            if (!storeIds.isEmpty()) {
+                assignmentStore.findByStores(storeIds).forEach(snapshot::add);
+            }
+            if (!warehouseCodes.isEmpty()) {
+                for (FulfilmentAssignment a : assignmentStore.findByWarehouses(warehouseCodes)) {
+                    if (!storeIds.contains(a.storeId)) {
+                        snapshot.add(a);
+                    }
+                }
+            }
+
+            List<FulfilmentAssignment> accepted = new ArrayList<>();
+            for (FulfilmentAssignment a : requested) {
+                results.add(evaluate(snapshot, a, archived, accepted));
+            }
+
+            if (!accepted.isEmpty()) {
+                assignmentStore.createAll(accepted);
+                graph.addAll(accepted);
+            }
         }
 
-        // Create and save the assignment
+        return results;
+    }
+
+    /**
+     * Removes one assignment, under the same stripes as {@link #assign}, so a removal
+     * and a check on the same store or warehouse never interleave.
+     *
+     * @throws NotFoundException if the triple is not assigned
+     */
+    public void unassign(String storeId,
+                         String productId,
+                         String warehouseBusinessUnitCode) {
+
         FulfilmentAssignment assignment = new FulfilmentAssignment(
             storeId,
             productId,
             warehouseBusinessUnitCode
         );
-        assignmentStore.create(assignment);
+        if (!isComplete(assignment)) {
+            throw new ValidationException(AppConstants.ERR_FULFILMENT_FIELDS_REQUIRED);
+        }
+
+        try (StripedLocks.Held held = locks.lockAll(
+                LOCK_PREFIX_STORE + storeId,
+                LOCK_PREFIX_WAREHOUSE + warehouseBusinessUnitCode)) {
+
+            if (!assignmentStore.remove(assignment)) {
+                throw new NotFoundException(String.format(
+                    AppConstants.ERR_FULFILMENT_ASSIGNMENT_NOT_FOUND, productId, storeId, warehouseBusinessUnitCode));
+            }
+            graph.remove(assignment);
+        }
+    }
+
+    /**
+     * Removes every assignment of the warehouse and returns them. The warehouse key stays
+     * locked in the store until the caller's transaction ends, e.g. the archive that
+     * cascaded here, so no assignment to the warehouse slips in before it commits; the
+     * store keys are not needed, a removal only lowers the per-store counts a
+     * concurrent check reads.
+     */
+    @Transactional
+    public List<FulfilmentAssignment> unassignWarehouse(String warehouseBusinessUnitCode) {
+
+        if (warehouseBusinessUnitCode == null) {
+            throw new ValidationException(AppConstants.ERR_FULFILMENT_FIELDS_REQUIRED);
+        }
+
+        String warehouseKey = LOCK_PREFIX_WAREHOUSE + warehouseBusinessUnitCode;
+        try (StripedLocks.Held held = locks.lockAll(warehouseKey)) {
+            assignmentStore.lockKeys(List.of(warehouseKey));
+            List<FulfilmentAssignment> removed = assignmentStore.removeByWarehouse(warehouseBusinessUnitCode);
+            graph.removeAll(removed);
+            return removed;
+        }
+    }
+
+    /**
+     * Puts the warehouse's stored assignments back into the graph, for a removal that
+     * ran inside a transaction which then rolled back. The graph never saw the removal,
+     * but a store that is not transactional (the in-memory one) drops the rows at once
+     * and only puts them back on rollback, so a graph loaded in between misses them.
+     */
+    public void restoreWarehouse(String warehouseBusinessUnitCode) {
+        try (StripedLocks.Held held = locks.lockAll(LOCK_PREFIX_WAREHOUSE + warehouseBusinessUnitCode)) {
+            graph.addAll(assignmentStore.findByWarehouses(List.of(warehouseBusinessUnitCode)));
+        }
+    }
+
+    private FulfilmentAssignmentResult evaluate(CompactAssignmentTable snapshot,
+                                                FulfilmentAssignment a,
+                                                Set<String> archived,
+                                                List<FulfilmentAssignment> accepted) {
+        if (a == null) {
+            return new FulfilmentAssignmentResult(null,
+                FulfilmentAssignmentResult.Status.REJECTED, AppConstants.ERR_FULFILMENT_REQUEST_NULL);
+        }
+
+        if (!isComplete(a)) {
+            return new FulfilmentAssignmentResult(a,
+                FulfilmentAssignmentResult.Status.REJECTED, AppConstants.ERR_FULFILMENT_FIELDS_REQUIRED);
+        }
+
+        if (archived.contains(a.warehouseBusinessUnitCode)) {
+            return new FulfilmentAssignmentResult(a, FulfilmentAssignmentResult.Status.REJECTED,
+                String.format(AppConstants.ERR_FULFILMENT_WAREHOUSE_ARCHIVED, a.warehouseBusinessUnitCode));
+        }
+
+        try {
+            if (!constraintEngine.evaluate(snapshot, a.storeId, a.productId, a.warehouseBusinessUnitCode)) {
+                return new FulfilmentAssignmentResult(a,
+                    FulfilmentAssignmentResult.Status.ALREADY_ASSIGNED, null);
+            }
+        } catch (ConflictException e) {
+            return new FulfilmentAssignmentResult(a,
+                FulfilmentAssignmentResult.Status.REJECTED, e.getMessage());
+        }
+
+        snapshot.add(a);
+        accepted.add(a);
+        return new FulfilmentAssignmentResult(a, FulfilmentAssignmentResult.Status.CREATED, null);
+    }
+
+    // Read under the warehouse keys: unknown codes pass, only archived units are refused
+    private Set<String> archivedOf(Collection<String> warehouseCodes) {
+        if (warehouseStore == null || warehouseCodes.isEmpty()) {
+            return Set.of();
+        }
+        return warehouseStore.findArchivedCodes(warehouseCodes);
+    }
+
+    private static boolean isComplete(FulfilmentAssignment a) {
+        return a != null
+            && a.storeId != null
+            && a.productId != null
+            && a.warehouseBusinessUnitCode != null;
     }
 }
@@ -1,11 +1,43 @@
 package com.fulfilment.application.monolith.fulfilment.domain.ports;
 
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import java.util.Collection;
 import java.util.List;
 
-public interface FulfilmentAssignmentStore {
+public interface FulfilmentAssignmentStore extends FulfilmentAssignmentLookup {
 
     List<FulfilmentAssignment> getAll();
 
     void create(FulfilmentAssignment assignment);
+
+    /**
+     * Persist all assignments in one unit of work (batched inserts where supported)
+     */
+    void createAll(List<FulfilmentAssignment> assignments);
+
+    /**
+     * Remove the store/product/warehouse triple; false if it was not assigned
+     */
+    boolean remove(FulfilmentAssignment assignment);
+
+    /**
+     * Remove every assignment of the warehouse and return the removed rows
+     */
+    List<FulfilmentAssignment> removeByWarehouse(String warehouseBusinessUnitCode);
+
+    /**
+     * Holds the keys against writers on other instances until the surrounding
+     * transaction ends. Keys are taken in sorted order, so two callers never deadlock.
+     */
+    void lockKeys(Collection<String> keys);
+
+    /**
+     * All assignments of the given stores, used to snapshot the per-store counts
+     */
+    List<FulfilmentAssignment> findByStores(Collection<String> storeIds);
+
+    /**
+     * All assignments of the given warehouses, used to snapshot the per-warehouse counts
+     */
+    List<FulfilmentAssignment> findByWarehouses(Collection<String> warehouseBusinessUnitCodes);
 }
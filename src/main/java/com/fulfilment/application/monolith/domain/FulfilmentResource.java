@@ -1,25 +1,117 @@
 package com.fulfilment.application.monolith.fulfilment.adapters.rest;
 
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
+import com.fulfilment.application.monolith.fulfilment.domain.WarehouseRecommendation;
 import com.fulfilment.application.monolith.fulfilment.domain.usecases
         .AssignWarehouseToStoreProductUseCase;
+import com.fulfilment.application.monolith.fulfilment.domain.usecases.RecommendWarehousesUseCase;
 import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+
 @Path(FulfilmentResource.PATH_FULFILMENT)
 @Consumes(MediaType.APPLICATION_JSON)
 public class FulfilmentResource {
 
     static final String PATH_FULFILMENT = "/fulfilment";
+    static final String PATH_BATCH = "batch";
+    static final String PATH_STORE_WAREHOUSES = "stores/{storeId}/warehouses";
+    static final String PATH_WAREHOUSE_STORES = "warehouses/{warehouseBusinessUnitCode}/stores";
+    static final String PATH_PRODUCT_SOURCING = "products/{productId}/sourcing";
+    static final String PATH_ASSIGNMENT =
+        "stores/{storeId}/products/{productId}/warehouses/{warehouseBusinessUnitCode}";
+    static final String PATH_WAREHOUSE = "warehouses/{warehouseBusinessUnitCode}";
+    static final String PATH_RECOMMENDATIONS = "stores/{storeId}/products/{productId}/recommendations";
 
     private final AssignWarehouseToStoreProductUseCase useCase;
+    private final FulfilmentGraph graph;
+    private final RecommendWarehousesUseCase recommendations;
 
     public FulfilmentResource(
-            AssignWarehouseToStoreProductUseCase useCase) {
+            AssignWarehouseToStoreProductUseCase useCase,
+            FulfilmentGraph graph,
+            RecommendWarehousesUseCase recommendations) {
         this.useCase = useCase;
+        this.graph = graph;
+        this.recommendations = recommendations;
+    }
+
+    @DELETE
+    @Path(PATH_ASSIGNMENT)
+    public Response unassign(@PathParam("storeId") String storeId,
+                             @PathParam("productId") String productId,
+                             @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode) {
+
+        useCase.unassign(storeId, productId, warehouseBusinessUnitCode);
+        return Response.noContent().build();
+    }
+
+    /**
+     * Removes every assignment of the warehouse, e.g. before it is taken out of service
+     */
+    @DELETE
+    @Path(PATH_WAREHOUSE)
+    public Response unassignWarehouse(@PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode) {
+
+        useCase.unassignWarehouse(warehouseBusinessUnitCode);
+        return Response.noContent().build();
+    }
+
+    /**
+     * Product id -> warehouses fulfilling it for the store
+     */
+    @GET
+    @Path(PATH_STORE_WAREHOUSES)
+    @Produces(MediaType.APPLICATION_JSON)
+    public SortedMap<String, Set<String>> warehousesForStore(@PathParam("storeId") String storeId) {
+        return graph.warehousesForStore(storeId);
+    }
+
+    /**
+     * Store id -> products the warehouse delivers there
+     */
+    @GET
+    @Path(PATH_WAREHOUSE_STORES)
+    @Produces(MediaType.APPLICATION_JSON)
+    public SortedMap<String, Set<String>> storesServedByWarehouse(
+            @PathParam("warehouseBusinessUnitCode") String warehouseBusinessUnitCode) {
+        return graph.storesServedByWarehouse(warehouseBusinessUnitCode);
+    }
+
+    /**
+     * Store id -> warehouses the product is sourced from for that store
+     */
+    @GET
+    @Path(PATH_PRODUCT_SOURCING)
+    @Produces(MediaType.APPLICATION_JSON)
+    public SortedMap<String, Set<String>> sourcingForProduct(@PathParam("productId") String productId) {
+        return graph.sourcingForProduct(productId);
+    }
+
+    /**
+     * Warehouses the product can be assigned to for the store, best first
+     */
+    @GET
+    @Path(PATH_RECOMMENDATIONS)
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<WarehouseRecommendation> recommend(
+            @PathParam("storeId") String storeId,
+            @PathParam("productId") String productId,
+            @QueryParam("location") String location,
+            @QueryParam(KeysetPaging.PARAM_LIMIT) Integer limit) {
+        return recommendations.recommend(storeId, productId, location,
+            KeysetPaging.resolveLimit(limit, RecommendWarehousesUseCase.DEFAULT_LIMIT));
     }
 
     @POST
@@ -38,9 +130,61 @@ public class FulfilmentResource {
         return Response.status(Response.Status.CREATED).build();
     }
 
+    @POST
+    @Path(PATH_BATCH)
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<FulfilmentBatchItemResult> assignBatch(List<FulfilmentRequest> requests) {
+
+        if (requests == null) {
+            throw new ValidationException(AppConstants.ERR_FULFILMENT_BATCH_NULL);
+        }
+
+        List<FulfilmentAssignment> assignments = new ArrayList<>(requests.size());
+        for (FulfilmentRequest request : requests) {
+            assignments.add(request == null
+                ? null
+                : new FulfilmentAssignment(
+                    request.storeId,
+                    request.productId,
+                    request.warehouseBusinessUnitCode));
+        }
+
+        List<FulfilmentAssignmentResult> results = useCase.assignAll(assignments);
+
+        List<FulfilmentBatchItemResult> response = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            response.add(FulfilmentBatchItemResult.of(i, requests.get(i), results.get(i)));
+        }
+        return response;
+    }
+
     public static class FulfilmentRequest {
         public String storeId;
         public String productId;
         public String warehouseBusinessUnitCode;
     }
+
+    public static class FulfilmentBatchItemResult {
+        public int index;
+        public String storeId;
+        public String productId;
+        public String warehouseBusinessUnitCode;
+        public String status;
+        public String error;
+
+        static FulfilmentBatchItemResult of(int index,
+                                            FulfilmentRequest request,
+                                            FulfilmentAssignmentResult result) {
+            FulfilmentBatchItemResult item = new FulfilmentBatchItemResult();
+            item.index = index;
+            if (request != null) {
+                item.storeId = request.storeId;
+                item.productId = request.productId;
+                item.warehouseBusinessUnitCode = request.warehouseBusinessUnitCode;
+            }
+            item.status = result.status.name();
+            item.error = result.error;
+            return item;
+        }
+    }
 }
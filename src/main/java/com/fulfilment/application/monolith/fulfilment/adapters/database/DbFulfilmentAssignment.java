@@ -1,15 +1,27 @@
 package com.fulfilment.application.monolith.fulfilment.adapters.database;
 
+import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "fulfilment_assignment")
+@Table(name = "fulfilment_assignment", indexes = {
+    // Backs exists() and the warehouses-per-store-product lookup
+    @Index(name = "idx_fulfilment_store_product_warehouse",
+        columnList = "store_id, product_id, warehouse_business_unit_code"),
+    // Backs the warehouses-per-store lookup
+    @Index(name = "idx_fulfilment_store_warehouse",
+        columnList = "store_id, warehouse_business_unit_code"),
+    // Backs the products-per-warehouse lookup
+    @Index(name = "idx_fulfilment_warehouse_product",
+        columnList = "warehouse_business_unit_code, product_id")
+})
 public class DbFulfilmentAssignment {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fulfilment_assignment_seq")
-    @SequenceGenerator(name = "fulfilment_assignment_seq", sequenceName = "fulfilment_assignment_seq", allocationSize = 1)
+    @SequenceGenerator(name = "fulfilment_assignment_seq", sequenceName = "fulfilment_assignment_seq",
+        allocationSize = AppConstants.ID_ALLOCATION_SIZE)
     public Long id;
 
     @Column(name = "store_id", nullable = false)
@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.database;
+
+import jakarta.persistence.*;
+
+/**
+ * One row per store or warehouse key that an assignment check has locked. The row
+ * carries no data: a {@code SELECT ... FOR UPDATE} on it serializes the check and
+ * insert of every instance touching the same key until the transaction ends.
+ */
+@Entity
+@Table(name = "fulfilment_lock")
+public class DbFulfilmentLock {
+
+    @Id
+    @Column(name = "lock_key")
+    public String lockKey;
+
+    public DbFulfilmentLock() {
+    }
+
+    public DbFulfilmentLock(String lockKey) {
+        this.lockKey = lockKey;
+    }
+}
@@ -3,14 +3,22 @@ package com.fulfilment.application.monolith.fulfilment.adapters.database;
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
 import com.fulfilment.application.monolith.fulfilment.domain.ports.FulfilmentAssignmentStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.QuarkusTransactionException;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Default;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Default
 @Priority(1)
@@ -20,11 +28,42 @@ public class FulfilmentAssignmentRepository implements FulfilmentAssignmentStore
 
     private static final Logger LOGGER = Logger.getLogger(FulfilmentAssignmentRepository.class);
 
+    private static final String ERR_LOCK_ROWS_MISSING = "Fulfilment lock rows could not be created: %s";
+
+    // Keep in sync with quarkus.hibernate-orm.jdbc.statement-batch-size
+    static final int INSERT_BATCH_SIZE = 50;
+
+    // Constructor projections: rows go straight into the domain type, without
+    // loading managed DbFulfilmentAssignment entities and copying them afterwards
+    private static final String SELECT_ASSIGNMENT =
+        "select new com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment("
+            + "a.storeId, a.productId, a.warehouseBusinessUnitCode) from DbFulfilmentAssignment a";
+    private static final String QUERY_ALL = SELECT_ASSIGNMENT + " order by a.id";
+    private static final String QUERY_BY_STORES = SELECT_ASSIGNMENT + " where a.storeId in ?1";
+    private static final String QUERY_BY_WAREHOUSES =
+        SELECT_ASSIGNMENT + " where a.warehouseBusinessUnitCode in ?1";
+    private static final String QUERY_DELETE_TRIPLE =
+        "delete from DbFulfilmentAssignment a where a.storeId = ?1 and a.productId = ?2"
+            + " and a.warehouseBusinessUnitCode = ?3";
+    private static final String QUERY_DELETE_BY_WAREHOUSE =
+        "delete from DbFulfilmentAssignment a where a.warehouseBusinessUnitCode = ?1";
+    private static final String QUERY_EXISTS =
+        "storeId = ?1 and productId = ?2 and warehouseBusinessUnitCode = ?3";
+    private static final String QUERY_WAREHOUSES_FOR_STORE_PRODUCT =
+        "select distinct a.warehouseBusinessUnitCode from DbFulfilmentAssignment a"
+            + " where a.storeId = ?1 and a.productId = ?2";
+    private static final String QUERY_WAREHOUSES_FOR_STORE =
+        "select distinct a.warehouseBusinessUnitCode from DbFulfilmentAssignment a"
+            + " where a.storeId = ?1";
+    private static final String QUERY_LOCK_KEYS =
+        "select l from DbFulfilmentLock l where l.lockKey in ?1 order by l.lockKey";
+    private static final String QUERY_PRODUCTS_FOR_WAREHOUSE =
+        "select distinct a.productId from DbFulfilmentAssignment a"
+            + " where a.warehouseBusinessUnitCode = ?1";
+
     @Override
     public List<FulfilmentAssignment> getAll() {
-        return listAll().stream()
-            .map(DbFulfilmentAssignment::toFulfilmentAssignment)
-            .collect(Collectors.toList());
+        return getEntityManager().createQuery(QUERY_ALL, FulfilmentAssignment.class).getResultList();
     }
 
     @Override
@@ -39,4 +78,140 @@ public class FulfilmentAssignmentRepository implements FulfilmentAssignmentStore
         LOGGER.debugf("Created fulfilment assignment: store=%s, product=%s, warehouse=%s",
             assignment.storeId, assignment.productId, assignment.warehouseBusinessUnitCode);
     }
+
+    @Override
+    public void createAll(List<FulfilmentAssignment> assignments) {
+        if (assignments == null || assignments.isEmpty()) {
+            return;
+        }
+
+        // Flush every INSERT_BATCH_SIZE rows so Hibernate sends them as one JDBC batch,
+        // then detach those rows so the context does not grow with the size of the
+        // request; entities the caller loaded in an enclosing transaction stay managed
+        List<DbFulfilmentAssignment> pending = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (FulfilmentAssignment assignment : assignments) {
+            DbFulfilmentAssignment entity = DbFulfilmentAssignment.fromFulfilmentAssignment(assignment);
+            persist(entity);
+            pending.add(entity);
+            if (pending.size() == INSERT_BATCH_SIZE) {
+                flushAndDetach(pending);
+            }
+        }
+        flushAndDetach(pending);
+        LOGGER.debugf("Created %d fulfilment assignments in batch", assignments.size());
+    }
+
+    private void flushAndDetach(List<DbFulfilmentAssignment> persisted) {
+        flush();
+        persisted.forEach(getEntityManager()::detach);
+        persisted.clear();
+    }
+
+    @Override
+    public boolean remove(FulfilmentAssignment assignment) {
+        if (assignment == null) {
+            return false;
+        }
+
+        int deleted = getEntityManager().createQuery(QUERY_DELETE_TRIPLE)
+            .setParameter(1, assignment.storeId)
+            .setParameter(2, assignment.productId)
+            .setParameter(3, assignment.warehouseBusinessUnitCode)
+            .executeUpdate();
+        LOGGER.debugf("Deleted fulfilment assignment: store=%s, product=%s, warehouse=%s (%d rows)",
+            assignment.storeId, assignment.productId, assignment.warehouseBusinessUnitCode, deleted);
+        return deleted > 0;
+    }
+
+    @Override
+    public List<FulfilmentAssignment> removeByWarehouse(String warehouseBusinessUnitCode) {
+        // Read and delete in one transaction: the returned rows are the ones removed
+        List<FulfilmentAssignment> removed = findByWarehouses(List.of(warehouseBusinessUnitCode));
+        if (!removed.isEmpty()) {
+            getEntityManager().createQuery(QUERY_DELETE_BY_WAREHOUSE)
+                .setParameter(1, warehouseBusinessUnitCode)
+                .executeUpdate();
+        }
+        LOGGER.debugf("Deleted %d fulfilment assignments of warehouse %s",
+            removed.size(), warehouseBusinessUnitCode);
+        return removed;
+    }
+
+    @Override
+    public void lockKeys(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        Set<String> sorted = new TreeSet<>(keys);
+        Set<String> missing = new TreeSet<>(sorted);
+        lockRows(sorted).forEach(row -> missing.remove(row.lockKey));
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        // First use of a key: its row is created in a transaction of its own, so a
+        // concurrent creator only costs a duplicate key here, then all rows are locked
+        for (String key : missing) {
+            try {
+                QuarkusTransaction.requiringNew().run(() -> getEntityManager().persist(new DbFulfilmentLock(key)));
+            } catch (PersistenceException | QuarkusTransactionException e) {
+                LOGGER.debugf("Fulfilment lock row %s was created concurrently", key);
+            }
+        }
+        if (lockRows(sorted).size() < sorted.size()) {
+            throw new IllegalStateException(String.format(ERR_LOCK_ROWS_MISSING, missing));
+        }
+    }
+
+    private List<DbFulfilmentLock> lockRows(Collection<String> keys) {
+        return getEntityManager().createQuery(QUERY_LOCK_KEYS, DbFulfilmentLock.class)
+            .setParameter(1, keys)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList();
+    }
+
+    @Override
+    public List<FulfilmentAssignment> findByStores(Collection<String> storeIds) {
+        return getEntityManager().createQuery(QUERY_BY_STORES, FulfilmentAssignment.class)
+            .setParameter(1, storeIds)
+            .getResultList();
+    }
+
+    @Override
+    public List<FulfilmentAssignment> findByWarehouses(Collection<String> warehouseBusinessUnitCodes) {
+        return getEntityManager().createQuery(QUERY_BY_WAREHOUSES, FulfilmentAssignment.class)
+            .setParameter(1, warehouseBusinessUnitCodes)
+            .getResultList();
+    }
+
+    @Override
+    public boolean exists(String storeId, String productId, String warehouseBusinessUnitCode) {
+        // Count on the (store_id, product_id, warehouse_business_unit_code) index, no row is loaded
+        return count(QUERY_EXISTS, storeId, productId, warehouseBusinessUnitCode) > 0;
+    }
+
+    @Override
+    public Set<String> findWarehousesForStoreProduct(String storeId, String productId) {
+        return distinctCodes(QUERY_WAREHOUSES_FOR_STORE_PRODUCT, storeId, productId);
+    }
+
+    @Override
+    public Set<String> findWarehousesForStore(String storeId) {
+        return distinctCodes(QUERY_WAREHOUSES_FOR_STORE, storeId);
+    }
+
+    @Override
+    public Set<String> findProductsForWarehouse(String warehouseBusinessUnitCode) {
+        return distinctCodes(QUERY_PRODUCTS_FOR_WAREHOUSE, warehouseBusinessUnitCode);
+    }
+
+    // Single-column projection: only the matching codes leave the database, no entities are loaded
+    private Set<String> distinctCodes(String query, Object... params) {
+        var typedQuery = getEntityManager().createQuery(query, String.class);
+        for (int i = 0; i < params.length; i++) {
+            typedQuery.setParameter(i + 1, params[i]);
+        }
+        return new HashSet<>(typedQuery.getResultList());
+    }
 }
@@ -1,26 +1,319 @@
 package com.fulfilment.application.monolith.fulfilment.adapters.inmemory;
 
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.InternedCodes;
 import com.fulfilment.application.monolith.fulfilment.domain.ports.FulfilmentAssignmentStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Thread-safe in-memory store for load tests and edge caches.
+ *
+ * <p>Every index is a {@link ConcurrentHashMap} whose values are concurrent maps, so
+ * reads are a single lock-free {@code get} and writers only contend on the key they
+ * touch. Nested entries are changed inside the outer key's {@code compute}, which
+ * drops the outer entry once it is empty, so deleted stores, products and warehouses
+ * leave no keys behind. Codes are interned through one reference counted pool: every
+ * row and index entry shares a single String instance per distinct code, so the heap
+ * cost of an assignment is the row object plus its index entries, and a code leaves
+ * the pool with the last row that refers to it.
+ *
+ * <p>Rows carry a sequence number and are indexed by it, so removing a row is a keyed
+ * removal from each index rather than a scan. Warehouses of a store (of a store and
+ * product) and products of a warehouse are reference counted, one per row, so a
+ * delete only drops a pair once its last row is gone, and the constraint lookups stay
+ * a {@code get} plus a {@code size()} after removals.
+ *
+ * <p>Writes take effect at once. Made inside a transaction, they are undone if it rolls
+ * back: created rows are removed again and removed rows are put back under their old
+ * sequence numbers, so e.g. a rolled-back warehouse archive keeps its assignments.
+ */
 @Alternative
 @ApplicationScoped
 public class InMemoryFulfilmentAssignmentStore implements FulfilmentAssignmentStore {
 
-    private final List<FulfilmentAssignment> assignments = new ArrayList<>();
+    private final InternedCodes codes = new InternedCodes();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // sequence -> row; the sequence gives getAll() its insertion order
+    private final Map<Long, Row> assignments = new ConcurrentHashMap<>();
+
+    // store -> product -> warehouse -> number of rows
+    private final Map<String, Map<String, Map<String, Integer>>> warehousesByStoreProduct = new ConcurrentHashMap<>();
+    // store -> warehouse -> number of rows, warehouse -> product -> number of rows
+    private final Map<String, Map<String, Integer>> warehousesByStore = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Integer>> productsByWarehouse = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Row>> assignmentsByStore = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, Row>> assignmentsByWarehouse = new ConcurrentHashMap<>();
+
+    // null outside a container: writes then stand at once
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
 
     @Override
     public List<FulfilmentAssignment> getAll() {
-        return Collections.unmodifiableList(assignments);
+        return Collections.unmodifiableList(new ArrayList<>(inOrder(assignments.values())));
     }
 
     @Override
     public void create(FulfilmentAssignment assignment) {
-        assignments.add(assignment);
+        if (assignment == null) {
+            throw new ValidationException(AppConstants.ERR_FULFILMENT_REQUEST_NULL);
+        }
+        if (assignment.storeId == null
+            || assignment.productId == null
+            || assignment.warehouseBusinessUnitCode == null) {
+            throw new ValidationException(AppConstants.ERR_FULFILMENT_FIELDS_REQUIRED);
+        }
+
+        Row row = insert(sequence.incrementAndGet(),
+            assignment.storeId, assignment.productId, assignment.warehouseBusinessUnitCode);
+        onRollback(() -> unindex(row));
+    }
+
+    @Override
+    public void createAll(List<FulfilmentAssignment> batch) {
+        for (FulfilmentAssignment assignment : batch) {
+            create(assignment);
+        }
+    }
+
+    @Override
+    public boolean remove(FulfilmentAssignment assignment) {
+        Map<Long, Row> rows = assignment == null || assignment.storeId == null
+            ? null
+            : assignmentsByStore.get(assignment.storeId);
+        if (rows == null) {
+            return false;
+        }
+
+        List<Row> removed = new ArrayList<>();
+        for (Row row : rows.values()) {
+            if (row.productId.equals(assignment.productId)
+                && row.warehouseBusinessUnitCode.equals(assignment.warehouseBusinessUnitCode)
+                && unindex(row)) {
+                removed.add(row);
+            }
+        }
+        restoreOnRollback(removed);
+        return !removed.isEmpty();
+    }
+
+    /**
+     * Removes the warehouse's rows one by one, like {@link #remove}: a row created
+     * concurrently is either removed with them or kept fully indexed.
+     */
+    @Override
+    public List<FulfilmentAssignment> removeByWarehouse(String warehouseBusinessUnitCode) {
+        Map<Long, Row> rows = warehouseBusinessUnitCode == null
+            ? null
+            : assignmentsByWarehouse.get(warehouseBusinessUnitCode);
+        if (rows == null) {
+            return Collections.emptyList();
+        }
+
+        List<Row> removed = new ArrayList<>();
+        for (Row row : inOrder(rows.values())) {
+            if (unindex(row)) {
+                removed.add(row);
+            }
+        }
+        restoreOnRollback(removed);
+        return new ArrayList<>(removed);
+    }
+
+    /**
+     * Nothing to do: the store lives in one JVM, whose writers the use case's
+     * striped locks already serialize.
+     */
+    @Override
+    public void lockKeys(Collection<String> keys) {
+    }
+
+    @Override
+    public List<FulfilmentAssignment> findByStores(Collection<String> storeIds) {
+        return collect(assignmentsByStore, storeIds);
+    }
+
+    @Override
+    public List<FulfilmentAssignment> findByWarehouses(Collection<String> warehouseBusinessUnitCodes) {
+        return collect(assignmentsByWarehouse, warehouseBusinessUnitCodes);
+    }
+
+    @Override
+    public boolean exists(String storeId, String productId, String warehouseBusinessUnitCode) {
+        return warehouseBusinessUnitCode != null
+            && findWarehousesForStoreProduct(storeId, productId).contains(warehouseBusinessUnitCode);
+    }
+
+    @Override
+    public Set<String> findWarehousesForStoreProduct(String storeId, String productId) {
+        if (storeId == null || productId == null) {
+            return Collections.emptySet();
+        }
+        Map<String, Map<String, Integer>> byProduct = warehousesByStoreProduct.get(storeId);
+        return byProduct == null ? Collections.emptySet() : counted(byProduct.get(productId));
+    }
+
+    @Override
+    public Set<String> findWarehousesForStore(String storeId) {
+        return storeId == null ? Collections.emptySet() : counted(warehousesByStore.get(storeId));
+    }
+
+    @Override
+    public Set<String> findProductsForWarehouse(String warehouseBusinessUnitCode) {
+        return warehouseBusinessUnitCode == null
+            ? Collections.emptySet()
+            : counted(productsByWarehouse.get(warehouseBusinessUnitCode));
+    }
+
+    private Row insert(long seq, String storeId, String productId, String warehouseBusinessUnitCode) {
+        Row row = new Row(
+            seq,
+            codes.acquire(storeId),
+            codes.acquire(productId),
+            codes.acquire(warehouseBusinessUnitCode));
+
+        warehousesByStoreProduct.compute(row.storeId, (k, byProduct) -> {
+            Map<String, Map<String, Integer>> updated = byProduct == null ? new ConcurrentHashMap<>() : byProduct;
+            count(updated, row.productId, row.warehouseBusinessUnitCode, 1);
+            return updated;
+        });
+        count(warehousesByStore, row.storeId, row.warehouseBusinessUnitCode, 1);
+        count(productsByWarehouse, row.warehouseBusinessUnitCode, row.productId, 1);
+        index(assignmentsByStore, row.storeId, row);
+        index(assignmentsByWarehouse, row.warehouseBusinessUnitCode, row);
+        assignments.put(row.seq, row);
+        return row;
+    }
+
+    private void restoreOnRollback(List<Row> removed) {
+        if (!removed.isEmpty()) {
+            onRollback(() -> removed.forEach(
+                row -> insert(row.seq, row.storeId, row.productId, row.warehouseBusinessUnitCode)));
+        }
+    }
+
+    private void onRollback(Runnable undo) {
+        if (txRegistry == null || txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return;
+        }
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_ROLLEDBACK) {
+                    undo.run();
+                }
+            }
+        });
+    }
+
+    // The remover that takes the row out of the row map owns the rest of its cleanup
+    private boolean unindex(Row row) {
+        if (assignments.remove(row.seq) == null) {
+            return false;
+        }
+        unindex(assignmentsByStore, row.storeId, row);
+        unindex(assignmentsByWarehouse, row.warehouseBusinessUnitCode, row);
+        warehousesByStoreProduct.computeIfPresent(row.storeId, (k, byProduct) -> {
+            count(byProduct, row.productId, row.warehouseBusinessUnitCode, -1);
+            return byProduct.isEmpty() ? null : byProduct;
+        });
+        count(warehousesByStore, row.storeId, row.warehouseBusinessUnitCode, -1);
+        count(productsByWarehouse, row.warehouseBusinessUnitCode, row.productId, -1);
+        codes.release(row.storeId);
+        codes.release(row.productId);
+        codes.release(row.warehouseBusinessUnitCode);
+        return true;
+    }
+
+    int internedCodes() {
+        return codes.size();
+    }
+
+    int indexedKeys() {
+        int keys = warehousesByStore.size() + productsByWarehouse.size()
+            + assignmentsByStore.size() + assignmentsByWarehouse.size();
+        for (Map<String, Map<String, Integer>> byProduct : warehousesByStoreProduct.values()) {
+            keys += 1 + byProduct.size();
+        }
+        return keys;
+    }
+
+    private static void index(Map<String, Map<Long, Row>> index, String key, Row row) {
+        index.compute(key, (k, rows) -> {
+            Map<Long, Row> updated = rows == null ? new ConcurrentHashMap<>() : rows;
+            updated.put(row.seq, row);
+            return updated;
+        });
+    }
+
+    private static void unindex(Map<String, Map<Long, Row>> index, String key, Row row) {
+        index.computeIfPresent(key, (k, rows) -> {
+            rows.remove(row.seq);
+            return rows.isEmpty() ? null : rows;
+        });
+    }
+
+    // Atomic per key: the pair is dropped when its count reaches zero, the key with its last pair
+    private static void count(Map<String, Map<String, Integer>> index, String key, String member, int delta) {
+        index.compute(key, (k, members) -> {
+            Map<String, Integer> updated = members == null ? new ConcurrentHashMap<>() : members;
+            updated.compute(member, (m, n) -> {
+                int total = (n == null ? 0 : n) + delta;
+                return total > 0 ? total : null;
+            });
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    private static List<FulfilmentAssignment> collect(Map<String, Map<Long, Row>> index,
+                                                      Collection<String> keys) {
+        List<FulfilmentAssignment> result = new ArrayList<>();
+        for (String key : keys) {
+            Map<Long, Row> rows = key == null ? null : index.get(key);
+            if (rows != null) {
+                result.addAll(inOrder(rows.values()));
+            }
+        }
+        return result;
+    }
+
+    private static List<Row> inOrder(Collection<Row> rows) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong(row -> row.seq));
+        return sorted;
+    }
+
+    private static Set<String> counted(Map<String, Integer> indexed) {
+        return indexed == null ? Collections.emptySet() : Collections.unmodifiableSet(indexed.keySet());
+    }
+
+    private static final class Row extends FulfilmentAssignment {
+
+        final long seq;
+
+        Row(long seq, String storeId, String productId, String warehouseBusinessUnitCode) {
+            super(storeId, productId, warehouseBusinessUnitCode);
+            this.seq = seq;
+        }
     }
 }
@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps string codes to dense int IDs (0, 1, 2, ...) and back.
+ * Each distinct code is stored once, however many rows refer to it.
+ */
+public class CodeDictionary {
+
+    public static final int ABSENT = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] codes = new String[16];
+
+    /**
+     * ID of the code, assigning the next free ID on first sight
+     */
+    public int encode(String code) {
+        Integer id = ids.get(code);
+        if (id != null) {
+            return id;
+        }
+        int next = ids.size();
+        if (next == codes.length) {
+            codes = Arrays.copyOf(codes, next * 2);
+        }
+        codes[next] = code;
+        ids.put(code, next);
+        return next;
+    }
+
+    /**
+     * ID of the code, or {@link #ABSENT} if it was never encoded
+     */
+    public int idOf(String code) {
+        Integer id = ids.get(code);
+        return id == null ? ABSENT : id;
+    }
+
+    public String decode(int id) {
+        return codes[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,163 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import com.fulfilment.application.monolith.fulfilment.domain.ports.FulfilmentAssignmentLookup;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Columnar, dictionary-encoded assignment table. Store, product and warehouse
+ * codes are mapped to int IDs and each row is an int triple in growable arrays,
+ * i.e. 20 bytes per row including the index links below, with no per-row objects.
+ *
+ * <p>Rows sharing a store (or a warehouse) are chained through {@code nextInStore}
+ * ({@code nextInWarehouse}), so every lookup walks only the rows of its key.
+ * The table implements {@link FulfilmentAssignmentLookup}, so the constraint
+ * engine runs against it directly. Not thread-safe: meant to be filled and read
+ * by one thread, e.g. for the duration of a batch.
+ *
+ * <p>This is the working copy of a batch, not the live constraint structure. The
+ * live constraints are checked against the database, under the store and warehouse
+ * lock rows, and kept in memory by the concurrent indexes of
+ * {@code InMemoryFulfilmentAssignmentStore} and {@link FulfilmentGraph}. Both need
+ * concurrent writers and removals, which a columnar table of chained int rows does
+ * not support without locking every read. {@code assignAll} fills one table per
+ * batch from the rows of the batch's stores and warehouses, so a batch is checked
+ * with a single read per dimension and no objects per row.
+ */
+public class CompactAssignmentTable implements FulfilmentAssignmentLookup {
+
+    private static final int END = -1;
+    private static final int INITIAL_ROWS = 64;
+
+    private final CodeDictionary stores = new CodeDictionary();
+    private final CodeDictionary products = new CodeDictionary();
+    private final CodeDictionary warehouses = new CodeDictionary();
+
+    private int[] storeColumn = new int[INITIAL_ROWS];
+    private int[] productColumn = new int[INITIAL_ROWS];
+    private int[] warehouseColumn = new int[INITIAL_ROWS];
+    private int[] nextInStore = new int[INITIAL_ROWS];
+    private int[] nextInWarehouse = new int[INITIAL_ROWS];
+
+    // code ID -> most recently added row with that code
+    private int[] firstRowOfStore = new int[0];
+    private int[] firstRowOfWarehouse = new int[0];
+
+    private int size;
+
+    public void add(FulfilmentAssignment assignment) {
+        add(assignment.storeId, assignment.productId, assignment.warehouseBusinessUnitCode);
+    }
+
+    public void add(String storeId, String productId, String warehouseBusinessUnitCode) {
+        int store = stores.encode(storeId);
+        int product = products.encode(productId);
+        int warehouse = warehouses.encode(warehouseBusinessUnitCode);
+
+        if (size == storeColumn.length) {
+            int capacity = size * 2;
+            storeColumn = Arrays.copyOf(storeColumn, capacity);
+            productColumn = Arrays.copyOf(productColumn, capacity);
+            warehouseColumn = Arrays.copyOf(warehouseColumn, capacity);
+            nextInStore = Arrays.copyOf(nextInStore, capacity);
+            nextInWarehouse = Arrays.copyOf(nextInWarehouse, capacity);
+        }
+        firstRowOfStore = ensureHead(firstRowOfStore, store);
+        firstRowOfWarehouse = ensureHead(firstRowOfWarehouse, warehouse);
+
+        int row = size++;
+        storeColumn[row] = store;
+        productColumn[row] = product;
+        warehouseColumn[row] = warehouse;
+        nextInStore[row] = firstRowOfStore[store];
+        nextInWarehouse[row] = firstRowOfWarehouse[warehouse];
+        firstRowOfStore[store] = row;
+        firstRowOfWarehouse[warehouse] = row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public FulfilmentAssignment get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        return new FulfilmentAssignment(
+            stores.decode(storeColumn[row]),
+            products.decode(productColumn[row]),
+            warehouses.decode(warehouseColumn[row]));
+    }
+
+    @Override
+    public boolean exists(String storeId, String productId, String warehouseBusinessUnitCode) {
+        int store = stores.idOf(storeId);
+        int product = products.idOf(productId);
+        int warehouse = warehouses.idOf(warehouseBusinessUnitCode);
+        if (store == CodeDictionary.ABSENT
+            || product == CodeDictionary.ABSENT
+            || warehouse == CodeDictionary.ABSENT) {
+            return false;
+        }
+        for (int row = firstRowOfStore[store]; row != END; row = nextInStore[row]) {
+            if (productColumn[row] == product && warehouseColumn[row] == warehouse) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> findWarehousesForStoreProduct(String storeId, String productId) {
+        int store = stores.idOf(storeId);
+        int product = products.idOf(productId);
+        if (store == CodeDictionary.ABSENT || product == CodeDictionary.ABSENT) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (int row = firstRowOfStore[store]; row != END; row = nextInStore[row]) {
+            if (productColumn[row] == product) {
+                result.add(warehouses.decode(warehouseColumn[row]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> findWarehousesForStore(String storeId) {
+        int store = stores.idOf(storeId);
+        if (store == CodeDictionary.ABSENT) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (int row = firstRowOfStore[store]; row != END; row = nextInStore[row]) {
+            result.add(warehouses.decode(warehouseColumn[row]));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> findProductsForWarehouse(String warehouseBusinessUnitCode) {
+        int warehouse = warehouses.idOf(warehouseBusinessUnitCode);
+        if (warehouse == CodeDictionary.ABSENT) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (int row = firstRowOfWarehouse[warehouse]; row != END; row = nextInWarehouse[row]) {
+            result.add(products.decode(productColumn[row]));
+        }
+        return result;
+    }
+
+    private static int[] ensureHead(int[] heads, int id) {
+        if (id < heads.length) {
+            return heads;
+        }
+        int oldLength = heads.length;
+        int[] grown = Arrays.copyOf(heads, Math.max(16, Math.max(id + 1, oldLength * 2)));
+        Arrays.fill(grown, oldLength, grown.length, END);
+        return grown;
+    }
+}
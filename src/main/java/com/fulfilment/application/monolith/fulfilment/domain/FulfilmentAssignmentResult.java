@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+public class FulfilmentAssignmentResult {
+
+    public enum Status {
+        CREATED,
+        ALREADY_ASSIGNED,
+        REJECTED
+    }
+
+    public final FulfilmentAssignment assignment;
+    public final Status status;
+    public final String error;
+
+    public FulfilmentAssignmentResult(FulfilmentAssignment assignment, Status status, String error) {
+        this.assignment = assignment;
+        this.status = status;
+        this.error = error;
+    }
+}
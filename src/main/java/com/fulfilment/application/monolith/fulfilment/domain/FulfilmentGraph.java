@@ -0,0 +1,271 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import com.fulfilment.application.monolith.common.concurrent.LazyLoad;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.FulfilmentAssignmentStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Materialized fulfilment graph: the assignments as adjacency maps keyed by store,
+ * by warehouse and by product, so each traversal is one {@code get} plus a walk over
+ * the edges of its key instead of a scan of {@code fulfilment_assignment}.
+ *
+ * <p>Loaded from the store on first use and kept current by the writers through
+ * {@link #add} and {@link #remove}. A change made inside a transaction is applied once
+ * that transaction commits and dropped if it rolls back. A change arriving before the
+ * load is dropped, the load reads the committed state anyway; a change racing the load
+ * waits for it. Writes of other instances show up when the graph is reloaded, once it is
+ * older than {@code fulfilment.graph.max-age}; the reload builds a new edge set aside,
+ * replays the changes applied meanwhile onto it and then swaps it in.
+ *
+ * <p>Codes are interned once per edge, so a code is dropped from the pool together
+ * with the last edge that refers to it.
+ */
+@ApplicationScoped
+public class FulfilmentGraph {
+
+    private final FulfilmentAssignmentStore source;
+
+    private volatile Edges edges = new Edges();
+
+    // changes applied while a reload reads the store; null outside a reload
+    private Queue<Consumer<Edges>> replay;
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+
+    private final LazyLoad load;
+
+    // null outside a container: changes then apply at once
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
+
+    public FulfilmentGraph(FulfilmentAssignmentStore source) {
+        this(source, Duration.ZERO);
+    }
+
+    @Inject
+    public FulfilmentGraph(FulfilmentAssignmentStore source,
+                           @ConfigProperty(name = "fulfilment.graph.max-age", defaultValue = "PT5M") Duration maxAge) {
+        this.source = source;
+        this.load = new LazyLoad(this::reload, maxAge);
+    }
+
+    public void add(FulfilmentAssignment assignment) {
+        afterCommit(() -> apply(current -> current.index(assignment)));
+    }
+
+    public void addAll(Collection<FulfilmentAssignment> assignments) {
+        afterCommit(() -> apply(current -> assignments.forEach(current::index)));
+    }
+
+    public void remove(FulfilmentAssignment assignment) {
+        afterCommit(() -> apply(current -> current.unindex(assignment)));
+    }
+
+    public void removeAll(Collection<FulfilmentAssignment> assignments) {
+        afterCommit(() -> apply(current -> assignments.forEach(current::unindex)));
+    }
+
+    /**
+     * Products delivered to the store, each with the warehouses fulfilling it
+     */
+    public SortedMap<String, Set<String>> warehousesForStore(String storeId) {
+        load.ensureLoaded();
+        return snapshot(edges.byStore, storeId);
+    }
+
+    /**
+     * Stores fed by the warehouse, each with the products it delivers there
+     */
+    public SortedMap<String, Set<String>> storesServedByWarehouse(String warehouseBusinessUnitCode) {
+        load.ensureLoaded();
+        return snapshot(edges.byWarehouse, warehouseBusinessUnitCode);
+    }
+
+    /**
+     * Stores receiving the product, each with the warehouses it is sourced from
+     */
+    public SortedMap<String, Set<String>> sourcingForProduct(String productId) {
+        load.ensureLoaded();
+        return snapshot(edges.byProduct, productId);
+    }
+
+    /**
+     * Distinct products the warehouse delivers, across all stores; a read-only live view
+     */
+    public Set<String> productsStoredIn(String warehouseBusinessUnitCode) {
+        load.ensureLoaded();
+        Map<String, Set<String>> stocked =
+            warehouseBusinessUnitCode == null ? null : edges.stockedByWarehouse.get(warehouseBusinessUnitCode);
+        return stocked == null ? Collections.emptySet() : Collections.unmodifiableSet(stocked.keySet());
+    }
+
+    private void afterCommit(Runnable change) {
+        if (txRegistry == null || txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            change.run();
+            return;
+        }
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    change.run();
+                }
+            }
+        });
+    }
+
+    // Edge changes are idempotent, so replaying one the reload has already read is harmless
+    private void apply(Consumer<Edges> change) {
+        if (!load.awaitLoaded()) {
+            return;
+        }
+        swap.readLock().lock();
+        try {
+            change.accept(edges);
+            if (replay != null) {
+                replay.add(change);
+            }
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    private void reload() {
+        Queue<Consumer<Edges>> applied = new ConcurrentLinkedQueue<>();
+        swap.writeLock().lock();
+        try {
+            replay = applied;
+        } finally {
+            swap.writeLock().unlock();
+        }
+
+        // the store is read outside the lock, writers only wait for the swap
+        Edges fresh = new Edges();
+        boolean read = false;
+        try {
+            source.getAll().forEach(fresh::index);
+            read = true;
+        } finally {
+            swap.writeLock().lock();
+            try {
+                if (read) {
+                    applied.forEach(change -> change.accept(fresh));
+                    edges = fresh;
+                }
+                replay = null;
+            } finally {
+                swap.writeLock().unlock();
+            }
+        }
+    }
+
+    private static SortedMap<String, Set<String>> snapshot(Map<String, Map<String, Set<String>>> index,
+                                                           String key) {
+        SortedMap<String, Set<String>> result = new TreeMap<>();
+        Map<String, Set<String>> adjacent = key == null ? null : index.get(key);
+        if (adjacent != null) {
+            adjacent.forEach((neighbour, via) -> result.put(neighbour, new TreeSet<>(via)));
+        }
+        return result;
+    }
+
+    int internedCodes() {
+        return edges.codes.size();
+    }
+
+    private static final class Edges {
+
+        final InternedCodes codes = new InternedCodes();
+
+        // store -> product -> warehouses
+        final Map<String, Map<String, Set<String>>> byStore = new ConcurrentHashMap<>();
+        // warehouse -> store -> products
+        final Map<String, Map<String, Set<String>>> byWarehouse = new ConcurrentHashMap<>();
+        // product -> store -> warehouses
+        final Map<String, Map<String, Set<String>>> byProduct = new ConcurrentHashMap<>();
+        // warehouse -> product -> stores
+        final Map<String, Map<String, Set<String>>> stockedByWarehouse = new ConcurrentHashMap<>();
+
+        void index(FulfilmentAssignment assignment) {
+            String store = codes.acquire(assignment.storeId);
+            String product = codes.acquire(assignment.productId);
+            String warehouse = codes.acquire(assignment.warehouseBusinessUnitCode);
+
+            // byStore decides whether the edge is new: a repeated add gives its holds back
+            boolean added = link(byStore, store, product, warehouse);
+            link(byWarehouse, warehouse, store, product);
+            link(byProduct, product, store, warehouse);
+            link(stockedByWarehouse, warehouse, product, store);
+            if (!added) {
+                release(store, product, warehouse);
+            }
+        }
+
+        void unindex(FulfilmentAssignment assignment) {
+            String store = assignment.storeId;
+            String product = assignment.productId;
+            String warehouse = assignment.warehouseBusinessUnitCode;
+
+            boolean removed = unlink(byStore, store, product, warehouse);
+            unlink(byWarehouse, warehouse, store, product);
+            unlink(byProduct, product, store, warehouse);
+            unlink(stockedByWarehouse, warehouse, product, store);
+            if (removed) {
+                release(store, product, warehouse);
+            }
+        }
+
+        private void release(String store, String product, String warehouse) {
+            codes.release(store);
+            codes.release(product);
+            codes.release(warehouse);
+        }
+    }
+
+    // Both levels are changed inside compute(), so an empty entry is dropped atomically
+    // and a concurrent link never adds to a set that is being discarded
+    private static boolean link(Map<String, Map<String, Set<String>>> index, String key, String neighbour,
+                                String via) {
+        boolean[] added = new boolean[1];
+        index.compute(key, (k, edges) -> {
+            Map<String, Set<String>> linked = edges == null ? new ConcurrentHashMap<>() : edges;
+            added[0] = linked.computeIfAbsent(neighbour, n -> ConcurrentHashMap.newKeySet()).add(via);
+            return linked;
+        });
+        return added[0];
+    }
+
+    private static boolean unlink(Map<String, Map<String, Set<String>>> index, String key, String neighbour,
+                                  String via) {
+        boolean[] removed = new boolean[1];
+        index.computeIfPresent(key, (k, edges) -> {
+            edges.computeIfPresent(neighbour, (n, vias) -> {
+                removed[0] = vias.remove(via);
+                return vias.isEmpty() ? null : vias;
+            });
+            return edges.isEmpty() ? null : edges;
+        });
+        return removed[0];
+    }
+}
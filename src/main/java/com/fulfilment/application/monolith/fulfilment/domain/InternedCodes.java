@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe, reference counted intern pool for string codes.
+ *
+ * <p>{@link #acquire} returns the one shared instance of a code and counts the caller
+ * as a holder; {@link #release} drops that hold, and the code leaves the pool with its
+ * last holder, so the pool is sized by the live codes rather than by every code ever seen.
+ */
+public class InternedCodes {
+
+    private final Map<String, Interned> codes = new ConcurrentHashMap<>();
+
+    /**
+     * Canonical instance of the code, held once more
+     */
+    public String acquire(String code) {
+        return codes.compute(code, (k, interned) -> interned == null ? new Interned(k) : interned.hold()).code;
+    }
+
+    /**
+     * Drops one hold on the code; no-op for codes that are not pooled
+     */
+    public void release(String code) {
+        codes.computeIfPresent(code, (k, interned) -> --interned.holders > 0 ? interned : null);
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    // Only read and written inside compute(), which serializes access per code
+    private static final class Interned {
+
+        final String code;
+        int holders = 1;
+
+        Interned(String code) {
+            this.code = code;
+        }
+
+        Interned hold() {
+            holders++;
+            return this;
+        }
+    }
+}
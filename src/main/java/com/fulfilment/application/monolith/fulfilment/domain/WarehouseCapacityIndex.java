@@ -0,0 +1,160 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import com.fulfilment.application.monolith.common.concurrent.LazyLoad;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousesChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Active warehouse units ordered by free capacity ({@code capacity - stock}), overall
+ * and per location, so the roomiest units are read off the head of a sorted set
+ * instead of querying and sorting every warehouse per request.
+ *
+ * <p>Loaded from the warehouse store on first use. Committed warehouse writes are
+ * reported by {@link WarehousesChangedEvent}; their codes are marked stale and re-read
+ * from the store before the next read. Writes of other instances show up when the
+ * index is reloaded, once it is older than {@code fulfilment.capacity-index.max-age};
+ * the reload ranks the units aside and swaps them in, and the codes marked meanwhile
+ * are re-read after it.
+ */
+@ApplicationScoped
+public class WarehouseCapacityIndex {
+
+    public static final Comparator<Unit> ROOMIEST_FIRST = Comparator
+        .comparingInt((Unit unit) -> unit.freeCapacity).reversed()
+        .thenComparing(unit -> unit.businessUnitCode);
+
+    private final WarehouseStore source;
+
+    private volatile Ranking ranking = new Ranking();
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    private final LazyLoad load;
+
+    public WarehouseCapacityIndex(WarehouseStore source) {
+        this(source, Duration.ZERO);
+    }
+
+    @Inject
+    public WarehouseCapacityIndex(WarehouseStore source,
+                                  @ConfigProperty(name = "fulfilment.capacity-index.max-age", defaultValue = "PT5M")
+                                  Duration maxAge) {
+        this.source = source;
+        this.load = new LazyLoad(this::reload, maxAge);
+    }
+
+    void onChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) WarehousesChangedEvent event) {
+        markChanged(event.businessUnitCodes);
+    }
+
+    /**
+     * Marks the units as changed; they are re-read before the next read of the index
+     */
+    public void markChanged(Collection<String> businessUnitCodes) {
+        if (load.awaitLoaded()) {
+            businessUnitCodes.stream().filter(Objects::nonNull).forEach(stale::add);
+        }
+    }
+
+    /**
+     * The active unit with this code, or null
+     */
+    public Unit get(String businessUnitCode) {
+        refresh();
+        return businessUnitCode == null ? null : ranking.byCode.get(businessUnitCode);
+    }
+
+    /**
+     * Active units at the location, or at every location when it is null, roomiest
+     * first. A read-only live view; iterating it while units change is safe.
+     */
+    public Set<Unit> ranked(String location) {
+        refresh();
+        Ranking current = ranking;
+        NavigableSet<Unit> units = location == null ? current.ranked : current.rankedByLocation.get(location);
+        return units == null ? Collections.emptySet() : Collections.unmodifiableSet(units);
+    }
+
+    private void refresh() {
+        load.ensureLoaded();
+        if (!stale.isEmpty()) {
+            // serialized, so two refreshes of one code cannot apply their reads out of order
+            synchronized (this) {
+                Iterator<String> codes = stale.iterator();
+                while (codes.hasNext()) {
+                    String code = codes.next();
+                    codes.remove();
+                    ranking.put(code, source.findByBusinessUnitCode(code));
+                }
+            }
+        }
+    }
+
+    // Holds the monitor, so no refresh writes to the ranking being replaced; codes marked
+    // while the store is read stay stale and are re-read after the swap
+    private synchronized void reload() {
+        Ranking fresh = new Ranking();
+        source.getAllActive().forEach(warehouse -> fresh.put(warehouse.businessUnitCode, warehouse));
+        ranking = fresh;
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static final class Ranking {
+
+        final Map<String, Unit> byCode = new ConcurrentHashMap<>();
+        final NavigableSet<Unit> ranked = new ConcurrentSkipListSet<>(ROOMIEST_FIRST);
+        final Map<String, NavigableSet<Unit>> rankedByLocation = new ConcurrentHashMap<>();
+
+        // Callers are serialized: loads and refreshes hold the index monitor; readers
+        // may briefly miss a unit that is being moved
+        void put(String code, Warehouse warehouse) {
+            Unit previous = byCode.remove(code);
+            if (previous != null) {
+                ranked.remove(previous);
+                rankedByLocation.computeIfPresent(previous.location,
+                    (location, units) -> units.remove(previous) && units.isEmpty() ? null : units);
+            }
+            if (warehouse == null || warehouse.archivedAt != null || warehouse.location == null) {
+                return;
+            }
+
+            Unit unit = new Unit(code, warehouse.location, valueOf(warehouse.capacity) - valueOf(warehouse.stock));
+            byCode.put(code, unit);
+            ranked.add(unit);
+            rankedByLocation.computeIfAbsent(unit.location, location -> new ConcurrentSkipListSet<>(ROOMIEST_FIRST))
+                .add(unit);
+        }
+    }
+
+    public static final class Unit {
+
+        public final String businessUnitCode;
+        public final String location;
+        public final int freeCapacity;
+
+        Unit(String businessUnitCode, String location, int freeCapacity) {
+            this.businessUnitCode = businessUnitCode;
+            this.location = location;
+            this.freeCapacity = freeCapacity;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+/**
+ * A warehouse unit that can take on a product for a store without breaching a
+ * fulfilment limit. {@code servesStore} is set when it already delivers other products
+ * there, so assigning it does not use up one of the store's warehouse slots.
+ */
+public class WarehouseRecommendation {
+
+    public final String businessUnitCode;
+    public final String location;
+    public final int freeCapacity;
+    public final boolean servesStore;
+
+    public WarehouseRecommendation(String businessUnitCode, String location, int freeCapacity, boolean servesStore) {
+        this.businessUnitCode = businessUnitCode;
+        this.location = location;
+        this.freeCapacity = freeCapacity;
+        this.servesStore = servesStore;
+    }
+}
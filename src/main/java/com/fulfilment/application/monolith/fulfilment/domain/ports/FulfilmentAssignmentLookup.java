@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.fulfilment.domain.ports;
+
+import java.util.Set;
+
+/**
+ * Targeted read operations used to evaluate the fulfilment constraints.
+ * Each lookup only returns the rows matching its key, so the cost of a check
+ * depends on the number of matching assignments and not on the table size.
+ */
+public interface FulfilmentAssignmentLookup {
+
+    /**
+     * Whether the exact store/product/warehouse triple is already assigned
+     */
+    boolean exists(String storeId, String productId, String warehouseBusinessUnitCode);
+
+    /**
+     * Distinct warehouses fulfilling the given product for the given store
+     */
+    Set<String> findWarehousesForStoreProduct(String storeId, String productId);
+
+    /**
+     * Distinct warehouses fulfilling any product for the given store
+     */
+    Set<String> findWarehousesForStore(String storeId);
+
+    /**
+     * Distinct products stored in the given warehouse, across all stores
+     */
+    Set<String> findProductsForWarehouse(String warehouseBusinessUnitCode);
+}
@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.fulfilment.domain.ports.FulfilmentAssignmentLookup;
+import java.util.Set;
+
+/**
+ * Evaluates the fulfilment constraints for a single store/product/warehouse triple
+ * using keyed lookups only. Each constraint asks the lookup for the rows matching
+ * its own key (store+product, store, warehouse) instead of scanning every assignment.
+ */
+public class FulfilmentConstraintEngine {
+
+    public static final int MAX_WAREHOUSES_PER_STORE_PRODUCT = 2;
+    public static final int MAX_WAREHOUSES_PER_STORE = 3;
+    public static final int MAX_PRODUCTS_PER_WAREHOUSE = 5;
+
+    /**
+     * Checks whether the triple may be assigned.
+     *
+     * @return {@code true} if the triple is new and satisfies every constraint,
+     *         {@code false} if it is already assigned
+     * @throws ConflictException if a constraint would be violated
+     */
+    public boolean evaluate(FulfilmentAssignmentLookup lookup,
+                            String storeId,
+                            String productId,
+                            String warehouseBusinessUnitCode) {
+
+        // Constraint 1: Each Product → max 2 Warehouses per Store
+        // (the same lookup also answers the duplicate check)
+        Set<String> warehousesForProduct =
+            lookup.findWarehousesForStoreProduct(storeId, productId);
+
+        if (warehousesForProduct.contains(warehouseBusinessUnitCode)) {
+            return false;
+        }
+
+        if (warehousesForProduct.size() >= MAX_WAREHOUSES_PER_STORE_PRODUCT) {
+            throw new ConflictException(
+                AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_PRODUCT);
+        }
+
+        // Constraint 2: Each Store → max 3 Warehouses (allow existing warehouse for this store)
+        Set<String> warehousesForStore = lookup.findWarehousesForStore(storeId);
+
+        if (warehousesForStore.size() >= MAX_WAREHOUSES_PER_STORE
+            && !warehousesForStore.contains(warehouseBusinessUnitCode)) {
+            throw new ConflictException(
+                AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_STORE);
+        }
+
+        // Constraint 3: Each Warehouse → max 5 Products (allow existing product for this warehouse)
+        Set<String> productsInWarehouse =
+            lookup.findProductsForWarehouse(warehouseBusinessUnitCode);
+
+        if (productsInWarehouse.size() >= MAX_PRODUCTS_PER_WAREHOUSE
+            && !productsInWarehouse.contains(productId)) {
+            throw new ConflictException(
+                AppConstants.ERR_ASSIGN_MAX_PRODUCTS_PER_WAREHOUSE);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
+import com.fulfilment.application.monolith.fulfilment.domain.WarehouseCapacityIndex;
+import com.fulfilment.application.monolith.fulfilment.domain.WarehouseRecommendation;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Ranks the active warehouses a product could be assigned to for a store, so callers
+ * pick one that {@link AssignWarehouseToStoreProductUseCase} will accept instead of
+ * guessing and retrying on 409. Reads the in-memory {@link FulfilmentGraph} and
+ * {@link WarehouseCapacityIndex} only; a ranking never touches the database.
+ *
+ * <p>A warehouse is eligible when it has free capacity, does not fulfil the product for
+ * the store yet, and the assignment stays within the limits of
+ * {@link FulfilmentConstraintEngine}. Warehouses already serving the store come first,
+ * as they leave its remaining slots free; within each group the roomiest comes first.
+ */
+@ApplicationScoped
+public class RecommendWarehousesUseCase {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    private final FulfilmentGraph graph;
+    private final WarehouseCapacityIndex capacityIndex;
+
+    public RecommendWarehousesUseCase(
+            FulfilmentGraph graph,
+            WarehouseCapacityIndex capacityIndex) {
+        this.graph = graph;
+        this.capacityIndex = capacityIndex;
+    }
+
+    /**
+     * Up to {@code limit} eligible warehouses, best first, optionally only those at
+     * {@code location}. Empty when the product already has its maximum of warehouses.
+     * The limit is bounded by the caller, see {@code KeysetPaging.resolveLimit}.
+     */
+    public List<WarehouseRecommendation> recommend(String storeId,
+                                                   String productId,
+                                                   String location,
+                                                   int limit) {
+
+        if (storeId == null || productId == null) {
+            throw new ValidationException(AppConstants.ERR_RECOMMENDATION_FIELDS_REQUIRED);
+        }
+
+        SortedMap<String, Set<String>> storeProducts = graph.warehousesForStore(storeId);
+        Set<String> assigned = storeProducts.getOrDefault(productId, Collections.emptySet());
+        if (assigned.size() >= FulfilmentConstraintEngine.MAX_WAREHOUSES_PER_STORE_PRODUCT) {
+            return List.of();
+        }
+
+        Set<String> serving = new HashSet<>();
+        storeProducts.values().forEach(serving::addAll);
+
+        // At most MAX_WAREHOUSES_PER_STORE of these, sorted here
+        List<WarehouseCapacityIndex.Unit> servingUnits = new ArrayList<>();
+        for (String code : serving) {
+            WarehouseCapacityIndex.Unit unit = capacityIndex.get(code);
+            if (unit != null && isEligible(unit, productId, location, assigned)) {
+                servingUnits.add(unit);
+            }
+        }
+        servingUnits.sort(WarehouseCapacityIndex.ROOMIEST_FIRST);
+
+        List<WarehouseRecommendation> recommendations = new ArrayList<>(limit);
+        for (WarehouseCapacityIndex.Unit unit : servingUnits) {
+            if (recommendations.size() == limit) {
+                return recommendations;
+            }
+            recommendations.add(toRecommendation(unit, true));
+        }
+
+        if (serving.size() >= FulfilmentConstraintEngine.MAX_WAREHOUSES_PER_STORE) {
+            return recommendations;
+        }
+
+        // Roomiest first, so the walk stops at the limit or at the first full unit
+        for (WarehouseCapacityIndex.Unit unit : capacityIndex.ranked(location)) {
+            if (recommendations.size() == limit || unit.freeCapacity <= 0) {
+                break;
+            }
+            if (!serving.contains(unit.businessUnitCode) && isEligible(unit, productId, location, assigned)) {
+                recommendations.add(toRecommendation(unit, false));
+            }
+        }
+        return recommendations;
+    }
+
+    private boolean isEligible(WarehouseCapacityIndex.Unit unit,
+                               String productId,
+                               String location,
+                               Set<String> assigned) {
+
+        if (unit.freeCapacity <= 0
+            || assigned.contains(unit.businessUnitCode)
+            || (location != null && !location.equals(unit.location))) {
+            return false;
+        }
+
+        Set<String> stocked = graph.productsStoredIn(unit.businessUnitCode);
+        return stocked.size() < FulfilmentConstraintEngine.MAX_PRODUCTS_PER_WAREHOUSE
+            || stocked.contains(productId);
+    }
+
+    private static WarehouseRecommendation toRecommendation(WarehouseCapacityIndex.Unit unit, boolean servesStore) {
+        return new WarehouseRecommendation(unit.businessUnitCode, unit.location, unit.freeCapacity, servesStore);
+    }
+}
@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseArchivedEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+
+/**
+ * Drops the assignments of an archived warehouse in the archive's own transaction: an
+ * archived unit can no longer fulfil anything, its rows would only hold on to store
+ * and product slots. Both commit or neither does, and the warehouse stays locked
+ * against new assignments until they do. The graph only drops the rows once the archive
+ * commits; a rollback still re-reads them into it, for a store that puts its rows back
+ * only then.
+ */
+@ApplicationScoped
+public class WarehouseArchiveCascade {
+
+    private static final Logger LOGGER = Logger.getLogger(WarehouseArchiveCascade.class);
+
+    private final AssignWarehouseToStoreProductUseCase useCase;
+
+    public WarehouseArchiveCascade(AssignWarehouseToStoreProductUseCase useCase) {
+        this.useCase = useCase;
+    }
+
+    void onArchived(@Observes WarehouseArchivedEvent event) {
+        List<FulfilmentAssignment> removed = useCase.unassignWarehouse(event.businessUnitCode);
+        LOGGER.debugf("Released %d fulfilment assignments of archived warehouse %s",
+            removed.size(), event.businessUnitCode);
+    }
+
+    void onArchiveRolledBack(@Observes(during = TransactionPhase.AFTER_FAILURE) WarehouseArchivedEvent event) {
+        useCase.restoreWarehouse(event.businessUnitCode);
+        LOGGER.debugf("Restored fulfilment assignments of warehouse %s after its archive rolled back",
+            event.businessUnitCode);
+    }
+}
@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Reads locations from a CSV file: {@code identification,maxNumberOfWarehouses,maxCapacity}
+ * per line, blank lines and {@code #} comments ignored.
+ *
+ * <p>The file at {@code location.source.file} is read when configured, so locations can be
+ * edited on disk and picked up by {@link LocationGateway#reload()} without a redeploy;
+ * otherwise the copy bundled on the classpath is used.
+ */
+@ApplicationScoped
+@DefaultBean
+public class BundledLocationSource implements LocationSource {
+
+  static final String DEFAULT_RESOURCE = "locations.csv";
+
+  private static final String COMMENT_PREFIX = "#";
+  private static final String SEPARATOR = ",";
+  private static final int FIELD_COUNT = 3;
+
+  private final String resource;
+
+  @ConfigProperty(name = "location.source.file")
+  Optional<String> file = Optional.empty();
+
+  public BundledLocationSource() {
+    this(DEFAULT_RESOURCE);
+  }
+
+  public BundledLocationSource(String resource) {
+    this.resource = resource;
+  }
+
+  /**
+   * Source reading the given file instead of the bundled resource
+   */
+  public static BundledLocationSource fromFile(String file) {
+    BundledLocationSource source = new BundledLocationSource();
+    source.file = Optional.of(file);
+    return source;
+  }
+
+  @Override
+  public List<Location> load() {
+    String origin = file.orElse(resource);
+    try (InputStream in = open()) {
+      return read(in, origin);
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format(AppConstants.ERR_LOCATION_SOURCE_UNREADABLE, origin), e);
+    }
+  }
+
+  private InputStream open() throws IOException {
+    if (file.isPresent()) {
+      try {
+        return Files.newInputStream(Path.of(file.get()));
+      } catch (NoSuchFileException e) {
+        throw new IllegalStateException(String.format(AppConstants.ERR_LOCATION_SOURCE_UNREADABLE, file.get()), e);
+      }
+    }
+    InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource);
+    if (in == null) {
+      in = BundledLocationSource.class.getClassLoader().getResourceAsStream(resource);
+    }
+    if (in == null) {
+      throw new IllegalStateException(String.format(AppConstants.ERR_LOCATION_SOURCE_UNREADABLE, resource));
+    }
+    return in;
+  }
+
+  private static List<Location> read(InputStream in, String origin) throws IOException {
+    List<Location> locations = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith(COMMENT_PREFIX)) {
+          continue;
+        }
+        locations.add(parse(trimmed, origin, lineNumber));
+      }
+    }
+    return locations;
+  }
+
+  private static Location parse(String line, String origin, int lineNumber) {
+    String[] fields = line.split(SEPARATOR);
+    if (fields.length != FIELD_COUNT || fields[0].isBlank()) {
+      throw new IllegalStateException(
+          String.format(AppConstants.ERR_LOCATION_SOURCE_INVALID, origin, lineNumber, line));
+    }
+    try {
+      return new Location(
+          fields[0].trim(), Integer.parseInt(fields[1].trim()), Integer.parseInt(fields[2].trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException(
+          String.format(AppConstants.ERR_LOCATION_SOURCE_INVALID, origin, lineNumber, line), e);
+    }
+  }
+}
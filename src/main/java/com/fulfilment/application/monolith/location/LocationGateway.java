@@ -5,44 +5,67 @@ import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
+import jakarta.inject.Inject;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final String LOCATION_ZWOLLE_001 = "ZWOLLE-001";
-  private static final String LOCATION_ZWOLLE_002 = "ZWOLLE-002";
-  private static final String LOCATION_AMSTERDAM_001 = "AMSTERDAM-001";
-  private static final String LOCATION_AMSTERDAM_002 = "AMSTERDAM-002";
-  private static final String LOCATION_TILBURG_001 = "TILBURG-001";
-  private static final String LOCATION_HELMOND_001 = "HELMOND-001";
-  private static final String LOCATION_EINDHOVEN_001 = "EINDHOVEN-001";
-  private static final String LOCATION_VETSBY_001 = "VETSBY-001";
-
-  private static final List<Location> locations = new ArrayList<>();
-
-  static {
-    locations.add(new Location(LOCATION_ZWOLLE_001, 1, 40));
-    locations.add(new Location(LOCATION_ZWOLLE_002, 2, 50));
-    locations.add(new Location(LOCATION_AMSTERDAM_001, 5, 100));
-    locations.add(new Location(LOCATION_AMSTERDAM_002, 3, 75));
-    locations.add(new Location(LOCATION_TILBURG_001, 1, 40));
-    locations.add(new Location(LOCATION_HELMOND_001, 1, 45));
-    locations.add(new Location(LOCATION_EINDHOVEN_001, 2, 70));
-    locations.add(new Location(LOCATION_VETSBY_001, 1, 90));
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class);
+  private static final String LOG_RELOADED = "Loaded %d locations";
+  private static final String LOG_DUPLICATE = "Duplicate location %s in source, keeping the last definition";
+
+  private final LocationSource source;
+
+  // Immutable identifier index; reload builds a new one and swaps the reference, so
+  // readers always see one complete snapshot and never take a lock
+  private volatile Map<String, Location> locationsByIdentifier = Map.of();
+
+  public LocationGateway() {
+    this(new BundledLocationSource());
+  }
+
+  @Inject
+  public LocationGateway(LocationSource source) {
+    this.source = source;
+    reload();
   }
 
   @Override
   public Location resolveByIdentifier(String identifier) {
-	  return locations.stream()
-			  .filter(location -> location.identification.equals(identifier))
-              .findFirst()
-              .orElseThrow(() ->
-            new NotFoundException(
-              String.format(AppConstants.ERR_LOCATION_NOT_FOUND, identifier)
-            )
-              );
+    Location location = identifier == null ? null : locationsByIdentifier.get(identifier);
+    if (location == null) {
+      throw new NotFoundException(String.format(AppConstants.ERR_LOCATION_NOT_FOUND, identifier));
+    }
+    return location;
   }
 
+  /**
+   * Every location of the current snapshot
+   */
+  public Collection<Location> all() {
+    return locationsByIdentifier.values();
+  }
+
+  /**
+   * Re-reads the source and atomically replaces the index. If the source fails the
+   * current snapshot stays in place and the exception propagates.
+   */
+  public int reload() {
+    List<Location> loaded = source.load();
+    Map<String, Location> next = new HashMap<>(loaded.size() * 2);
+    for (Location location : loaded) {
+      if (next.put(location.identification, location) != null) {
+        LOGGER.warnf(LOG_DUPLICATE, location.identification);
+      }
+    }
+
+    locationsByIdentifier = Map.copyOf(next);
+    LOGGER.debugf(LOG_RELOADED, next.size());
+    return next.size();
+  }
 }
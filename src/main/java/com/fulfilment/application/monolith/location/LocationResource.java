@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.UnavailableException;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Operator endpoint: re-reads the location source, so edits to {@code location.source.file}
+ * take effect without a redeploy. Callers must send {@code location.reload.token} in the
+ * {@value #HEADER_OPERATOR_TOKEN} header; without a configured token every call is refused.
+ * A failing source keeps the current snapshot and maps to a 503.
+ */
+@Path(LocationResource.PATH_LOCATION)
+@Produces(MediaType.APPLICATION_JSON)
+public class LocationResource {
+
+  private static final Logger LOGGER = Logger.getLogger(LocationResource.class);
+  private static final String LOG_RELOAD_FAILED = "Location reload failed, keeping the current locations";
+
+  static final String PATH_LOCATION = "location";
+  static final String PATH_RELOAD = "reload";
+  static final String JSON_LOCATIONS = "locations";
+  static final String HEADER_OPERATOR_TOKEN = "X-Operator-Token";
+
+  private final LocationGateway gateway;
+
+  @ConfigProperty(name = "location.reload.token")
+  Optional<String> token = Optional.empty();
+
+  public LocationResource(LocationGateway gateway) {
+    this.gateway = gateway;
+  }
+
+  @POST
+  @Path(PATH_RELOAD)
+  public Map<String, Integer> reload(@HeaderParam(HEADER_OPERATOR_TOKEN) String presented) {
+    if (!authorized(presented)) {
+      throw new ForbiddenException();
+    }
+    try {
+      return Map.of(JSON_LOCATIONS, gateway.reload());
+    } catch (IllegalStateException | UncheckedIOException e) {
+      // missing, unreadable and malformed files all leave the snapshot in place
+      LOGGER.warn(LOG_RELOAD_FAILED, e);
+      throw new UnavailableException(AppConstants.ERR_LOCATION_RELOAD_FAILED);
+    }
+  }
+
+  private boolean authorized(String presented) {
+    if (token.isEmpty() || token.get().isEmpty() || presented == null) {
+      return false;
+    }
+    // constant time, so the comparison does not leak how much of the token matched
+    return MessageDigest.isEqual(
+        token.get().getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+  }
+}
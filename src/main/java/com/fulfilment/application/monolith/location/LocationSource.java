@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.List;
+
+/**
+ * Supplies the full set of known locations. {@link LocationGateway} calls it on
+ * startup and on every reload; provide another bean of this type (e.g. table-backed)
+ * to replace the bundled file.
+ */
+public interface LocationSource {
+
+  List<Location> load();
+}
@@ -1,17 +1,26 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.common.AppConstants;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import java.math.BigDecimal;
 
 @Entity
 @Cacheable
 public class Product {
 
-  @Id @GeneratedValue public Long id;
+  static final String SEQUENCE_NAME = "product_seq";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+  @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME,
+      allocationSize = AppConstants.ID_ALLOCATION_SIZE)
+  public Long id;
 
   @Column(length = 40, unique = true)
   public String name;
@@ -1,11 +1,12 @@
 package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.common.rest.NdjsonStreaming;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -18,12 +19,11 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.util.List;
-import org.jboss.logging.Logger;
 
 @Path(ProductResource.PATH_PRODUCT)
 @ApplicationScoped
@@ -33,20 +33,33 @@ public class ProductResource {
 
   @Inject ProductRepository productRepository;
 
+  @Inject ObjectMapper objectMapper;
+
   public static final String PATH_PRODUCT = "product";
   private static final String PATH_ID = "{id}";
   private static final String PARAM_ID = "id";
   private static final String SORT_NAME = "name";
-  private static final String LOG_REQUEST_FAILED = "Failed to handle request";
-  private static final String JSON_EXCEPTION_TYPE = "exceptionType";
-  private static final String JSON_CODE = "code";
-  private static final String JSON_ERROR = "error";
+  private static final String QUERY_STREAM = "from Product order by id";
 
-  private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
+  @GET
+  public Response get(@QueryParam(KeysetPaging.PARAM_AFTER) Long after,
+      @QueryParam(KeysetPaging.PARAM_LIMIT) Integer limit) {
+    if (!KeysetPaging.isRequested(after, limit)) {
+      return Response.ok(productRepository.listAll(Sort.by(SORT_NAME))).build();
+    }
+
+    int pageSize = KeysetPaging.resolveLimit(limit);
+    List<Product> page = productRepository.find(KeysetPaging.QUERY_AFTER_ID, Sort.by(KeysetPaging.SORT_ID),
+        KeysetPaging.resolveAfter(after)).page(0, pageSize).list();
+    return KeysetPaging.respond(page, pageSize, product -> product.id, page);
+  }
 
   @GET
-  public List<Product> get() {
-    return productRepository.listAll(Sort.by(SORT_NAME));
+  @Path(NdjsonStreaming.PATH_STREAM)
+  @Produces(NdjsonStreaming.MEDIA_TYPE)
+  public StreamingOutput stream() {
+    return NdjsonStreaming.scroll(productRepository.getEntityManager(), objectMapper, QUERY_STREAM,
+        Product.class, product -> product);
   }
 
   @GET
@@ -125,34 +138,4 @@ public class ProductResource {
     productRepository.delete(entity);
     return Response.status(204).build();
   }
-
-  @Provider
-  public static class ErrorMapper implements ExceptionMapper<Exception> {
-
-    @Inject ObjectMapper objectMapper;
-
-    @Override
-    public Response toResponse(Exception exception) {
-      LOGGER.error(LOG_REQUEST_FAILED, exception);
-
-      int code = 500;
-      if (exception instanceof ValidationException) {
-        code = 400;
-      } else if (exception instanceof ConflictException) {
-        code = 409;
-      } else if (exception instanceof NotFoundException) {
-        code = 404;
-      }
-
-      ObjectNode exceptionJson = objectMapper.createObjectNode();
-      exceptionJson.put(JSON_EXCEPTION_TYPE, exception.getClass().getName());
-      exceptionJson.put(JSON_CODE, code);
-
-      if (exception.getMessage() != null) {
-        exceptionJson.put(JSON_ERROR, exception.getMessage());
-      }
-
-      return Response.status(code).entity(exceptionJson).build();
-    }
-  }
 }
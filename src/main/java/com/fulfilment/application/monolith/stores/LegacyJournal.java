@@ -0,0 +1,242 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Append-only legacy record journal made of pre-allocated, memory-mapped segments.
+ *
+ * <p>Records are rendered straight into the mapped segment (ASCII fast path, no
+ * intermediate strings) as one line each, in the same text as the temp-file mode.
+ * A segment that cannot fit the next record is forced to disk and the journal rolls
+ * over to a fresh one. Durability is group-committed: the mapping is forced after
+ * every {@code groupCommitRecords} appends and whenever a caller asks via {@link #sync()}.
+ * Control characters in text are written as spaces, so a record never contains a zero
+ * byte or a line break of its own. Unused segment space stays zero-filled: a reopened
+ * journal resumes after the last complete line and clears any torn record behind it.
+ * Not intended for concurrent writers across processes; appends within one
+ * process are serialized.
+ */
+public class LegacyJournal implements Closeable {
+
+  static final String SEGMENT_PREFIX = "legacy-journal-";
+  static final String SEGMENT_SUFFIX = ".log";
+  private static final String SEGMENT_NAME_FORMAT = SEGMENT_PREFIX + "%020d" + SEGMENT_SUFFIX;
+
+  private static final byte[] CREATED = "Store created. [ name = ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] DELETED = "Store deleted. [ name = ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] KEY_OPEN = "[ key = ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] KEY_CLOSE = " ] ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] STOCK = " ] [ items on stock = ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] RECORD_END = " ]\n".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] NULL_TEXT = "null".getBytes(StandardCharsets.US_ASCII);
+  private static final int MAX_INT_DIGITS = 11;
+  private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final int groupCommitRecords;
+
+  private long segmentIndex;
+  private MappedByteBuffer segment;
+  private int unsynced;
+  private long appended;
+  private long rotations;
+
+  public LegacyJournal(Path directory, int segmentBytes, int groupCommitRecords) throws IOException {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.groupCommitRecords = Math.max(1, groupCommitRecords);
+    Files.createDirectories(directory);
+    openLatestSegment();
+  }
+
+  /**
+   * Appends one record; {@code key} may be null for records without an idempotency key.
+   */
+  public synchronized void append(StoreChangedEvent.ChangeType changeType, String key, String name,
+      int quantityProductsInStock) throws IOException {
+    ensureOpen();
+    int bound = CREATED.length + STOCK.length + RECORD_END.length + MAX_INT_DIGITS
+        + (key == null ? 0 : KEY_OPEN.length + KEY_CLOSE.length + key.length() * MAX_UTF8_BYTES_PER_CHAR)
+        + (name == null ? NULL_TEXT.length : name.length() * MAX_UTF8_BYTES_PER_CHAR);
+    if (bound > segmentBytes) {
+      throw new IOException("Legacy record of up to " + bound + " bytes exceeds segment size " + segmentBytes);
+    }
+    if (segment.remaining() < bound) {
+      rotate();
+    }
+
+    if (key != null) {
+      segment.put(KEY_OPEN);
+      putText(key);
+      segment.put(KEY_CLOSE);
+    }
+    segment.put(changeType == StoreChangedEvent.ChangeType.DELETED ? DELETED : CREATED);
+    putText(name);
+    segment.put(STOCK);
+    putInt(quantityProductsInStock);
+    segment.put(RECORD_END);
+
+    appended++;
+    if (++unsynced >= groupCommitRecords) {
+      force();
+    }
+  }
+
+  /**
+   * Forces everything appended so far to disk.
+   */
+  public synchronized void sync() {
+    if (segment != null && unsynced > 0) {
+      force();
+    }
+  }
+
+  public synchronized long appendedCount() {
+    return appended;
+  }
+
+  public synchronized long rotationCount() {
+    return rotations;
+  }
+
+  synchronized Path currentSegmentPath() {
+    return segmentPath(segmentIndex);
+  }
+
+  synchronized int currentPosition() {
+    return segment.position();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (segment == null) {
+      return;
+    }
+    force();
+    segment = null;
+  }
+
+  private void putText(String text) {
+    if (text == null) {
+      segment.put(NULL_TEXT);
+      return;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c < 0x80) {
+        // one record per line and no zero bytes: fold line breaks, NUL and other controls
+        segment.put(isControl(c) ? (byte) ' ' : (byte) c);
+      } else {
+        // rare non-ASCII tail: encode the rest in one go; multi-byte UTF-8 never holds 0x00 or 0x0A
+        segment.put(foldControls(text.substring(i)).getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+    }
+  }
+
+  private static boolean isControl(char c) {
+    return c < 0x20 || c == 0x7F;
+  }
+
+  private static String foldControls(String text) {
+    StringBuilder folded = new StringBuilder(text);
+    for (int i = 0; i < folded.length(); i++) {
+      if (isControl(folded.charAt(i))) {
+        folded.setCharAt(i, ' ');
+      }
+    }
+    return folded.toString();
+  }
+
+  private void putInt(int value) {
+    if (value == Integer.MIN_VALUE) {
+      segment.put(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+      return;
+    }
+    if (value < 0) {
+      segment.put((byte) '-');
+      value = -value;
+    }
+    int divisor = 1;
+    while (value / divisor >= 10) {
+      divisor *= 10;
+    }
+    while (divisor > 0) {
+      segment.put((byte) ('0' + value / divisor % 10));
+      divisor /= 10;
+    }
+  }
+
+  private void force() {
+    segment.force();
+    unsynced = 0;
+  }
+
+  private void rotate() throws IOException {
+    force();
+    rotations++;
+    map(segmentIndex + 1);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (segment == null) {
+      throw new IOException("Legacy journal is closed");
+    }
+  }
+
+  private void openLatestSegment() throws IOException {
+    long latest = 0;
+    try (Stream<Path> files = Files.list(directory)) {
+      latest = files
+          .map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+          .mapToLong(name -> Long.parseLong(
+              name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+          .max()
+          .orElse(0);
+    }
+    map(latest);
+
+    // resume after the last complete record: find the last written byte, then the
+    // line break ending the record it belongs to; anything after it is a torn append
+    int written = segment.limit();
+    while (written > 0 && segment.get(written - 1) == 0) {
+      written--;
+    }
+    int end = written;
+    while (end > 0 && segment.get(end - 1) != '\n') {
+      end--;
+    }
+    for (int i = end; i < written; i++) {
+      segment.put(i, (byte) 0);
+    }
+    segment.position(end);
+    if (written > end) {
+      force();
+    }
+  }
+
+  private void map(long index) throws IOException {
+    // the mapping stays valid after the file is closed
+    try (RandomAccessFile file = new RandomAccessFile(segmentPath(index).toFile(), "rw")) {
+      if (file.length() < segmentBytes) {
+        file.setLength(segmentBytes);
+      }
+      segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+    segmentIndex = index;
+  }
+
+  private Path segmentPath(long index) {
+    return directory.resolve(String.format(SEGMENT_NAME_FORMAT, index));
+  }
+}
@@ -1,84 +1,88 @@
 package com.fulfilment.application.monolith.stores;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
   private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class);
-  private static final String LOG_CREATE_FAIL = "Failed to create legacy record for store=%s";
-  private static final String LOG_UPDATE_FAIL = "Failed to update legacy record for store=%s";
-  private static final String LOG_DELETE_FAIL = "Failed to delete legacy record for store=%s";
-  private static final String LOG_WRITE_NULL = "writeToFile called with null store";
   private static final String LOG_TEMP_CREATED = "Temporary file created at: %s";
   private static final String LOG_DATA_WRITTEN = "Data written to temporary file.";
   private static final String LOG_DATA_READ = "Data read from temporary file: %s";
   private static final String LOG_TEMP_DELETED = "Temporary file deleted: %s";
-  private static final String STORE_NULL_NAME = "<null>";
-  private static final String DEFAULT_STORE_NAME = "store";
-  private static final String SAFE_NAME_REGEX = "[^a-zA-Z0-9_-]";
-  private static final String SAFE_NAME_REPLACEMENT = "_";
-  private static final String PREFIX_STORE = "store-";
-  private static final String PREFIX_TMP = "tmp";
+  private static final String PREFIX_BATCH = "store-batch-";
   private static final String TEMP_FILE_SUFFIX = ".txt";
   private static final String LEGACY_CONTENT_TEMPLATE =
       "Store created. [ name = %s ] [ items on stock = %d ]";
+  private static final String LEGACY_KEY_PREFIX = "[ key = %s ] ";
   private static final String LEGACY_DELETE_TEMPLATE =
       "Store deleted. [ name = %s ] [ items on stock = %d ]";
-
-  public void createStoreOnLegacySystem(Store store) {
-    // emulate a legacy side-effect; failures are logged but don't bubble up
-    try {
-      writeToFile(store);
-    } catch (IOException e) {
-      LOGGER.errorf(e, LOG_CREATE_FAIL, store == null ? STORE_NULL_NAME : store.name);
-    }
-  }
-
-  public void updateStoreOnLegacySystem(Store store) {
-    try {
-      writeToFile(store);
-    } catch (IOException e) {
-      LOGGER.errorf(e, LOG_UPDATE_FAIL, store == null ? STORE_NULL_NAME : store.name);
-    }
-  }
-
-  public void deleteStoreOnLegacySystem(Store store) {
-    try {
-      deleteFromLegacy(store);
-    } catch (IOException e) {
-      LOGGER.errorf(e, LOG_DELETE_FAIL, store == null ? STORE_NULL_NAME : store.name);
+  private static final String LOG_JOURNAL_OPENED = "Legacy journal opened in %s";
+  private static final String LOG_JOURNAL_CLOSE_FAIL = "Failed to close legacy journal";
+  private static final String JOURNAL_DEFAULT_DIRECTORY = "legacy-store-journal";
+
+  static final String MODE_TEMP_FILE = "temp-file";
+  static final String MODE_JOURNAL = "journal";
+
+  // temp-file: one short-lived file per batch (original behaviour);
+  // journal: append to the memory-mapped LegacyJournal
+  @ConfigProperty(name = "legacy.store-manager.mode", defaultValue = MODE_TEMP_FILE)
+  String mode = MODE_TEMP_FILE;
+
+  @ConfigProperty(name = "legacy.store-manager.journal.directory")
+  Optional<String> journalDirectory = Optional.empty();
+
+  @ConfigProperty(name = "legacy.store-manager.journal.segment-size", defaultValue = "67108864")
+  int journalSegmentSize = 64 * 1024 * 1024;
+
+  @ConfigProperty(name = "legacy.store-manager.journal.group-commit-records", defaultValue = "256")
+  int journalGroupCommitRecords = 256;
+
+  private LegacyJournal journal;
+
+  /**
+   * Writes a batch of outbox entries in a single legacy round trip (one file instead
+   * of one per change). Each record carries its idempotency key so the legacy side
+   * can ignore a redelivery. Failures propagate so the caller can retry. In journal
+   * mode the batch is one group commit: the records are appended and forced to disk
+   * together before returning.
+   */
+  public void syncBatchOnLegacySystem(List<StoreOutboxEntry> entries) throws IOException {
+    if (entries == null || entries.isEmpty()) {
+      return;
     }
-  }
 
-  private void writeToFile(Store store) throws IOException {
-    if (store == null) {
-      LOGGER.warn(LOG_WRITE_NULL);
+    if (isJournalMode()) {
+      LegacyJournal target = journal();
+      for (StoreOutboxEntry entry : entries) {
+        target.append(entry.changeType, entry.idempotencyKey, entry.storeName, entry.quantityProductsInStock);
+      }
+      target.sync();
       return;
     }
 
-    // make a safe prefix for the temporary file name (must be at least 3 chars)
-    String safeName = store.name == null
-      ? DEFAULT_STORE_NAME
-      : store.name.replaceAll(SAFE_NAME_REGEX, SAFE_NAME_REPLACEMENT);
-    String prefix = PREFIX_STORE + (safeName.length() >= 3
-      ? safeName.substring(0, Math.min(10, safeName.length()))
-      : PREFIX_TMP);
+    StringBuilder content = new StringBuilder();
+    for (StoreOutboxEntry entry : entries) {
+      String template = entry.changeType == StoreChangedEvent.ChangeType.DELETED
+          ? LEGACY_DELETE_TEMPLATE
+          : LEGACY_CONTENT_TEMPLATE;
+      content.append(String.format(LEGACY_KEY_PREFIX, entry.idempotencyKey))
+          .append(String.format(template, entry.storeName, entry.quantityProductsInStock))
+          .append(System.lineSeparator());
+    }
 
-    Path tempFile = Files.createTempFile(prefix, TEMP_FILE_SUFFIX);
+    Path tempFile = Files.createTempFile(PREFIX_BATCH, TEMP_FILE_SUFFIX);
     LOGGER.debugf(LOG_TEMP_CREATED, tempFile.toString());
 
-    String content = String.format(
-      LEGACY_CONTENT_TEMPLATE,
-      store.name,
-      store.quantityProductsInStock
-    );
-
     Files.writeString(tempFile, content, StandardCharsets.UTF_8);
     LOGGER.debug(LOG_DATA_WRITTEN);
 
@@ -89,36 +93,30 @@ public class LegacyStoreManagerGateway {
     LOGGER.debugf(LOG_TEMP_DELETED, tempFile.toString());
   }
 
-  private void deleteFromLegacy(Store store) throws IOException {
-    if (store == null) {
-      LOGGER.warn(LOG_WRITE_NULL);
+  @PreDestroy
+  synchronized void closeJournal() {
+    if (journal == null) {
       return;
     }
+    try {
+      journal.close();
+    } catch (IOException e) {
+      LOGGER.warn(LOG_JOURNAL_CLOSE_FAIL, e);
+    }
+    journal = null;
+  }
 
-    // make a safe prefix for the temporary file name (must be at least 3 chars)
-    String safeName = store.name == null
-      ? DEFAULT_STORE_NAME
-      : store.name.replaceAll(SAFE_NAME_REGEX, SAFE_NAME_REPLACEMENT);
-    String prefix = PREFIX_STORE + (safeName.length() >= 3
-      ? safeName.substring(0, Math.min(10, safeName.length()))
-      : PREFIX_TMP);
-
-    Path tempFile = Files.createTempFile(prefix, TEMP_FILE_SUFFIX);
-    LOGGER.debugf(LOG_TEMP_CREATED, tempFile.toString());
-
-    String content = String.format(
-      LEGACY_DELETE_TEMPLATE,
-      store.name,
-      store.quantityProductsInStock
-    );
-
-    Files.writeString(tempFile, content, StandardCharsets.UTF_8);
-    LOGGER.debug(LOG_DATA_WRITTEN);
-
-    String readContent = Files.readString(tempFile, StandardCharsets.UTF_8);
-    LOGGER.debugf(LOG_DATA_READ, readContent);
+  private boolean isJournalMode() {
+    return MODE_JOURNAL.equals(mode);
+  }
 
-    Files.deleteIfExists(tempFile);
-    LOGGER.debugf(LOG_TEMP_DELETED, tempFile.toString());
+  private synchronized LegacyJournal journal() throws IOException {
+    if (journal == null) {
+      Path directory = Path.of(journalDirectory.orElseGet(() ->
+          Path.of(System.getProperty("java.io.tmpdir"), JOURNAL_DEFAULT_DIRECTORY).toString()));
+      journal = new LegacyJournal(directory, journalSegmentSize, journalGroupCommitRecords);
+      LOGGER.infof(LOG_JOURNAL_OPENED, directory);
+    }
+    return journal;
   }
 }
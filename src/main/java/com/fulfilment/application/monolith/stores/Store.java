@@ -1,13 +1,27 @@
 package com.fulfilment.application.monolith.stores;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import com.fulfilment.application.monolith.common.AppConstants;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 // Note: removed second-level caching to avoid stale read-after-delete in tests
 // (L2 cache could return deleted entities in some test scenarios).
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
 @Entity
-public class Store extends PanacheEntity {
+public class Store extends PanacheEntityBase {
+
+  static final String SEQUENCE_NAME = "store_seq";
+
+  // Declared here rather than inherited from PanacheEntity so the sequence block size is explicit
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+  @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME,
+      allocationSize = AppConstants.ID_ALLOCATION_SIZE)
+  public Long id;
 
   @Column(length = 40, unique = true)
   public String name;
@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Reacts to committed store changes off the committing thread.
+ *
+ * <p>The first commit for a store opens a coalescing window; further commits for the
+ * same store inside it are folded in. When the window closes, the relay partition that
+ * owns the store is woken once, so the whole burst reaches the relay together and
+ * goes out as a single coalesced legacy write. The {@code window} timer records how
+ * long each window stayed open (the configured window plus scheduling delay); the
+ * end-to-end commit-to-delivered latency is recorded by {@link StoreOutboxRelay}.
+ */
+@Startup
+@ApplicationScoped
+public class StoreChangeDispatcher {
+
+  static final String METRIC_PREFIX = "store.change.dispatch.";
+  private static final String THREAD_NAME = "store-change-dispatch";
+
+  @ConfigProperty(name = "store.change.dispatch.coalesce-window", defaultValue = "PT0.05S")
+  Duration coalesceWindow;
+
+  @Inject
+  StoreOutboxRelay outboxRelay;
+
+  @Inject
+  MeterRegistry meterRegistry;
+
+  // store id -> nanoTime of the first commit in its open window
+  private final Map<Long, Long> windowOpenedAt = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService executor;
+  private Timer window;
+  private Counter dispatched;
+  private Counter coalesced;
+
+  @PostConstruct
+  void init() {
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, THREAD_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+    window = Timer.builder(METRIC_PREFIX + "window").register(meterRegistry);
+    dispatched = Counter.builder(METRIC_PREFIX + "dispatched").register(meterRegistry);
+    coalesced = Counter.builder(METRIC_PREFIX + "coalesced").register(meterRegistry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  void onCommitted(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreChangedEvent event) {
+    if (event.getStore() == null || event.getStore().id == null) {
+      return;
+    }
+    Long storeId = event.getStore().id;
+    if (windowOpenedAt.putIfAbsent(storeId, System.nanoTime()) != null) {
+      coalesced.increment();
+      return;
+    }
+
+    try {
+      executor.schedule(() -> dispatch(storeId), coalesceWindow.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // shutting down: the relay's next poll still delivers the entry
+      windowOpenedAt.remove(storeId);
+    }
+  }
+
+  int openWindows() {
+    return windowOpenedAt.size();
+  }
+
+  private void dispatch(Long storeId) {
+    Long openedAt = windowOpenedAt.remove(storeId);
+    outboxRelay.wakeUp(storeId);
+    dispatched.increment();
+    if (openedAt != null) {
+      window.record(System.nanoTime() - openedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -7,7 +7,8 @@ public class StoreChangedEvent {
 
     public enum ChangeType {
         CREATED,
-        UPDATED
+        UPDATED,
+        DELETED
     }
 
     public StoreChangedEvent(Store store, ChangeType changeType) {
@@ -0,0 +1,91 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A store change waiting to be delivered to the legacy system. Written in the same
+ * transaction as the store change itself, so a committed change always has its entry
+ * and a rolled-back one never does; {@link StoreOutboxRelay} delivers it afterwards.
+ * An entry the legacy side keeps rejecting is parked ({@code parkedAt}) and left for
+ * an operator; delivered entries are purged once past the relay's retention.
+ */
+@Entity
+@Table(name = StoreOutboxEntry.TABLE_NAME, indexes = {
+    @Index(name = "idx_store_outbox_pending", columnList = "deliveredAt, parkedAt, nextAttemptAt")
+})
+public class StoreOutboxEntry extends PanacheEntityBase {
+
+  static final String TABLE_NAME = "store_outbox";
+  static final String SEQUENCE_NAME = "store_outbox_seq";
+  private static final int ERROR_MAX_LENGTH = 500;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+  @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME,
+      allocationSize = AppConstants.ID_ALLOCATION_SIZE)
+  public Long id;
+
+  // sent with every delivery attempt so the legacy side can drop redeliveries
+  @Column(length = 36, nullable = false, unique = true)
+  public String idempotencyKey;
+
+  @Column(nullable = false)
+  public Long storeId;
+
+  @Column(length = 40)
+  public String storeName;
+
+  public int quantityProductsInStock;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  public StoreChangedEvent.ChangeType changeType;
+
+  public LocalDateTime createdAt;
+
+  public int attempts;
+
+  public LocalDateTime nextAttemptAt;
+
+  public LocalDateTime deliveredAt;
+
+  // dead letter: set once delivery has failed max-attempts times, never retried after
+  public LocalDateTime parkedAt;
+
+  @Column(length = ERROR_MAX_LENGTH)
+  public String lastError;
+
+  public StoreOutboxEntry() {}
+
+  public static StoreOutboxEntry of(Store store, StoreChangedEvent.ChangeType changeType) {
+    StoreOutboxEntry entry = new StoreOutboxEntry();
+    entry.idempotencyKey = UUID.randomUUID().toString();
+    entry.storeId = store.id;
+    entry.storeName = store.name;
+    entry.quantityProductsInStock = store.quantityProductsInStock;
+    entry.changeType = changeType;
+    entry.createdAt = LocalDateTime.now();
+    entry.nextAttemptAt = entry.createdAt;
+    return entry;
+  }
+
+  static String truncateError(String message) {
+    if (message == null || message.length() <= ERROR_MAX_LENGTH) {
+      return message;
+    }
+    return message.substring(0, ERROR_MAX_LENGTH);
+  }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Which relay instance drains an outbox partition, and until when. A worker renews
+ * its lease before every batch; another instance may only take the partition over
+ * once the lease has run out, so each partition has one active reader at a time.
+ */
+@Entity
+@Table(name = StoreOutboxLease.TABLE_NAME)
+public class StoreOutboxLease extends PanacheEntityBase {
+
+  static final String TABLE_NAME = "store_outbox_lease";
+
+  @Id
+  @Column(name = "partition_no")
+  public Integer partitionNo;
+
+  @Column(length = 36, nullable = false)
+  public String owner;
+
+  @Column(nullable = false)
+  public LocalDateTime leasedUntil;
+
+  public StoreOutboxLease() {}
+
+  StoreOutboxLease(int partitionNo, String owner, LocalDateTime leasedUntil) {
+    this.partitionNo = partitionNo;
+    this.owner = owner;
+    this.leasedUntil = leasedUntil;
+  }
+}
@@ -0,0 +1,44 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes store outbox backlog, capacity, lag and delivery counters, parked and
+ * rejected entries included.
+ */
+@ApplicationScoped
+public class StoreOutboxMetrics implements MeterBinder {
+
+  static final String METRIC_PREFIX = "store.outbox.";
+
+  @Inject
+  StoreOutboxRelay outboxRelay;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder(METRIC_PREFIX + "backlog", outboxRelay, StoreOutboxRelay::backlog)
+        .register(registry);
+    Gauge.builder(METRIC_PREFIX + "capacity", outboxRelay, StoreOutboxRelay::capacity)
+        .register(registry);
+    Gauge.builder(METRIC_PREFIX + "lag", outboxRelay, StoreOutboxRelay::oldestPendingAgeMillis)
+        .baseUnit("milliseconds")
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "delivered", outboxRelay, StoreOutboxRelay::deliveredCount)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "failed", outboxRelay, StoreOutboxRelay::failedCount)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "batches", outboxRelay, StoreOutboxRelay::batchCount)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "coalesced", outboxRelay, StoreOutboxRelay::coalescedCount)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "parked", outboxRelay, StoreOutboxRelay::parkedCount)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "rejected", outboxRelay, StoreOutboxRelay::rejectedCount)
+        .register(registry);
+  }
+}
@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Turns each {@link StoreChangedEvent} into a {@link StoreOutboxEntry} inside the
+ * transaction that fired it, so the entry commits or rolls back with the change.
+ * A full outbox refuses the entry, which rolls the change back as well.
+ */
+@ApplicationScoped
+public class StoreOutboxRecorder {
+
+  @Inject
+  EntityManager entityManager;
+
+  @Inject
+  StoreOutboxRelay outboxRelay;
+
+  @Transactional(Transactional.TxType.MANDATORY)
+  void onStoreChanged(@Observes StoreChangedEvent event) {
+    if (event.getStore() == null) {
+      return;
+    }
+    outboxRelay.admit();
+    entityManager.persist(StoreOutboxEntry.of(event.getStore(), event.getChangeType()));
+  }
+}
@@ -0,0 +1,488 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.OverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.QuarkusTransactionException;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Delivers {@link StoreOutboxEntry} rows to the legacy system, at least once.
+ *
+ * <p>Entries are split into {@code parallelism} partitions by store id, each drained
+ * in id order by its own worker, so changes to one store reach the legacy system in
+ * commit order while different stores proceed in parallel. Before every batch the
+ * worker renews its {@link StoreOutboxLease} on the partition; a partition leased by
+ * another instance is skipped until that lease runs out, so instances never deliver
+ * the same entries side by side. All instances must use the same {@code parallelism}.
+ *
+ * <p>A worker reads a batch, coalesces it to one change per store, writes it through
+ * the gateway outside any transaction and then marks the whole batch delivered. A
+ * crash between the write and the mark redelivers the batch, as does a write outlasting
+ * the lease; the idempotency keys let the legacy side drop it. A failed write backs
+ * its entries off exponentially. Later entries of a store backing off wait for it
+ * rather than overtaking it, while other stores of the partition keep draining. An
+ * entry that has failed is retried on its own, and after {@code max-attempts}
+ * failures it is parked so the rest of its store can proceed.
+ * Delivered entries are purged once older than {@code retention}. The time from an
+ * entry's commit to its delivery is recorded in {@code store.outbox.delivery.latency}.
+ *
+ * <p>Workers are woken by {@link StoreChangeDispatcher} after store commits and
+ * otherwise poll, which also picks up entries left behind by a crash.
+ *
+ * <p>The outbox is bounded: {@link #admit()} refuses new entries once about
+ * {@code capacity} are pending, so writers are pushed back to the pace of the legacy
+ * system instead of growing the table without limit.
+ */
+@ApplicationScoped
+public class StoreOutboxRelay {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreOutboxRelay.class);
+  private static final String LOG_DELIVERY_FAIL = "Legacy delivery of %d outbox entries failed (attempt %d), retrying at %s";
+  private static final String LOG_DRAIN_FAIL = "Outbox relay partition %d failed";
+  private static final String LOG_STARTED = "Outbox relay started with %d workers";
+  private static final String LOG_PARKED = "Parked outbox entry %d for store %d after %d failed attempts: %s";
+  private static final String LOG_PURGED = "Purged %d delivered outbox entries";
+  private static final String LOG_PURGE_FAIL = "Purging delivered outbox entries failed";
+  private static final String WORKER_NAME_PREFIX = "store-outbox-relay-";
+
+  private static final String LOG_LEASE_TAKEN = "Outbox partition %d is leased by another instance: %s";
+
+  // stores with an entry still backing off are left out as a whole, so their later
+  // entries neither overtake it nor fill the page ahead of other stores
+  private static final String QUERY_PENDING_IN_PARTITION =
+      "deliveredAt is null and parkedAt is null and mod(storeId, ?1) = ?2 "
+          + "and storeId not in (select b.storeId from StoreOutboxEntry b "
+          + "where b.deliveredAt is null and b.parkedAt is null and b.nextAttemptAt > ?3) "
+          + "order by id";
+  private static final String QUERY_BACKLOG =
+      "select count(e), min(e.createdAt) from StoreOutboxEntry e where e.deliveredAt is null and e.parkedAt is null";
+  private static final String DELETE_DELIVERED_BEFORE = "deliveredAt < ?1";
+  private static final String UPDATE_DELIVERED =
+      "deliveredAt = ?1, attempts = attempts + 1 where id in ?2";
+  private static final String UPDATE_FAILED =
+      "attempts = attempts + 1, nextAttemptAt = ?1, lastError = ?2 where id in ?3";
+  private static final String UPDATE_PARKED =
+      "attempts = attempts + 1, parkedAt = ?1, lastError = ?2 where id = ?3";
+  // renews our own lease or takes over one that has run out
+  private static final String UPDATE_LEASE =
+      "owner = ?1, leasedUntil = ?2 where partitionNo = ?3 and (owner = ?1 or leasedUntil < ?4)";
+
+  static final Duration BASE_BACKOFF = Duration.ofSeconds(1);
+  // how often the first partition's worker purges delivered entries while idle
+  static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+  private static final long WORKER_JOIN_MILLIS = 5_000;
+
+  @ConfigProperty(name = "store.outbox.relay.parallelism", defaultValue = "2")
+  int parallelism;
+
+  @ConfigProperty(name = "store.outbox.relay.batch-size", defaultValue = "100")
+  int batchSize;
+
+  @ConfigProperty(name = "store.outbox.relay.poll-interval", defaultValue = "PT1S")
+  Duration pollInterval;
+
+  @ConfigProperty(name = "store.outbox.relay.max-backoff", defaultValue = "PT5M")
+  Duration maxBackoff;
+
+  @ConfigProperty(name = "store.outbox.relay.max-attempts", defaultValue = "10")
+  int maxAttempts;
+
+  @ConfigProperty(name = "store.outbox.relay.retention", defaultValue = "P1D")
+  Duration retention;
+
+  @ConfigProperty(name = "store.outbox.relay.lease", defaultValue = "PT30S")
+  Duration lease;
+
+  @ConfigProperty(name = "store.outbox.capacity", defaultValue = "100000")
+  long capacity;
+
+  @Inject
+  LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+  @Inject
+  MeterRegistry meterRegistry;
+
+  // identifies this instance on the partition leases
+  final String owner = UUID.randomUUID().toString();
+  private final List<Thread> workers = new ArrayList<>();
+  private volatile Semaphore[] signals = new Semaphore[0];
+  private volatile boolean running;
+
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder parked = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  // entries admitted since the backlog was last counted
+  private final AtomicLong admittedSinceRefresh = new AtomicLong();
+  private Timer deliveryLatency;
+  private volatile long backlog;
+  private volatile LocalDateTime oldestPendingCreatedAt;
+  // System.nanoTime() of the last backlog query and purge; both run at most once per interval
+  private volatile long backlogRefreshedAt;
+  private volatile long purgedAt;
+
+  @PostConstruct
+  void init() {
+    deliveryLatency = Timer.builder(StoreOutboxMetrics.METRIC_PREFIX + "delivery.latency").register(meterRegistry);
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    start();
+  }
+
+  synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    int partitions = partitions();
+    signals = new Semaphore[partitions];
+    for (int partition = 0; partition < partitions; partition++) {
+      signals[partition] = new Semaphore(0);
+      int p = partition;
+      Thread worker = new Thread(() -> runPartition(p), WORKER_NAME_PREFIX + partition);
+      worker.setDaemon(true);
+      workers.add(worker);
+      worker.start();
+    }
+    LOGGER.infof(LOG_STARTED, partitions);
+  }
+
+  @PreDestroy
+  synchronized void stop() {
+    running = false;
+    for (Thread worker : workers) {
+      worker.interrupt();
+    }
+    for (Thread worker : workers) {
+      try {
+        worker.join(WORKER_JOIN_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    workers.clear();
+  }
+
+  /**
+   * Nudges only the worker whose partition holds the given store.
+   */
+  public void wakeUp(Long storeId) {
+    Semaphore[] current = signals;
+    if (storeId == null || current.length == 0) {
+      return;
+    }
+    signal(current[(int) Math.floorMod(storeId, (long) current.length)]);
+  }
+
+  /**
+   * Makes room for one entry in the calling transaction. The backlog of the last poll
+   * plus the entries admitted since is checked first; only when that estimate is full
+   * is the backlog counted again, at most once per poll interval.
+   *
+   * @throws OverloadedException when {@code capacity} entries are pending
+   */
+  void admit() {
+    if (backlog + admittedSinceRefresh.incrementAndGet() <= capacity) {
+      return;
+    }
+    if (due(backlogRefreshedAt, pollInterval)) {
+      refreshBacklog();
+      if (backlog + admittedSinceRefresh.incrementAndGet() <= capacity) {
+        return;
+      }
+    }
+    rejected.increment();
+    throw new OverloadedException(String.format(AppConstants.ERR_STORE_OUTBOX_FULL, capacity));
+  }
+
+  /**
+   * Delivers the deliverable entries of one partition, if this instance holds its lease.
+   *
+   * @return number of entries handled (delivered or backed off)
+   */
+  int drainPartition(int partition) {
+    if (!claim(partition)) {
+      return 0;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    List<StoreOutboxEntry> batch = QuarkusTransaction.requiringNew().call(() -> {
+      if (due(backlogRefreshedAt, pollInterval)) {
+        refreshBacklog();
+      }
+      List<StoreOutboxEntry> pending = StoreOutboxEntry
+          .<StoreOutboxEntry>find(QUERY_PENDING_IN_PARTITION, partitions(), partition, now)
+          .page(0, batchSize)
+          .list();
+      return deliverable(pending, now);
+    });
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    List<StoreOutboxEntry> changes = coalesce(batch);
+    List<Long> ids = batch.stream().map(entry -> entry.id).toList();
+    try {
+      legacyStoreManagerGateway.syncBatchOnLegacySystem(changes);
+    } catch (IOException | RuntimeException e) {
+      backOff(batch, ids, e);
+      return batch.size();
+    }
+
+    LocalDateTime deliveredAt = LocalDateTime.now();
+    QuarkusTransaction.requiringNew().run(() -> StoreOutboxEntry.update(UPDATE_DELIVERED, deliveredAt, ids));
+    for (StoreOutboxEntry entry : batch) {
+      deliveryLatency.record(Duration.between(entry.createdAt, deliveredAt));
+    }
+    delivered.add(batch.size());
+    coalesced.add(batch.size() - changes.size());
+    batches.increment();
+    return batch.size();
+  }
+
+  /**
+   * Takes or renews the lease on the partition for {@code lease}; false while another
+   * instance holds it.
+   */
+  boolean claim(int partition) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime until = now.plus(lease);
+    if (QuarkusTransaction.requiringNew().call(() ->
+        StoreOutboxLease.update(UPDATE_LEASE, owner, until, partition, now)) > 0) {
+      return true;
+    }
+    try {
+      // first claim of the partition ever; fails if any instance has a row for it
+      QuarkusTransaction.requiringNew().run(() -> new StoreOutboxLease(partition, owner, until).persist());
+      return true;
+    } catch (PersistenceException | QuarkusTransactionException e) {
+      LOGGER.debugf(LOG_LEASE_TAKEN, partition, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Deletes delivered entries older than the retention.
+   *
+   * @return number of entries deleted
+   */
+  long purgeDelivered() {
+    purgedAt = System.nanoTime();
+    LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+    long purged = QuarkusTransaction.requiringNew().call(() ->
+        StoreOutboxEntry.delete(DELETE_DELIVERED_BEFORE, cutoff));
+    if (purged > 0) {
+      LOGGER.debugf(LOG_PURGED, purged);
+    }
+    return purged;
+  }
+
+  public long backlog() {
+    return backlog;
+  }
+
+  public long capacity() {
+    return capacity;
+  }
+
+  /**
+   * Age of the oldest undelivered entry as of the last poll, or 0 when none
+   */
+  public long oldestPendingAgeMillis() {
+    LocalDateTime oldest = oldestPendingCreatedAt;
+    return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis());
+  }
+
+  public long deliveredCount() {
+    return delivered.sum();
+  }
+
+  public long failedCount() {
+    return failed.sum();
+  }
+
+  public long batchCount() {
+    return batches.sum();
+  }
+
+  public long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  public long parkedCount() {
+    return parked.sum();
+  }
+
+  public long rejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * Keeps at most one change per store, in first-seen order: a later change replaces
+   * an earlier one, except that a create followed by updates stays a create (with the
+   * latest state), a create followed by a delete leaves nothing to send, and any other
+   * change followed by a delete becomes the delete.
+   */
+  static List<StoreOutboxEntry> coalesce(List<StoreOutboxEntry> batch) {
+    Map<Long, StoreOutboxEntry> byStore = new LinkedHashMap<>();
+    for (StoreOutboxEntry entry : batch) {
+      StoreOutboxEntry previous = byStore.get(entry.storeId);
+      boolean created = previous != null && previous.changeType == StoreChangedEvent.ChangeType.CREATED;
+      if (created && entry.changeType == StoreChangedEvent.ChangeType.DELETED) {
+        // the legacy side never saw the store
+        byStore.remove(entry.storeId);
+      } else if (created && entry.changeType == StoreChangedEvent.ChangeType.UPDATED) {
+        byStore.put(entry.storeId, asCreate(entry));
+      } else {
+        byStore.put(entry.storeId, entry);
+      }
+    }
+    return new ArrayList<>(byStore.values());
+  }
+
+  static Duration backoffFor(int attempts, Duration maxBackoff) {
+    int shift = Math.min(Math.max(attempts, 0), 20);
+    Duration backoff = BASE_BACKOFF.multipliedBy(1L << shift);
+    return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+  }
+
+  private static List<StoreOutboxEntry> deliverable(List<StoreOutboxEntry> pending, LocalDateTime now) {
+    List<StoreOutboxEntry> batch = new ArrayList<>();
+    // stores whose remaining entries must wait for an earlier one of theirs
+    Set<Long> held = new HashSet<>();
+    for (StoreOutboxEntry entry : pending) {
+      if (held.contains(entry.storeId)) {
+        continue;
+      }
+      if (entry.nextAttemptAt.isAfter(now)) {
+        held.add(entry.storeId);
+      } else if (entry.attempts > 0) {
+        // an entry that failed before goes alone, so a rejection is pinned to that entry
+        if (batch.isEmpty()) {
+          return new ArrayList<>(List.of(entry));
+        }
+        held.add(entry.storeId);
+      } else {
+        batch.add(entry);
+      }
+    }
+    return batch;
+  }
+
+  private void backOff(List<StoreOutboxEntry> batch, List<Long> ids, Exception cause) {
+    int attempts = batch.get(0).attempts + 1;
+    String error = StoreOutboxEntry.truncateError(String.valueOf(cause.getMessage()));
+    if (batch.size() == 1 && attempts >= maxAttempts) {
+      park(batch.get(0), attempts, error);
+      return;
+    }
+    LocalDateTime next = LocalDateTime.now().plus(backoffFor(attempts - 1, maxBackoff));
+    QuarkusTransaction.requiringNew().run(() -> StoreOutboxEntry.update(UPDATE_FAILED, next, error, ids));
+    failed.add(batch.size());
+    LOGGER.warnf(cause, LOG_DELIVERY_FAIL, batch.size(), attempts, next);
+  }
+
+  private void park(StoreOutboxEntry entry, int attempts, String error) {
+    QuarkusTransaction.requiringNew().run(() ->
+        StoreOutboxEntry.update(UPDATE_PARKED, LocalDateTime.now(), error, entry.id));
+    failed.increment();
+    parked.increment();
+    LOGGER.errorf(LOG_PARKED, entry.id, entry.storeId, attempts, error);
+  }
+
+  private void refreshBacklog() {
+    backlogRefreshedAt = System.nanoTime();
+    admittedSinceRefresh.set(0);
+    Object[] row = StoreOutboxEntry.getEntityManager()
+        .createQuery(QUERY_BACKLOG, Object[].class)
+        .getSingleResult();
+    backlog = row[0] == null ? 0 : ((Number) row[0]).longValue();
+    oldestPendingCreatedAt = (LocalDateTime) row[1];
+  }
+
+  private void runPartition(int partition) {
+    Semaphore signal = signals[partition];
+    while (running) {
+      int handled;
+      try {
+        handled = drainPartition(partition);
+      } catch (RuntimeException e) {
+        LOGGER.errorf(e, LOG_DRAIN_FAIL, partition);
+        handled = 0;
+      }
+      if (handled > 0) {
+        continue;
+      }
+      if (partition == 0 && due(purgedAt, PURGE_INTERVAL)) {
+        try {
+          purgeDelivered();
+        } catch (RuntimeException e) {
+          LOGGER.error(LOG_PURGE_FAIL, e);
+        }
+      }
+      try {
+        signal.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        signal.drainPermits();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private static boolean due(long lastNanos, Duration interval) {
+    return lastNanos == 0 || System.nanoTime() - lastNanos >= interval.toNanos();
+  }
+
+  private static void signal(Semaphore signal) {
+    if (signal.availablePermits() == 0) {
+      signal.release();
+    }
+  }
+
+  private int partitions() {
+    return Math.max(1, parallelism);
+  }
+
+  private static StoreOutboxEntry asCreate(StoreOutboxEntry update) {
+    StoreOutboxEntry create = new StoreOutboxEntry();
+    create.id = update.id;
+    create.idempotencyKey = update.idempotencyKey;
+    create.storeId = update.storeId;
+    create.storeName = update.storeName;
+    create.quantityProductsInStock = update.quantityProductsInStock;
+    create.changeType = StoreChangedEvent.ChangeType.CREATED;
+    create.createdAt = update.createdAt;
+    create.attempts = update.attempts;
+    create.nextAttemptAt = update.nextAttemptAt;
+    return create;
+  }
+}
@@ -1,18 +1,17 @@
 package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.common.rest.NdjsonStreaming;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
-import jakarta.transaction.Status;
-import jakarta.transaction.Synchronization;
-import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -23,10 +22,10 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.ExceptionMapper;
-import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.logging.Logger;
 
 import java.util.List;
@@ -41,30 +40,45 @@ public class StoreResource {
     private static final String PATH_ID = "{id}";
     private static final String PARAM_ID = "id";
     private static final String SORT_NAME = "name";
+    private static final String QUERY_STREAM = "from Store order by id";
     private static final String LOG_GET_SINGLE = "getSingle called with id=%s";
     private static final String LOG_CREATE = "create called";
     private static final String LOG_UPDATE = "update called for id=%s";
     private static final String LOG_PATCH = "patch called for id=%s";
     private static final String LOG_DELETE = "delete called for id=%s";
-    private static final String JSON_EXCEPTION_TYPE = "exceptionType";
-    private static final String JSON_CODE = "code";
-    private static final String JSON_ERROR = "error";
 
     private static final Logger LOGGER = Logger.getLogger(StoreResource.class);
 
+    // observed in-transaction by StoreOutboxRecorder and after commit by StoreChangeDispatcher
     @Inject
-    LegacyStoreManagerGateway legacyStoreManagerGateway;
+    Event<StoreChangedEvent> storeChanged;
 
     @Inject
-    TransactionSynchronizationRegistry txRegistry;
+    EntityManager entityManager;
 
     @Inject
-    EntityManager entityManager;
+    ObjectMapper objectMapper;
 
     // ---------- GET ALL ----------
     @GET
-    public List<Store> get() {
-        return Store.listAll(Sort.by(SORT_NAME));
+    public Response get(@QueryParam(KeysetPaging.PARAM_AFTER) Long after,
+                        @QueryParam(KeysetPaging.PARAM_LIMIT) Integer limit) {
+        if (!KeysetPaging.isRequested(after, limit)) {
+            return Response.ok(Store.listAll(Sort.by(SORT_NAME))).build();
+        }
+
+        int pageSize = KeysetPaging.resolveLimit(limit);
+        List<Store> page = Store.<Store>find(KeysetPaging.QUERY_AFTER_ID, Sort.by(KeysetPaging.SORT_ID),
+                KeysetPaging.resolveAfter(after)).page(0, pageSize).list();
+        return KeysetPaging.respond(page, pageSize, store -> store.id, page);
+    }
+
+    // ---------- STREAM ALL ----------
+    @GET
+    @Path(NdjsonStreaming.PATH_STREAM)
+    @Produces(NdjsonStreaming.MEDIA_TYPE)
+    public StreamingOutput stream() {
+        return NdjsonStreaming.scroll(entityManager, objectMapper, QUERY_STREAM, Store.class, store -> store);
     }
 
     // ---------- GET BY ID ----------
@@ -101,18 +115,7 @@ public class StoreResource {
         }
 
         store.persist();
-
-        txRegistry.registerInterposedSynchronization(new Synchronization() {
-            @Override
-            public void beforeCompletion() {}
-
-            @Override
-            public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                    legacyStoreManagerGateway.createStoreOnLegacySystem(store);
-                }
-            }
-        });
+        storeChanged.fire(new StoreChangedEvent(store, StoreChangedEvent.ChangeType.CREATED));
 
         return Response.status(Response.Status.CREATED).entity(store).build();
     }
@@ -145,18 +148,7 @@ public class StoreResource {
 
         entity.name = updatedStore.name;
         entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
-
-        txRegistry.registerInterposedSynchronization(new Synchronization() {
-            @Override
-            public void beforeCompletion() {}
-
-            @Override
-            public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                    legacyStoreManagerGateway.updateStoreOnLegacySystem(entity);
-                }
-            }
-        });
+        storeChanged.fire(new StoreChangedEvent(entity, StoreChangedEvent.ChangeType.UPDATED));
 
         return entity;
     }
@@ -194,18 +186,7 @@ public class StoreResource {
         if (updatedStore.quantityProductsInStock != 0) {
             entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
         }
-
-        txRegistry.registerInterposedSynchronization(new Synchronization() {
-            @Override
-            public void beforeCompletion() {}
-
-            @Override
-            public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                    legacyStoreManagerGateway.updateStoreOnLegacySystem(entity);
-                }
-            }
-        });
+        storeChanged.fire(new StoreChangedEvent(entity, StoreChangedEvent.ChangeType.UPDATED));
 
         return entity;
     }
@@ -229,51 +210,10 @@ public class StoreResource {
         }
 
         entity.delete();
+        storeChanged.fire(new StoreChangedEvent(entity, StoreChangedEvent.ChangeType.DELETED));
         entityManager.flush();
-
-        // Register post-commit callback to sync with legacy system
-        txRegistry.registerInterposedSynchronization(new Synchronization() {
-            @Override
-            public void beforeCompletion() {}
-
-            @Override
-            public void afterCompletion(int status) {
-                if (status == Status.STATUS_COMMITTED) {
-                    legacyStoreManagerGateway.deleteStoreOnLegacySystem(entity);
-                }
-            }
-        });
-
         entityManager.clear();
 
         return Response.noContent().build();
     }
-
-    // ---------- ERROR MAPPER (kept for backward compatibility in tests) ----------
-    @Provider
-    public static class ErrorMapper implements ExceptionMapper<Exception> {
-
-        @Inject
-        ObjectMapper objectMapper;
-
-        @Override
-        public Response toResponse(Exception exception) {
-
-            int code = 500;
-            if (exception instanceof ValidationException) {
-                code = 400;
-            } else if (exception instanceof ConflictException) {
-                code = 409;
-            } else if (exception instanceof NotFoundException) {
-                code = 404;
-            }
-
-            ObjectNode json = objectMapper.createObjectNode();
-            json.put(JSON_EXCEPTION_TYPE, exception.getClass().getName());
-            json.put(JSON_CODE, code);
-            json.put(JSON_ERROR, exception.getMessage());
-
-            return Response.status(code).entity(json).build();
-        }
-    }
 }
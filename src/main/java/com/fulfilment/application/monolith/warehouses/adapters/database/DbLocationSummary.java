@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * One row per location holding the totals of its active warehouses. Maintained by
+ * {@link WarehouseRepository} in the same transaction as the warehouse write, so it
+ * commits and rolls back together with the row it summarises.
+ */
+@Entity
+@Table(name = DbLocationSummary.TABLE_NAME)
+public class DbLocationSummary {
+
+  static final String TABLE_NAME = "warehouse_location_summary";
+
+  @Id
+  public String location;
+
+  public long activeCount;
+
+  public long totalCapacity;
+
+  public long totalStock;
+
+  public DbLocationSummary() {}
+}
@@ -1,21 +1,38 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 
+/**
+ * Active warehouse units only; archived versions live in {@link DbWarehouseHistory}.
+ * Both indexes therefore cover active rows alone, which is what a partial index
+ * on {@code archivedAt is null} would give on databases that support one.
+ */
 @Entity
-@Table(name = DbWarehouse.TABLE_NAME)
+@Table(name = DbWarehouse.TABLE_NAME, indexes = {
+    @Index(name = "idx_warehouse_bu", columnList = "businessUnitCode", unique = true),
+    @Index(name = "idx_warehouse_location", columnList = "location")})
 @Cacheable
 public class DbWarehouse {
 
   static final String TABLE_NAME = "warehouse";
+  static final String SEQUENCE_NAME = "warehouse_seq";
 
-  @Id @GeneratedValue public Long id;
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE_NAME)
+  @SequenceGenerator(name = SEQUENCE_NAME, sequenceName = SEQUENCE_NAME,
+      allocationSize = AppConstants.ID_ALLOCATION_SIZE)
+  public Long id;
 
   public String businessUnitCode;
 
@@ -27,8 +44,13 @@ public class DbWarehouse {
 
   public LocalDateTime createdAt;
 
+  // Always null while the row is in this table
   public LocalDateTime archivedAt;
 
+  // Optimistic lock: an update flushed against a row changed since it was read matches nothing
+  @Version
+  public Long version;
+
   public DbWarehouse() {}
 
   public Warehouse toWarehouse() {
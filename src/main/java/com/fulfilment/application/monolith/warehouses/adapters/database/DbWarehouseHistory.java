@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Archived warehouse versions. Archiving moves the row out of the {@code warehouse}
+ * table, which therefore only holds active units and keeps its indexes small however
+ * often a business unit code has been replaced.
+ */
+@Entity
+@Table(name = DbWarehouseHistory.TABLE_NAME,
+    indexes = @Index(name = "idx_warehouse_history_bu", columnList = "businessUnitCode, id"))
+public class DbWarehouseHistory {
+
+  static final String TABLE_NAME = "warehouse_history";
+
+  // The id the row had while active, so ids stay unique across both tables
+  @Id
+  public Long id;
+
+  public String businessUnitCode;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public LocalDateTime createdAt;
+
+  @Column(nullable = false)
+  public LocalDateTime archivedAt;
+
+  public DbWarehouseHistory() {}
+
+  static DbWarehouseHistory archived(DbWarehouse active, LocalDateTime archivedAt) {
+    var history = new DbWarehouseHistory();
+    history.id = active.id;
+    history.businessUnitCode = active.businessUnitCode;
+    history.location = active.location;
+    history.capacity = active.capacity;
+    history.stock = active.stock;
+    history.createdAt = active.createdAt;
+    history.archivedAt = archivedAt;
+    return history;
+  }
+
+  public Warehouse toWarehouse() {
+    return new Warehouse(businessUnitCode, location, capacity, stock, createdAt, archivedAt);
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Seeds the location summaries once the schema and import script are in place.
+ */
+@ApplicationScoped
+public class LocationSummaryRebuilder {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  void onStart(@Observes StartupEvent event) {
+    warehouseRepository.rebuildLocationSummaries();
+  }
+}
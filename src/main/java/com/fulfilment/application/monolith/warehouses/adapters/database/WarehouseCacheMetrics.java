@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.common.cache.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes the active-warehouse cache counters (hits, misses, evictions, size).
+ */
+@ApplicationScoped
+public class WarehouseCacheMetrics implements MeterBinder {
+
+  static final String METRIC_PREFIX = "warehouse.cache.";
+  private static final String TAG_CACHE = "cache";
+  private static final String CACHE_NAME = "active-by-business-unit-code";
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    BoundedCache<String, ?> cache = warehouseRepository.activeWarehouseCache();
+
+    FunctionCounter.builder(METRIC_PREFIX + "hits", cache, BoundedCache::hits)
+        .tag(TAG_CACHE, CACHE_NAME)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "misses", cache, BoundedCache::misses)
+        .tag(TAG_CACHE, CACHE_NAME)
+        .register(registry);
+    FunctionCounter.builder(METRIC_PREFIX + "evictions", cache, BoundedCache::evictions)
+        .tag(TAG_CACHE, CACHE_NAME)
+        .register(registry);
+    Gauge.builder(METRIC_PREFIX + "size", cache, BoundedCache::size)
+        .tag(TAG_CACHE, CACHE_NAME)
+        .register(registry);
+  }
+}
@@ -1,15 +1,42 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
 import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.cache.BoundedCache;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.exceptions.RetryableConflictException;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousesChangedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.LockAcquisitionException;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -18,6 +45,7 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
   private static final Logger LOGGER = Logger.getLogger(WarehouseRepository.class);
   private static final String FIELD_BUSINESS_UNIT_CODE = "businessUnitCode";
+  private static final String SQL_STATE_UNIQUE_VIOLATION = "23505";
   private static final String LOG_CREATE_NULL = "create called with null warehouse";
   private static final String LOG_CREATE_SUCCESS = "Created warehouse db record for bu=%s";
   private static final String LOG_UPDATE_NULL = "update called with null warehouse";
@@ -28,10 +56,163 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
   private static final String LOG_REMOVE_NOTHING = "remove: nothing to delete for bu=%s";
   private static final String LOG_FIND_NULL = "findByBusinessUnitCode called with null buCode";
   private static final String LOG_FIND_NOTHING = "No warehouse found for bu=%s";
+  private static final String LOG_ARCHIVE_SUCCESS = "Archived warehouse db record for bu=%s";
+  private static final String LOG_CREATE_ALL_SUCCESS = "Created %d warehouse db records";
+  private static final String LOG_REPLACE_ALL_SUCCESS = "Replaced %d warehouse db records";
+  private static final String LOG_CONCURRENT_WRITE = "Concurrent write on warehouse bu=%s: %s";
+  private static final String LOG_SUMMARY_REBUILT = "Rebuilt warehouse summaries for %d locations";
+
+  private static final String QUERY_LOCATIONS_WITHOUT_SUMMARY =
+      "select distinct w.location from DbWarehouse w where w.location is not null "
+          + "and w.location not in (select s.location from DbLocationSummary s)";
+  // a no-op update row-locks every summary without making any of them a managed entity
+  private static final String QUERY_LOCK_SUMMARIES = "update DbLocationSummary s set s.activeCount = s.activeCount";
+  private static final String QUERY_SUMMARY_LOCATIONS = "select s.location from DbLocationSummary s";
+  private static final String QUERY_TOTALS_BY_LOCATION =
+      "select w.location, count(w), coalesce(sum(w.capacity), 0), coalesce(sum(w.stock), 0) "
+          + "from DbWarehouse w where w.location is not null "
+          + "group by w.location";
+  private static final String QUERY_SET_SUMMARY =
+      "update DbLocationSummary s set s.activeCount = ?2, s.totalCapacity = ?3, s.totalStock = ?4 "
+          + "where s.location = ?1";
+
+  // Constructor projections: rows go straight into the domain model without becoming
+  // managed entities, so reads take no persistence-context snapshot and leave nothing to flush
+  private static final String PROJECTION_COLUMNS =
+      "(w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt, w.archivedAt) ";
+  private static final String ROW_COLUMNS =
+      "(w.id, w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt, w.archivedAt) ";
+  private static final String SELECT_WAREHOUSE = "select new " + Warehouse.class.getName() + PROJECTION_COLUMNS;
+  private static final String SELECT_ROW = "select new " + WarehouseRow.class.getName() + ROW_COLUMNS;
+  private static final String FROM_ACTIVE = "from DbWarehouse w ";
+  private static final String FROM_HISTORY = "from DbWarehouseHistory w ";
+
+  // The warehouse table only holds active rows, so no query needs an archivedAt filter
+  private static final String QUERY_PROJECT_ACTIVE = SELECT_WAREHOUSE + FROM_ACTIVE + "order by w.id";
+  private static final String QUERY_PROJECT_HISTORY = SELECT_WAREHOUSE + FROM_HISTORY + "order by w.id";
+  private static final String QUERY_PROJECT_ACTIVE_BY_CODE =
+      SELECT_WAREHOUSE + FROM_ACTIVE + "where w.businessUnitCode = ?1";
+  private static final String QUERY_PROJECT_ACTIVE_BY_CODES =
+      SELECT_WAREHOUSE + FROM_ACTIVE + "where w.businessUnitCode in ?1";
+  private static final String QUERY_ACTIVE_PAGE = SELECT_ROW + FROM_ACTIVE + "where w.id > ?1 order by w.id";
+  private static final String QUERY_HISTORY_PAGE = SELECT_ROW + FROM_HISTORY + "where w.id > ?1 order by w.id";
+  private static final String QUERY_HISTORY_PAGE_BY_CODE =
+      SELECT_ROW + FROM_HISTORY + "where w.businessUnitCode = ?1 and w.id > ?2 order by w.id";
+
+  // Archive as bulk statements: the guarded update claims the active row (and row-locks
+  // it, so a concurrent archive of the same code waits and then matches nothing), the
+  // summary and history are derived from it, and the delete frees the code for a replacement
+  private static final String QUERY_CLAIM_FOR_ARCHIVE =
+      "update DbWarehouse w set w.archivedAt = ?2 where w.businessUnitCode = ?1 and w.archivedAt is null";
+  private static final String QUERY_RELEASE_FROM_SUMMARY =
+      "update DbLocationSummary s set s.activeCount = s.activeCount - 1, "
+          + "s.totalCapacity = s.totalCapacity - "
+          + "(select coalesce(w.capacity, 0) from DbWarehouse w where w.businessUnitCode = ?1), "
+          + "s.totalStock = s.totalStock - "
+          + "(select coalesce(w.stock, 0) from DbWarehouse w where w.businessUnitCode = ?1) "
+          + "where s.location = (select w.location from DbWarehouse w where w.businessUnitCode = ?1)";
+  private static final String QUERY_COPY_TO_HISTORY =
+      "insert into DbWarehouseHistory (id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) "
+          + "select w.id, w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt, w.archivedAt "
+          + "from DbWarehouse w where w.businessUnitCode = ?1";
+  private static final String QUERY_DELETE_ARCHIVED = "delete from DbWarehouse w where w.businessUnitCode = ?1";
+
+  // Summary deltas are applied in the database, so no summary is ever a managed entity
+  // that a bulk statement could leave stale
+  private static final String QUERY_ADD_TO_SUMMARY =
+      "update DbLocationSummary s set s.activeCount = s.activeCount + ?2, "
+          + "s.totalCapacity = s.totalCapacity + ?3, s.totalStock = s.totalStock + ?4 where s.location = ?1";
+  private static final String QUERY_INSERT_SUMMARY =
+      "insert into DbLocationSummary (location, activeCount, totalCapacity, totalStock) values (?1, ?2, ?3, ?4)";
+  // Per-location reservation: the limits are part of the update's own predicate, so the
+  // check and the increment are one step on the summary row and no table lock is needed
+  private static final String QUERY_RESERVE_IN_SUMMARY =
+      "update DbLocationSummary s set s.activeCount = s.activeCount + ?2, "
+          + "s.totalCapacity = s.totalCapacity + ?3, s.totalStock = s.totalStock + ?4 "
+          + "where s.location = ?1 and s.activeCount + ?2 <= ?5 and s.totalCapacity + ?3 <= ?6";
+  private static final String QUERY_ALL_AGGREGATES =
+      "select s.location, s.activeCount, s.totalCapacity, s.totalStock from DbLocationSummary s";
+  private static final String QUERY_EXISTING_CODES =
+      "select w.businessUnitCode from DbWarehouse w where w.businessUnitCode in ?1";
+  private static final String QUERY_ARCHIVED_CODES =
+      "select distinct h.businessUnitCode from DbWarehouseHistory h where h.businessUnitCode in ?1 "
+          + "and not exists (select w.id from DbWarehouse w where w.businessUnitCode = h.businessUnitCode)";
+  private static final String QUERY_AGGREGATE_BY_LOCATION =
+      "select new " + LocationAggregate.class.getName() + "(s.activeCount, s.totalCapacity, s.totalStock) "
+          + "from DbLocationSummary s where s.location = ?1";
+
+  /**
+   * Streams active units, then archived versions, as projected domain warehouses.
+   */
+  public static final List<String> QUERIES_STREAM_ALL = List.of(QUERY_PROJECT_ACTIVE, QUERY_PROJECT_HISTORY);
+
+  static final int ACTIVE_CACHE_MAX_ENTRIES = 10_000;
+  // writes of other instances never invalidate this cache; they show after at most this long
+  static final Duration ACTIVE_CACHE_TTL = Duration.ofSeconds(30);
+
+  // marks a transaction that has written warehouses through this store
+  private static final Object PENDING_WRITES = WarehouseRepository.class.getName() + ".pendingWrites";
+
+  // Active warehouses by business unit code. Writes made through this store invalidate
+  // the entry immediately and again after completion, so neither a reader racing the
+  // commit nor a rollback can leave a stale entry behind; the writing transaction itself
+  // reads around the cache until it ends, so its uncommitted rows are never cached.
+  private final BoundedCache<String, Warehouse> activeByBusinessUnitCode =
+      new BoundedCache<>(ACTIVE_CACHE_MAX_ENTRIES, ACTIVE_CACHE_TTL);
+
+  @Inject
+  TransactionSynchronizationRegistry txRegistry;
+
+  // observed after commit by read-side indexes over the active units
+  @Inject
+  Event<WarehousesChangedEvent> changed;
 
   @Override
   public List<Warehouse> getAll() {
-    return this.listAll().stream().map(DbWarehouse::toWarehouse).toList();
+    List<Warehouse> all = new ArrayList<>(
+        getEntityManager().createQuery(QUERY_PROJECT_ACTIVE, Warehouse.class).getResultList());
+    all.addAll(getEntityManager().createQuery(QUERY_PROJECT_HISTORY, Warehouse.class).getResultList());
+    return all;
+  }
+
+  @Override
+  public List<Warehouse> getAllActive() {
+    return getEntityManager().createQuery(QUERY_PROJECT_ACTIVE, Warehouse.class).getResultList();
+  }
+
+  /**
+   * Keyset page over active and archived versions with an id above {@code afterId}.
+   * Both tables share one id space, so each contributes its first {@code limit} rows
+   * and the merged head is the page.
+   */
+  public List<WarehouseRow> listPage(long afterId, int limit) {
+    List<WarehouseRow> active = pageOf(QUERY_ACTIVE_PAGE, limit, afterId);
+    List<WarehouseRow> history = pageOf(QUERY_HISTORY_PAGE, limit, afterId);
+
+    List<WarehouseRow> page = new ArrayList<>(Math.min(limit, active.size() + history.size()));
+    int a = 0;
+    int h = 0;
+    while (page.size() < limit && (a < active.size() || h < history.size())) {
+      boolean takeActive = h >= history.size()
+          || (a < active.size() && active.get(a).id < history.get(h).id);
+      page.add(takeActive ? active.get(a++) : history.get(h++));
+    }
+    return page;
+  }
+
+  /**
+   * Keyset page of the archived versions of one business unit, oldest first.
+   */
+  public List<WarehouseRow> findHistory(String buCode, long afterId, int limit) {
+    return pageOf(QUERY_HISTORY_PAGE_BY_CODE, limit, buCode, afterId);
+  }
+
+  private List<WarehouseRow> pageOf(String query, int limit, Object... params) {
+    var typed = getEntityManager().createQuery(query, WarehouseRow.class).setMaxResults(limit);
+    for (int i = 0; i < params.length; i++) {
+      typed.setParameter(i + 1, params[i]);
+    }
+    return typed.getResultList();
   }
 
   @Override
@@ -41,18 +222,94 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       return;
     }
 
-    DbWarehouse db = new DbWarehouse();
-    db.businessUnitCode = warehouse.businessUnitCode;
-    db.location = warehouse.location;
-    db.capacity = warehouse.capacity;
-    db.stock = warehouse.stock;
-    db.createdAt = warehouse.createdAt;
-    db.archivedAt = warehouse.archivedAt;
-
+    DbWarehouse db = toDb(warehouse);
     persist(db);
+    if (warehouse.archivedAt != null) {
+      // created already archived: it only ever belongs to the history
+      moveToHistory(db, warehouse.archivedAt);
+    } else {
+      applyToSummary(db, 1);
+    }
+    invalidateOnCompletion(warehouse.businessUnitCode);
     LOGGER.debugf(LOG_CREATE_SUCCESS, warehouse.businessUnitCode);
   }
 
+  @Override
+  public boolean createWithinLimits(Warehouse warehouse, int maxNumberOfWarehouses, int maxCapacity) {
+    if (warehouse == null) {
+      throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
+    }
+
+    long capacity = warehouse.capacity != null ? warehouse.capacity : 0;
+    long stock = warehouse.stock != null ? warehouse.stock : 0;
+    try {
+      // The guarded update row-locks the location's summary, so creates racing for its
+      // last slot queue there and the later one sees the earlier one's reservation
+      if (!reserveWithinLimits(warehouse.location, 1, capacity, stock, maxNumberOfWarehouses, maxCapacity)) {
+        return false;
+      }
+      persist(toDb(warehouse));
+      // surface a duplicate code now, as a conflict, rather than as a failed commit
+      flush();
+    } catch (PersistenceException e) {
+      throw conflictOrRethrow(warehouse.businessUnitCode, e);
+    }
+    invalidateOnCompletion(warehouse.businessUnitCode);
+    LOGGER.debugf(LOG_CREATE_SUCCESS, warehouse.businessUnitCode);
+    return true;
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses, Map<String, Location> locations) {
+    // each location's share of the batch is reserved in one guarded update
+    Map<String, long[]> shares = new HashMap<>();
+    for (Warehouse warehouse : warehouses) {
+      addShare(shares, warehouse, 1);
+    }
+
+    try {
+      for (Map.Entry<String, long[]> share : shares.entrySet()) {
+        Location limits = locations.get(share.getKey());
+        long[] totals = share.getValue();
+        if (!reserveWithinLimits(share.getKey(), totals[0], totals[1], totals[2],
+            limits.maxNumberOfWarehouses, limits.maxCapacity)) {
+          throw new RetryableConflictException(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE);
+        }
+      }
+      // inserted in JDBC batches of hibernate.jdbc.batch_size by the flush
+      for (Warehouse warehouse : warehouses) {
+        persist(toDb(warehouse));
+      }
+      flush();
+    } catch (PersistenceException e) {
+      throw conflictOrRethrow(shares.keySet().toString(), e);
+    }
+    invalidateOnCompletion(warehouses.stream().map(warehouse -> warehouse.businessUnitCode).toList());
+    LOGGER.debugf(LOG_CREATE_ALL_SUCCESS, warehouses.size());
+  }
+
+  @Override
+  public Set<String> findExistingCodes(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(getEntityManager()
+        .createQuery(QUERY_EXISTING_CODES, String.class)
+        .setParameter(1, buCodes)
+        .getResultList());
+  }
+
+  @Override
+  public Set<String> findArchivedCodes(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(getEntityManager()
+        .createQuery(QUERY_ARCHIVED_CODES, String.class)
+        .setParameter(1, buCodes)
+        .getResultList());
+  }
+
   @Override
   public void update(Warehouse warehouse) {
     if (warehouse == null) {
@@ -60,6 +317,15 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
     }
 
+    if (warehouse.archivedAt != null) {
+      if (!archiveByCode(warehouse.businessUnitCode, warehouse.archivedAt)) {
+        LOGGER.warnf(LOG_UPDATE_NOT_FOUND, warehouse.businessUnitCode);
+        throw new NotFoundException(String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, warehouse.businessUnitCode));
+      }
+      LOGGER.debugf(LOG_UPDATE_SUCCESS, warehouse.businessUnitCode);
+      return;
+    }
+
     DbWarehouse existing = find(FIELD_BUSINESS_UNIT_CODE, warehouse.businessUnitCode).firstResult();
 
     if (existing == null) {
@@ -67,12 +333,20 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       throw new NotFoundException(String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, warehouse.businessUnitCode));
     }
 
+    applyToSummary(existing, -1);
     existing.location = warehouse.location;
     existing.capacity = warehouse.capacity;
     existing.stock = warehouse.stock;
-    existing.archivedAt = warehouse.archivedAt;
 
     persist(existing);
+    applyToSummary(existing, 1);
+    try {
+      // versioned update: matches nothing if another transaction changed the row since it was read
+      flush();
+    } catch (PersistenceException e) {
+      throw conflictOrRethrow(warehouse.businessUnitCode, e);
+    }
+    invalidateOnCompletion(warehouse.businessUnitCode);
     LOGGER.debugf(LOG_UPDATE_SUCCESS, warehouse.businessUnitCode);
   }
 
@@ -86,7 +360,9 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     DbWarehouse existing = find(FIELD_BUSINESS_UNIT_CODE, warehouse.businessUnitCode).firstResult();
 
     if (existing != null) {
+      applyToSummary(existing, -1);
       delete(existing);
+      invalidateOnCompletion(warehouse.businessUnitCode);
       LOGGER.debugf(LOG_REMOVE_SUCCESS, warehouse.businessUnitCode);
     } else {
       LOGGER.debugf(LOG_REMOVE_NOTHING, warehouse.businessUnitCode);
@@ -100,34 +376,369 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       return null;
     }
 
-    // Find only active (non-archived) warehouse
-    DbWarehouse existing = find(FIELD_BUSINESS_UNIT_CODE + " = ?1 and archivedAt is null", buCode).firstResult();
-    if (existing == null) {
+    if (hasPendingWrites()) {
+      return loadActive(buCode);
+    }
+    Warehouse cached = activeByBusinessUnitCode.get(buCode, this::loadActive);
+    // callers mutate the returned model (e.g. archive), so never hand out the cached instance
+    return cached == null ? null : copyOf(cached);
+  }
+
+  // Bypasses the cache: a bulk caller wants one round trip, not one lookup per code
+  @Override
+  public Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    Map<String, Warehouse> found = new HashMap<>();
+    if (buCodes.isEmpty()) {
+      return found;
+    }
+    for (Warehouse warehouse : getEntityManager()
+        .createQuery(QUERY_PROJECT_ACTIVE_BY_CODES, Warehouse.class)
+        .setParameter(1, buCodes)
+        .getResultList()) {
+      found.put(warehouse.businessUnitCode, warehouse);
+    }
+    return found;
+  }
+
+  @Override
+  public boolean archiveByCode(String buCode, LocalDateTime archivedAt) {
+    if (buCode == null) {
+      return false;
+    }
+    // pending entity changes must reach the database before the bulk statements read it
+    flush();
+    if (bulk(QUERY_CLAIM_FOR_ARCHIVE, buCode, archivedAt) == 0) {
+      LOGGER.debugf(LOG_FIND_NOTHING, buCode);
+      return false;
+    }
+    bulk(QUERY_RELEASE_FROM_SUMMARY, buCode);
+    bulk(QUERY_COPY_TO_HISTORY, buCode);
+    bulk(QUERY_DELETE_ARCHIVED, buCode);
+    invalidateOnCompletion(buCode);
+    LOGGER.debugf(LOG_ARCHIVE_SUCCESS, buCode);
+    return true;
+  }
+
+  @Override
+  public boolean replaceByCode(Warehouse replacement, Location location, LocalDateTime archivedAt) {
+    if (replacement == null) {
+      throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
+    }
+    Warehouse current = loadActive(replacement.businessUnitCode);
+    Map<String, Location> locations = location == null ? Map.of() : Map.of(location.identification, location);
+    // nothing is written before the archive claims the active row, so losing it writes nothing
+    if (current == null || !replace(List.of(replacement), List.of(current), locations, archivedAt)) {
+      return false;
+    }
+    LOGGER.debugf(LOG_CREATE_SUCCESS, replacement.businessUnitCode);
+    return true;
+  }
+
+  @Override
+  public void replaceAll(List<Warehouse> replacements, Map<String, Location> locations, LocalDateTime archivedAt) {
+    if (replacements.isEmpty()) {
+      return;
+    }
+    List<String> codes = replacements.stream().map(replacement -> replacement.businessUnitCode).toList();
+    List<Warehouse> archived = getEntityManager()
+        .createQuery(QUERY_PROJECT_ACTIVE_BY_CODES, Warehouse.class)
+        .setParameter(1, codes)
+        .getResultList();
+    if (archived.size() != codes.size() || !replace(replacements, archived, locations, archivedAt)) {
+      throw new RetryableConflictException(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE);
+    }
+    LOGGER.debugf(LOG_REPLACE_ALL_SUCCESS, replacements.size());
+  }
+
+  /**
+   * Archives the given active versions and creates their replacements. A location the
+   * replacements grow is reserved within its limits; false when an archive found its
+   * unit already gone.
+   */
+  private boolean replace(List<Warehouse> replacements, List<Warehouse> archived, Map<String, Location> locations,
+      LocalDateTime archivedAt) {
+    List<String> codes = replacements.stream().map(replacement -> replacement.businessUnitCode).toList();
+    // per location: the count, capacity and stock the replacements take, and the growth
+    // over what the archived versions free there
+    Map<String, long[]> shares = new HashMap<>();
+    Map<String, long[]> growth = new HashMap<>();
+    for (Warehouse replacement : replacements) {
+      addShare(shares, replacement, 1);
+      addShare(growth, replacement, 1);
+    }
+    for (Warehouse warehouse : archived) {
+      addShare(growth, warehouse, -1);
+    }
+
+    try {
+      for (String code : codes) {
+        if (!archiveByCode(code, archivedAt)) {
+          return false;
+        }
+      }
+      // the archives released the old versions; a location that grows takes its share
+      // within its limits, the others (shrinking or unchanged) cannot overflow by it
+      for (Map.Entry<String, long[]> share : shares.entrySet()) {
+        String location = share.getKey();
+        long[] totals = share.getValue();
+        long[] grown = growth.get(location);
+        if (grown[0] > 0 || grown[1] > 0) {
+          Location limits = locations.get(location);
+          if (!reserveWithinLimits(location, totals[0], totals[1], totals[2],
+              limits.maxNumberOfWarehouses, limits.maxCapacity)) {
+            throw new RetryableConflictException(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE);
+          }
+        } else {
+          addToSummary(location, totals[0], totals[1], totals[2]);
+        }
+      }
+      for (Warehouse replacement : replacements) {
+        persist(toDb(replacement));
+      }
+      flush();
+    } catch (PersistenceException e) {
+      throw conflictOrRethrow(codes.toString(), e);
+    }
+    invalidateOnCompletion(codes);
+    return true;
+  }
+
+  private static void addShare(Map<String, long[]> shares, Warehouse warehouse, int sign) {
+    long[] share = shares.computeIfAbsent(warehouse.location, location -> new long[3]);
+    share[0] += sign;
+    share[1] += sign * (long) (warehouse.capacity != null ? warehouse.capacity : 0);
+    share[2] += sign * (long) (warehouse.stock != null ? warehouse.stock : 0);
+  }
+
+  private int bulk(String statement, Object... params) {
+    var query = getEntityManager().createQuery(statement);
+    for (int i = 0; i < params.length; i++) {
+      query.setParameter(i + 1, params[i]);
+    }
+    return query.executeUpdate();
+  }
+
+  /**
+   * Adds count, capacity and stock to the location's summary if the result stays within
+   * the limits; false, adding nothing, when it would not.
+   */
+  private boolean reserveWithinLimits(String location, long count, long capacity, long stock,
+      int maxNumberOfWarehouses, int maxCapacity) {
+    if (reserve(location, count, capacity, stock, maxNumberOfWarehouses, maxCapacity)) {
+      return true;
+    }
+    // either the location is full or it had no row to reserve on yet; once a row is
+    // known to be committed, a second attempt gives the authoritative answer
+    if (!hasSummary(location)) {
+      insertEmptySummary(location);
+    }
+    return reserve(location, count, capacity, stock, maxNumberOfWarehouses, maxCapacity);
+  }
+
+  private boolean reserve(String location, long count, long capacity, long stock,
+      int maxNumberOfWarehouses, int maxCapacity) {
+    return bulk(QUERY_RESERVE_IN_SUMMARY, location, count, capacity, stock,
+        (long) maxNumberOfWarehouses, (long) maxCapacity) > 0;
+  }
+
+  /**
+   * Commits an all-zero summary row on its own, so racing first creates at a new location
+   * all end up reserving on the same committed row instead of colliding on its key.
+   */
+  private void insertEmptySummary(String location) {
+    try {
+      QuarkusTransaction.requiringNew().run(() -> bulk(QUERY_INSERT_SUMMARY, location, 0L, 0L, 0L));
+    } catch (PersistenceException e) {
+      // a concurrent create inserted it first; the row exists either way
+      LOGGER.debugf(LOG_CONCURRENT_WRITE, location, e.getMessage());
+    }
+  }
+
+  private boolean hasSummary(String location) {
+    return !getEntityManager()
+        .createQuery(QUERY_AGGREGATE_BY_LOCATION, LocationAggregate.class)
+        .setParameter(1, location)
+        .setMaxResults(1)
+        .getResultList()
+        .isEmpty();
+  }
+
+  /**
+   * Lost races (stale version, duplicate key, lock conflict) become a retryable 409;
+   * anything else is a genuine failure and propagates unchanged.
+   */
+  private static RuntimeException conflictOrRethrow(String buCode, PersistenceException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OptimisticLockException
+          || cause instanceof StaleStateException
+          || cause instanceof PessimisticLockException
+          || cause instanceof LockTimeoutException
+          || cause instanceof LockAcquisitionException
+          || (cause instanceof ConstraintViolationException
+              && SQL_STATE_UNIQUE_VIOLATION.equals(((ConstraintViolationException) cause).getSQLState()))) {
+        LOGGER.debugf(LOG_CONCURRENT_WRITE, buCode, cause.getMessage());
+        return new RetryableConflictException(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE);
+      }
+    }
+    return e;
+  }
+
+  private static DbWarehouse toDb(Warehouse warehouse) {
+    DbWarehouse db = new DbWarehouse();
+    db.businessUnitCode = warehouse.businessUnitCode;
+    db.location = warehouse.location;
+    db.capacity = warehouse.capacity;
+    db.stock = warehouse.stock;
+    db.createdAt = warehouse.createdAt;
+    db.archivedAt = warehouse.archivedAt;
+    return db;
+  }
+
+  private void moveToHistory(DbWarehouse active, LocalDateTime archivedAt) {
+    getEntityManager().persist(DbWarehouseHistory.archived(active, archivedAt));
+    delete(active);
+    // Hibernate flushes inserts before deletes; a replacement created next in this
+    // transaction would otherwise collide with this row on the unique code index
+    flush();
+  }
+
+  BoundedCache<String, Warehouse> activeWarehouseCache() {
+    return activeByBusinessUnitCode;
+  }
+
+  private Warehouse loadActive(String buCode) {
+    List<Warehouse> active = getEntityManager()
+        .createQuery(QUERY_PROJECT_ACTIVE_BY_CODE, Warehouse.class)
+        .setParameter(1, buCode)
+        .setMaxResults(1)
+        .getResultList();
+    if (active.isEmpty()) {
       LOGGER.debugf(LOG_FIND_NOTHING, buCode);
       return null;
     }
-    return existing.toWarehouse();
+    return active.get(0);
+  }
+
+  private void invalidateOnCompletion(String buCode) {
+    invalidateOnCompletion(Collections.singletonList(buCode));
+  }
+
+  private void invalidateOnCompletion(Collection<String> buCodes) {
+    buCodes.forEach(activeByBusinessUnitCode::invalidate);
+
+    if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      txRegistry.putResource(PENDING_WRITES, Boolean.TRUE);
+      txRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {}
+
+        @Override
+        public void afterCompletion(int status) {
+          buCodes.forEach(activeByBusinessUnitCode::invalidate);
+        }
+      });
+    }
+    if (changed != null) {
+      changed.fire(new WarehousesChangedEvent(buCodes));
+    }
+  }
+
+  private boolean hasPendingWrites() {
+    return txRegistry != null
+        && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE
+        && txRegistry.getResource(PENDING_WRITES) != null;
+  }
+
+  private static Warehouse copyOf(Warehouse source) {
+    var warehouse = new Warehouse();
+    warehouse.businessUnitCode = source.businessUnitCode;
+    warehouse.location = source.location;
+    warehouse.capacity = source.capacity;
+    warehouse.stock = source.stock;
+    warehouse.createdAt = source.createdAt;
+    warehouse.archivedAt = source.archivedAt;
+    return warehouse;
   }
 
   @Override
   public long countByLocation(String location) {
-    if (location == null) {
-      return 0;
-    }
-    // Use count query for efficiency instead of loading all records
-    return count("location = ?1 and archivedAt is null", location);
+    return getAggregateByLocation(location).activeCount;
   }
 
   @Override
   public int getTotalCapacityByLocation(String location) {
+    return (int) getAggregateByLocation(location).totalCapacity;
+  }
+
+  @Override
+  public LocationAggregate getAggregateByLocation(String location) {
     if (location == null) {
-      return 0;
-    }
-    // Sum capacity of all active warehouses at this location
-    Long totalCapacity = find("location = ?1 and archivedAt is null", location)
-        .stream()
-        .mapToLong(w -> w.capacity != null ? w.capacity : 0)
-        .sum();
-    return totalCapacity.intValue();
+      return LocationAggregate.EMPTY;
+    }
+    // Primary-key read of the maintained summary instead of scanning the location's warehouses
+    List<LocationAggregate> summary = getEntityManager()
+        .createQuery(QUERY_AGGREGATE_BY_LOCATION, LocationAggregate.class)
+        .setParameter(1, location)
+        .getResultList();
+    return summary.isEmpty() ? LocationAggregate.EMPTY : summary.get(0);
+  }
+
+  @Override
+  public Map<String, LocationAggregate> getAggregatesByLocation() {
+    Map<String, LocationAggregate> aggregates = new HashMap<>();
+    for (Object[] row : getEntityManager().createQuery(QUERY_ALL_AGGREGATES, Object[].class).getResultList()) {
+      aggregates.put((String) row[0], new LocationAggregate((long) row[1], (long) row[2], (long) row[3]));
+    }
+    return aggregates;
+  }
+
+  /**
+   * Recomputes every location summary from the warehouse table, picking up rows
+   * written outside this repository (import script, manual SQL).
+   *
+   * <p>Summaries are overwritten in place, never cleared, so instances starting
+   * together and writers running meanwhile always find a row to update. The rows are
+   * locked before the totals are read: a writer that already moved a summary commits
+   * first and is counted, one that comes later waits and applies its delta on top.
+   */
+  public int rebuildLocationSummaries() {
+    getEntityManager().createQuery(QUERY_LOCATIONS_WITHOUT_SUMMARY, String.class)
+        .getResultList()
+        .forEach(this::insertEmptySummary);
+    bulk(QUERY_LOCK_SUMMARIES);
+
+    Map<String, Object[]> totals = new HashMap<>();
+    for (Object[] row : getEntityManager().createQuery(QUERY_TOTALS_BY_LOCATION, Object[].class).getResultList()) {
+      totals.put((String) row[0], row);
+    }
+    for (String location : getEntityManager().createQuery(QUERY_SUMMARY_LOCATIONS, String.class).getResultList()) {
+      Object[] row = totals.get(location);
+      bulk(QUERY_SET_SUMMARY, location,
+          row == null ? 0L : ((Number) row[1]).longValue(),
+          row == null ? 0L : ((Number) row[2]).longValue(),
+          row == null ? 0L : ((Number) row[3]).longValue());
+    }
+    LOGGER.debugf(LOG_SUMMARY_REBUILT, totals.size());
+    return totals.size();
+  }
+
+  private void applyToSummary(DbWarehouse warehouse, int sign) {
+    if (warehouse.location == null) {
+      return;
+    }
+
+    long capacity = sign * (long) (warehouse.capacity != null ? warehouse.capacity : 0);
+    long stock = sign * (long) (warehouse.stock != null ? warehouse.stock : 0);
+    addToSummary(warehouse.location, sign, capacity, stock);
+  }
+
+  private void addToSummary(String location, long count, long capacity, long stock) {
+    // The update row-locks the summary, serialising concurrent writers at the same location until commit
+    if (bulk(QUERY_ADD_TO_SUMMARY, location, count, capacity, stock) == 0) {
+      // first write at the location: apply it to a committed empty row, like a reservation,
+      // so racing first writers meet on that row instead of colliding on its key
+      insertEmptySummary(location);
+      bulk(QUERY_ADD_TO_SUMMARY, location, count, capacity, stock);
+    }
   }
 }
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a warehouse version together with its row id, which
+ * keyset pages use as their cursor.
+ */
+public class WarehouseRow {
+
+  public final Long id;
+
+  public final Warehouse warehouse;
+
+  public WarehouseRow(Long id, String businessUnitCode, String location, Integer capacity,
+      Integer stock, LocalDateTime createdAt, LocalDateTime archivedAt) {
+    this.id = id;
+    this.warehouse = new Warehouse(businessUnitCode, location, capacity, stock, createdAt, archivedAt);
+  }
+}
@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRecord;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an import body one line at a time, as CSV
+ * ({@code businessUnitCode,location,capacity,stock}, optional header line) or as
+ * newline-delimited JSON warehouse units. Blank lines are skipped; a line that does
+ * not parse becomes a record carrying the error instead of failing the import.
+ */
+final class WarehouseImportReader implements Iterator<WarehouseImportRecord> {
+
+    static final String MEDIA_TYPE_CSV = "text/csv";
+
+    private static final String CSV_HEADER = "businessUnitCode";
+    private static final int CSV_FIELDS = 4;
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+    private WarehouseImportRecord next;
+
+    WarehouseImportReader(InputStream body, String contentType, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.csv = contentType != null && contentType.toLowerCase().startsWith(MEDIA_TYPE_CSV);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public WarehouseImportRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        WarehouseImportRecord record = next;
+        next = null;
+        return record;
+    }
+
+    private WarehouseImportRecord readNext() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (csv && lineNumber == 1 && trimmed.regionMatches(true, 0, CSV_HEADER, 0, CSV_HEADER.length())) {
+                    continue;
+                }
+                return csv ? parseCsv(trimmed) : parseJson(trimmed);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private WarehouseImportRecord parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != CSV_FIELDS) {
+            return invalid(line);
+        }
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = emptyToNull(fields[0]);
+        warehouse.location = emptyToNull(fields[1]);
+        try {
+            warehouse.capacity = parseInt(fields[2]);
+            warehouse.stock = parseInt(fields[3]);
+        } catch (NumberFormatException e) {
+            return invalid(line);
+        }
+        return WarehouseImportRecord.parsed(lineNumber, warehouse);
+    }
+
+    private WarehouseImportRecord parseJson(String line) {
+        try {
+            com.warehouse.api.beans.Warehouse api =
+                    objectMapper.readValue(line, com.warehouse.api.beans.Warehouse.class);
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.businessUnitCode = api.getBusinessUnitCode();
+            warehouse.location = api.getLocation();
+            warehouse.capacity = api.getCapacity();
+            warehouse.stock = api.getStock();
+            return WarehouseImportRecord.parsed(lineNumber, warehouse);
+        } catch (JsonProcessingException e) {
+            return invalid(line);
+        }
+    }
+
+    private WarehouseImportRecord invalid(String line) {
+        return WarehouseImportRecord.unparseable(lineNumber,
+                String.format(AppConstants.ERR_WAREHOUSE_IMPORT_INVALID_RECORD, line));
+    }
+
+    private static String emptyToNull(String field) {
+        String trimmed = field.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static Integer parseInt(String field) {
+        String trimmed = field.trim();
+        return trimmed.isEmpty() ? null : Integer.valueOf(trimmed);
+    }
+}
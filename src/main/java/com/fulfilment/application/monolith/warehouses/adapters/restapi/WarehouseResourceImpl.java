@@ -1,19 +1,38 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.common.rest.NdjsonStreaming;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRow;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.warehouse.api.WarehouseResource;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ImportWarehousesUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehousesInBulkUseCase;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.logging.Logger;
 import jakarta.validation.constraints.NotNull;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 
 
@@ -29,30 +48,103 @@ public class WarehouseResourceImpl implements WarehouseResource {
     @Inject
     ReplaceWarehouseUseCase replaceWarehouseUseCase;
 
+    @Inject
+    ReplaceWarehousesInBulkUseCase replaceWarehousesInBulkUseCase;
+
     @Inject
     ArchiveWarehouseUseCase archiveWarehouseUseCase;
 
+    @Inject
+    ImportWarehousesUseCase importWarehousesUseCase;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Context
+    HttpHeaders httpHeaders;
+
     private static final String LOG_GET_BY_ID = "getAWarehouseUnitByID called bu=%s";
     private static final String LOG_CREATE = "createANewWarehouseUnit created bu=%s";
     private static final String LOG_REPLACE = "replaceTheCurrentActiveWarehouse for bu=%s";
+    private static final String LOG_REPLACE_BULK = "replaceWarehouseUnitsInBulk called for %d units";
     private static final String LOG_ARCHIVE = "archiveAWarehouseUnitByID called bu=%s";
+    private static final String LOG_IMPORT = "importWarehouseUnitsInBulk called contentType=%s";
+    private static final String LOG_HISTORY = "listArchivedVersionsOfAWarehouseUnit called bu=%s";
     private static final String LOG_NULL = "<null>";
 
     private static final Logger LOGGER = Logger.getLogger(WarehouseResourceImpl.class);
 
     @Override
-    public List<com.warehouse.api.beans.Warehouse> listAllWarehousesUnits() {
+    public Response listAllWarehousesUnits(Long after, Integer limit) {
+
+        // read-only projection: no managed entities behind the full listing
+        if (!KeysetPaging.isRequested(after, limit)) {
+            return Response.ok(warehouseRepository.getAll().stream().map(this::toApi).toList()).build();
+        }
+
+        int pageSize = KeysetPaging.resolveLimit(limit);
+        List<WarehouseRow> page = warehouseRepository.listPage(KeysetPaging.resolveAfter(after), pageSize);
+        return KeysetPaging.respond(page, pageSize, row -> row.id,
+                page.stream().map(row -> toApi(row.warehouse)).toList());
+    }
+
+    @Override
+    public Response streamAllWarehouseUnits() {
+        return Response.ok(NdjsonStreaming.scroll(warehouseRepository.getEntityManager(), objectMapper,
+                WarehouseRepository.QUERIES_STREAM_ALL,
+                com.fulfilment.application.monolith.warehouses.domain.models.Warehouse.class, this::toApi))
+            .build();
+    }
 
-        List<com.warehouse.api.beans.Warehouse> response = new ArrayList<>();
+    @Override
+    public Response listArchivedVersionsOfAWarehouseUnit(
+            String businessUnitCode, Long after, Integer limit) {
 
-        List<com.fulfilment.application.monolith.warehouses.domain.models.Warehouse> domains =
-                warehouseRepository.getAll();
+        LOGGER.debugf(LOG_HISTORY, businessUnitCode);
 
-        for (com.fulfilment.application.monolith.warehouses.domain.models.Warehouse d : domains) {
-            response.add(toApi(d));
+        if (businessUnitCode == null) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
         }
 
-        return response;
+        int pageSize = KeysetPaging.resolveLimit(limit);
+        List<WarehouseRow> page =
+                warehouseRepository.findHistory(businessUnitCode, KeysetPaging.resolveAfter(after), pageSize);
+        return KeysetPaging.respond(page, pageSize, row -> row.id,
+                page.stream().map(row -> toVersion(row.warehouse)).toList());
+    }
+
+    @Override
+    public Response importWarehouseUnitsInBulk(@NotNull InputStream data) {
+
+        if (data == null) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
+        }
+
+        String contentType = httpHeaders == null
+                ? null
+                : httpHeaders.getHeaderString(HttpHeaders.CONTENT_TYPE);
+        LOGGER.debugf(LOG_IMPORT, contentType);
+        WarehouseImportReader records = new WarehouseImportReader(data, contentType, objectMapper);
+
+        // records are read, written and answered chunk by chunk while the response is written
+        StreamingOutput results = output -> {
+            JsonGenerator generator = NdjsonStreaming.lineWriter(objectMapper, output);
+            try {
+                importWarehousesUseCase.importAll(records, chunk -> {
+                    try {
+                        for (WarehouseImportResult result : chunk) {
+                            NdjsonStreaming.writeLine(generator, result);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return Response.ok(results, NdjsonStreaming.MEDIA_TYPE).build();
     }
 
     @Override
@@ -111,6 +203,30 @@ public class WarehouseResourceImpl implements WarehouseResource {
         return api;
     }
 
+    @Override
+    public List<com.warehouse.api.beans.WarehouseReplacementResult> replaceWarehouseUnitsInBulk(
+            @NotNull List<com.warehouse.api.beans.Warehouse> data) {
+
+        if (data == null) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
+        }
+        if (data.size() > ReplaceWarehousesInBulkUseCase.MAX_BATCH_SIZE) {
+            throw new ValidationException(String.format(
+                    AppConstants.ERR_WAREHOUSE_REPLACEMENT_BATCH_TOO_LARGE, ReplaceWarehousesInBulkUseCase.MAX_BATCH_SIZE));
+        }
+
+        LOGGER.debugf(LOG_REPLACE_BULK, data.size());
+        List<com.fulfilment.application.monolith.warehouses.domain.models.Warehouse> replacements =
+                new ArrayList<>(data.size());
+        for (com.warehouse.api.beans.Warehouse api : data) {
+            replacements.add(api == null ? null : toDomain(api));
+        }
+
+        return replaceWarehousesInBulkUseCase.replaceAll(replacements).stream()
+                .map(WarehouseResourceImpl::toApi)
+                .toList();
+    }
+
     @Override
     public void archiveAWarehouseUnitByID(String businessUnitCode) {
 
@@ -143,6 +259,35 @@ public class WarehouseResourceImpl implements WarehouseResource {
         return d;
     }
 
+    private static com.warehouse.api.beans.WarehouseReplacementResult toApi(WarehouseReplacementResult result) {
+        com.warehouse.api.beans.WarehouseReplacementResult api =
+                new com.warehouse.api.beans.WarehouseReplacementResult();
+        api.setBusinessUnitCode(result.businessUnitCode);
+        api.setReplaced(result.replaced);
+        api.setError(result.error);
+        return api;
+    }
+
+    private static com.warehouse.api.beans.WarehouseVersion toVersion(
+            com.fulfilment.application.monolith.warehouses.domain.models.Warehouse d) {
+
+        com.warehouse.api.beans.WarehouseVersion version =
+                new com.warehouse.api.beans.WarehouseVersion();
+
+        version.setBusinessUnitCode(d.businessUnitCode);
+        version.setLocation(d.location);
+        version.setCapacity(d.capacity);
+        version.setStock(d.stock);
+        version.setCreatedAt(toDate(d.createdAt));
+        version.setArchivedAt(toDate(d.archivedAt));
+
+        return version;
+    }
+
+    private static Date toDate(LocalDateTime value) {
+        return value == null ? null : Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
     private com.warehouse.api.beans.Warehouse toApi(
             com.fulfilment.application.monolith.warehouses.domain.models.Warehouse d) {
 
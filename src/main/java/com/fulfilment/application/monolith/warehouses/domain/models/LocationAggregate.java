@@ -0,0 +1,23 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Running totals of the active (non-archived) warehouses at one location.
+ */
+public class LocationAggregate {
+
+  public static final LocationAggregate EMPTY = new LocationAggregate(0, 0, 0);
+
+  public final long activeCount;
+
+  // sum of the capacities of the active warehouses
+  public final long totalCapacity;
+
+  // sum of the stock held by the active warehouses
+  public final long totalStock;
+
+  public LocationAggregate(long activeCount, long totalCapacity, long totalStock) {
+    this.activeCount = activeCount;
+    this.totalCapacity = totalCapacity;
+    this.totalStock = totalStock;
+  }
+}
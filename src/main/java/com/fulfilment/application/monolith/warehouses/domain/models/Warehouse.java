@@ -16,4 +16,17 @@ public class Warehouse {
   public LocalDateTime createdAt;
 
   public LocalDateTime archivedAt;
+
+  public Warehouse() {}
+
+  // Target of the repository's read-only "select new" projections
+  public Warehouse(String businessUnitCode, String location, Integer capacity, Integer stock,
+      LocalDateTime createdAt, LocalDateTime archivedAt) {
+    this.businessUnitCode = businessUnitCode;
+    this.location = location;
+    this.capacity = capacity;
+    this.stock = stock;
+    this.createdAt = createdAt;
+    this.archivedAt = archivedAt;
+  }
 }
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fired once a warehouse unit has been archived, so modules referencing its business
+ * unit code can release what they hold for it.
+ */
+public class WarehouseArchivedEvent {
+
+  public final String businessUnitCode;
+  public final LocalDateTime archivedAt;
+
+  public WarehouseArchivedEvent(String businessUnitCode, LocalDateTime archivedAt) {
+    this.businessUnitCode = businessUnitCode;
+    this.archivedAt = archivedAt;
+  }
+}
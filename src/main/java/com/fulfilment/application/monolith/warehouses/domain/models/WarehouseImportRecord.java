@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * One input record of a bulk import: the parsed unit, or why its line could not be parsed.
+ */
+public class WarehouseImportRecord {
+
+  // 1-based line of the record in the import body
+  public final long line;
+
+  // null when the line could not be parsed
+  public final Warehouse warehouse;
+
+  public final String error;
+
+  private WarehouseImportRecord(long line, Warehouse warehouse, String error) {
+    this.line = line;
+    this.warehouse = warehouse;
+    this.error = error;
+  }
+
+  public static WarehouseImportRecord parsed(long line, Warehouse warehouse) {
+    return new WarehouseImportRecord(line, warehouse, null);
+  }
+
+  public static WarehouseImportRecord unparseable(long line, String error) {
+    return new WarehouseImportRecord(line, null, error);
+  }
+}
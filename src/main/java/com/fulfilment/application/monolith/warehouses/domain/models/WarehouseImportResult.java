@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of one bulk import record, reported back in input order.
+ */
+public class WarehouseImportResult {
+
+  public final long line;
+
+  public final String businessUnitCode;
+
+  public final boolean created;
+
+  // why the record was rejected, null when it was created
+  public final String error;
+
+  private WarehouseImportResult(long line, String businessUnitCode, boolean created, String error) {
+    this.line = line;
+    this.businessUnitCode = businessUnitCode;
+    this.created = created;
+    this.error = error;
+  }
+
+  public static WarehouseImportResult created(long line, String businessUnitCode) {
+    return new WarehouseImportResult(line, businessUnitCode, true, null);
+  }
+
+  public static WarehouseImportResult rejected(long line, String businessUnitCode, String error) {
+    return new WarehouseImportResult(line, businessUnitCode, false, error);
+  }
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of one replacement of a bulk replace, reported back in request order.
+ */
+public class WarehouseReplacementResult {
+
+  public final String businessUnitCode;
+
+  public final boolean replaced;
+
+  // why the replacement is infeasible, null when it was applied
+  public final String error;
+
+  private WarehouseReplacementResult(String businessUnitCode, boolean replaced, String error) {
+    this.businessUnitCode = businessUnitCode;
+    this.replaced = replaced;
+    this.error = error;
+  }
+
+  public static WarehouseReplacementResult replaced(String businessUnitCode) {
+    return new WarehouseReplacementResult(businessUnitCode, true, null);
+  }
+
+  public static WarehouseReplacementResult rejected(String businessUnitCode, String error) {
+    return new WarehouseReplacementResult(businessUnitCode, false, error);
+  }
+}
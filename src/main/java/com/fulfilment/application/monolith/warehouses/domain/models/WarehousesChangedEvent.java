@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.Collection;
+
+/**
+ * Fired for every write to active warehouse units, with the business unit codes it
+ * touched, so read-side indexes can refresh those units once the write has committed.
+ */
+public class WarehousesChangedEvent {
+
+  public final Collection<String> businessUnitCodes;
+
+  public WarehousesChangedEvent(Collection<String> businessUnitCodes) {
+    this.businessUnitCodes = businessUnitCodes;
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRecord;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ImportWarehousesOperation {
+
+  /**
+   * Validates and creates the records chunk by chunk as they are read; after each
+   * chunk is written its results are handed to {@code results}, in input order.
+   */
+  void importAll(Iterator<WarehouseImportRecord> records, Consumer<List<WarehouseImportResult>> results);
+}
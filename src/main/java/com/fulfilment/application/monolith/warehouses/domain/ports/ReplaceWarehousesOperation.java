@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import java.util.List;
+
+public interface ReplaceWarehousesOperation {
+
+  /**
+   * Evaluates the replacements as one set against the location limits, applies the
+   * feasible ones together and returns one result per replacement, in input order.
+   */
+  List<WarehouseReplacementResult> replaceAll(List<Warehouse> replacements);
+}
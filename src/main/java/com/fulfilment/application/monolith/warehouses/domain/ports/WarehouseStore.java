@@ -1,20 +1,86 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface WarehouseStore {
 
   List<Warehouse> getAll();
 
+  /**
+   * Active units only, e.g. to build a read-side index over them
+   */
+  List<Warehouse> getAllActive();
+
   void create(Warehouse warehouse);
 
+  /**
+   * Creates the warehouse only if its location still has room for one more unit of
+   * its capacity, reserving both in the same guarded write. Returns false, writing
+   * nothing, when the location is full; concurrent writers never both get the last slot.
+   */
+  boolean createWithinLimits(Warehouse warehouse, int maxNumberOfWarehouses, int maxCapacity);
+
+  /**
+   * Creates all the warehouses or none, reserving each location's share within the
+   * limits of {@code locations} (keyed by identifier). Throws RetryableConflictException
+   * when a concurrent writer took one of the codes or the room since the caller checked.
+   */
+  void createAll(List<Warehouse> warehouses, Map<String, Location> locations);
+
+  /**
+   * The subset of the given codes that belong to an active warehouse
+   */
+  Set<String> findExistingCodes(Collection<String> buCodes);
+
+  /**
+   * The subset of the given codes that have archived versions but no active one
+   */
+  Set<String> findArchivedCodes(Collection<String> buCodes);
+
   void update(Warehouse warehouse);
 
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
 
+  /**
+   * The active warehouses with the given codes, keyed by code, in a single read;
+   * codes without an active warehouse are absent
+   */
+  Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes);
+
+  /**
+   * Archives the active warehouse with this code, guarded on it still being active.
+   * Returns false, writing nothing, when there is no active warehouse to archive.
+   */
+  boolean archiveByCode(String buCode, LocalDateTime archivedAt);
+
+  /**
+   * Archives the active warehouse with the replacement's code and creates the
+   * replacement, atomically. Returns false, writing nothing, when there is no
+   * active warehouse to replace. When the replacement adds a unit or capacity to its
+   * location, it is held to the limits of {@code location} (only then consulted, so it
+   * may be null for a replacement that does not grow) and a concurrent writer that
+   * took the room since the caller checked causes a RetryableConflictException.
+   */
+  boolean replaceByCode(Warehouse replacement, Location location, LocalDateTime archivedAt);
+
+  /**
+   * Archives the active version of every replacement's code and creates the
+   * replacements, all or none. A location ending up with more units or capacity than
+   * the archived versions held there is held to the limits of {@code locations} (keyed
+   * by identifier). Throws RetryableConflictException when a unit is no longer active
+   * or a concurrent writer took the room since the caller checked.
+   */
+  void replaceAll(List<Warehouse> replacements, Map<String, Location> locations, LocalDateTime archivedAt);
+
   /**
    * Count warehouses by location filter (optimized for large datasets)
    */
@@ -24,4 +90,14 @@ public interface WarehouseStore {
    * Calculate total capacity of all active warehouses at a location
    */
   int getTotalCapacityByLocation(String location);
+
+  /**
+   * Active warehouse count, capacity and stock totals at a location (never null)
+   */
+  LocationAggregate getAggregateByLocation(String location);
+
+  /**
+   * Aggregates of every location holding warehouses, in a single read
+   */
+  Map<String, LocationAggregate> getAggregatesByLocation();
 }
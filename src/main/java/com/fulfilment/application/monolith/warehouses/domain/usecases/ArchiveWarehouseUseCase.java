@@ -4,9 +4,13 @@ import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseArchivedEvent;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 
 
@@ -15,27 +19,38 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
 
+  // observed in the archive's transaction by the fulfilment module, which drops the
+  // unit's assignments: the archive and the deletion commit or roll back together
+  private final Event<WarehouseArchivedEvent> archived;
+
   public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+    this(warehouseStore, null);
+  }
+
+  @Inject
+  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore, Event<WarehouseArchivedEvent> archived) {
     this.warehouseStore = warehouseStore;
+    this.archived = archived;
   }
 
   @Override
+  @Transactional
   public void archive(Warehouse warehouse) {
 
       if (warehouse == null || warehouse.businessUnitCode == null) {
           throw new ValidationException(AppConstants.ERR_WAREHOUSE_INVALID_ARCHIVE);
       }
 
-      Warehouse existing =
-          warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode);
-
-      if (existing == null) {
+      // single guarded write: no lookup first, so no window for a concurrent archive
+      LocalDateTime archivedAt = LocalDateTime.now();
+      if (!warehouseStore.archiveByCode(warehouse.businessUnitCode, archivedAt)) {
           throw new NotFoundException(
               String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, warehouse.businessUnitCode)
           );
       }
 
-      existing.archivedAt = LocalDateTime.now();
-      warehouseStore.update(existing);
+      if (archived != null) {
+          archived.fire(new WarehouseArchivedEvent(warehouse.businessUnitCode, archivedAt));
+      }
   }
 }
@@ -7,6 +7,7 @@ import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.location.LocationGateway;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.LocalDateTime;
@@ -43,10 +44,31 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
         Location location =
                 locationGateway.resolveByIdentifier(warehouse.location);
 
-        // 3. Warehouse Creation Feasibility
-        long warehousesInLocation = warehouseStore.countByLocation(location.identification);
+        // 3.-7. Feasibility at the location and the unit's own capacity and stock
+        LocationAggregate aggregate = warehouseStore.getAggregateByLocation(location.identification);
+        checkFeasibility(warehouse, location, aggregate.activeCount, aggregate.totalCapacity);
+
+        warehouse.createdAt = LocalDateTime.now();
+        warehouse.archivedAt = null;
+
+        // Steps 3 and 5 read a snapshot; the store re-checks both limits in the write itself,
+        // so a concurrent create that took the last slot in between is still caught here
+        if (!warehouseStore.createWithinLimits(
+                warehouse, location.maxNumberOfWarehouses, location.maxCapacity)) {
+            LocationAggregate current = warehouseStore.getAggregateByLocation(location.identification);
+            throw new ConflictException(current.activeCount >= location.maxNumberOfWarehouses
+                    ? AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION
+                    : AppConstants.ERR_WAREHOUSE_LOCATION_CAPACITY_EXCEEDED);
+        }
+    }
 
-        if (warehousesInLocation >= location.maxNumberOfWarehouses) {
+    /**
+     * Steps 3 to 7 of a create, against the given totals of the location's active
+     * warehouses; shared with the bulk import, which keeps those totals itself.
+     */
+    static void checkFeasibility(Warehouse warehouse, Location location, long activeCount, long totalCapacity) {
+        // 3. Warehouse Creation Feasibility
+        if (activeCount >= location.maxNumberOfWarehouses) {
             throw new ConflictException(AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION);
         }
 
@@ -56,8 +78,7 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
         }
 
         // 5. Location Maximum Capacity Check
-        int currentTotalCapacity = warehouseStore.getTotalCapacityByLocation(location.identification);
-        if (currentTotalCapacity + warehouse.capacity > location.maxCapacity) {
+        if (totalCapacity + warehouse.capacity > location.maxCapacity) {
             throw new ConflictException(AppConstants.ERR_WAREHOUSE_LOCATION_CAPACITY_EXCEEDED);
         }
 
@@ -70,10 +91,5 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
         if (warehouse.stock > warehouse.capacity) {
             throw new ValidationException(AppConstants.ERR_WAREHOUSE_STOCK_EXCEEDS_CAPACITY);
         }
-
-        warehouse.createdAt = LocalDateTime.now();
-        warehouse.archivedAt = null;
-
-        warehouseStore.create(warehouse);
     }
 }
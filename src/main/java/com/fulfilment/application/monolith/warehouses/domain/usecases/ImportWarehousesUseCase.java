@@ -0,0 +1,191 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.common.exceptions.DomainException;
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRecord;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ImportWarehousesOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
+
+/**
+ * Bulk create. The location totals are read once and then kept in memory as records
+ * are accepted, so a record costs no queries of its own; codes are checked and rows
+ * written per chunk. Each record is held to the same rules as a single create.
+ * A chunk that fails to write for any reason other than a lost race is reported as
+ * rejected, line by line, and ends the import.
+ */
+@ApplicationScoped
+public class ImportWarehousesUseCase implements ImportWarehousesOperation {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final String LOG_CHUNK_CONFLICT = "Import chunk of %d records lost a concurrent write: %s";
+    private static final String LOG_CHUNK_FAILED = "Import chunk of %d records failed, stopping the import";
+    private static final String LOG_IMPORTED = "Imported %d of %d warehouse records";
+
+    private static final Logger LOGGER = Logger.getLogger(ImportWarehousesUseCase.class);
+
+    private final WarehouseStore warehouseStore;
+    private final LocationGateway locationGateway;
+
+    public ImportWarehousesUseCase(
+            WarehouseStore warehouseStore,
+            LocationGateway locationGateway) {
+        this.warehouseStore = warehouseStore;
+        this.locationGateway = locationGateway;
+    }
+
+    @Override
+    public void importAll(Iterator<WarehouseImportRecord> records, Consumer<List<WarehouseImportResult>> results) {
+        Import run = new Import();
+        List<WarehouseImportRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (!run.aborted && records.hasNext()) {
+            chunk.add(records.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                results.accept(run.importChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!run.aborted && !chunk.isEmpty()) {
+            results.accept(run.importChunk(chunk));
+        }
+        LOGGER.debugf(LOG_IMPORTED, run.created, run.read);
+    }
+
+    /**
+     * State of one import: running location totals and the codes it has accepted so far.
+     */
+    private final class Import {
+
+        private final Map<String, long[]> totals = new HashMap<>();
+        private final Set<String> acceptedCodes = new HashSet<>();
+        private int read;
+        private int created;
+        private boolean aborted;
+
+        Import() {
+            loadTotals();
+        }
+
+        private void loadTotals() {
+            totals.clear();
+            for (Map.Entry<String, LocationAggregate> entry : warehouseStore.getAggregatesByLocation().entrySet()) {
+                LocationAggregate aggregate = entry.getValue();
+                totals.put(entry.getKey(), new long[] {aggregate.activeCount, aggregate.totalCapacity});
+            }
+        }
+
+        List<WarehouseImportResult> importChunk(List<WarehouseImportRecord> chunk) {
+            read += chunk.size();
+            Set<String> codes = new HashSet<>();
+            for (WarehouseImportRecord record : chunk) {
+                if (record.warehouse != null && record.warehouse.businessUnitCode != null) {
+                    codes.add(record.warehouse.businessUnitCode);
+                }
+            }
+            Set<String> existing = warehouseStore.findExistingCodes(codes);
+
+            WarehouseImportResult[] results = new WarehouseImportResult[chunk.size()];
+            List<Warehouse> accepted = new ArrayList<>();
+            List<Integer> acceptedAt = new ArrayList<>();
+            Map<String, Location> locations = new HashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                WarehouseImportRecord record = chunk.get(i);
+                String error = record.error != null ? record.error : accept(record.warehouse, existing, locations);
+                if (error != null) {
+                    String code = record.warehouse == null ? null : record.warehouse.businessUnitCode;
+                    results[i] = WarehouseImportResult.rejected(record.line, code, error);
+                } else {
+                    record.warehouse.createdAt = now;
+                    record.warehouse.archivedAt = null;
+                    accepted.add(record.warehouse);
+                    acceptedAt.add(i);
+                }
+            }
+
+            if (!accepted.isEmpty()) {
+                write(chunk, accepted, acceptedAt, locations, results);
+            }
+            return List.of(results);
+        }
+
+        /**
+         * Checks one record against the running totals and counts it in; returns the
+         * rejection message instead when it does not fit.
+         */
+        private String accept(Warehouse warehouse, Set<String> existing, Map<String, Location> locations) {
+            if (warehouse.businessUnitCode == null) {
+                return AppConstants.ERR_WAREHOUSE_IMPORT_CODE_REQUIRED;
+            }
+            if (existing.contains(warehouse.businessUnitCode) || acceptedCodes.contains(warehouse.businessUnitCode)) {
+                return AppConstants.ERR_WAREHOUSE_ALREADY_EXISTS;
+            }
+
+            try {
+                Location location = locationGateway.resolveByIdentifier(warehouse.location);
+                long[] total = totals.computeIfAbsent(location.identification, key -> new long[2]);
+                CreateWarehouseUseCase.checkFeasibility(warehouse, location, total[0], total[1]);
+
+                total[0]++;
+                total[1] += warehouse.capacity;
+                locations.put(location.identification, location);
+                acceptedCodes.add(warehouse.businessUnitCode);
+                return null;
+            } catch (DomainException e) {
+                return e.getMessage();
+            }
+        }
+
+        private void write(List<WarehouseImportRecord> chunk, List<Warehouse> accepted, List<Integer> acceptedAt,
+                Map<String, Location> locations, WarehouseImportResult[] results) {
+            try {
+                warehouseStore.createAll(accepted, locations);
+                created += accepted.size();
+                for (int i : acceptedAt) {
+                    WarehouseImportRecord record = chunk.get(i);
+                    results[i] = WarehouseImportResult.created(record.line, record.warehouse.businessUnitCode);
+                }
+            } catch (ConflictException e) {
+                // another writer took a code or room since the totals were read; nothing of
+                // this chunk was written, so re-read the totals before the next one
+                LOGGER.debugf(LOG_CHUNK_CONFLICT, accepted.size(), e.getMessage());
+                for (int i : acceptedAt) {
+                    WarehouseImportRecord record = chunk.get(i);
+                    acceptedCodes.remove(record.warehouse.businessUnitCode);
+                    results[i] = WarehouseImportResult.rejected(
+                            record.line, record.warehouse.businessUnitCode, e.getMessage());
+                }
+                loadTotals();
+            } catch (RuntimeException e) {
+                // not a lost race: the chunk was rolled back and the next one would likely
+                // fail the same way, so report every line of it and stop here
+                LOGGER.errorf(e, LOG_CHUNK_FAILED, accepted.size());
+                for (int i : acceptedAt) {
+                    WarehouseImportRecord record = chunk.get(i);
+                    acceptedCodes.remove(record.warehouse.businessUnitCode);
+                    results[i] = WarehouseImportResult.rejected(
+                            record.line, record.warehouse.businessUnitCode, AppConstants.ERR_WAREHOUSE_IMPORT_ABORTED);
+                }
+                aborted = true;
+            }
+        }
+    }
+}
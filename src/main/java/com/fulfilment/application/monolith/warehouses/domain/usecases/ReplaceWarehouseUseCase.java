@@ -6,7 +6,6 @@ import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
-import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.location.LocationGateway;
@@ -17,15 +16,12 @@ import java.time.LocalDateTime;
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
 	 private final WarehouseStore warehouseStore;
-	 private final ArchiveWarehouseOperation archiveWarehouseOperation;
 	 private final LocationGateway locationGateway;
 
 	    public ReplaceWarehouseUseCase(
 	            WarehouseStore warehouseStore,
-	            ArchiveWarehouseOperation archiveWarehouseOperation,
 	            LocationGateway locationGateway) {
 	        this.warehouseStore = warehouseStore;
-	        this.archiveWarehouseOperation = archiveWarehouseOperation;
 	        this.locationGateway = locationGateway;
 	    }
 
@@ -60,10 +56,11 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
         }
 
         // Validate location capacity constraints if location or capacity changed
+        Location location = null;
         if (!existing.location.equals(newWarehouse.location) || 
             !existing.capacity.equals(newWarehouse.capacity)) {
             
-            Location location = locationGateway.resolveByIdentifier(newWarehouse.location);
+            location = locationGateway.resolveByIdentifier(newWarehouse.location);
             
             // Calculate total capacity: current location total - old capacity + new capacity
             int currentTotalCapacity = warehouseStore.getTotalCapacityByLocation(location.identification);
@@ -74,12 +71,17 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
             }
         }
 
-        // Archive the existing warehouse instead of overwriting it
-        archiveWarehouseOperation.archive(existing);
-
-        // Create new warehouse with same business unit code
-        newWarehouse.createdAt = LocalDateTime.now();
+        // Archive the existing warehouse and create the new one with the same business
+        // unit code in one guarded write; it fails if another replace or archive got there
+        // first, and a grown location is reserved within its limits, so the check above
+        // cannot be overtaken by a concurrent writer
+        LocalDateTime now = LocalDateTime.now();
+        newWarehouse.createdAt = now;
         newWarehouse.archivedAt = null;
-        warehouseStore.create(newWarehouse);
+        if (!warehouseStore.replaceByCode(newWarehouse, location, now)) {
+            throw new NotFoundException(
+                String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, newWarehouse.businessUnitCode)
+            );
+        }
     }
 }
@@ -0,0 +1,232 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.common.exceptions.DomainException;
+import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehousesOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Replaces a set of warehouses as one plan. Each replacement is first held to the rules
+ * of a single replace; the location limits are then checked on the totals the whole set
+ * produces, so a unit leaving a location makes room for one arriving there, and units
+ * that each fit on their own cannot overflow a location together. The feasible
+ * replacements are written in one transaction.
+ */
+@ApplicationScoped
+public class ReplaceWarehousesInBulkUseCase implements ReplaceWarehousesOperation {
+
+    // Every replacement of a request is planned in memory and written in one transaction
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private static final String LOG_PLAN_CONFLICT = "Bulk replacement of %d warehouses lost a concurrent write: %s";
+    private static final String LOG_REPLACED = "Replaced %d of %d warehouses";
+
+    private static final Logger LOGGER = Logger.getLogger(ReplaceWarehousesInBulkUseCase.class);
+
+    private final WarehouseStore warehouseStore;
+    private final LocationGateway locationGateway;
+
+    public ReplaceWarehousesInBulkUseCase(
+            WarehouseStore warehouseStore,
+            LocationGateway locationGateway) {
+        this.warehouseStore = warehouseStore;
+        this.locationGateway = locationGateway;
+    }
+
+    @Override
+    public List<WarehouseReplacementResult> replaceAll(List<Warehouse> replacements) {
+
+        if (replacements == null) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
+        }
+
+        // The replaced versions are read together, not once per replacement
+        Set<String> requested = new HashSet<>();
+        for (Warehouse replacement : replacements) {
+            if (replacement != null && replacement.businessUnitCode != null) {
+                requested.add(replacement.businessUnitCode);
+            }
+        }
+        Map<String, Warehouse> existing = warehouseStore.findByBusinessUnitCodes(requested);
+
+        WarehouseReplacementResult[] results = new WarehouseReplacementResult[replacements.size()];
+        List<Candidate> candidates = new ArrayList<>();
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < replacements.size(); i++) {
+            Warehouse replacement = replacements.get(i);
+            try {
+                candidates.add(check(i, replacement, codes, existing));
+            } catch (DomainException e) {
+                results[i] = WarehouseReplacementResult.rejected(
+                        replacement == null ? null : replacement.businessUnitCode, e.getMessage());
+            }
+        }
+
+        List<Candidate> accepted = plan(candidates, results);
+        if (!accepted.isEmpty()) {
+            write(accepted, results);
+        }
+        LOGGER.debugf(LOG_REPLACED, accepted.size(), replacements.size());
+        return List.of(results);
+    }
+
+    /**
+     * The checks of a single replace that do not depend on the location totals.
+     */
+    private Candidate check(int index, Warehouse replacement, Set<String> codes, Map<String, Warehouse> versions) {
+        if (replacement == null || replacement.businessUnitCode == null) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_NULL);
+        }
+        if (!codes.add(replacement.businessUnitCode)) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_REPLACEMENT_DUPLICATE);
+        }
+
+        Warehouse existing = versions.get(replacement.businessUnitCode);
+        if (existing == null) {
+            throw new NotFoundException(
+                    String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, replacement.businessUnitCode));
+        }
+        if (!existing.stock.equals(replacement.stock)) {
+            throw new ConflictException(AppConstants.ERR_WAREHOUSE_STOCK_IMMUTABLE);
+        }
+        if (replacement.capacity == null || replacement.capacity <= 0) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_CAPACITY_REQUIRED);
+        }
+        if (replacement.capacity < existing.stock) {
+            throw new ValidationException(AppConstants.ERR_WAREHOUSE_CAPACITY_INSUFFICIENT);
+        }
+
+        Location location = locationGateway.resolveByIdentifier(replacement.location);
+        return new Candidate(index, replacement, existing, location);
+    }
+
+    /**
+     * Applies every candidate to the location totals, then, while a location is over a
+     * limit, drops the last candidate (in request order) that adds to it there and
+     * re-evaluates. A location that is over its limit without any candidate adding to
+     * it is left as it is: the set does not make it worse.
+     */
+    private List<Candidate> plan(List<Candidate> candidates, WarehouseReplacementResult[] results) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (Map.Entry<String, LocationAggregate> entry : warehouseStore.getAggregatesByLocation().entrySet()) {
+            LocationAggregate aggregate = entry.getValue();
+            totals.put(entry.getKey(), new long[] {aggregate.activeCount, aggregate.totalCapacity});
+        }
+
+        List<Candidate> accepted = new ArrayList<>(candidates);
+        for (Candidate candidate : accepted) {
+            candidate.apply(totals, 1);
+        }
+
+        boolean rejected = true;
+        while (rejected) {
+            rejected = false;
+            for (int i = accepted.size() - 1; i >= 0; i--) {
+                Candidate candidate = accepted.get(i);
+                String error = candidate.overflow(totals);
+                if (error != null) {
+                    candidate.apply(totals, -1);
+                    accepted.remove(i);
+                    results[candidate.index] =
+                            WarehouseReplacementResult.rejected(candidate.replacement.businessUnitCode, error);
+                    rejected = true;
+                    break;
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private void write(List<Candidate> accepted, WarehouseReplacementResult[] results) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Warehouse> replacements = new ArrayList<>(accepted.size());
+        Map<String, Location> locations = new HashMap<>();
+        for (Candidate candidate : accepted) {
+            candidate.replacement.createdAt = now;
+            candidate.replacement.archivedAt = null;
+            replacements.add(candidate.replacement);
+            locations.put(candidate.location.identification, candidate.location);
+        }
+
+        try {
+            warehouseStore.replaceAll(replacements, locations, now);
+            for (Candidate candidate : accepted) {
+                results[candidate.index] =
+                        WarehouseReplacementResult.replaced(candidate.replacement.businessUnitCode);
+            }
+        } catch (ConflictException e) {
+            // nothing of the plan was written; the caller can re-plan against fresh totals
+            LOGGER.debugf(LOG_PLAN_CONFLICT, accepted.size(), e.getMessage());
+            for (Candidate candidate : accepted) {
+                results[candidate.index] =
+                        WarehouseReplacementResult.rejected(candidate.replacement.businessUnitCode, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One replacement that passed its own checks, with the version it replaces.
+     */
+    private static final class Candidate {
+
+        final int index;
+        final Warehouse replacement;
+        final Warehouse existing;
+        final Location location;
+
+        Candidate(int index, Warehouse replacement, Warehouse existing, Location location) {
+            this.index = index;
+            this.replacement = replacement;
+            this.existing = existing;
+            this.location = location;
+        }
+
+        boolean moves() {
+            return !location.identification.equals(existing.location);
+        }
+
+        /**
+         * Moves the replaced version out of the totals and the replacement in, or back.
+         */
+        void apply(Map<String, long[]> totals, int sign) {
+            long[] from = totals.computeIfAbsent(existing.location, key -> new long[2]);
+            from[0] -= sign;
+            from[1] -= sign * (long) (existing.capacity != null ? existing.capacity : 0);
+            long[] to = totals.computeIfAbsent(location.identification, key -> new long[2]);
+            to[0] += sign;
+            to[1] += sign * (long) replacement.capacity;
+        }
+
+        /**
+         * The limit this replacement helps to exceed at its location, or null.
+         */
+        String overflow(Map<String, long[]> totals) {
+            long[] total = totals.get(location.identification);
+            if (moves() && total[0] > location.maxNumberOfWarehouses) {
+                return AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION;
+            }
+            boolean adds = moves() || existing.capacity == null || replacement.capacity > existing.capacity;
+            if (adds && total[1] > location.maxCapacity) {
+                return AppConstants.ERR_WAREHOUSE_LOCATION_CAPACITY_EXCEEDED;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.fulfilment.adapters.database.DbFulfilmentAssignment;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class IdAllocationTest {
+
+  // highest IDs seeded by import.sql
+  private static final long SEEDED_MAX_ID = 3;
+  private static final long SEEDED_MAX_ASSIGNMENT_ID = 4;
+
+  @Inject EntityManager entityManager;
+  @Inject ProductRepository productRepository;
+
+  @Test
+  @Transactional
+  public void testStoreIdsFollowSeededRows() {
+    Store first = new Store("ID-ALLOC-1");
+    Store second = new Store("ID-ALLOC-2");
+    first.persist();
+    second.persist();
+
+    assertIdsAfterSeed(SEEDED_MAX_ID, first.id, second.id);
+    Store.deleteById(first.id);
+    Store.deleteById(second.id);
+  }
+
+  @Test
+  @Transactional
+  public void testProductIdsFollowSeededRows() {
+    Product first = new Product("ID-ALLOC-1");
+    Product second = new Product("ID-ALLOC-2");
+    productRepository.persist(first);
+    productRepository.persist(second);
+
+    assertIdsAfterSeed(SEEDED_MAX_ID, first.id, second.id);
+    productRepository.delete(first);
+    productRepository.delete(second);
+  }
+
+  @Test
+  @Transactional
+  public void testWarehouseAndAssignmentIdsFollowSeededRows() {
+    DbWarehouse first = warehouse("ID-ALLOC-1");
+    DbWarehouse second = warehouse("ID-ALLOC-2");
+    entityManager.persist(first);
+    entityManager.persist(second);
+    assertIdsAfterSeed(SEEDED_MAX_ID, first.id, second.id);
+
+    DbFulfilmentAssignment a1 = new DbFulfilmentAssignment("ID-ALLOC", "P1", "W1");
+    DbFulfilmentAssignment a2 = new DbFulfilmentAssignment("ID-ALLOC", "P2", "W1");
+    entityManager.persist(a1);
+    entityManager.persist(a2);
+    assertIdsAfterSeed(SEEDED_MAX_ASSIGNMENT_ID, a1.id, a2.id);
+
+    entityManager.remove(first);
+    entityManager.remove(second);
+    entityManager.remove(a1);
+    entityManager.remove(a2);
+  }
+
+  private static void assertIdsAfterSeed(long seededMax, Long first, Long second) {
+    assertNotNull(first);
+    assertNotNull(second);
+    assertTrue(first > seededMax, "generated id " + first + " collides with seed range");
+    assertTrue(second > first);
+  }
+
+  private static DbWarehouse warehouse(String buCode) {
+    DbWarehouse db = new DbWarehouse();
+    db.businessUnitCode = buCode;
+    db.location = "VETSBY-001";
+    db.capacity = 1;
+    db.stock = 0;
+    db.createdAt = LocalDateTime.now();
+    return db;
+  }
+}
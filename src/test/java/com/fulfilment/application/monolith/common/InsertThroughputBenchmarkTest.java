@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.fulfilment.adapters.database.FulfilmentAssignmentRepository;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Bulk insert throughput for the entities with generated IDs.
+ * Not part of the regular build, run with:
+ * <pre>mvn test -Dbenchmark=true -Dquarkus.hibernate-orm.log.sql=false -Dtest=InsertThroughputBenchmarkTest</pre>
+ */
+@QuarkusTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class InsertThroughputBenchmarkTest {
+
+  private static final Logger LOGGER = Logger.getLogger(InsertThroughputBenchmarkTest.class);
+  private static final int ROWS = 20_000;
+  private static final int FLUSH_EVERY = 50;
+  private static final String PREFIX = "BENCH-";
+
+  @Inject EntityManager entityManager;
+  @Inject WarehouseRepository warehouseRepository;
+  @Inject FulfilmentAssignmentRepository assignmentRepository;
+
+  @AfterEach
+  public void cleanup() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      warehouseRepository.delete("businessUnitCode like ?1", PREFIX + "%");
+      Store.delete("name like ?1", PREFIX + "%");
+      assignmentRepository.delete("storeId like ?1", PREFIX + "%");
+    });
+  }
+
+  @Test
+  public void benchmarkWarehouseInserts() {
+    long elapsed = timed(() -> {
+      for (int i = 0; i < ROWS; i++) {
+        DbWarehouse db = new DbWarehouse();
+        db.businessUnitCode = PREFIX + i;
+        db.location = "AMSTERDAM-001";
+        db.capacity = 10;
+        db.stock = 1;
+        db.createdAt = LocalDateTime.now();
+        warehouseRepository.persist(db);
+        flushPeriodically(i);
+      }
+    });
+    report("warehouse", elapsed);
+    assertEquals(ROWS, QuarkusTransaction.requiringNew().call(
+        () -> warehouseRepository.count("businessUnitCode like ?1", PREFIX + "%")));
+  }
+
+  @Test
+  public void benchmarkStoreInserts() {
+    long elapsed = timed(() -> {
+      for (int i = 0; i < ROWS; i++) {
+        new Store(PREFIX + i).persist();
+        flushPeriodically(i);
+      }
+    });
+    report("store", elapsed);
+    assertEquals(ROWS, QuarkusTransaction.requiringNew().call(
+        () -> Store.count("name like ?1", PREFIX + "%")));
+  }
+
+  @Test
+  public void benchmarkAssignmentInserts() {
+    List<FulfilmentAssignment> batch = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      batch.add(new FulfilmentAssignment(PREFIX + (i % 1000), "P" + i, "W" + (i % 300)));
+    }
+    long elapsed = timed(() -> assignmentRepository.createAll(batch));
+    report("fulfilment_assignment", elapsed);
+    assertEquals(ROWS, QuarkusTransaction.requiringNew().call(
+        () -> assignmentRepository.count("storeId like ?1", PREFIX + "%")));
+  }
+
+  private void flushPeriodically(int i) {
+    if ((i + 1) % FLUSH_EVERY == 0) {
+      entityManager.flush();
+      entityManager.clear();
+    }
+  }
+
+  private static long timed(Runnable inserts) {
+    long start = System.nanoTime();
+    QuarkusTransaction.requiringNew().run(inserts);
+    return System.nanoTime() - start;
+  }
+
+  private static void report(String table, long elapsedNanos) {
+    double seconds = elapsedNanos / 1_000_000_000d;
+    String line = String.format("%s: %d rows in %.0f ms (%.0f rows/s)",
+        table, ROWS, seconds * 1000, ROWS / seconds);
+    LOGGER.info("[benchmark] " + line);
+  }
+}
@@ -0,0 +1,85 @@
+package com.fulfilment.application.monolith.common.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class BoundedCacheTest {
+
+  @Test
+  public void testSecondGetIsServedFromCache() {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "A"; }));
+    assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "other"; }));
+
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+  }
+
+  @Test
+  public void testNullIsNotCached() {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+
+    assertNull(cache.get("a", k -> null));
+    assertEquals("A", cache.get("a", k -> "A"));
+    assertEquals(2, cache.misses());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    cache.get("a", k -> "A");
+    cache.get("b", k -> "B");
+    cache.get("a", k -> "unused"); // touch a, b becomes eldest
+    cache.get("c", k -> "C");
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.evictions());
+    assertEquals("A", cache.get("a", k -> "reloaded"));
+    assertEquals("reloaded", cache.get("b", k -> "reloaded"));
+  }
+
+  @Test
+  public void testInvalidateForcesReload() {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+    cache.get("a", k -> "A");
+
+    cache.invalidate("a");
+
+    assertEquals("A2", cache.get("a", k -> "A2"));
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testLoadRacingInvalidateIsNotStored() {
+    BoundedCache<String, String> cache = new BoundedCache<>(4);
+
+    String loaded = cache.get("a", k -> {
+      cache.invalidate("a"); // a writer lands while the load is in flight
+      return "stale";
+    });
+
+    assertEquals("stale", loaded);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testEntriesExpireAfterTheirTimeToLive() {
+    AtomicLong now = new AtomicLong();
+    BoundedCache<String, String> cache = new BoundedCache<>(4, Duration.ofNanos(100), now::get);
+    cache.get("a", k -> "A");
+
+    now.set(99);
+    assertEquals("A", cache.get("a", k -> "reloaded"));
+    now.set(100);
+    assertEquals("reloaded", cache.get("a", k -> "reloaded"));
+    assertEquals(2, cache.misses());
+  }
+}
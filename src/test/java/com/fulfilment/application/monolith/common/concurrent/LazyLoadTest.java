@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.common.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class LazyLoadTest {
+
+  @Test
+  public void testLoadsOnceOnFirstUse() {
+    AtomicInteger loads = new AtomicInteger();
+    LazyLoad load = new LazyLoad(loads::incrementAndGet);
+
+    assertFalse(load.awaitLoaded());
+    load.ensureLoaded();
+    load.ensureLoaded();
+
+    assertTrue(load.awaitLoaded());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void testChangeRacingTheLoadWaitsForIt() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    LazyLoad load = new LazyLoad(() -> {
+      loading.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      pool.submit(load::ensureLoaded);
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<Boolean> change = pool.submit(load::awaitLoaded);
+
+      Thread.sleep(50);
+      assertFalse(change.isDone());
+      release.countDown();
+      assertTrue(change.get(5, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testReloadsOnceOlderThanMaxAge() {
+    AtomicInteger loads = new AtomicInteger();
+    AtomicLong now = new AtomicLong();
+    LazyLoad load = new LazyLoad(loads::incrementAndGet, Duration.ofSeconds(10), now::get);
+
+    load.ensureLoaded();
+    now.set(Duration.ofSeconds(9).toNanos());
+    load.ensureLoaded();
+    assertEquals(1, loads.get());
+
+    now.set(Duration.ofSeconds(10).toNanos());
+    load.ensureLoaded();
+    load.ensureLoaded();
+    assertEquals(2, loads.get());
+  }
+}
@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith.common.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class StripedLocksTest {
+
+  @Test
+  public void testStripeCountIsRoundedUpToPowerOfTwo() {
+    assertEquals(1, new StripedLocks(1).stripeCount());
+    assertEquals(64, new StripedLocks(64).stripeCount());
+    assertEquals(128, new StripedLocks(65).stripeCount());
+  }
+
+  @Test
+  public void testSameKeyTwiceLocksStripeOnce() {
+    StripedLocks locks = new StripedLocks(8);
+    try (StripedLocks.Held held = locks.lockAll("a", "a")) {
+      assertNotNull(held);
+    }
+    // released: another thread can acquire immediately
+    assertTrue(tryLockFromOtherThread(locks, "a"));
+  }
+
+  @Test
+  public void testHeldKeyBlocksOtherThread() throws Exception {
+    StripedLocks locks = new StripedLocks(8);
+    try (StripedLocks.Held held = locks.lockAll("a")) {
+      assertFalse(tryLockFromOtherThread(locks, "a"));
+    }
+    assertTrue(tryLockFromOtherThread(locks, "a"));
+  }
+
+  @Test
+  public void testKeysOnDifferentStripesDoNotBlockEachOther() {
+    StripedLocks locks = new StripedLocks(64);
+    String other = "b";
+    for (int i = 0; locks.stripeOf(other) == locks.stripeOf("a"); i++) {
+      other = "b" + i;
+    }
+    try (StripedLocks.Held held = locks.lockAll("a")) {
+      assertTrue(tryLockFromOtherThread(locks, other));
+    }
+  }
+
+  @Test
+  public void testCloseIsIdempotent() {
+    StripedLocks locks = new StripedLocks(4);
+    StripedLocks.Held held = locks.lockAll("a", "b");
+    held.close();
+    held.close();
+    assertTrue(tryLockFromOtherThread(locks, "a"));
+  }
+
+  @Test
+  public void testOppositeKeyOrderDoesNotDeadlock() throws Exception {
+    StripedLocks locks = new StripedLocks(64);
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      Future<?> f1 = pool.submit(() -> lockRepeatedly(locks, start, "x", "y"));
+      Future<?> f2 = pool.submit(() -> lockRepeatedly(locks, start, "y", "x"));
+      start.countDown();
+      f1.get(10, TimeUnit.SECONDS);
+      f2.get(10, TimeUnit.SECONDS);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static Void lockRepeatedly(StripedLocks locks, CountDownLatch start, String first, String second)
+      throws InterruptedException {
+    start.await();
+    for (int i = 0; i < 10_000; i++) {
+      try (StripedLocks.Held held = locks.lockAll(first, second)) {
+        Thread.onSpinWait();
+      }
+    }
+    return null;
+  }
+
+  private static boolean tryLockFromOtherThread(StripedLocks locks, String key) {
+    // a held stripe blocks lockAll, so probe it from another thread with a bounded wait;
+    // a blocked probe finishes on its own once the stripe is released
+    Thread probe = new Thread(() -> locks.lockAll(key).close());
+    probe.setDaemon(true);
+    probe.start();
+    try {
+      probe.join(500);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return !probe.isAlive();
+  }
+}
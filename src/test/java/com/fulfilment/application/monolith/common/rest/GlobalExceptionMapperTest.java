@@ -1,43 +1,156 @@
 package com.fulfilment.application.monolith.common.rest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.exceptions.OverloadedException;
+import com.fulfilment.application.monolith.common.exceptions.RetryableConflictException;
+import com.fulfilment.application.monolith.common.exceptions.UnavailableException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.net.URI;
 import org.junit.jupiter.api.Test;
 
 public class GlobalExceptionMapperTest {
 
-  private final GlobalExceptionMapper mapper = new GlobalExceptionMapper();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final GlobalExceptionMapper mapper = new GlobalExceptionMapper(new ErrorCounters(registry));
 
   @Test
-  public void mapsValidationExceptionTo400() {
+  public void mapsValidationExceptionTo400() throws Exception {
     Response response = mapper.toResponse(new ValidationException("bad"));
     assertEquals(400, response.getStatus());
-    assertEquals("bad", response.getEntity());
+    assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType());
+    assertBody(response, ValidationException.class.getName(), 400, "bad");
   }
 
   @Test
-  public void mapsNotFoundExceptionTo404() {
+  public void mapsNotFoundExceptionTo404() throws Exception {
     Response response = mapper.toResponse(new NotFoundException("missing"));
     assertEquals(404, response.getStatus());
-    assertEquals("missing", response.getEntity());
+    assertBody(response, NotFoundException.class.getName(), 404, "missing");
   }
 
   @Test
-  public void mapsConflictExceptionTo409() {
+  public void mapsConflictExceptionTo409() throws Exception {
     Response response = mapper.toResponse(new ConflictException("conflict"));
     assertEquals(409, response.getStatus());
-    assertEquals("conflict", response.getEntity());
+    assertBody(response, ConflictException.class.getName(), 409, "conflict");
   }
 
   @Test
-  public void mapsGenericExceptionTo500() {
+  public void mapsRetryableConflictTo409WithRetryAfter() throws Exception {
+    Response response = mapper.toResponse(new RetryableConflictException("raced"));
+    assertEquals(409, response.getStatus());
+    assertBody(response, RetryableConflictException.class.getName(), 409, "raced");
+    assertEquals(RetryableConflictException.RETRY_AFTER_SECONDS,
+        response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+  }
+
+  @Test
+  public void mapsUnavailableExceptionTo503() throws Exception {
+    Response response = mapper.toResponse(new UnavailableException("kept"));
+    assertEquals(503, response.getStatus());
+    assertBody(response, UnavailableException.class.getName(), 503, "kept");
+  }
+
+  @Test
+  public void mapsOverloadedTo503WithRetryAfter() throws Exception {
+    Response response = mapper.toResponse(new OverloadedException("full"));
+    assertEquals(503, response.getStatus());
+    assertBody(response, OverloadedException.class.getName(), 503, "full");
+    assertEquals(OverloadedException.RETRY_AFTER_SECONDS,
+        response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+  }
+
+  @Test
+  public void mapsGenericExceptionTo500() throws Exception {
     Response response = mapper.toResponse(new RuntimeException("boom"));
     assertEquals(500, response.getStatus());
-    assertEquals(AppConstants.ERR_INTERNAL_SERVER, response.getEntity());
+    assertBody(response, RuntimeException.class.getName(), 500, AppConstants.ERR_INTERNAL_SERVER);
+  }
+
+  @Test
+  public void keepsTheStatusOfWebApplicationExceptions() throws Exception {
+    Response response = mapper.toResponse(new WebApplicationException("gone", 410));
+    assertEquals(410, response.getStatus());
+    assertBody(response, WebApplicationException.class.getName(), 410, "gone");
+  }
+
+  @Test
+  public void keepsTheHeadersOfWebApplicationExceptions() throws Exception {
+    Response thrown = Response.status(405).header(HttpHeaders.ALLOW, "GET, POST").build();
+    Response response = mapper.toResponse(new WebApplicationException("not allowed", thrown));
+
+    assertEquals(405, response.getStatus());
+    assertEquals("GET, POST", response.getHeaderString(HttpHeaders.ALLOW));
+    assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType());
+    assertBody(response, WebApplicationException.class.getName(), 405, "not allowed");
+  }
+
+  @Test
+  public void passesThroughWebApplicationExceptionsWithABody() {
+    Response thrown = Response.status(303).location(URI.create("/elsewhere")).entity("moved").build();
+
+    assertSame(thrown, mapper.toResponse(new WebApplicationException(thrown)));
+  }
+
+  @Test
+  public void escapesMessagesAndRendersMissingOnesAsNull() throws Exception {
+    JsonNode quoted = body(mapper.toResponse(new ValidationException("a \"quoted\"\nvalue é")));
+    assertEquals("a \"quoted\"\nvalue é", quoted.get("error").asText());
+
+    JsonNode missing = body(mapper.toResponse(new NotFoundException(null)));
+    assertTrue(missing.get("error").isNull());
+  }
+
+  @Test
+  public void countsErrorsPerStatus() {
+    mapper.toResponse(new NotFoundException("a"));
+    mapper.toResponse(new NotFoundException("b"));
+    mapper.toResponse(new RetryableConflictException("c"));
+
+    assertEquals(2.0, registry.counter(ErrorCounters.METRIC_NAME, ErrorCounters.TAG_STATUS, "404").count());
+    assertEquals(1.0, registry.counter(ErrorCounters.METRIC_NAME, ErrorCounters.TAG_STATUS, "409").count());
+  }
+
+  @Test
+  public void statusesOutsideTheHttpRangeShareOneCounter() {
+    ErrorCounters counters = new ErrorCounters(registry);
+    counters.count(700);
+    counters.count(-1);
+    counters.count(42);
+
+    assertEquals(3.0, registry.counter(ErrorCounters.METRIC_NAME, ErrorCounters.TAG_STATUS,
+        ErrorCounters.STATUS_OTHER).count());
+    assertNull(registry.find(ErrorCounters.METRIC_NAME).tag(ErrorCounters.TAG_STATUS, "700").counter());
+  }
+
+  @Test
+  public void domainExceptionsCarryNoStackTrace() {
+    assertEquals(0, new ConflictException("conflict").getStackTrace().length);
+  }
+
+  private void assertBody(Response response, String exceptionType, int code, String error) throws Exception {
+    JsonNode node = body(response);
+    assertEquals(exceptionType, node.get(ErrorTemplates.JSON_EXCEPTION_TYPE).asText());
+    assertEquals(code, node.get(ErrorTemplates.JSON_CODE).asInt());
+    assertEquals(error, node.get(ErrorTemplates.JSON_ERROR).asText());
+  }
+
+  private JsonNode body(Response response) throws Exception {
+    return objectMapper.readTree((byte[]) response.getEntity());
   }
 }
@@ -1,13 +1,33 @@
 package com.fulfilment.application.monolith.fulfilment.adapters.database;
 
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
+import com.fulfilment.application.monolith.fulfilment.domain.WarehouseRecommendation;
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.fulfilment.domain.usecases.AssignWarehouseToStoreProductUseCase;
+import com.fulfilment.application.monolith.fulfilment.domain.usecases.FulfilmentConstraintEngine;
+import com.fulfilment.application.monolith.fulfilment.domain.usecases.RecommendWarehousesUseCase;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +37,21 @@ public class FulfilmentAssignmentRepositoryTest {
     @Inject
     FulfilmentAssignmentRepository repository;
 
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    ArchiveWarehouseUseCase archiveWarehouseUseCase;
+
+    @Inject
+    RecommendWarehousesUseCase recommendWarehousesUseCase;
+
+    @Inject
+    FulfilmentGraph graph;
+
+    @Inject
+    AssignWarehouseToStoreProductUseCase assignUseCase;
+
     @BeforeEach
     @Transactional
     public void cleanup() {
@@ -115,4 +150,270 @@ public class FulfilmentAssignmentRepositoryTest {
         List<FulfilmentAssignment> all = repository.getAll();
         assertEquals(0, all.size());
     }
+
+    @Test
+    @Transactional
+    public void testFindWarehousesForStoreProduct() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S1", "P1", "W2"));
+        repository.create(new FulfilmentAssignment("S1", "P2", "W3"));
+        repository.create(new FulfilmentAssignment("S2", "P1", "W4"));
+
+        assertEquals(Set.of("W1", "W2"), repository.findWarehousesForStoreProduct("S1", "P1"));
+        assertTrue(repository.findWarehousesForStoreProduct("S3", "P1").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testFindWarehousesForStoreIsDistinct() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S1", "P2", "W1"));
+        repository.create(new FulfilmentAssignment("S1", "P3", "W2"));
+        repository.create(new FulfilmentAssignment("S2", "P1", "W3"));
+
+        assertEquals(Set.of("W1", "W2"), repository.findWarehousesForStore("S1"));
+    }
+
+    @Test
+    @Transactional
+    public void testFindProductsForWarehouseAcrossStores() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S2", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S2", "P2", "W1"));
+        repository.create(new FulfilmentAssignment("S2", "P3", "W2"));
+
+        assertEquals(Set.of("P1", "P2"), repository.findProductsForWarehouse("W1"));
+        assertTrue(repository.findProductsForWarehouse("W9").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testExists() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+
+        assertTrue(repository.exists("S1", "P1", "W1"));
+        assertFalse(repository.exists("S1", "P1", "W2"));
+        assertFalse(repository.exists("S2", "P1", "W1"));
+    }
+
+    @Test
+    @Transactional
+    public void testCreateAllPersistsMoreThanOneInsertBatch() {
+        List<FulfilmentAssignment> batch = new ArrayList<>();
+        for (int i = 0; i < FulfilmentAssignmentRepository.INSERT_BATCH_SIZE * 2 + 3; i++) {
+            batch.add(new FulfilmentAssignment("S" + (i % 7), "P" + i, "W" + (i % 5)));
+        }
+
+        repository.createAll(batch);
+
+        assertEquals(batch.size(), repository.getAll().size());
+    }
+
+    @Test
+    @Transactional
+    public void testCreateAllLeavesTheCallersEntitiesManaged() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        DbFulfilmentAssignment loaded = repository.find("storeId", "S1").firstResult();
+
+        List<FulfilmentAssignment> batch = new ArrayList<>();
+        for (int i = 0; i < FulfilmentAssignmentRepository.INSERT_BATCH_SIZE + 1; i++) {
+            batch.add(new FulfilmentAssignment("S2", "P" + i, "W2"));
+        }
+        repository.createAll(batch);
+
+        assertTrue(repository.getEntityManager().contains(loaded));
+    }
+
+    @Test
+    @Transactional
+    public void testFindByStoresAndWarehouses() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S2", "P1", "W2"));
+        repository.create(new FulfilmentAssignment("S3", "P2", "W1"));
+
+        assertEquals(2, repository.findByStores(Set.of("S1", "S2")).size());
+        assertEquals(2, repository.findByWarehouses(Set.of("W1")).size());
+        assertTrue(repository.findByStores(Set.of("S9")).isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testDeleteRemovesOnlyTheTriple() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S1", "P2", "W1"));
+
+        assertTrue(repository.remove(new FulfilmentAssignment("S1", "P1", "W1")));
+        assertFalse(repository.remove(new FulfilmentAssignment("S1", "P1", "W1")));
+        assertFalse(repository.remove(null));
+
+        assertEquals(Set.of("W1"), repository.findWarehousesForStore("S1"));
+        assertEquals(Set.of("P2"), repository.findProductsForWarehouse("W1"));
+    }
+
+    @Test
+    @Transactional
+    public void testDeleteByWarehouseReturnsTheRemovedRows() {
+        repository.create(new FulfilmentAssignment("S1", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S2", "P1", "W1"));
+        repository.create(new FulfilmentAssignment("S2", "P2", "W2"));
+
+        List<FulfilmentAssignment> removed = repository.removeByWarehouse("W1");
+
+        assertEquals(2, removed.size());
+        assertEquals(1, repository.getAll().size());
+        assertTrue(repository.removeByWarehouse("W1").isEmpty());
+    }
+
+    @Test
+    public void testArchivingAWarehouseReleasesItsAssignments() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "BU-FUL-CASCADE";
+        warehouse.location = "FUL-CASCADE-LOC";
+        warehouse.capacity = 10;
+        warehouse.stock = 0;
+        warehouseRepository.create(warehouse);
+        repository.create(new FulfilmentAssignment("S1", "P1", "BU-FUL-CASCADE"));
+        repository.create(new FulfilmentAssignment("S1", "P2", "W-OTHER"));
+
+        Warehouse archived = new Warehouse();
+        archived.businessUnitCode = "BU-FUL-CASCADE";
+        archiveWarehouseUseCase.archive(archived);
+
+        List<FulfilmentAssignment> remaining = repository.getAll();
+        assertEquals(1, remaining.size());
+        assertEquals("W-OTHER", remaining.get(0).warehouseBusinessUnitCode);
+    }
+
+    @Test
+    public void testArchiveAndAssignmentDeletionRollBackTogether() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "BU-FUL-ROLLBACK";
+        warehouse.location = "FUL-ROLLBACK-LOC";
+        warehouse.capacity = 10;
+        warehouse.stock = 0;
+        warehouseRepository.create(warehouse);
+        repository.create(new FulfilmentAssignment("S1", "P1", "BU-FUL-ROLLBACK"));
+        assertEquals(Set.of("S1"), graph.storesServedByWarehouse("BU-FUL-ROLLBACK").keySet());
+
+        Warehouse archived = new Warehouse();
+        archived.businessUnitCode = "BU-FUL-ROLLBACK";
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            archiveWarehouseUseCase.archive(archived);
+            assertTrue(repository.findByWarehouses(List.of("BU-FUL-ROLLBACK")).isEmpty());
+            throw new IllegalStateException("fails after the archive");
+        }));
+
+        assertNull(warehouseRepository.findByBusinessUnitCode("BU-FUL-ROLLBACK").archivedAt);
+        assertEquals(1, repository.findByWarehouses(List.of("BU-FUL-ROLLBACK")).size());
+        assertEquals(Set.of("S1"), graph.storesServedByWarehouse("BU-FUL-ROLLBACK").keySet());
+    }
+
+    @Test
+    public void testRecommendationsFollowCommittedWarehouseWrites() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "BU-FUL-REC";
+        warehouse.location = "FUL-REC-LOC";
+        warehouse.capacity = 40;
+        warehouse.stock = 10;
+        warehouseRepository.create(warehouse);
+
+        List<WarehouseRecommendation> created = recommendWarehousesUseCase.recommend("S-REC", "P1", "FUL-REC-LOC", 10);
+        assertEquals(1, created.size());
+        assertEquals("BU-FUL-REC", created.get(0).businessUnitCode);
+        assertEquals(30, created.get(0).freeCapacity);
+
+        Warehouse replacement = new Warehouse();
+        replacement.businessUnitCode = "BU-FUL-REC";
+        replacement.location = "FUL-REC-LOC";
+        replacement.capacity = 60;
+        replacement.stock = 10;
+        assertTrue(warehouseRepository.replaceByCode(replacement, new Location("FUL-REC-LOC", 5, 100), LocalDateTime.now()));
+        assertEquals(50, recommendWarehousesUseCase.recommend("S-REC", "P1", "FUL-REC-LOC", 10).get(0).freeCapacity);
+
+        assertTrue(warehouseRepository.archiveByCode("BU-FUL-REC", LocalDateTime.now()));
+        assertTrue(recommendWarehousesUseCase.recommend("S-REC", "P1", "FUL-REC-LOC", 10).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAssignsOnTwoInstancesKeepTheStoreLimit() throws Exception {
+        // Separate use cases have separate stripes, like two application instances;
+        // only the lock rows in the database keep them from both passing the check
+        List<AssignWarehouseToStoreProductUseCase> instances = List.of(
+                new AssignWarehouseToStoreProductUseCase(repository, graph),
+                new AssignWarehouseToStoreProductUseCase(repository, graph));
+        int attempts = 12;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                AssignWarehouseToStoreProductUseCase useCase = instances.get(i % 2);
+                String warehouse = "W-RACE-" + i;
+                results.add(pool.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    try {
+                        QuarkusTransaction.requiringNew().run(() -> useCase.assign("S-RACE", "P-RACE-" + warehouse, warehouse));
+                        return true;
+                    } catch (ConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            assertEquals(FulfilmentConstraintEngine.MAX_WAREHOUSES_PER_STORE, accepted);
+            assertEquals(FulfilmentConstraintEngine.MAX_WAREHOUSES_PER_STORE,
+                    repository.findByStores(List.of("S-RACE")).size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAssignWaitsForAnArchiveInProgressAndIsRefused() throws Exception {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "BU-FUL-ARCHIVING";
+        warehouse.location = "FUL-ARCHIVING-LOC";
+        warehouse.capacity = 10;
+        warehouse.stock = 0;
+        warehouseRepository.create(warehouse);
+
+        CountDownLatch archiving = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> archive = pool.submit(() -> QuarkusTransaction.requiringNew().run(() -> {
+                Warehouse archived = new Warehouse();
+                archived.businessUnitCode = "BU-FUL-ARCHIVING";
+                archiveWarehouseUseCase.archive(archived);
+                archiving.countDown();
+                try {
+                    commit.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(archiving.await(5, TimeUnit.SECONDS));
+
+            Future<?> assign = pool.submit(() -> QuarkusTransaction.requiringNew()
+                    .run(() -> assignUseCase.assign("S1", "P1", "BU-FUL-ARCHIVING")));
+            // the archive holds the warehouse key until it commits
+            Thread.sleep(200);
+            assertFalse(assign.isDone());
+            commit.countDown();
+            archive.get(10, TimeUnit.SECONDS);
+
+            ExecutionException refused = assertThrows(ExecutionException.class, () -> assign.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(ConflictException.class, refused.getCause());
+            assertTrue(repository.findByWarehouses(List.of("BU-FUL-ARCHIVING")).isEmpty());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
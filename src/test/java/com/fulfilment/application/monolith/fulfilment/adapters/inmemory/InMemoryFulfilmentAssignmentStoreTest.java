@@ -0,0 +1,304 @@
+package com.fulfilment.application.monolith.fulfilment.adapters.inmemory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryFulfilmentAssignmentStoreTest {
+
+  InMemoryFulfilmentAssignmentStore store;
+
+  @BeforeEach
+  public void setup() {
+    store = new InMemoryFulfilmentAssignmentStore();
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    store.create(new FulfilmentAssignment("S1", "P1", "W2"));
+    store.create(new FulfilmentAssignment("S1", "P2", "W1"));
+    store.create(new FulfilmentAssignment("S2", "P3", "W3"));
+  }
+
+  @Test
+  public void testExists() {
+    assertTrue(store.exists("S1", "P1", "W2"));
+    assertFalse(store.exists("S1", "P2", "W2"));
+    assertFalse(store.exists("S9", "P1", "W1"));
+  }
+
+  @Test
+  public void testFindWarehousesForStoreProduct() {
+    assertEquals(Set.of("W1", "W2"), store.findWarehousesForStoreProduct("S1", "P1"));
+    assertTrue(store.findWarehousesForStoreProduct("S1", "P9").isEmpty());
+    assertTrue(store.findWarehousesForStoreProduct("S9", "P1").isEmpty());
+  }
+
+  @Test
+  public void testFindWarehousesForStore() {
+    assertEquals(Set.of("W1", "W2"), store.findWarehousesForStore("S1"));
+    assertEquals(Set.of("W3"), store.findWarehousesForStore("S2"));
+  }
+
+  @Test
+  public void testFindProductsForWarehouse() {
+    assertEquals(Set.of("P1", "P2"), store.findProductsForWarehouse("W1"));
+    assertTrue(store.findProductsForWarehouse("W9").isEmpty());
+  }
+
+  @Test
+  public void testLookupResultsAreReadOnly() {
+    assertThrows(UnsupportedOperationException.class,
+        () -> store.findWarehousesForStore("S1").add("W9"));
+  }
+
+  @Test
+  public void testGetAllKeepsInsertionOrder() {
+    assertEquals(4, store.getAll().size());
+    assertEquals("S2", store.getAll().get(3).storeId);
+  }
+
+  @Test
+  public void testFindByStoresAndWarehousesUseIndexes() {
+    assertEquals(3, store.findByStores(List.of("S1")).size());
+    assertEquals(4, store.findByStores(List.of("S1", "S2", "S9")).size());
+    assertEquals(2, store.findByWarehouses(List.of("W1")).size());
+  }
+
+  @Test
+  public void testCodesAreInterned() {
+    store.create(new FulfilmentAssignment(new String("S7"), new String("P7"), new String("W7")));
+    store.create(new FulfilmentAssignment(new String("S7"), new String("P8"), new String("W7")));
+
+    List<FulfilmentAssignment> rows = store.findByStores(List.of("S7"));
+    assertSame(rows.get(0).storeId, rows.get(1).storeId);
+    assertSame(rows.get(0).warehouseBusinessUnitCode, rows.get(1).warehouseBusinessUnitCode);
+  }
+
+  @Test
+  public void testIncompleteAssignmentIsRejected() {
+    assertThrows(ValidationException.class, () -> store.create(null));
+    assertThrows(ValidationException.class,
+        () -> store.create(new FulfilmentAssignment("S1", null, "W1")));
+    assertEquals(4, store.getAll().size());
+  }
+
+  @Test
+  public void testNullKeysReturnEmptyResults() {
+    assertTrue(store.findWarehousesForStore(null).isEmpty());
+    assertTrue(store.findWarehousesForStoreProduct("S1", null).isEmpty());
+    assertTrue(store.findProductsForWarehouse(null).isEmpty());
+    assertFalse(store.exists("S1", "P1", null));
+  }
+
+  @Test
+  public void testConcurrentWritersAndReaders() throws Exception {
+    InMemoryFulfilmentAssignmentStore concurrent = new InMemoryFulfilmentAssignmentStore();
+    int threads = 8;
+    int perThread = 5_000;
+    ExecutorService pool = Executors.newFixedThreadPool(threads * 2);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < perThread; i++) {
+            concurrent.create(new FulfilmentAssignment("S" + thread, "P" + i, "W" + (i % 10)));
+          }
+        }));
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < perThread; i++) {
+            concurrent.findWarehousesForStore("S" + thread).size();
+            concurrent.findProductsForWarehouse("W" + (i % 10)).contains("P" + i);
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertEquals(threads * perThread, concurrent.getAll().size());
+    for (int t = 0; t < threads; t++) {
+      assertEquals(10, concurrent.findWarehousesForStore("S" + t).size());
+      assertEquals(perThread, concurrent.findByStores(List.of("S" + t)).size());
+    }
+    assertEquals(perThread, concurrent.findProductsForWarehouse("W3").size() * 10);
+  }
+
+  @Test
+  public void testDeleteKeepsPairCountsUntilTheLastRow() {
+    // S1 reaches W1 through P1 and P2
+    assertTrue(store.remove(new FulfilmentAssignment("S1", "P1", "W1")));
+    assertFalse(store.remove(new FulfilmentAssignment("S1", "P1", "W1")));
+
+    assertEquals(Set.of("W2"), store.findWarehousesForStoreProduct("S1", "P1"));
+    assertEquals(Set.of("W1", "W2"), store.findWarehousesForStore("S1"));
+    assertEquals(Set.of("P2"), store.findProductsForWarehouse("W1"));
+
+    assertTrue(store.remove(new FulfilmentAssignment("S1", "P2", "W1")));
+    assertEquals(Set.of("W2"), store.findWarehousesForStore("S1"));
+    assertTrue(store.findProductsForWarehouse("W1").isEmpty());
+    assertEquals(2, store.getAll().size());
+    assertEquals(1, store.findByStores(List.of("S1")).size());
+    assertTrue(store.findByWarehouses(List.of("W1")).isEmpty());
+  }
+
+  @Test
+  public void testDeleteByWarehouseReturnsTheRemovedRows() {
+    List<FulfilmentAssignment> removed = store.removeByWarehouse("W1");
+
+    assertEquals(2, removed.size());
+    assertFalse(store.exists("S1", "P2", "W1"));
+    assertEquals(Set.of("W2"), store.findWarehousesForStore("S1"));
+    assertEquals(2, store.getAll().size());
+    assertTrue(store.removeByWarehouse("W1").isEmpty());
+    assertTrue(store.removeByWarehouse(null).isEmpty());
+
+    // the freed pair counts start again from zero
+    store.create(new FulfilmentAssignment("S1", "P2", "W1"));
+    assertEquals(Set.of("P2"), store.findProductsForWarehouse("W1"));
+  }
+
+  @Test
+  public void testCodesAreReleasedWithTheirLastRow() {
+    // S1 S2 P1 P2 P3 W1 W2 W3
+    assertEquals(8, store.internedCodes());
+
+    store.remove(new FulfilmentAssignment("S1", "P1", "W2"));
+    assertEquals(7, store.internedCodes());
+
+    store.removeByWarehouse("W1");
+    store.removeByWarehouse("W3");
+    assertEquals(0, store.internedCodes());
+  }
+
+  @Test
+  public void testRemovingTheLastRowsLeavesNoIndexKeys() {
+    store.removeByWarehouse("W1");
+    store.removeByWarehouse("W2");
+    store.remove(new FulfilmentAssignment("S2", "P3", "W3"));
+
+    assertEquals(0, store.indexedKeys());
+    assertTrue(store.getAll().isEmpty());
+  }
+
+  @Test
+  public void testDeleteByWarehouseRacingCreatesKeepsIndexesConsistent() throws Exception {
+    InMemoryFulfilmentAssignmentStore concurrent = new InMemoryFulfilmentAssignmentStore();
+    int rows = 5_000;
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> writer = pool.submit(() -> {
+        for (int i = 0; i < rows; i++) {
+          concurrent.create(new FulfilmentAssignment("S" + (i % 7), "P" + i, "W1"));
+        }
+      });
+      Future<?> remover = pool.submit(() -> {
+        while (!writer.isDone()) {
+          concurrent.removeByWarehouse("W1");
+        }
+      });
+      writer.get(60, TimeUnit.SECONDS);
+      remover.get(60, TimeUnit.SECONDS);
+    } finally {
+      pool.shutdownNow();
+    }
+
+    // every row that survived is still reachable through every index
+    List<FulfilmentAssignment> remaining = concurrent.getAll();
+    assertEquals(remaining.size(), concurrent.findByWarehouses(List.of("W1")).size());
+    assertEquals(remaining.size(), concurrent.findProductsForWarehouse("W1").size());
+    assertEquals(remaining.size(), concurrent.removeByWarehouse("W1").size());
+    assertEquals(0, concurrent.indexedKeys());
+    assertEquals(0, concurrent.internedCodes());
+  }
+
+  @Test
+  public void testRolledBackWritesAreUndone() {
+    TxRegistryStub tx = new TxRegistryStub();
+    store.txRegistry = tx;
+
+    store.removeByWarehouse("W1");
+    store.create(new FulfilmentAssignment("S3", "P4", "W4"));
+    assertTrue(store.findByWarehouses(List.of("W1")).isEmpty());
+
+    tx.complete(Status.STATUS_ROLLEDBACK);
+
+    // back in their old places
+    List<String> rows = new ArrayList<>();
+    store.getAll().forEach(a -> rows.add(a.storeId + "/" + a.productId + "/" + a.warehouseBusinessUnitCode));
+    assertEquals(List.of("S1/P1/W1", "S1/P1/W2", "S1/P2/W1", "S2/P3/W3"), rows);
+    assertEquals(Set.of("P1", "P2"), store.findProductsForWarehouse("W1"));
+    assertTrue(store.findWarehousesForStore("S3").isEmpty());
+  }
+
+  @Test
+  public void testCommittedWritesStand() {
+    TxRegistryStub tx = new TxRegistryStub();
+    store.txRegistry = tx;
+
+    store.removeByWarehouse("W1");
+    tx.complete(Status.STATUS_COMMITTED);
+
+    assertTrue(store.findByWarehouses(List.of("W1")).isEmpty());
+    assertEquals(2, store.getAll().size());
+  }
+
+  // One active transaction, completed by the test
+  private static final class TxRegistryStub implements TransactionSynchronizationRegistry {
+
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+    private int status = Status.STATUS_ACTIVE;
+
+    void complete(int outcome) {
+      status = outcome;
+      synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+    }
+
+    @Override
+    public Object getTransactionKey() {
+      return this;
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+    }
+
+    @Override
+    public Object getResource(Object key) {
+      return null;
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization synchronization) {
+      synchronizations.add(synchronization);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+      return status;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+      return false;
+    }
+  }
+}
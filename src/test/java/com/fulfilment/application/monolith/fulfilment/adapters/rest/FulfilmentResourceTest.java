@@ -1,11 +1,21 @@
 package com.fulfilment.application.monolith.fulfilment.adapters.rest;
 
+import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
 import com.fulfilment.application.monolith.fulfilment.domain.usecases.AssignWarehouseToStoreProductUseCase;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class FulfilmentResourceTest {
@@ -28,7 +38,7 @@ public class FulfilmentResourceTest {
   @Test
   public void testAssignReturnsCreatedAndCallsUseCase() {
     StubUseCase stub = new StubUseCase();
-    FulfilmentResource r = new FulfilmentResource(stub);
+    FulfilmentResource r = new FulfilmentResource(stub, null, null);
 
     FulfilmentResource.FulfilmentRequest req = new FulfilmentResource.FulfilmentRequest();
     req.storeId = "S1";
@@ -42,10 +52,18 @@ public class FulfilmentResourceTest {
     Assertions.assertEquals("BU1", stub.b);
   }
 
+  @Test
+  public void testRecommendRejectsLimitsOutsideThePageBounds() {
+    FulfilmentResource r = new FulfilmentResource(new StubUseCase(), null, null);
+
+    assertThrows(ValidationException.class, () -> r.recommend("S1", "P1", null, 0));
+    assertThrows(ValidationException.class, () -> r.recommend("S1", "P1", null, KeysetPaging.MAX_LIMIT + 1));
+  }
+
   @Test
   public void testAssignWithNullRequestThrows() {
     StubUseCase stub = new StubUseCase();
-    FulfilmentResource r = new FulfilmentResource(stub);
+    FulfilmentResource r = new FulfilmentResource(stub, null, null);
 
     assertThrows(ValidationException.class, () -> r.assign(null));
   }
@@ -61,4 +79,76 @@ public class FulfilmentResourceTest {
     assertEquals("P200", req.productId);
     assertEquals("W300", req.warehouseBusinessUnitCode);
   }
+
+  @Test
+  public void testAssignBatchReportsResultPerItem() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    FulfilmentResource r = new FulfilmentResource(new AssignWarehouseToStoreProductUseCase(store), null, null);
+
+    List<FulfilmentResource.FulfilmentBatchItemResult> results = r.assignBatch(Arrays.asList(
+        request("S1", "P1", "W1"),
+        request("S1", "P2", "W2"),
+        null));
+
+    assertEquals(3, results.size());
+    assertEquals(0, results.get(0).index);
+    assertEquals("ALREADY_ASSIGNED", results.get(0).status);
+    assertEquals("S1", results.get(1).storeId);
+    assertEquals("W2", results.get(1).warehouseBusinessUnitCode);
+    assertEquals("CREATED", results.get(1).status);
+    assertNull(results.get(1).error);
+    assertEquals(2, results.get(2).index);
+    assertEquals("REJECTED", results.get(2).status);
+    assertNotNull(results.get(2).error);
+  }
+
+  @Test
+  public void testAssignBatchWithNullListThrows() {
+    FulfilmentResource r = new FulfilmentResource(new StubUseCase(), null, null);
+
+    assertThrows(ValidationException.class, () -> r.assignBatch(null));
+  }
+
+  @Test
+  public void testGraphReadsFollowAssignments() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    FulfilmentGraph graph = new FulfilmentGraph(store);
+    FulfilmentResource r = new FulfilmentResource(new AssignWarehouseToStoreProductUseCase(store, graph), graph, null);
+
+    assertEquals(Map.of("P1", Set.of("W1")), r.warehousesForStore("S1"));
+
+    r.assign(request("S1", "P1", "W2"));
+    r.assignBatch(List.of(request("S2", "P1", "W2"), request("S2", "P2", "W2")));
+
+    assertEquals(Map.of("P1", Set.of("W1", "W2")), r.warehousesForStore("S1"));
+    assertEquals(Map.of("S1", Set.of("P1"), "S2", Set.of("P1", "P2")), r.storesServedByWarehouse("W2"));
+    assertEquals(Map.of("S1", Set.of("W1", "W2"), "S2", Set.of("W2")), r.sourcingForProduct("P1"));
+    assertTrue(r.sourcingForProduct("P-UNKNOWN").isEmpty());
+  }
+
+  private static FulfilmentResource.FulfilmentRequest request(String s, String p, String w) {
+    FulfilmentResource.FulfilmentRequest req = new FulfilmentResource.FulfilmentRequest();
+    req.storeId = s;
+    req.productId = p;
+    req.warehouseBusinessUnitCode = w;
+    return req;
+  }
+
+  @Test
+  public void testDeletesUpdateGraphReads() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    FulfilmentGraph graph = new FulfilmentGraph(store);
+    FulfilmentResource r = new FulfilmentResource(new AssignWarehouseToStoreProductUseCase(store, graph), graph, null);
+    r.assignBatch(List.of(request("S1", "P1", "W1"), request("S1", "P2", "W1"), request("S2", "P1", "W2")));
+
+    assertEquals(Response.Status.NO_CONTENT.getStatusCode(), r.unassign("S1", "P2", "W1").getStatus());
+    assertEquals(Map.of("P1", Set.of("W1")), r.warehousesForStore("S1"));
+
+    assertEquals(Response.Status.NO_CONTENT.getStatusCode(), r.unassignWarehouse("W1").getStatus());
+    assertTrue(r.warehousesForStore("S1").isEmpty());
+    assertEquals(Map.of("S2", Set.of("W2")), r.sourcingForProduct("P1"));
+    assertThrows(NotFoundException.class, () -> r.unassign("S1", "P1", "W1"));
+  }
 }
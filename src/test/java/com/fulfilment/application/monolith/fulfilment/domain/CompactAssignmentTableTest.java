@@ -0,0 +1,78 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.fulfilment.domain.usecases.FulfilmentConstraintEngine;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CompactAssignmentTableTest {
+
+  CompactAssignmentTable table;
+
+  @BeforeEach
+  public void setup() {
+    table = new CompactAssignmentTable();
+    table.add("S1", "P1", "W1");
+    table.add("S1", "P1", "W2");
+    table.add("S1", "P2", "W1");
+    table.add(new FulfilmentAssignment("S2", "P3", "W3"));
+  }
+
+  @Test
+  public void testRowsRoundTrip() {
+    assertEquals(4, table.size());
+    FulfilmentAssignment row = table.get(3);
+    assertEquals("S2", row.storeId);
+    assertEquals("P3", row.productId);
+    assertEquals("W3", row.warehouseBusinessUnitCode);
+    assertThrows(IndexOutOfBoundsException.class, () -> table.get(4));
+  }
+
+  @Test
+  public void testLookups() {
+    assertTrue(table.exists("S1", "P2", "W1"));
+    assertFalse(table.exists("S1", "P2", "W2"));
+    assertFalse(table.exists("S9", "P1", "W1"));
+    assertEquals(Set.of("W1", "W2"), table.findWarehousesForStoreProduct("S1", "P1"));
+    assertEquals(Set.of("W1", "W2"), table.findWarehousesForStore("S1"));
+    assertEquals(Set.of("P1", "P2"), table.findProductsForWarehouse("W1"));
+    assertTrue(table.findWarehousesForStore("S9").isEmpty());
+    assertTrue(table.findWarehousesForStoreProduct("S2", "P1").isEmpty());
+  }
+
+  @Test
+  public void testGrowsPastInitialCapacity() {
+    CompactAssignmentTable large = new CompactAssignmentTable();
+    for (int i = 0; i < 10_000; i++) {
+      large.add("S" + (i % 100), "P" + i, "W" + (i % 37));
+    }
+
+    assertEquals(10_000, large.size());
+    assertEquals(37, large.findWarehousesForStore("S5").size());
+    assertEquals("P9999", large.get(9999).productId);
+    assertTrue(large.exists("S99", "P9999", "W" + (9999 % 37)));
+  }
+
+  @Test
+  public void testConstraintEngineRunsAgainstTable() {
+    FulfilmentConstraintEngine engine = new FulfilmentConstraintEngine();
+
+    assertFalse(engine.evaluate(table, "S1", "P1", "W1"));
+    assertTrue(engine.evaluate(table, "S1", "P3", "W3"));
+    assertThrows(ConflictException.class, () -> engine.evaluate(table, "S1", "P1", "W3"));
+  }
+
+  @Test
+  public void testDictionaryStoresEachCodeOnce() {
+    CodeDictionary dictionary = new CodeDictionary();
+    assertEquals(0, dictionary.encode("A"));
+    assertEquals(1, dictionary.encode("B"));
+    assertEquals(0, dictionary.encode(new String("A")));
+    assertEquals(2, dictionary.size());
+    assertEquals("B", dictionary.decode(1));
+    assertEquals(CodeDictionary.ABSENT, dictionary.idOf("C"));
+  }
+}
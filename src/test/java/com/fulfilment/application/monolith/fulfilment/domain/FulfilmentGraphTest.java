@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.fulfilment.domain;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class FulfilmentGraphTest {
+
+  @Test
+  public void testLoadsFromStoreOnFirstRead() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    store.create(new FulfilmentAssignment("S1", "P2", "W1"));
+    store.create(new FulfilmentAssignment("S2", "P1", "W2"));
+    FulfilmentGraph graph = new FulfilmentGraph(store);
+
+    assertEquals(Map.of("P1", Set.of("W1"), "P2", Set.of("W1")), graph.warehousesForStore("S1"));
+    assertEquals(Map.of("S1", Set.of("P1", "P2")), graph.storesServedByWarehouse("W1"));
+    assertEquals(Map.of("S1", Set.of("W1"), "S2", Set.of("W2")), graph.sourcingForProduct("P1"));
+  }
+
+  @Test
+  public void testAddBeforeLoadIsReadFromStore() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    FulfilmentGraph graph = new FulfilmentGraph(store);
+
+    FulfilmentAssignment assignment = new FulfilmentAssignment("S1", "P1", "W1");
+    store.create(assignment);
+    graph.add(assignment);
+
+    assertEquals(Map.of("P1", Set.of("W1")), graph.warehousesForStore("S1"));
+  }
+
+  @Test
+  public void testAddAfterLoadIsIndexed() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    FulfilmentGraph graph = new FulfilmentGraph(store);
+    assertTrue(graph.storesServedByWarehouse("W1").isEmpty());
+
+    // not written to the store: only the incremental update can make it visible
+    graph.addAll(List.of(new FulfilmentAssignment("S1", "P1", "W1"), new FulfilmentAssignment("S2", "P1", "W1")));
+
+    assertEquals(Map.of("S1", Set.of("P1"), "S2", Set.of("P1")), graph.storesServedByWarehouse("W1"));
+    assertTrue(graph.warehousesForStore(null).isEmpty());
+  }
+
+  @Test
+  public void testCodesAreReleasedWithTheirLastEdge() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    FulfilmentGraph graph = new FulfilmentGraph(store);
+    graph.warehousesForStore("S1");
+
+    FulfilmentAssignment first = new FulfilmentAssignment("S1", "P1", "W1");
+    FulfilmentAssignment second = new FulfilmentAssignment("S1", "P2", "W1");
+    graph.add(first);
+    graph.add(first);
+    graph.add(second);
+    assertEquals(4, graph.internedCodes());
+
+    graph.remove(first);
+    assertEquals(3, graph.internedCodes());
+    graph.removeAll(List.of(first, second));
+    assertEquals(0, graph.internedCodes());
+  }
+
+  @Test
+  public void testReloadPicksUpRowsWrittenElsewhere() {
+    InMemoryFulfilmentAssignmentStore store = new InMemoryFulfilmentAssignmentStore();
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    // every read finds the graph expired
+    FulfilmentGraph graph = new FulfilmentGraph(store, Duration.ofNanos(1));
+    assertEquals(Map.of("P1", Set.of("W1")), graph.warehousesForStore("S1"));
+
+    // as another instance would: written and deleted without telling this graph
+    store.create(new FulfilmentAssignment("S1", "P2", "W2"));
+    store.removeByWarehouse("W1");
+
+    assertEquals(Map.of("P2", Set.of("W2")), graph.warehousesForStore("S1"));
+    assertEquals(3, graph.internedCodes());
+  }
+}
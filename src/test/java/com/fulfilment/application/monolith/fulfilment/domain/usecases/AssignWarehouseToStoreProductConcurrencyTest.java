@@ -0,0 +1,121 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class AssignWarehouseToStoreProductConcurrencyTest {
+
+  private static final int THREADS = 16;
+  private static final int ASSIGNS_PER_THREAD = 2_000;
+
+  /**
+   * Widens the window between the constraint reads and the insert, so an
+   * unguarded check-then-act would reliably overshoot the limits.
+   */
+  static class SlowInsertStore extends InMemoryFulfilmentAssignmentStore {
+    @Override
+    public void create(FulfilmentAssignment assignment) {
+      Thread.yield();
+      super.create(assignment);
+    }
+  }
+
+  @Test
+  public void testConstraintsHoldUnderConcurrentAssigns() throws Exception {
+    SlowInsertStore store = new SlowInsertStore();
+    AssignWarehouseToStoreProductUseCase useCase = new AssignWarehouseToStoreProductUseCase(store);
+    AtomicInteger conflicts = new AtomicInteger();
+
+    runConcurrently(() -> {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < ASSIGNS_PER_THREAD; i++) {
+        try {
+          useCase.assign(
+              "S" + random.nextInt(4),
+              "P" + random.nextInt(8),
+              "W" + random.nextInt(10));
+        } catch (ConflictException e) {
+          conflicts.incrementAndGet();
+        }
+      }
+    });
+
+    assertTrue(conflicts.get() > 0, "the workload must actually hit the limits");
+    assertInvariants(store.getAll());
+  }
+
+  @Test
+  public void testSameTripleFromManyThreadsIsStoredOnce() throws Exception {
+    SlowInsertStore store = new SlowInsertStore();
+    AssignWarehouseToStoreProductUseCase useCase = new AssignWarehouseToStoreProductUseCase(store);
+
+    runConcurrently(() -> {
+      for (int i = 0; i < 100; i++) {
+        useCase.assign("S1", "P1", "W1");
+      }
+    });
+
+    assertEquals(1, store.getAll().size());
+  }
+
+  private static void runConcurrently(Runnable task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(pool.submit(() -> {
+          start.await();
+          task.run();
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> f : futures) {
+        f.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static void assertInvariants(List<FulfilmentAssignment> all) {
+    Map<String, Set<String>> warehousesByStoreProduct = new HashMap<>();
+    Map<String, Set<String>> warehousesByStore = new HashMap<>();
+    Map<String, Set<String>> productsByWarehouse = new HashMap<>();
+    Set<String> triples = new HashSet<>();
+
+    for (FulfilmentAssignment a : all) {
+      assertTrue(triples.add(a.storeId + "|" + a.productId + "|" + a.warehouseBusinessUnitCode),
+          "duplicate assignment " + a.storeId + "/" + a.productId + "/" + a.warehouseBusinessUnitCode);
+      warehousesByStoreProduct.computeIfAbsent(a.storeId + "|" + a.productId, k -> new HashSet<>())
+          .add(a.warehouseBusinessUnitCode);
+      warehousesByStore.computeIfAbsent(a.storeId, k -> new HashSet<>()).add(a.warehouseBusinessUnitCode);
+      productsByWarehouse.computeIfAbsent(a.warehouseBusinessUnitCode, k -> new HashSet<>()).add(a.productId);
+    }
+
+    warehousesByStoreProduct.forEach((k, v) -> assertTrue(
+        v.size() <= FulfilmentConstraintEngine.MAX_WAREHOUSES_PER_STORE_PRODUCT, k + " -> " + v));
+    warehousesByStore.forEach((k, v) -> assertTrue(
+        v.size() <= FulfilmentConstraintEngine.MAX_WAREHOUSES_PER_STORE, k + " -> " + v));
+    productsByWarehouse.forEach((k, v) -> assertTrue(
+        v.size() <= FulfilmentConstraintEngine.MAX_PRODUCTS_PER_WAREHOUSE, k + " -> " + v));
+  }
+}
@@ -3,8 +3,19 @@ package com.fulfilment.application.monolith.fulfilment.domain.usecases;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseArchivedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers.InMemoryWarehouseStore;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -111,4 +122,58 @@ public class AssignWarehouseToStoreProductUseCaseTest {
     // Should still have only 1 assignment (duplicate is skipped)
     assertEquals(1, store.getAll().size());
   }
+
+  @Test
+  public void testUnassignFreesTheSlot() {
+    useCase.assign("S1","P1","W1");
+    useCase.assign("S1","P1","W2");
+    assertThrows(ConflictException.class, () -> useCase.assign("S1","P1","W3"));
+
+    useCase.unassign("S1","P1","W1");
+
+    useCase.assign("S1","P1","W3");
+    assertEquals(Set.of("W2", "W3"), store.findWarehousesForStoreProduct("S1","P1"));
+  }
+
+  @Test
+  public void testUnassignUnknownOrIncompleteTriple() {
+    assertThrows(NotFoundException.class, () -> useCase.unassign("S1","P1","W1"));
+    assertThrows(ValidationException.class, () -> useCase.unassign("S1", null, "W1"));
+  }
+
+  @Test
+  public void testArchivedWarehouseReleasesItsAssignments() {
+    useCase.assign("S1","P1","W1");
+    useCase.assign("S2","P1","W1");
+    useCase.assign("S2","P2","W2");
+
+    new WarehouseArchiveCascade(useCase).onArchived(new WarehouseArchivedEvent("W1", LocalDateTime.now()));
+
+    assertTrue(store.findByWarehouses(List.of("W1")).isEmpty());
+    assertEquals(Set.of("W2"), store.findWarehousesForStore("S2"));
+    assertEquals(1, store.getAll().size());
+  }
+
+  @Test
+  public void testArchivedWarehouseTakesNoNewAssignments() {
+    InMemoryWarehouseStore warehouses = new InMemoryWarehouseStore();
+    Warehouse archived = new Warehouse();
+    archived.businessUnitCode = "W1";
+    archived.location = "L1";
+    warehouses.create(archived);
+    warehouses.archiveByCode("W1", LocalDateTime.now());
+    AssignWarehouseToStoreProductUseCase checked =
+        new AssignWarehouseToStoreProductUseCase(store, new FulfilmentGraph(store), warehouses);
+
+    ConflictException refused = assertThrows(ConflictException.class, () -> checked.assign("S1","P1","W1"));
+    assertEquals(String.format(AppConstants.ERR_FULFILMENT_WAREHOUSE_ARCHIVED, "W1"), refused.getMessage());
+
+    // codes the warehouse store does not know are taken as given
+    List<FulfilmentAssignmentResult> results = checked.assignAll(List.of(
+        new FulfilmentAssignment("S1","P1","W1"),
+        new FulfilmentAssignment("S1","P1","W-UNKNOWN")));
+    assertEquals(FulfilmentAssignmentResult.Status.REJECTED, results.get(0).status);
+    assertEquals(FulfilmentAssignmentResult.Status.CREATED, results.get(1).status);
+    assertEquals(Set.of("W-UNKNOWN"), store.findWarehousesForStore("S1"));
+  }
 }
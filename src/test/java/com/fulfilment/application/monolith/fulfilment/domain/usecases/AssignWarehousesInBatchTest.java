@@ -0,0 +1,136 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignmentResult;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignmentResult.Status;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AssignWarehousesInBatchTest {
+
+  InMemoryFulfilmentAssignmentStore store;
+  AssignWarehouseToStoreProductUseCase useCase;
+  int createAllCalls;
+
+  @BeforeEach
+  public void setup() {
+    createAllCalls = 0;
+    store = new InMemoryFulfilmentAssignmentStore() {
+      @Override
+      public void createAll(List<FulfilmentAssignment> batch) {
+        createAllCalls++;
+        super.createAll(batch);
+      }
+    };
+    useCase = new AssignWarehouseToStoreProductUseCase(store);
+  }
+
+  @Test
+  public void testBatchCreatesAllValidItemsInOneInsert() {
+    List<FulfilmentAssignmentResult> results = useCase.assignAll(List.of(
+        new FulfilmentAssignment("S1", "P1", "W1"),
+        new FulfilmentAssignment("S1", "P2", "W2"),
+        new FulfilmentAssignment("S2", "P1", "W1")));
+
+    assertEquals(3, results.size());
+    results.forEach(r -> assertEquals(Status.CREATED, r.status));
+    assertEquals(3, store.getAll().size());
+    assertEquals(1, createAllCalls);
+  }
+
+  @Test
+  public void testBatchDetectsConflictsWithinTheBatch() {
+    List<FulfilmentAssignmentResult> results = useCase.assignAll(List.of(
+        new FulfilmentAssignment("S1", "P1", "W1"),
+        new FulfilmentAssignment("S1", "P1", "W2"),
+        new FulfilmentAssignment("S1", "P1", "W3"),
+        new FulfilmentAssignment("S1", "P1", "W1")));
+
+    assertEquals(Status.CREATED, results.get(0).status);
+    assertEquals(Status.CREATED, results.get(1).status);
+    assertEquals(Status.REJECTED, results.get(2).status);
+    assertEquals(AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_PRODUCT, results.get(2).error);
+    assertEquals(Status.ALREADY_ASSIGNED, results.get(3).status);
+    assertEquals(2, store.getAll().size());
+  }
+
+  @Test
+  public void testBatchChecksAgainstExistingAssignments() {
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    store.create(new FulfilmentAssignment("S1", "P2", "W2"));
+    store.create(new FulfilmentAssignment("S1", "P3", "W3"));
+    for (int p = 1; p <= 5; p++) {
+      store.create(new FulfilmentAssignment("S9", "P" + p, "WX"));
+    }
+
+    List<FulfilmentAssignmentResult> results = useCase.assignAll(List.of(
+        new FulfilmentAssignment("S1", "P4", "W4"),
+        new FulfilmentAssignment("S1", "P4", "W1"),
+        new FulfilmentAssignment("S2", "P6", "WX")));
+
+    assertEquals(Status.REJECTED, results.get(0).status);
+    assertEquals(AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_STORE, results.get(0).error);
+    assertEquals(Status.CREATED, results.get(1).status);
+    assertEquals(Status.REJECTED, results.get(2).status);
+    assertEquals(AppConstants.ERR_ASSIGN_MAX_PRODUCTS_PER_WAREHOUSE, results.get(2).error);
+  }
+
+  @Test
+  public void testBatchWarehouseLimitCountsOtherStoresInBatch() {
+    List<FulfilmentAssignment> batch = new ArrayList<>();
+    for (int i = 1; i <= 6; i++) {
+      batch.add(new FulfilmentAssignment("S" + i, "P" + i, "WX"));
+    }
+
+    List<FulfilmentAssignmentResult> results = useCase.assignAll(batch);
+
+    assertEquals(Status.REJECTED, results.get(5).status);
+    assertEquals(5, store.getAll().size());
+  }
+
+  @Test
+  public void testBatchRejectsIncompleteItemsAndKeepsOrder() {
+    List<FulfilmentAssignmentResult> results = useCase.assignAll(Arrays.asList(
+        null,
+        new FulfilmentAssignment("S1", null, "W1"),
+        new FulfilmentAssignment("S1", "P1", "W1")));
+
+    assertEquals(Status.REJECTED, results.get(0).status);
+    assertEquals(AppConstants.ERR_FULFILMENT_REQUEST_NULL, results.get(0).error);
+    assertEquals(Status.REJECTED, results.get(1).status);
+    assertEquals(AppConstants.ERR_FULFILMENT_FIELDS_REQUIRED, results.get(1).error);
+    assertEquals(Status.CREATED, results.get(2).status);
+  }
+
+  @Test
+  public void testEmptyBatchDoesNotInsert() {
+    assertTrue(useCase.assignAll(List.of()).isEmpty());
+    assertEquals(0, createAllCalls);
+  }
+
+  @Test
+  public void testNullBatchThrows() {
+    assertThrows(ValidationException.class, () -> useCase.assignAll(null));
+  }
+
+  @Test
+  public void testOversizedBatchIsRejectedBeforeLocking() {
+    List<FulfilmentAssignment> batch = new ArrayList<>();
+    for (int i = 0; i <= AssignWarehouseToStoreProductUseCase.MAX_BATCH_SIZE; i++) {
+      batch.add(new FulfilmentAssignment("S" + i, "P1", "W" + i));
+    }
+
+    ValidationException e = assertThrows(ValidationException.class, () -> useCase.assignAll(batch));
+    assertEquals(String.format(AppConstants.ERR_FULFILMENT_BATCH_TOO_LARGE,
+        AssignWarehouseToStoreProductUseCase.MAX_BATCH_SIZE), e.getMessage());
+    assertEquals(0, createAllCalls);
+  }
+}
@@ -0,0 +1,99 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.ConflictException;
+import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FulfilmentConstraintEngineTest {
+
+  InMemoryFulfilmentAssignmentStore store;
+  FulfilmentConstraintEngine engine;
+
+  @BeforeEach
+  public void setup() {
+    store = new InMemoryFulfilmentAssignmentStore();
+    engine = new FulfilmentConstraintEngine();
+  }
+
+  @Test
+  public void testNewTripleIsAllowed() {
+    assertTrue(engine.evaluate(store, "S1", "P1", "W1"));
+  }
+
+  @Test
+  public void testExistingTripleIsNotNew() {
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+
+    assertFalse(engine.evaluate(store, "S1", "P1", "W1"));
+  }
+
+  @Test
+  public void testExistingTripleIsNotNewEvenWhenLimitsAreReached() {
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    store.create(new FulfilmentAssignment("S1", "P1", "W2"));
+    store.create(new FulfilmentAssignment("S1", "P2", "W3"));
+
+    assertFalse(engine.evaluate(store, "S1", "P1", "W2"));
+  }
+
+  @Test
+  public void testMaxWarehousesPerStoreProduct() {
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    store.create(new FulfilmentAssignment("S1", "P1", "W2"));
+
+    ConflictException ex = assertThrows(ConflictException.class,
+        () -> engine.evaluate(store, "S1", "P1", "W3"));
+    assertEquals(AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_PRODUCT, ex.getMessage());
+  }
+
+  @Test
+  public void testMaxWarehousesPerStore() {
+    store.create(new FulfilmentAssignment("S1", "P1", "W1"));
+    store.create(new FulfilmentAssignment("S1", "P2", "W2"));
+    store.create(new FulfilmentAssignment("S1", "P3", "W3"));
+
+    ConflictException ex = assertThrows(ConflictException.class,
+        () -> engine.evaluate(store, "S1", "P4", "W4"));
+    assertEquals(AppConstants.ERR_ASSIGN_MAX_WAREHOUSES_PER_STORE, ex.getMessage());
+  }
+
+  @Test
+  public void testMaxProductsPerWarehouse() {
+    for (int p = 1; p <= 5; p++) {
+      store.create(new FulfilmentAssignment("S" + p, "P" + p, "WX"));
+    }
+
+    ConflictException ex = assertThrows(ConflictException.class,
+        () -> engine.evaluate(store, "S9", "P9", "WX"));
+    assertEquals(AppConstants.ERR_ASSIGN_MAX_PRODUCTS_PER_WAREHOUSE, ex.getMessage());
+  }
+
+  @Test
+  public void testMaxProductsPerWarehouse_allowsExistingProduct() {
+    for (int p = 1; p <= 5; p++) {
+      store.create(new FulfilmentAssignment("S1", "P" + p, "WX"));
+    }
+
+    assertTrue(engine.evaluate(store, "S2", "P1", "WX"));
+  }
+
+  @Test
+  public void testEvaluateNeverScansAllAssignments() {
+    InMemoryFulfilmentAssignmentStore noScanStore = new InMemoryFulfilmentAssignmentStore() {
+      @Override
+      public List<FulfilmentAssignment> getAll() {
+        throw new AssertionError("getAll must not be used for constraint checks");
+      }
+    };
+    noScanStore.create(new FulfilmentAssignment("S1", "P1", "W1"));
+
+    assertTrue(engine.evaluate(noScanStore, "S1", "P2", "W1"));
+    assertFalse(engine.evaluate(noScanStore, "S1", "P1", "W1"));
+  }
+}
@@ -0,0 +1,134 @@
+package com.fulfilment.application.monolith.fulfilment.domain.usecases;
+
+import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.fulfilment.adapters.inmemory.InMemoryFulfilmentAssignmentStore;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentAssignment;
+import com.fulfilment.application.monolith.fulfilment.domain.FulfilmentGraph;
+import com.fulfilment.application.monolith.fulfilment.domain.WarehouseCapacityIndex;
+import com.fulfilment.application.monolith.fulfilment.domain.WarehouseRecommendation;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers.InMemoryWarehouseStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecommendWarehousesUseCaseTest {
+
+  private InMemoryWarehouseStore warehouses;
+  private InMemoryFulfilmentAssignmentStore assignments;
+  private WarehouseCapacityIndex capacityIndex;
+  private AssignWarehouseToStoreProductUseCase assign;
+  private RecommendWarehousesUseCase useCase;
+
+  @BeforeEach
+  void setup() {
+    warehouses = new InMemoryWarehouseStore();
+    warehouses.create(warehouse("W-ROOMY", "L1", 100, 10));
+    warehouses.create(warehouse("W-MID", "L2", 60, 10));
+    warehouses.create(warehouse("W-SMALL", "L1", 30, 10));
+    warehouses.create(warehouse("W-FULL", "L1", 20, 20));
+
+    assignments = new InMemoryFulfilmentAssignmentStore();
+    FulfilmentGraph graph = new FulfilmentGraph(assignments);
+    capacityIndex = new WarehouseCapacityIndex(warehouses);
+    assign = new AssignWarehouseToStoreProductUseCase(assignments, graph);
+    useCase = new RecommendWarehousesUseCase(graph, capacityIndex);
+  }
+
+  @Test
+  void testRanksByFreeCapacityAndFiltersLocation() {
+    assertEquals(List.of("W-ROOMY", "W-MID", "W-SMALL"), codes(useCase.recommend("S1", "P1", null, 10)));
+    assertEquals(List.of("W-ROOMY", "W-SMALL"), codes(useCase.recommend("S1", "P1", "L1", 10)));
+    assertEquals(List.of("W-ROOMY"), codes(useCase.recommend("S1", "P1", null, 1)));
+    assertTrue(useCase.recommend("S1", "P1", "L-UNKNOWN", 10).isEmpty());
+  }
+
+  @Test
+  void testWarehousesServingTheStoreComeFirst() {
+    assign.assign("S1", "P2", "W-SMALL");
+
+    List<WarehouseRecommendation> recommendations = useCase.recommend("S1", "P1", null, 10);
+
+    assertEquals(List.of("W-SMALL", "W-ROOMY", "W-MID"), codes(recommendations));
+    assertTrue(recommendations.get(0).servesStore);
+    assertFalse(recommendations.get(1).servesStore);
+    assertEquals(20, recommendations.get(0).freeCapacity);
+  }
+
+  @Test
+  void testHonoursTheAssignmentLimits() {
+    // P1 already has W-ROOMY; a second warehouse is still allowed, a third is not
+    assign.assign("S1", "P1", "W-ROOMY");
+    assertEquals(List.of("W-MID", "W-SMALL"), codes(useCase.recommend("S1", "P1", null, 10)));
+    assign.assign("S1", "P1", "W-MID");
+    assertTrue(useCase.recommend("S1", "P1", null, 10).isEmpty());
+
+    // S1 now uses two of its three warehouses; once all three are taken only they remain
+    assign.assign("S1", "P2", "W-SMALL");
+    assertEquals(List.of("W-ROOMY", "W-MID", "W-SMALL"), codes(useCase.recommend("S1", "P3", null, 10)));
+    warehouses.create(warehouse("W-NEW", "L1", 500, 0));
+    capacityIndex.markChanged(List.of("W-NEW"));
+    assertFalse(codes(useCase.recommend("S1", "P3", null, 10)).contains("W-NEW"));
+
+    // W-NEW stores five products for another store: only one of those can be added
+    for (int p = 1; p <= 5; p++) {
+      assign.assign("S2", "P" + p, "W-NEW");
+    }
+    assertEquals(List.of("W-NEW"), codes(useCase.recommend("S3", "P5", "L1", 1)));
+    assertEquals(List.of("W-ROOMY"), codes(useCase.recommend("S3", "P6", "L1", 1)));
+  }
+
+  @Test
+  void testIndexFollowsMarkedWarehouseWrites() {
+    assertEquals(List.of("W-ROOMY", "W-SMALL"), codes(useCase.recommend("S1", "P1", "L1", 10)));
+
+    warehouses.replaceByCode(warehouse("W-SMALL", "L1", 200, 10), null, LocalDateTime.now());
+    warehouses.archiveByCode("W-ROOMY", LocalDateTime.now());
+    capacityIndex.markChanged(List.of("W-SMALL", "W-ROOMY"));
+
+    List<WarehouseRecommendation> recommendations = useCase.recommend("S1", "P1", "L1", 10);
+    assertEquals(List.of("W-SMALL"), codes(recommendations));
+    assertEquals(190, recommendations.get(0).freeCapacity);
+  }
+
+  @Test
+  void testExpiredIndexPicksUpUnmarkedWarehouseWrites() {
+    // every read finds the index expired
+    WarehouseCapacityIndex expiring = new WarehouseCapacityIndex(warehouses, Duration.ofNanos(1));
+    assertEquals(List.of("W-ROOMY", "W-SMALL", "W-FULL"), expiring.ranked("L1").stream()
+        .map(unit -> unit.businessUnitCode).collect(Collectors.toList()));
+
+    // as another instance would: written without marking the codes
+    warehouses.create(warehouse("W-NEW", "L1", 500, 0));
+    warehouses.archiveByCode("W-ROOMY", LocalDateTime.now());
+
+    assertEquals(List.of("W-NEW", "W-SMALL", "W-FULL"), expiring.ranked("L1").stream()
+        .map(unit -> unit.businessUnitCode).collect(Collectors.toList()));
+    assertNull(expiring.get("W-ROOMY"));
+  }
+
+  @Test
+  void testRejectsMissingIds() {
+    assertThrows(ValidationException.class, () -> useCase.recommend(null, "P1", null, 10));
+    assertThrows(ValidationException.class, () -> useCase.recommend("S1", null, null, 10));
+  }
+
+  private static List<String> codes(List<WarehouseRecommendation> recommendations) {
+    return recommendations.stream().map(r -> r.businessUnitCode).collect(Collectors.toList());
+  }
+
+  private static Warehouse warehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
+}
@@ -1,10 +1,17 @@
 package com.fulfilment.application.monolith.location;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 
 public class LocationGatewayTest {
@@ -27,4 +34,82 @@ public class LocationGatewayTest {
 
     assertThrows(NotFoundException.class, () -> locationGateway.resolveByIdentifier("UNKNOWN-000"));
   }
+
+  @Test
+  public void testBundledSourceLoadsAllLocations() {
+    LocationGateway locationGateway = new LocationGateway();
+
+    assertEquals(8, locationGateway.all().size());
+    assertEquals(100, locationGateway.resolveByIdentifier("AMSTERDAM-001").maxCapacity);
+  }
+
+  @Test
+  public void testNullIdentifierThrowsNotFound() {
+    LocationGateway locationGateway = new LocationGateway();
+
+    assertThrows(NotFoundException.class, () -> locationGateway.resolveByIdentifier(null));
+  }
+
+  @Test
+  public void testReloadSwapsSnapshot() {
+    AtomicReference<List<Location>> current =
+        new AtomicReference<>(List.of(new Location("OLD-001", 1, 10)));
+    LocationGateway locationGateway = new LocationGateway(current::get);
+
+    current.set(List.of(new Location("NEW-001", 2, 20), new Location("NEW-002", 3, 30)));
+    assertEquals(2, locationGateway.reload());
+
+    assertThrows(NotFoundException.class, () -> locationGateway.resolveByIdentifier("OLD-001"));
+    assertEquals(20, locationGateway.resolveByIdentifier("NEW-001").maxCapacity);
+  }
+
+  @Test
+  public void testFailedReloadKeepsPreviousSnapshot() {
+    Location kept = new Location("KEPT-001", 1, 10);
+    AtomicReference<List<Location>> current = new AtomicReference<>(List.of(kept));
+    LocationGateway locationGateway = new LocationGateway(() -> {
+      if (current.get() == null) {
+        throw new IllegalStateException("source down");
+      }
+      return current.get();
+    });
+
+    current.set(null);
+    assertThrows(IllegalStateException.class, locationGateway::reload);
+
+    assertSame(kept, locationGateway.resolveByIdentifier("KEPT-001"));
+  }
+
+  @Test
+  public void testMissingBundledFileIsRejected() {
+    assertThrows(IllegalStateException.class,
+        () -> new BundledLocationSource("missing-locations.csv").load());
+  }
+
+  @Test
+  public void testFileSourceIsReReadOnReload() throws Exception {
+    Path file = Files.createTempFile("locations", ".csv");
+    try {
+      Files.writeString(file, "# edited on disk\nFILE-001,1,10\n");
+      LocationGateway locationGateway = new LocationGateway(BundledLocationSource.fromFile(file.toString()));
+      assertEquals(10, locationGateway.resolveByIdentifier("FILE-001").maxCapacity);
+
+      Files.writeString(file, "FILE-001,1,15\nFILE-002,2,20\n");
+      LocationResource resource = new LocationResource(locationGateway);
+      resource.token = Optional.of("operator-token");
+      Map<String, Integer> reloaded = resource.reload("operator-token");
+
+      assertEquals(2, reloaded.get(LocationResource.JSON_LOCATIONS));
+      assertEquals(15, locationGateway.resolveByIdentifier("FILE-001").maxCapacity);
+      assertEquals(20, locationGateway.resolveByIdentifier("FILE-002").maxCapacity);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testMissingFileIsRejected() {
+    assertThrows(IllegalStateException.class,
+        () -> BundledLocationSource.fromFile("/nonexistent/locations.csv").load());
+  }
 }
@@ -0,0 +1,72 @@
+package com.fulfilment.application.monolith.location;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.UnavailableException;
+import jakarta.ws.rs.ForbiddenException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocationResourceTest {
+
+  private static final String TOKEN = "operator-token";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  public void testReloadWithTheOperatorTokenReturnsTheLocationCount() {
+    LocationResource resource = resource(new BundledLocationSource());
+
+    assertEquals(new LocationGateway().all().size(),
+        resource.reload(TOKEN).get(LocationResource.JSON_LOCATIONS));
+  }
+
+  @Test
+  public void testReloadIsRefusedWithoutTheOperatorToken() {
+    LocationResource resource = resource(new BundledLocationSource());
+
+    assertThrows(ForbiddenException.class, () -> resource.reload(null));
+    assertThrows(ForbiddenException.class, () -> resource.reload("operator-tokem"));
+  }
+
+  @Test
+  public void testReloadIsRefusedWhileNoTokenIsConfigured() {
+    LocationResource resource = resource(new BundledLocationSource());
+    resource.token = Optional.empty();
+
+    assertThrows(ForbiddenException.class, () -> resource.reload(TOKEN));
+  }
+
+  @Test
+  public void testMissingAndUnreadableFilesReportTheSameFailure() throws Exception {
+    Path file = dir.resolve("locations.csv");
+    Files.writeString(file, "RELOAD-001,1,10\n");
+    BundledLocationSource source = BundledLocationSource.fromFile(file.toString());
+    LocationGateway gateway = new LocationGateway(source);
+    LocationResource resource = new LocationResource(gateway);
+    resource.token = Optional.of(TOKEN);
+
+    Files.delete(file);
+    UnavailableException missing = assertThrows(UnavailableException.class, () -> resource.reload(TOKEN));
+
+    // a directory opens but cannot be read
+    Files.createDirectory(file);
+    UnavailableException unreadable = assertThrows(UnavailableException.class, () -> resource.reload(TOKEN));
+
+    assertEquals(AppConstants.ERR_LOCATION_RELOAD_FAILED, missing.getMessage());
+    assertEquals(missing.getMessage(), unreadable.getMessage());
+    assertEquals("RELOAD-001", gateway.resolveByIdentifier("RELOAD-001").identification);
+  }
+
+  private static LocationResource resource(LocationSource source) {
+    LocationResource resource = new LocationResource(new LocationGateway(source));
+    resource.token = Optional.of(TOKEN);
+    return resource;
+  }
+}
@@ -5,12 +5,12 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.core.IsNot.not;
 import static org.junit.jupiter.api.Assertions.*;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.common.rest.NdjsonStreaming;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import jakarta.ws.rs.core.Response;
@@ -88,6 +88,67 @@ public class ProductResourceTest {
       .body(not(containsString(name)));
   }
 
+  @Test
+  public void testKeysetPagingAndStreaming() {
+    final String path = "product";
+
+    String prefix = "PG-" + System.currentTimeMillis();
+    int firstId = createProduct(path, prefix + "-A");
+    int secondId = createProduct(path, prefix + "-B");
+
+    String cursor =
+      given()
+        .queryParam(KeysetPaging.PARAM_AFTER, firstId - 1)
+        .queryParam(KeysetPaging.PARAM_LIMIT, 1)
+      .when()
+        .get(path)
+      .then()
+        .statusCode(200)
+        .extract()
+        .header(KeysetPaging.HEADER_NEXT_CURSOR);
+    assertEquals(String.valueOf(firstId), cursor);
+
+    List<Integer> nextPage =
+      given()
+        .queryParam(KeysetPaging.PARAM_AFTER, cursor)
+        .queryParam(KeysetPaging.PARAM_LIMIT, 1)
+      .when()
+        .get(path)
+      .then()
+        .statusCode(200)
+        .extract()
+        .jsonPath()
+        .getList("id", Integer.class);
+    assertEquals(List.of(secondId), nextPage);
+
+    given().queryParam(KeysetPaging.PARAM_LIMIT, 0).when().get(path).then().statusCode(400);
+
+    String body =
+      given()
+        .accept(NdjsonStreaming.MEDIA_TYPE)
+      .when()
+        .get(path + "/stream")
+      .then()
+        .statusCode(200)
+        .extract()
+        .asString();
+    assertTrue(body.lines().anyMatch(line -> line.contains("\"name\":\"" + prefix + "-B\"")));
+  }
+
+  private int createProduct(String path, String name) {
+    Product p = new Product(name);
+    return given()
+        .contentType(ContentType.JSON)
+        .body(p)
+      .when()
+        .post(path)
+      .then()
+        .statusCode(201)
+        .extract()
+        .jsonPath()
+        .getInt("id");
+  }
+
   // ---------- RESOURCE TESTS ----------
 
   @Test
@@ -99,7 +160,8 @@ public class ProductResourceTest {
     ProductResource r = new ProductResource();
     injectRepo(r, repo);
 
-    var got = r.get();
+    @SuppressWarnings("unchecked")
+    List<Product> got = (List<Product>) r.get(null, null).getEntity();
     Assertions.assertEquals(1, got.size());
     Assertions.assertSame(p, got.get(0));
   }
@@ -178,38 +240,6 @@ public class ProductResourceTest {
     Assertions.assertSame(existing, repo.deleted);
   }
 
-  // ---------- ERROR MAPPER TESTS ----------
-
-  @Test
-  public void testErrorMapperHandlesCustomExceptions() throws Exception {
-    ProductResource.ErrorMapper mapper = new ProductResource.ErrorMapper();
-    ObjectMapper om = new ObjectMapper();
-    java.lang.reflect.Field f = ProductResource.ErrorMapper.class.getDeclaredField("objectMapper");
-    f.setAccessible(true);
-    f.set(mapper, om);
-
-    Response r = mapper.toResponse(new NotFoundException(String.format(AppConstants.ERR_PRODUCT_NOT_FOUND, 1)));
-    Assertions.assertEquals(404, r.getStatus());
-
-    Response r2 = mapper.toResponse(new ValidationException(AppConstants.ERR_PRODUCT_NAME_REQUIRED));
-    Assertions.assertEquals(400, r2.getStatus());
-
-    Response r3 = mapper.toResponse(new ConflictException(AppConstants.ERR_PRODUCT_ID_NOT_ALLOWED));
-    Assertions.assertEquals(409, r3.getStatus());
-
-    Object entity = r.getEntity();
-    ObjectNode node;
-    if (entity instanceof ObjectNode) {
-      node = (ObjectNode) entity;
-    } else if (entity instanceof byte[]) {
-      node = (ObjectNode) om.readTree((byte[]) entity);
-    } else {
-      node = (ObjectNode) om.readTree(entity.toString());
-    }
-
-    Assertions.assertTrue(node.has("code"));
-  }
-
   private void injectRepo(ProductResource resource, ProductRepository repo) {
     try {
       java.lang.reflect.Field f = ProductResource.class.getDeclaredField("productRepository");
@@ -0,0 +1,142 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LegacyJournalTest {
+
+  private static final int SEGMENT_BYTES = 512;
+
+  @Test
+  void appendsRecordsInLegacyFormat(@TempDir Path dir) throws IOException {
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 10)) {
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Alpha", 12);
+      journal.append(StoreChangedEvent.ChangeType.DELETED, "k-1", "Beta", -3);
+    }
+
+    assertEquals("Store created. [ name = Alpha ] [ items on stock = 12 ]\n"
+        + "[ key = k-1 ] Store deleted. [ name = Beta ] [ items on stock = -3 ]\n", readSegments(dir));
+  }
+
+  @Test
+  void encodesNonAsciiNamesAndFoldsLineBreaks(@TempDir Path dir) throws IOException {
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      journal.append(StoreChangedEvent.ChangeType.UPDATED, null, "Zürich\nCentral", 0);
+      journal.append(StoreChangedEvent.ChangeType.UPDATED, null, "Multi\nLine", Integer.MIN_VALUE);
+      journal.append(StoreChangedEvent.ChangeType.UPDATED, null, null, 1);
+    }
+
+    assertEquals("Store created. [ name = Zürich Central ] [ items on stock = 0 ]\n"
+        + "Store created. [ name = Multi Line ] [ items on stock = -2147483648 ]\n"
+        + "Store created. [ name = null ] [ items on stock = 1 ]\n", readSegments(dir));
+  }
+
+  @Test
+  void rotatesToNewSegmentWhenFull(@TempDir Path dir) throws IOException {
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 100)) {
+      for (int i = 0; i < 50; i++) {
+        journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Store-" + i, i);
+      }
+      assertTrue(journal.rotationCount() > 0);
+      assertEquals(50, journal.appendedCount());
+    }
+
+    List<String> lines = readSegments(dir).lines().toList();
+    assertEquals(50, lines.size());
+    assertEquals("Store created. [ name = Store-49 ] [ items on stock = 49 ]", lines.get(49));
+    assertTrue(segmentFiles(dir).stream().allMatch(path -> path.toFile().length() == SEGMENT_BYTES));
+  }
+
+  @Test
+  void reopenResumesAfterLastRecord(@TempDir Path dir) throws IOException {
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "First", 1);
+    }
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Second", 2);
+    }
+
+    assertEquals("Store created. [ name = First ] [ items on stock = 1 ]\n"
+        + "Store created. [ name = Second ] [ items on stock = 2 ]\n", readSegments(dir));
+  }
+
+  @Test
+  void controlCharactersNeverEndTheJournal(@TempDir Path dir) throws IOException {
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Nul\u0000Tab\tEnd", 1);
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Zürich\u0000Süd", 2);
+    }
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "After", 3);
+    }
+
+    assertEquals("Store created. [ name = Nul Tab End ] [ items on stock = 1 ]\n"
+        + "Store created. [ name = Zürich Süd ] [ items on stock = 2 ]\n"
+        + "Store created. [ name = After ] [ items on stock = 3 ]\n", readSegments(dir));
+  }
+
+  @Test
+  void reopenDropsTornRecord(@TempDir Path dir) throws IOException {
+    Path segment;
+    int end;
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Whole", 1);
+      segment = journal.currentSegmentPath();
+      end = journal.currentPosition();
+    }
+    // a crash in the middle of the next append
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      file.seek(end);
+      file.write("Store created. [ name = Tor".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    try (LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1)) {
+      assertEquals(end, journal.currentPosition());
+      journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Next", 2);
+    }
+
+    assertEquals("Store created. [ name = Whole ] [ items on stock = 1 ]\n"
+        + "Store created. [ name = Next ] [ items on stock = 2 ]\n", readSegments(dir));
+  }
+
+  @Test
+  void rejectsRecordLargerThanSegmentAndAppendAfterClose(@TempDir Path dir) throws IOException {
+    LegacyJournal journal = new LegacyJournal(dir, SEGMENT_BYTES, 1);
+    assertThrows(IOException.class,
+        () -> journal.append(StoreChangedEvent.ChangeType.CREATED, null, "A".repeat(SEGMENT_BYTES), 1));
+
+    journal.close();
+    assertThrows(IOException.class,
+        () -> journal.append(StoreChangedEvent.ChangeType.CREATED, null, "Closed", 1));
+  }
+
+  static String readSegments(Path dir) throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (Path segment : segmentFiles(dir)) {
+      String text = Files.readString(segment, StandardCharsets.UTF_8);
+      int end = text.indexOf('\0');
+      content.append(end < 0 ? text : text.substring(0, end));
+    }
+    return content.toString();
+  }
+
+  private static List<Path> segmentFiles(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(LegacyJournal.SEGMENT_PREFIX))
+          .sorted()
+          .toList();
+    }
+  }
+}
@@ -1,221 +1,57 @@
 package com.fulfilment.application.monolith.stores;
 
+import java.nio.file.Path;
+import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class LegacyStoreManagerGatewayTest {
 
   @Test
-  public void createWithNullStore_isNoOp() {
+  public void syncBatchWritesMixedChanges() {
     LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    // should not throw
-    g.createStoreOnLegacySystem(null);
+    Store created = new Store("BatchCreated");
+    created.id = 1L;
+    Store deleted = new Store("BatchDeleted");
+    deleted.id = 2L;
+    Assertions.assertDoesNotThrow(() -> g.syncBatchOnLegacySystem(java.util.List.of(
+        StoreOutboxEntry.of(created, StoreChangedEvent.ChangeType.CREATED),
+        StoreOutboxEntry.of(deleted, StoreChangedEvent.ChangeType.DELETED))));
+    Assertions.assertDoesNotThrow(() -> g.syncBatchOnLegacySystem(java.util.List.of()));
+    Assertions.assertDoesNotThrow(() -> g.syncBatchOnLegacySystem(null));
   }
 
   @Test
-  public void writeFile_and_cleanup_happyPath() {
+  public void syncBatchAcceptsNamesUnsafeForFiles() {
     LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("name-with/chars?*\n");
-    s.quantityProductsInStock = 42;
-    // exercise the successful path which creates, writes and deletes a temp file
-    g.updateStoreOnLegacySystem(s);
-    // if we got here without exception, good enough for unit test
-    Assertions.assertTrue(true);
+    Store s = new Store("Store/with\\unsafe:chars*");
+    s.id = 4L;
+    Store unnamed = new Store(null);
+    unnamed.id = 5L;
+    Assertions.assertDoesNotThrow(() -> g.syncBatchOnLegacySystem(java.util.List.of(
+        StoreOutboxEntry.of(s, StoreChangedEvent.ChangeType.UPDATED),
+        StoreOutboxEntry.of(unnamed, StoreChangedEvent.ChangeType.UPDATED))));
   }
 
   @Test
-  public void create_and_update_withNullAndValid_instance_calls() {
+  public void journalModeAppendsRecordsInsteadOfTempFiles(@TempDir Path dir) throws Exception {
     LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    // null should be handled gracefully
-    g.createStoreOnLegacySystem(null);
+    g.mode = LegacyStoreManagerGateway.MODE_JOURNAL;
+    g.journalDirectory = Optional.of(dir.toString());
+    g.journalSegmentSize = 4096;
 
-    Store s = new Store("gw-test");
-    s.quantityProductsInStock = 12;
+    Store s = new Store("JournalStore");
+    s.id = 3L;
+    s.quantityProductsInStock = 7;
+    StoreOutboxEntry created = StoreOutboxEntry.of(s, StoreChangedEvent.ChangeType.CREATED);
+    g.syncBatchOnLegacySystem(java.util.List.of(created));
+    g.syncBatchOnLegacySystem(java.util.List.of(StoreOutboxEntry.of(s, StoreChangedEvent.ChangeType.DELETED)));
+    g.closeJournal();
 
-    // should run without throwing (writes to temp file then deletes)
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-    Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void create_and_update_whenTempDirInvalid_logsAndContinues() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("tempdir-fail");
-    s.quantityProductsInStock = 1;
-
-    String originalTmp = System.getProperty("java.io.tmpdir");
-    try {
-      System.setProperty("java.io.tmpdir", "Z:\\path-does-not-exist\\");
-
-      Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-      Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(s));
-    } finally {
-      if (originalTmp != null) {
-        System.setProperty("java.io.tmpdir", originalTmp);
-      }
-    }
-  }
-
-  @Test
-  public void deleteWithNullStore_isNoOp() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    // should not throw
-    g.deleteStoreOnLegacySystem(null);
-  }
-
-  @Test
-  public void deleteStore_happyPath() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("store-to-delete");
-    s.quantityProductsInStock = 10;
-    // should run without throwing (writes to temp file then deletes)
-    Assertions.assertDoesNotThrow(() -> g.deleteStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void delete_and_create_update_withValidStore() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-
-    Store s = new Store("store-lifecycle");
-    s.quantityProductsInStock = 25;
-
-    // should run without throwing for all operations
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-    Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(s));
-    Assertions.assertDoesNotThrow(() -> g.deleteStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void updateWithNullStore_isNoOp() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(null));
-  }
-
-  @Test
-  public void createStoreWithNullName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store();
-    s.quantityProductsInStock = 10;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithEmptyName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("");
-    s.quantityProductsInStock = 5;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithLongName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("A".repeat(1000));
-    s.quantityProductsInStock = 100;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithSpecialCharacters() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("Store!@#$%^&*()");
-    s.quantityProductsInStock = 15;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithZeroStock() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("Zero Stock Store");
-    s.quantityProductsInStock = 0;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithNegativeStock() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("Negative Stock Store");
-    s.quantityProductsInStock = -10;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void updateStoreWithNullName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store();
-    s.quantityProductsInStock = 20;
-    Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void deleteStoreWithNullName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store();
-    s.quantityProductsInStock = 5;
-    Assertions.assertDoesNotThrow(() -> g.deleteStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithOneCharName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("A");
-    s.quantityProductsInStock = 10;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithTwoCharName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("AB");
-    s.quantityProductsInStock = 20;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithExactlyThreeChars() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("ABC");
-    s.quantityProductsInStock = 30;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void updateStoreWithShortName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("XY");
-    s.quantityProductsInStock = 15;
-    Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void deleteStoreWithShortName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("Z");
-    s.quantityProductsInStock = 5;
-    Assertions.assertDoesNotThrow(() -> g.deleteStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void createStoreWithVeryLongName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("ThisIsAVeryLongStoreNameThatExceedsTenCharacters");
-    s.quantityProductsInStock = 100;
-    Assertions.assertDoesNotThrow(() -> g.createStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void updateStoreWithVeryLongName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("AnotherVeryLongStoreName");
-    s.quantityProductsInStock = 50;
-    Assertions.assertDoesNotThrow(() -> g.updateStoreOnLegacySystem(s));
-  }
-
-  @Test
-  public void deleteStoreWithVeryLongName() {
-    LegacyStoreManagerGateway g = new LegacyStoreManagerGateway();
-    Store s = new Store("YetAnotherVeryLongStoreNameForDeletion");
-    s.quantityProductsInStock = 25;
-    Assertions.assertDoesNotThrow(() -> g.deleteStoreOnLegacySystem(s));
+    String content = LegacyJournalTest.readSegments(dir);
+    Assertions.assertTrue(content.startsWith("[ key = " + created.idempotencyKey + " ] "
+        + "Store created. [ name = JournalStore ] [ items on stock = 7 ]\n"));
+    Assertions.assertTrue(content.contains("Store deleted. [ name = JournalStore ] [ items on stock = 7 ]\n"));
   }
 }
@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class StoreChangeDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Inject
+    StoreChangeDispatcher dispatcher;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Test
+    void burstForOneStoreIsDispatchedOnce() throws InterruptedException {
+        double dispatchedBefore = count("dispatched");
+        double coalescedBefore = count("coalesced");
+        long windowsBefore = windowCount();
+
+        Store store = new Store("DISPATCH-BURST");
+        store.id = 910_001L;
+        for (int i = 0; i < 5; i++) {
+            dispatcher.onCommitted(new StoreChangedEvent(store, StoreChangedEvent.ChangeType.UPDATED));
+        }
+
+        awaitDispatched(dispatchedBefore + 1);
+        assertEquals(coalescedBefore + 4, count("coalesced"));
+        assertEquals(windowsBefore + 1, windowCount());
+    }
+
+    @Test
+    void differentStoresAreDispatchedSeparately() throws InterruptedException {
+        double dispatchedBefore = count("dispatched");
+
+        for (long id = 920_001L; id <= 920_003L; id++) {
+            Store store = new Store("DISPATCH-" + id);
+            store.id = id;
+            dispatcher.onCommitted(new StoreChangedEvent(store, StoreChangedEvent.ChangeType.CREATED));
+        }
+
+        awaitDispatched(dispatchedBefore + 3);
+    }
+
+    @Test
+    void eventWithoutStoreIdIsIgnored() {
+        int before = dispatcher.openWindows();
+
+        dispatcher.onCommitted(new StoreChangedEvent(null, StoreChangedEvent.ChangeType.CREATED));
+        dispatcher.onCommitted(new StoreChangedEvent(new Store("NO-ID"), StoreChangedEvent.ChangeType.CREATED));
+
+        assertEquals(before, dispatcher.openWindows());
+    }
+
+    private void awaitDispatched(double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (count("dispatched") < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, count("dispatched"));
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(StoreChangeDispatcher.METRIC_PREFIX + name).counter().count();
+    }
+
+    private long windowCount() {
+        return meterRegistry.get(StoreChangeDispatcher.METRIC_PREFIX + "window").timer().count();
+    }
+}
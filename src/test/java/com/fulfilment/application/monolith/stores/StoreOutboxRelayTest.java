@@ -0,0 +1,287 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import com.fulfilment.application.monolith.common.exceptions.OverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.ClientProxy;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class StoreOutboxRelayTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Inject
+    StoreOutboxRelay outboxRelay;
+
+    @InjectMock
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "store.outbox.relay.max-attempts")
+    int maxAttempts;
+
+    @ConfigProperty(name = "store.outbox.relay.retention")
+    Duration retention;
+
+    @ConfigProperty(name = "store.outbox.relay.parallelism")
+    int parallelism;
+
+    @Test
+    void committedCreateIsDeliveredAndMarked() throws IOException {
+        createViaApi("OUTBOX-CREATE", 3);
+
+        verify(legacyStoreManagerGateway, timeout(TIMEOUT_MILLIS))
+            .syncBatchOnLegacySystem(argThat(batch -> containsStore(batch, "OUTBOX-CREATE")));
+        awaitTrue(() -> entriesFor("OUTBOX-CREATE").stream().allMatch(e -> e.deliveredAt != null));
+        assertTrue(meterRegistry.get(StoreOutboxMetrics.METRIC_PREFIX + "delivery.latency").timer().count() > 0);
+    }
+
+    @Test
+    void entryLeftBehindByCrashIsPickedUpByPolling() throws IOException {
+        // an entry committed without the post-commit wake-up, as after a crash
+        QuarkusTransaction.requiringNew().run(() -> {
+            Store store = new Store("OUTBOX-ORPHAN");
+            store.id = 900_001L;
+            StoreOutboxEntry.of(store, StoreChangedEvent.ChangeType.UPDATED).persist();
+        });
+
+        verify(legacyStoreManagerGateway, timeout(TIMEOUT_MILLIS))
+            .syncBatchOnLegacySystem(argThat(batch -> containsStore(batch, "OUTBOX-ORPHAN")));
+    }
+
+    @Test
+    void failedDeliveryIsRetriedWithBackoff() throws IOException {
+        AtomicBoolean legacyDown = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            List<StoreOutboxEntry> batch = invocation.getArgument(0);
+            if (legacyDown.get() && containsStore(batch, "OUTBOX-RETRY")) {
+                throw new IOException("legacy unavailable");
+            }
+            return null;
+        }).when(legacyStoreManagerGateway).syncBatchOnLegacySystem(anyList());
+
+        createViaApi("OUTBOX-RETRY", 1);
+
+        awaitTrue(() -> entriesFor("OUTBOX-RETRY").stream().anyMatch(e -> e.attempts > 0));
+        StoreOutboxEntry failed = entriesFor("OUTBOX-RETRY").get(0);
+        assertNull(failed.deliveredAt);
+        assertEquals("legacy unavailable", failed.lastError);
+        assertTrue(failed.nextAttemptAt.isAfter(failed.createdAt));
+
+        legacyDown.set(false);
+        awaitTrue(() -> entriesFor("OUTBOX-RETRY").get(0).deliveredAt != null);
+    }
+
+    @Test
+    void entryRejectedEveryTimeIsParkedAndStopsBlockingItsStore() throws IOException {
+        doAnswer(invocation -> {
+            List<StoreOutboxEntry> batch = invocation.getArgument(0);
+            if (containsStore(batch, "OUTBOX-POISON")) {
+                throw new IOException("rejected by legacy");
+            }
+            return null;
+        }).when(legacyStoreManagerGateway).syncBatchOnLegacySystem(anyList());
+
+        QuarkusTransaction.requiringNew().run(() -> persistEntry(900_010L, "OUTBOX-POISON"));
+        awaitTrue(() -> entriesFor("OUTBOX-POISON").get(0).attempts > 0);
+        // a later change of the same store, committed while the poison entry backs off
+        QuarkusTransaction.requiringNew().run(() -> persistEntry(900_010L, "OUTBOX-BEHIND"));
+
+        awaitTrue(() -> entriesFor("OUTBOX-BEHIND").get(0).deliveredAt != null);
+        StoreOutboxEntry poison = entriesFor("OUTBOX-POISON").get(0);
+        assertNotNull(poison.parkedAt);
+        assertFalse(entriesFor("OUTBOX-BEHIND").get(0).deliveredAt.isBefore(poison.parkedAt));
+        assertNull(poison.deliveredAt);
+        assertEquals(maxAttempts, poison.attempts);
+        assertEquals("rejected by legacy", poison.lastError);
+        assertTrue(outboxRelay.parkedCount() > 0);
+    }
+
+    @Test
+    void storeBackingOffDoesNotHoldUpOtherStoresOfItsPartition() throws IOException {
+        doAnswer(invocation -> {
+            List<StoreOutboxEntry> batch = invocation.getArgument(0);
+            if (containsStore(batch, "OUTBOX-FAILING")) {
+                throw new IOException("rejected by legacy");
+            }
+            return null;
+        }).when(legacyStoreManagerGateway).syncBatchOnLegacySystem(anyList());
+
+        QuarkusTransaction.requiringNew().run(() -> persistEntry(900_030L, "OUTBOX-FAILING"));
+        awaitTrue(() -> entriesFor("OUTBOX-FAILING").get(0).attempts > 0);
+        // same partition, committed while the first store backs off
+        QuarkusTransaction.requiringNew().run(() -> persistEntry(900_032L, "OUTBOX-NEXT"));
+
+        awaitTrue(() -> entriesFor("OUTBOX-NEXT").get(0).deliveredAt != null);
+        StoreOutboxEntry failing = entriesFor("OUTBOX-FAILING").get(0);
+        StoreOutboxEntry next = entriesFor("OUTBOX-NEXT").get(0);
+        assertTrue(failing.parkedAt == null || next.deliveredAt.isBefore(failing.parkedAt));
+    }
+
+    @Test
+    void partitionLeasedByAnotherInstanceIsNotDrained() {
+        awaitTrue(() -> QuarkusTransaction.requiringNew().call(() ->
+            StoreOutboxLease.<StoreOutboxLease>findById(0)) != null);
+
+        StoreOutboxRelay other = new StoreOutboxRelay();
+        other.parallelism = parallelism;
+        other.lease = Duration.ofSeconds(30);
+
+        assertFalse(other.claim(0));
+        assertEquals(0, other.drainPartition(0));
+        assertEquals(ClientProxy.unwrap(outboxRelay).owner,
+            QuarkusTransaction.requiringNew().call(() -> StoreOutboxLease.<StoreOutboxLease>findById(0).owner));
+    }
+
+    @Test
+    void purgeDeletesOnlyDeliveredEntriesPastRetention() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            StoreOutboxEntry old = persistEntry(900_020L, "OUTBOX-PURGED");
+            old.deliveredAt = LocalDateTime.now().minus(retention).minusMinutes(1);
+            StoreOutboxEntry recent = persistEntry(900_022L, "OUTBOX-KEPT");
+            recent.deliveredAt = LocalDateTime.now();
+        });
+
+        assertTrue(outboxRelay.purgeDelivered() >= 1);
+
+        assertTrue(entriesFor("OUTBOX-PURGED").isEmpty());
+        assertEquals(1, entriesFor("OUTBOX-KEPT").size());
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEntry() {
+        createViaApi("OUTBOX-DUP", 1);
+
+        // unique name violation rolls the second create back together with its entry
+        Store duplicate = new Store("OUTBOX-DUP");
+        given().contentType(ContentType.JSON).body(duplicate).post("/store")
+            .then().statusCode(500);
+
+        assertEquals(1, entriesFor("OUTBOX-DUP").size());
+    }
+
+    @Test
+    void fullOutboxRefusesTheChangeAndRollsItBack() {
+        StoreOutboxRelay relay = ClientProxy.unwrap(outboxRelay);
+        long capacity = relay.capacity;
+        long rejectedBefore = relay.rejectedCount();
+        relay.capacity = 0;
+        try {
+            Store store = new Store("OUTBOX-FULL");
+            given().contentType(ContentType.JSON).body(store).post("/store")
+                .then().statusCode(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(OverloadedException.RETRY_AFTER_SECONDS));
+        } finally {
+            relay.capacity = capacity;
+        }
+
+        assertEquals(rejectedBefore + 1, relay.rejectedCount());
+        assertTrue(entriesFor("OUTBOX-FULL").isEmpty());
+        assertEquals(0L, QuarkusTransaction.requiringNew().call(() -> Store.count("name", "OUTBOX-FULL")));
+        createViaApi("OUTBOX-FULL", 1);
+    }
+
+    @Test
+    void coalesceKeepsCreateAndLetsDeleteWin() {
+        StoreOutboxEntry created = entry(1L, StoreChangedEvent.ChangeType.CREATED, 1);
+        StoreOutboxEntry updated = entry(1L, StoreChangedEvent.ChangeType.UPDATED, 2);
+        StoreOutboxEntry other = entry(2L, StoreChangedEvent.ChangeType.UPDATED, 5);
+        StoreOutboxEntry deleted = entry(2L, StoreChangedEvent.ChangeType.DELETED, 5);
+
+        List<StoreOutboxEntry> out = StoreOutboxRelay.coalesce(List.of(created, other, updated, deleted));
+
+        assertEquals(2, out.size());
+        assertEquals(StoreChangedEvent.ChangeType.CREATED, out.get(0).changeType);
+        assertEquals(2, out.get(0).quantityProductsInStock);
+        assertEquals(updated.idempotencyKey, out.get(0).idempotencyKey);
+        assertSame(deleted, out.get(1));
+    }
+
+    @Test
+    void createFollowedByDeleteCancelsOut() {
+        StoreOutboxEntry created = entry(1L, StoreChangedEvent.ChangeType.CREATED, 1);
+        StoreOutboxEntry updated = entry(1L, StoreChangedEvent.ChangeType.UPDATED, 2);
+        StoreOutboxEntry deleted = entry(1L, StoreChangedEvent.ChangeType.DELETED, 2);
+        StoreOutboxEntry other = entry(2L, StoreChangedEvent.ChangeType.UPDATED, 5);
+
+        List<StoreOutboxEntry> out = StoreOutboxRelay.coalesce(List.of(created, updated, other, deleted));
+
+        assertEquals(List.of(other), out);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        Duration cap = Duration.ofSeconds(10);
+
+        assertEquals(Duration.ofSeconds(1), StoreOutboxRelay.backoffFor(0, cap));
+        assertEquals(Duration.ofSeconds(4), StoreOutboxRelay.backoffFor(2, cap));
+        assertEquals(cap, StoreOutboxRelay.backoffFor(30, cap));
+    }
+
+    private static StoreOutboxEntry entry(Long storeId, StoreChangedEvent.ChangeType type, int stock) {
+        Store store = new Store("S" + storeId);
+        store.id = storeId;
+        store.quantityProductsInStock = stock;
+        return StoreOutboxEntry.of(store, type);
+    }
+
+    private static StoreOutboxEntry persistEntry(Long storeId, String name) {
+        Store store = new Store(name);
+        store.id = storeId;
+        StoreOutboxEntry entry = StoreOutboxEntry.of(store, StoreChangedEvent.ChangeType.UPDATED);
+        entry.persist();
+        return entry;
+    }
+
+    private static boolean containsStore(List<StoreOutboxEntry> batch, String name) {
+        return batch != null && batch.stream().anyMatch(e -> name.equals(e.storeName));
+    }
+
+    private static List<StoreOutboxEntry> entriesFor(String name) {
+        return QuarkusTransaction.requiringNew().call(() ->
+            StoreOutboxEntry.<StoreOutboxEntry>list("storeName = ?1 order by id", name));
+    }
+
+    private static void createViaApi(String name, int stock) {
+        Store store = new Store(name);
+        store.quantityProductsInStock = stock;
+        given().contentType(ContentType.JSON).body(store).post("/store")
+            .then().statusCode(201);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met within " + TIMEOUT_MILLIS + " ms");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+}
@@ -86,7 +86,8 @@ public class StoreResourceCoverageTest {
     Store s = new Store("COVERAGE_LIST_STORE");
     storeResource.create(s);
 
-    List<Store> stores = storeResource.get();
+    @SuppressWarnings("unchecked")
+    List<Store> stores = (List<Store>) storeResource.get(null, null).getEntity();
     assertTrue(stores.stream().anyMatch(store -> "COVERAGE_LIST_STORE".equals(store.name)));
   }
 }
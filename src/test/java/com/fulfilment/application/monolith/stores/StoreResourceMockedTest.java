@@ -5,7 +5,6 @@ import io.quarkus.test.junit.mockito.InjectMock;
 import jakarta.inject.Inject;
 import org.hibernate.query.NativeQuery;
 import jakarta.persistence.EntityManager;
-import jakarta.transaction.TransactionSynchronizationRegistry;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -21,9 +20,6 @@ public class StoreResourceMockedTest {
   @InjectMock
   EntityManager entityManager;
 
-  @InjectMock
-  TransactionSynchronizationRegistry txRegistry;
-
   @Test
   public void getSingle_whenNativeCountThrows_fallsBackToFind() {
     Long id = 1234L;
@@ -55,12 +51,12 @@ public class StoreResourceMockedTest {
   }
 
   @Test
-  public void create_registersTransactionSynchronization() {
+  public void create_recordsOutboxEntryInTransaction() {
     Store s = new Store("tx-store");
 
     resource.create(s);
 
-    // verify that a synchronization was registered
-    verify(txRegistry, atLeastOnce()).registerInterposedSynchronization(any());
+    // the in-transaction observer writes the outbox entry through the same EntityManager
+    verify(entityManager, atLeastOnce()).persist(any(StoreOutboxEntry.class));
   }
 }
@@ -5,26 +5,22 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.common.rest.NdjsonStreaming;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
 import io.restassured.http.ContentType;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
-import jakarta.transaction.Status;
-import jakarta.transaction.Synchronization;
-import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.enterprise.event.Event;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.core.Response;
-import java.lang.reflect.Field;
 import java.util.List;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 
 @QuarkusTest
 class StoreResourceTest {
@@ -49,6 +45,54 @@ class StoreResourceTest {
             .body("name", hasItems("TONSTAD", "KALLAX", "BESTÅ"));
     }
 
+    @Test
+    void shouldPageStoresByIdUsingNextCursor() {
+        String cursor = given()
+            .queryParam(KeysetPaging.PARAM_LIMIT, 1)
+            .when().get("/store")
+            .then()
+            .statusCode(200)
+            .body("size()", equalTo(1))
+            .header(KeysetPaging.HEADER_NEXT_CURSOR, notNullValue())
+            .extract().header(KeysetPaging.HEADER_NEXT_CURSOR);
+
+        List<Integer> next = given()
+            .queryParam(KeysetPaging.PARAM_AFTER, cursor)
+            .queryParam(KeysetPaging.PARAM_LIMIT, 2)
+            .when().get("/store")
+            .then()
+            .statusCode(200)
+            .extract().jsonPath().getList("id", Integer.class);
+
+        assertFalse(next.isEmpty());
+        assertTrue(next.get(0) > Integer.parseInt(cursor));
+        assertTrue(next.size() < 2 || next.get(0) < next.get(1));
+    }
+
+    @Test
+    void shouldRejectOutOfRangePageLimit() {
+        given()
+            .queryParam(KeysetPaging.PARAM_LIMIT, KeysetPaging.MAX_LIMIT + 1)
+            .when().get("/store")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void shouldStreamStoresAsNdjson() {
+        String body = given()
+            .accept(NdjsonStreaming.MEDIA_TYPE)
+            .when().get("/store/stream")
+            .then()
+            .statusCode(200)
+            .contentType(org.hamcrest.Matchers.startsWith(NdjsonStreaming.MEDIA_TYPE))
+            .extract().asString();
+
+        List<String> lines = body.lines().toList();
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"name\":\"KALLAX\"")));
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
+    }
+
     @Test
     void shouldReturn404WhenStoreNotFoundById() {
         given()
@@ -261,37 +305,6 @@ class StoreResourceTest {
         storeResource.delete(created.id);
     }
 
-    // ---------- ERROR MAPPER TESTS ----------
-
-    @Test
-    void errorMapper_mapsNotFoundValidationConflict() throws Exception {
-        StoreResource.ErrorMapper mapper = new StoreResource.ErrorMapper();
-
-        Field omField = StoreResource.ErrorMapper.class.getDeclaredField("objectMapper");
-        omField.setAccessible(true);
-        omField.set(mapper, new ObjectMapper());
-
-        Response notFound = mapper.toResponse(
-                new NotFoundException(String.format(AppConstants.ERR_STORE_NOT_FOUND, 1))
-        );
-        assertEquals(404, notFound.getStatus());
-
-        Response validation = mapper.toResponse(
-                new ValidationException(AppConstants.ERR_STORE_NULL)
-        );
-        assertEquals(400, validation.getStatus());
-
-        Response conflict = mapper.toResponse(
-                new ConflictException(AppConstants.ERR_STORE_ID_NOT_ALLOWED)
-        );
-        assertEquals(409, conflict.getStatus());
-
-        ObjectNode node = (ObjectNode) notFound.getEntity();
-        assertTrue(node.has("exceptionType"));
-        assertTrue(node.has("code"));
-        assertTrue(node.has("error"));
-    }
-
     // ---------- UNIT-STYLE TESTS WITH MOCKS ----------
 
     @Test
@@ -299,7 +312,7 @@ class StoreResourceTest {
         EntityManager em = mock(EntityManager.class);
         when(em.find(Store.class, 42L)).thenReturn(null);
 
-        StoreResource resource = newResourceWithMocks(em, mock(TransactionSynchronizationRegistry.class), mock(LegacyStoreManagerGateway.class));
+        StoreResource resource = newResourceWithMocks(em, mockEvents());
 
         assertThrows(NotFoundException.class, () -> resource.getSingle(42L));
     }
@@ -309,17 +322,15 @@ class StoreResourceTest {
         Store s = new Store();
         s.id = 123L;
 
-        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), mock(TransactionSynchronizationRegistry.class), mock(LegacyStoreManagerGateway.class));
+        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), mockEvents());
 
         assertThrows(ConflictException.class, () -> resource.create(s));
     }
 
     @Test
-    void create_registersPostCommit_and_afterCommitInvokesLegacy() {
-        TransactionSynchronizationRegistry txRegistry = mock(TransactionSynchronizationRegistry.class);
-        LegacyStoreManagerGateway legacy = mock(LegacyStoreManagerGateway.class);
-
-        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), txRegistry, legacy);
+    void create_firesCreatedEvent() {
+        Event<StoreChangedEvent> storeChanged = mockEvents();
+        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), storeChanged);
 
         Store s = new Store() {
             @Override
@@ -328,15 +339,10 @@ class StoreResourceTest {
             }
         };
 
-        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
-
         resource.create(s);
 
-        verify(txRegistry).registerInterposedSynchronization(captor.capture());
-        Synchronization sync = captor.getValue();
-        sync.afterCompletion(Status.STATUS_COMMITTED);
-
-        verify(legacy).createStoreOnLegacySystem(s);
+        verify(storeChanged).fire(argThat(e ->
+            e.getStore() == s && e.getChangeType() == StoreChangedEvent.ChangeType.CREATED));
     }
 
     @Test
@@ -344,14 +350,14 @@ class StoreResourceTest {
         Store updated = new Store();
         updated.name = null;
 
-        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), mock(TransactionSynchronizationRegistry.class), mock(LegacyStoreManagerGateway.class));
+        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), mockEvents());
 
         assertThrows(ValidationException.class, () -> resource.update(1L, updated));
     }
 
     @Test
     void patch_nullBody_throwsValidation() {
-        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), mock(TransactionSynchronizationRegistry.class), mock(LegacyStoreManagerGateway.class));
+        StoreResource resource = newResourceWithMocks(mock(EntityManager.class), mockEvents());
 
         assertThrows(ValidationException.class, () -> resource.patch(1L, null));
     }
@@ -367,15 +373,18 @@ class StoreResourceTest {
     }
 
     private StoreResource newResourceWithMocks(EntityManager em,
-                                               TransactionSynchronizationRegistry txRegistry,
-                                               LegacyStoreManagerGateway legacy) {
+                                               Event<StoreChangedEvent> storeChanged) {
         StoreResource resource = new StoreResource();
         resource.entityManager = em;
-        resource.txRegistry = txRegistry;
-        resource.legacyStoreManagerGateway = legacy;
+        resource.storeChanged = storeChanged;
         return resource;
     }
 
+    @SuppressWarnings("unchecked")
+    private static Event<StoreChangedEvent> mockEvents() {
+        return mock(Event.class);
+    }
+
     private Long createStoreViaApi(String name, int qty) {
         Store store = new Store();
         store.name = name;
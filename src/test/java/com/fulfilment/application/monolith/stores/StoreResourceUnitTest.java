@@ -6,9 +6,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
-import jakarta.transaction.Status;
-import jakarta.transaction.TransactionSynchronizationRegistry;
-import jakarta.transaction.Synchronization;
+import jakarta.enterprise.event.Event;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
@@ -16,25 +14,22 @@ import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 
 public class StoreResourceUnitTest {
 
   StoreResource resource;
   EntityManager em;
-  TransactionSynchronizationRegistry txRegistry;
-  LegacyStoreManagerGateway legacy;
+  Event<StoreChangedEvent> storeChanged;
 
   @BeforeEach
+  @SuppressWarnings("unchecked")
   public void setup() {
     resource = new StoreResource();
     em = mock(EntityManager.class);
-    txRegistry = mock(TransactionSynchronizationRegistry.class);
-    legacy = mock(LegacyStoreManagerGateway.class);
+    storeChanged = mock(Event.class);
 
     resource.entityManager = em;
-    resource.txRegistry = txRegistry;
-    resource.legacyStoreManagerGateway = legacy;
+    resource.storeChanged = storeChanged;
   }
 
   @Test
@@ -74,9 +69,7 @@ public class StoreResourceUnitTest {
   }
 
   @Test
-  public void create_registersPostCommit_and_afterCommitInvokesLegacy() {
-    // use a real Store instance (fields are simple public members) so we don't
-    // try to stub field access on a Mockito mock (which caused MissingMethodInvocation)
+  public void create_firesCreatedEvent() {
     // use anon subclass to avoid calling Panache persist() which requires Arc container
     Store s = new Store() {
       @Override
@@ -86,18 +79,10 @@ public class StoreResourceUnitTest {
     };
     s.id = null;
 
-    // capture the synchronization registered
-    ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
-
     resource.create(s);
 
-    // capture the registered synchronization and simulate after-commit
-    verify(txRegistry).registerInterposedSynchronization(captor.capture());
-    Synchronization sync = captor.getValue();
-    // simulate after commit
-    sync.afterCompletion(Status.STATUS_COMMITTED);
-
-    verify(legacy).createStoreOnLegacySystem(s);
+    verify(storeChanged).fire(argThat(e ->
+        e.getStore() == s && e.getChangeType() == StoreChangedEvent.ChangeType.CREATED));
   }
 
   @Test
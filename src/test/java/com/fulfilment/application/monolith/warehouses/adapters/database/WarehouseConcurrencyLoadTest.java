@@ -0,0 +1,215 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.exceptions.RetryableConflictException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Many parallel writers against one location or one business unit code; whatever the
+ * interleaving, the location limits and the single active code must hold afterwards.
+ */
+@QuarkusTest
+class WarehouseConcurrencyLoadTest {
+
+  private static final int THREADS = 16;
+  private static final int ATTEMPTS = 96;
+  private static final int MAX_RETRIES = 50;
+
+  @Inject
+  WarehouseRepository repository;
+
+  @AfterEach
+  void cleanUp() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      repository.delete("location like ?1", "LOAD-%");
+      repository.getEntityManager()
+          .createQuery("delete from DbLocationSummary s where s.location like ?1")
+          .setParameter(1, "LOAD-%")
+          .executeUpdate();
+    });
+  }
+
+  @Test
+  void parallelCreates_neverExceedTheWarehouseCount() throws Exception {
+    // capacity would allow 10 units, the count limit of 5 binds first
+    int created = createInParallel("LOAD-COUNT", 5, 100, 10);
+
+    assertEquals(5, created);
+    assertLocationConsistent("LOAD-COUNT", 5, 50);
+  }
+
+  @Test
+  void parallelCreates_neverExceedTheLocationCapacity() throws Exception {
+    // 6 units of 15 fit into 100, the seventh would not
+    int created = createInParallel("LOAD-CAPACITY", 50, 100, 15);
+
+    assertEquals(6, created);
+    assertLocationConsistent("LOAD-CAPACITY", 6, 90);
+  }
+
+  @Test
+  void parallelCreates_ofOneCode_leaveOneActiveWarehouse() throws Exception {
+    AtomicInteger conflicts = new AtomicInteger();
+    List<Boolean> results = runInParallel(THREADS, i -> {
+      try {
+        return QuarkusTransaction.requiringNew()
+            .call(() -> repository.createWithinLimits(warehouse("BU-LOAD-DUP", "LOAD-DUP", 1), 100, 1000));
+      } catch (RetryableConflictException e) {
+        conflicts.incrementAndGet();
+        return false;
+      }
+    });
+
+    assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+    assertEquals(THREADS - 1, conflicts.get());
+    assertEquals(1, repository.count("businessUnitCode", "BU-LOAD-DUP"));
+    assertLocationConsistent("LOAD-DUP", 1, 1);
+  }
+
+  @Test
+  void parallelFirstUnguardedCreates_allLandInOneSummary() throws Exception {
+    // no summary row exists yet, so every writer finds nothing to update
+    List<Boolean> results = runInParallel(THREADS, i -> {
+      QuarkusTransaction.requiringNew()
+          .run(() -> repository.create(warehouse("BU-LOAD-FIRST-" + i, "LOAD-FIRST", 2)));
+      return true;
+    });
+
+    assertEquals(THREADS, results.size());
+    assertLocationConsistent("LOAD-FIRST", THREADS, 2L * THREADS);
+  }
+
+  @Test
+  void parallelGrowingReplaces_neverExceedTheLocationCapacity() throws Exception {
+    // 4 x 20 of 100 in use: only one unit can grow by 20
+    Location limits = new Location("LOAD-REPLACE", 10, 100);
+    for (int i = 0; i < 4; i++) {
+      int index = i;
+      QuarkusTransaction.requiringNew()
+          .run(() -> repository.create(warehouse("BU-LOAD-REPLACE-" + index, "LOAD-REPLACE", 20)));
+    }
+
+    AtomicInteger conflicts = new AtomicInteger();
+    List<Boolean> results = runInParallel(4, i -> {
+      try {
+        return QuarkusTransaction.requiringNew().call(() -> repository.replaceByCode(
+            warehouse("BU-LOAD-REPLACE-" + i, "LOAD-REPLACE", 40), limits, LocalDateTime.now()));
+      } catch (RetryableConflictException e) {
+        conflicts.incrementAndGet();
+        return false;
+      }
+    });
+
+    assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+    assertEquals(3, conflicts.get());
+    assertLocationConsistent("LOAD-REPLACE", 4, 100);
+  }
+
+  @Test
+  void staleUpdate_isRejectedAsRetryableConflict() {
+    QuarkusTransaction.requiringNew()
+        .run(() -> repository.createWithinLimits(warehouse("BU-LOAD-STALE", "LOAD-STALE", 10), 1, 100));
+
+    assertThrows(RetryableConflictException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+      // this transaction reads version 0, then another one commits version 1 ...
+      DbWarehouse stale = repository.find("businessUnitCode", "BU-LOAD-STALE").firstResult();
+      assertEquals(0L, stale.version);
+      QuarkusTransaction.requiringNew().run(() -> repository.update(warehouse("BU-LOAD-STALE", "LOAD-STALE", 20)));
+
+      // ... so writing back from the stale read matches no row
+      repository.update(warehouse("BU-LOAD-STALE", "LOAD-STALE", 30));
+    }));
+
+    assertEquals(20, repository.findByBusinessUnitCode("BU-LOAD-STALE").capacity);
+    assertLocationConsistent("LOAD-STALE", 1, 20);
+  }
+
+  /**
+   * Every attempt retries on a retryable conflict, as a client honouring Retry-After would;
+   * returns how many of them were admitted.
+   */
+  private int createInParallel(String location, int maxCount, int maxCapacity, int capacity) throws Exception {
+    List<Boolean> results = runInParallel(ATTEMPTS, i -> {
+      Warehouse w = warehouse("BU-" + location + "-" + i, location, capacity);
+      for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+        try {
+          return QuarkusTransaction.requiringNew()
+              .call(() -> repository.createWithinLimits(w, maxCount, maxCapacity));
+        } catch (RetryableConflictException e) {
+          Thread.onSpinWait();
+        }
+      }
+      throw new AssertionError("no progress for " + w.businessUnitCode);
+    });
+    return (int) results.stream().filter(Boolean::booleanValue).count();
+  }
+
+  private static List<Boolean> runInParallel(int tasks, IndexedTask task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < tasks; i++) {
+        int index = i;
+        futures.add(executor.submit((Callable<Boolean>) () -> {
+          start.await();
+          return task.run(index);
+        }));
+      }
+      start.countDown();
+
+      List<Boolean> results = new ArrayList<>();
+      for (Future<Boolean> future : futures) {
+        results.add(future.get(60, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void assertLocationConsistent(String location, long count, long capacity) {
+    QuarkusTransaction.requiringNew().run(() -> {
+      // the maintained summary agrees with the rows actually committed
+      List<DbWarehouse> rows = repository.list("location", location);
+      assertEquals(count, rows.size());
+      assertEquals(capacity, rows.stream().mapToLong(w -> w.capacity).sum());
+
+      LocationAggregate summary = repository.getAggregateByLocation(location);
+      assertEquals(count, summary.activeCount);
+      assertEquals(capacity, summary.totalCapacity);
+    });
+  }
+
+  private static Warehouse warehouse(String code, String location, int capacity) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = 0;
+    return w;
+  }
+
+  @FunctionalInterface
+  private interface IndexedTask {
+    Boolean run(int index) throws Exception;
+  }
+}
@@ -0,0 +1,89 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRecord;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ImportWarehousesUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Loading many warehouses: the bulk import against one create per unit, as a region
+ * was seeded before. Not part of the regular build, run with:
+ * <pre>mvn test -Dbenchmark=true -Dquarkus.hibernate-orm.log.sql=false -Dtest=WarehouseImportBenchmarkTest</pre>
+ */
+@QuarkusTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class WarehouseImportBenchmarkTest {
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseImportBenchmarkTest.class);
+  private static final int IMPORTED = 10_000;
+  private static final int SINGLE_CREATES = 1_000;
+  private static final String PREFIX = "IMPORT-BENCH-";
+  private static final String LOCATION = PREFIX + "LOCATION";
+
+  @Inject WarehouseRepository warehouseRepository;
+
+  private final LocationGateway locations =
+      new LocationGateway(() -> List.of(new Location(LOCATION, 1_000_000, Integer.MAX_VALUE)));
+
+  @AfterEach
+  public void cleanup() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      warehouseRepository.delete("businessUnitCode like ?1", PREFIX + "%");
+      warehouseRepository.getEntityManager()
+          .createQuery("delete from DbLocationSummary s where s.location = ?1")
+          .setParameter(1, LOCATION)
+          .executeUpdate();
+    });
+  }
+
+  @Test
+  public void benchmarkImportAgainstSingleCreates() {
+    CreateWarehouseUseCase create = new CreateWarehouseUseCase(warehouseRepository, locations);
+    long singleStart = System.nanoTime();
+    for (int i = 0; i < SINGLE_CREATES; i++) {
+      create.create(warehouse(PREFIX + "SINGLE-" + i));
+    }
+    long singleNanos = System.nanoTime() - singleStart;
+
+    List<WarehouseImportRecord> records = new ArrayList<>(IMPORTED);
+    for (int i = 0; i < IMPORTED; i++) {
+      records.add(WarehouseImportRecord.parsed(i + 1, warehouse(PREFIX + "BULK-" + i)));
+    }
+    ImportWarehousesUseCase bulk = new ImportWarehousesUseCase(warehouseRepository, locations);
+    AtomicInteger created = new AtomicInteger();
+    long importStart = System.nanoTime();
+    bulk.importAll(records.iterator(),
+        chunk -> chunk.forEach(result -> created.addAndGet(result.created ? 1 : 0)));
+    long importNanos = System.nanoTime() - importStart;
+
+    LOGGER.infof("[benchmark] %d single creates: %.1f ms (%.0f µs/unit)",
+        SINGLE_CREATES, singleNanos / 1e6, singleNanos / 1e3 / SINGLE_CREATES);
+    LOGGER.infof("[benchmark] import of %d units: %.1f ms (%.0f µs/unit)",
+        IMPORTED, importNanos / 1e6, importNanos / 1e3 / IMPORTED);
+    assertEquals(IMPORTED, created.get());
+    assertEquals(IMPORTED + SINGLE_CREATES, warehouseRepository.countByLocation(LOCATION));
+  }
+
+  private static Warehouse warehouse(String code) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = LOCATION;
+    w.capacity = 10;
+    w.stock = 1;
+    return w;
+  }
+}
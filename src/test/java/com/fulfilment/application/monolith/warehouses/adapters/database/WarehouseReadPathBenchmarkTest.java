@@ -0,0 +1,143 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Allocation and latency of the warehouse read paths: managed entities copied with
+ * toWarehouse() against the read-only projections used by the repository.
+ * Not part of the regular build, run with:
+ * <pre>mvn test -Dbenchmark=true -Dquarkus.hibernate-orm.log.sql=false -Dtest=WarehouseReadPathBenchmarkTest</pre>
+ */
+@QuarkusTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class WarehouseReadPathBenchmarkTest {
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseReadPathBenchmarkTest.class);
+  private static final int ROWS = 5_000;
+  private static final int LIST_ROUNDS = 20;
+  private static final int LOOKUPS = 5_000;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int FLUSH_EVERY = 50;
+  private static final String PREFIX = "READ-BENCH-";
+  private static final String ACTIVE_BY_CODE = "businessUnitCode = ?1 and archivedAt is null";
+
+  @Inject EntityManager entityManager;
+  @Inject WarehouseRepository warehouseRepository;
+
+  @BeforeEach
+  public void seed() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      for (int i = 0; i < ROWS; i++) {
+        DbWarehouse db = new DbWarehouse();
+        db.businessUnitCode = PREFIX + i;
+        db.location = PREFIX + "LOCATION";
+        db.capacity = 10;
+        db.stock = 1;
+        db.createdAt = LocalDateTime.now();
+        warehouseRepository.persist(db);
+        if ((i + 1) % FLUSH_EVERY == 0) {
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+    });
+  }
+
+  @AfterEach
+  public void cleanup() {
+    QuarkusTransaction.requiringNew().run(
+        () -> warehouseRepository.delete("businessUnitCode like ?1", PREFIX + "%"));
+  }
+
+  @Test
+  public void benchmarkListing() {
+    int expected = QuarkusTransaction.requiringNew().call(() -> warehouseRepository.getAll().size());
+
+    Measurement managed = measure(LIST_ROUNDS, () -> QuarkusTransaction.requiringNew().call(
+        () -> warehouseRepository.listAll().stream().map(DbWarehouse::toWarehouse).toList().size()));
+    Measurement projected = measure(LIST_ROUNDS, () -> QuarkusTransaction.requiringNew().call(
+        () -> warehouseRepository.getAll().size()));
+
+    report("list managed entities", LIST_ROUNDS, managed);
+    report("list projection", LIST_ROUNDS, projected);
+    assertEquals(expected, managed.lastResult);
+    assertEquals(expected, projected.lastResult);
+  }
+
+  @Test
+  public void benchmarkLookup() {
+    // one transaction per lookup, like GET /warehouse/{id}
+    Measurement managed = measure(1, () -> {
+      int found = 0;
+      for (int i = 0; i < LOOKUPS; i++) {
+        String code = PREFIX + (i % ROWS);
+        found += QuarkusTransaction.requiringNew().call(
+            () -> warehouseRepository.find(ACTIVE_BY_CODE, code).firstResult().toWarehouse()) != null ? 1 : 0;
+      }
+      return found;
+    });
+    Measurement projected = measure(1, () -> {
+      int found = 0;
+      for (int i = 0; i < LOOKUPS; i++) {
+        String code = PREFIX + (i % ROWS);
+        // bypass the cache so both sides hit the database
+        warehouseRepository.activeWarehouseCache().invalidateAll();
+        found += QuarkusTransaction.requiringNew().call(
+            () -> warehouseRepository.findByBusinessUnitCode(code)) != null ? 1 : 0;
+      }
+      return found;
+    });
+
+    report("lookup managed entities", LOOKUPS, managed);
+    report("lookup projection", LOOKUPS, projected);
+    assertEquals(LOOKUPS, managed.lastResult);
+    assertEquals(LOOKUPS, projected.lastResult);
+  }
+
+  private static Measurement measure(int rounds, Supplier<Integer> round) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round.get();
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    Measurement measurement = new Measurement();
+    long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+    long start = System.nanoTime();
+    for (int i = 0; i < rounds; i++) {
+      measurement.lastResult = round.get();
+    }
+    measurement.elapsedNanos = System.nanoTime() - start;
+    measurement.allocatedBytes = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+    return measurement;
+  }
+
+  private static void report(String path, int operations, Measurement measurement) {
+    String line = String.format("%s: %d ops in %.0f ms (%.1f us/op), %.1f KB allocated/op",
+        path, operations, measurement.elapsedNanos / 1_000_000d,
+        measurement.elapsedNanos / 1_000d / operations,
+        measurement.allocatedBytes / 1024d / operations);
+    LOGGER.info("[benchmark] " + line);
+  }
+
+  private static final class Measurement {
+    long elapsedNanos;
+    long allocatedBytes;
+    int lastResult;
+  }
+}
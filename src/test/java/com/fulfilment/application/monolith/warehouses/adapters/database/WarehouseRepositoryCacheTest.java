@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+class WarehouseRepositoryCacheTest {
+
+    @Inject
+    WarehouseRepository repository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedLookupIsAHit() {
+        QuarkusTransaction.requiringNew().run(() -> repository.create(warehouse("CACHE-HIT")));
+
+        long hitsBefore = repository.activeWarehouseCache().hits();
+        repository.findByBusinessUnitCode("CACHE-HIT");
+        repository.findByBusinessUnitCode("CACHE-HIT");
+
+        assertTrue(repository.activeWarehouseCache().hits() > hitsBefore);
+    }
+
+    @Test
+    void returnedWarehouseIsACopy() {
+        QuarkusTransaction.requiringNew().run(() -> repository.create(warehouse("CACHE-COPY")));
+
+        Warehouse first = repository.findByBusinessUnitCode("CACHE-COPY");
+        first.archivedAt = LocalDateTime.now();
+
+        assertNull(repository.findByBusinessUnitCode("CACHE-COPY").archivedAt);
+    }
+
+    @Test
+    void archiveThroughUpdateEvictsEntry() {
+        QuarkusTransaction.requiringNew().run(() -> repository.create(warehouse("CACHE-ARCHIVE")));
+        Warehouse active = repository.findByBusinessUnitCode("CACHE-ARCHIVE");
+        assertNotNull(active);
+
+        active.archivedAt = LocalDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> repository.update(active));
+
+        assertNull(repository.findByBusinessUnitCode("CACHE-ARCHIVE"));
+    }
+
+    @Test
+    void rolledBackUpdateLeavesNoStaleEntry() {
+        QuarkusTransaction.requiringNew().run(() -> repository.create(warehouse("CACHE-ROLLBACK")));
+        repository.findByBusinessUnitCode("CACHE-ROLLBACK");
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            Warehouse changed = warehouse("CACHE-ROLLBACK");
+            changed.stock = 7;
+            repository.update(changed);
+            // a reader inside the transaction repopulates the cache with uncommitted state
+            repository.findByBusinessUnitCode("CACHE-ROLLBACK");
+            throw new IllegalStateException("roll back");
+        }));
+
+        assertEquals(10, repository.findByBusinessUnitCode("CACHE-ROLLBACK").stock);
+    }
+
+    @Test
+    void writingTransactionReadsAroundTheCache() {
+        QuarkusTransaction.requiringNew().run(() -> repository.create(warehouse("CACHE-PENDING")));
+        repository.findByBusinessUnitCode("CACHE-PENDING");
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            Warehouse changed = warehouse("CACHE-PENDING");
+            changed.stock = 7;
+            repository.update(changed);
+
+            long hits = repository.activeWarehouseCache().hits();
+            long misses = repository.activeWarehouseCache().misses();
+            assertEquals(7, repository.findByBusinessUnitCode("CACHE-PENDING").stock);
+            assertEquals(hits, repository.activeWarehouseCache().hits());
+            assertEquals(misses, repository.activeWarehouseCache().misses());
+        });
+
+        assertEquals(7, repository.findByBusinessUnitCode("CACHE-PENDING").stock);
+    }
+
+    @Test
+    void cacheCountersArePublished() {
+        repository.findByBusinessUnitCode("CACHE-METRICS");
+
+        assertNotNull(meterRegistry.find(WarehouseCacheMetrics.METRIC_PREFIX + "misses").functionCounter());
+        assertNotNull(meterRegistry.find(WarehouseCacheMetrics.METRIC_PREFIX + "hits").functionCounter());
+        assertNotNull(meterRegistry.find(WarehouseCacheMetrics.METRIC_PREFIX + "evictions").functionCounter());
+        assertNotNull(meterRegistry.find(WarehouseCacheMetrics.METRIC_PREFIX + "size").gauge());
+    }
+
+    private static Warehouse warehouse(String code) {
+        Warehouse w = new Warehouse();
+        w.businessUnitCode = code;
+        // outside the gateway's locations so capacity checks in other tests are unaffected
+        w.location = "CACHE-TEST";
+        w.capacity = 100;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        return w;
+    }
+}
@@ -3,14 +3,26 @@ package com.fulfilment.application.monolith.warehouses.adapters.database;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.exceptions.RetryableConflictException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @QuarkusTest
 class WarehouseRepositoryTest {
@@ -246,4 +258,361 @@ class WarehouseRepositoryTest {
     var all = repository.getAll();
     assertTrue(all.size() >= 2);
   }
+
+  @Test
+  @Transactional
+  void aggregate_tracksCreateUpdateArchiveAndRemove() {
+    Warehouse w1 = new Warehouse();
+    w1.businessUnitCode = "BU-AGG1";
+    w1.location = "AGG-LOC";
+    w1.capacity = 10;
+    w1.stock = 4;
+    repository.create(w1);
+
+    Warehouse w2 = new Warehouse();
+    w2.businessUnitCode = "BU-AGG2";
+    w2.location = "AGG-LOC";
+    w2.capacity = 20;
+    w2.stock = 5;
+    repository.create(w2);
+
+    LocationAggregate afterCreate = repository.getAggregateByLocation("AGG-LOC");
+    assertEquals(2, afterCreate.activeCount);
+    assertEquals(30, afterCreate.totalCapacity);
+    assertEquals(9, afterCreate.totalStock);
+
+    w2.capacity = 25;
+    repository.update(w2);
+    assertEquals(35, repository.getAggregateByLocation("AGG-LOC").totalCapacity);
+
+    w2.archivedAt = LocalDateTime.now();
+    repository.update(w2);
+    LocationAggregate afterArchive = repository.getAggregateByLocation("AGG-LOC");
+    assertEquals(1, afterArchive.activeCount);
+    assertEquals(10, afterArchive.totalCapacity);
+    assertEquals(4, afterArchive.totalStock);
+
+    repository.remove(w1);
+    assertEquals(0, repository.getAggregateByLocation("AGG-LOC").activeCount);
+  }
+
+  @Test
+  @Transactional
+  void aggregate_followsLocationChange() {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "BU-AGG-MOVE";
+    w.location = "AGG-FROM";
+    w.capacity = 15;
+    w.stock = 3;
+    repository.create(w);
+
+    w.location = "AGG-TO";
+    repository.update(w);
+
+    assertEquals(0, repository.getAggregateByLocation("AGG-FROM").totalCapacity);
+    assertEquals(15, repository.getAggregateByLocation("AGG-TO").totalCapacity);
+  }
+
+  @Test
+  @Transactional
+  void rebuildLocationSummaries_matchesIncrementalTotals() {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "BU-AGG-REBUILD";
+    w.location = "AGG-REBUILD";
+    w.capacity = 12;
+    w.stock = 2;
+    repository.create(w);
+    LocationAggregate incremental = repository.getAggregateByLocation("AGG-REBUILD");
+
+    repository.rebuildLocationSummaries();
+    repository.getEntityManager().clear();
+
+    LocationAggregate rebuilt = repository.getAggregateByLocation("AGG-REBUILD");
+    assertEquals(incremental.activeCount, rebuilt.activeCount);
+    assertEquals(incremental.totalCapacity, rebuilt.totalCapacity);
+    assertEquals(incremental.totalStock, rebuilt.totalStock);
+  }
+
+  @Test
+  @Transactional
+  void rebuildLocationSummaries_overwritesInPlace() {
+    repository.getEntityManager()
+        .createQuery("insert into DbLocationSummary (location, activeCount, totalCapacity, totalStock) "
+            + "values ('AGG-STALE', 3, 30, 3)")
+        .executeUpdate();
+
+    int locations = repository.rebuildLocationSummaries();
+    assertEquals(locations, repository.rebuildLocationSummaries());
+
+    // no warehouse left at the location: the row stays, with nothing in it
+    assertEquals(0, repository.getAggregateByLocation("AGG-STALE").activeCount);
+    assertEquals(0, repository.getAggregateByLocation("AGG-STALE").totalCapacity);
+    assertTrue(repository.getAggregatesByLocation().containsKey("AGG-STALE"));
+  }
+
+  @Test
+  void aggregate_withNullOrUnknownLocation_isEmpty() {
+    assertSame(LocationAggregate.EMPTY, repository.getAggregateByLocation(null));
+    assertEquals(0, repository.getAggregateByLocation("AGG-NOWHERE").activeCount);
+  }
+
+  @Test
+  void aggregate_includesImportedWarehouses() {
+    // import.sql rows bypass the repository; the startup rebuild must have counted them
+    assertEquals(
+        repository.count("location = ?1 and archivedAt is null", "ZWOLLE-001"),
+        repository.getAggregateByLocation("ZWOLLE-001").activeCount);
+  }
+
+  @Test
+  @Transactional
+  void archive_movesRowIntoHistory_andReplacementsAccumulateThere() {
+    for (int version = 1; version <= 3; version++) {
+      Warehouse w = new Warehouse();
+      w.businessUnitCode = "BU-HIST";
+      w.location = "HIST-LOC";
+      w.capacity = 10 * version;
+      w.stock = 1;
+      w.createdAt = LocalDateTime.now();
+      repository.create(w);
+
+      if (version < 3) {
+        Warehouse archived = repository.findByBusinessUnitCode("BU-HIST");
+        archived.archivedAt = LocalDateTime.now();
+        repository.update(archived);
+      }
+    }
+
+    // one active row; the warehouse table never accumulates the archived versions
+    assertEquals(1, repository.count("businessUnitCode", "BU-HIST"));
+    assertEquals(30, repository.findByBusinessUnitCode("BU-HIST").capacity);
+    assertEquals(1, repository.getAggregateByLocation("HIST-LOC").activeCount);
+
+    List<WarehouseRow> history = repository.findHistory("BU-HIST", Long.MIN_VALUE, 10);
+    assertEquals(List.of(10, 20), history.stream().map(row -> row.warehouse.capacity).toList());
+    assertTrue(history.stream().allMatch(row -> row.warehouse.archivedAt != null));
+
+    List<WarehouseRow> firstPage = repository.findHistory("BU-HIST", Long.MIN_VALUE, 1);
+    List<WarehouseRow> secondPage = repository.findHistory("BU-HIST", firstPage.get(0).id, 1);
+    assertEquals(20, secondPage.get(0).warehouse.capacity);
+  }
+
+  @Test
+  @Transactional
+  void listPage_mergesActiveAndArchivedInIdOrder() {
+    Warehouse archived = new Warehouse();
+    archived.businessUnitCode = "BU-PAGE-OLD";
+    archived.location = "PAGE-LOC";
+    archived.capacity = 5;
+    archived.stock = 0;
+    archived.archivedAt = LocalDateTime.now();
+    repository.create(archived);
+
+    Warehouse active = new Warehouse();
+    active.businessUnitCode = "BU-PAGE-NEW";
+    active.location = "PAGE-LOC";
+    active.capacity = 5;
+    active.stock = 0;
+    repository.create(active);
+
+    List<WarehouseRow> all = repository.listPage(Long.MIN_VALUE, 1000);
+    for (int i = 1; i < all.size(); i++) {
+      assertTrue(all.get(i - 1).id < all.get(i).id);
+    }
+    List<String> codes = all.stream().map(row -> row.warehouse.businessUnitCode).toList();
+    assertTrue(codes.indexOf("BU-PAGE-OLD") < codes.indexOf("BU-PAGE-NEW"));
+    assertEquals(2, repository.listPage(all.get(all.size() - 3).id, 2).size());
+  }
+
+  @Test
+  @Transactional
+  void archiveByCode_guardsOnTheActiveRow() {
+    assertFalse(repository.archiveByCode("BU-ARCH-MISSING", LocalDateTime.now()));
+    assertFalse(repository.archiveByCode(null, LocalDateTime.now()));
+
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "BU-ARCH-BULK";
+    w.location = "ARCH-LOC";
+    w.capacity = 40;
+    w.stock = 7;
+    repository.create(w);
+
+    assertTrue(repository.archiveByCode("BU-ARCH-BULK", LocalDateTime.now()));
+    // the second archive finds no active row to claim
+    assertFalse(repository.archiveByCode("BU-ARCH-BULK", LocalDateTime.now()));
+
+    assertNull(repository.findByBusinessUnitCode("BU-ARCH-BULK"));
+    LocationAggregate aggregate = repository.getAggregateByLocation("ARCH-LOC");
+    assertEquals(0, aggregate.activeCount);
+    assertEquals(0, aggregate.totalCapacity);
+    assertEquals(0, aggregate.totalStock);
+
+    List<WarehouseRow> history = repository.findHistory("BU-ARCH-BULK", Long.MIN_VALUE, 10);
+    assertEquals(1, history.size());
+    assertEquals(40, history.get(0).warehouse.capacity);
+    assertNotNull(history.get(0).warehouse.archivedAt);
+  }
+
+  @Test
+  @Transactional
+  void replaceByCode_swapsTheActiveVersion() {
+    Warehouse replacement = new Warehouse();
+    replacement.businessUnitCode = "BU-REPL-BULK";
+    replacement.location = "REPL-LOC";
+    replacement.capacity = 30;
+    replacement.stock = 3;
+    Location limits = new Location("REPL-LOC", 1, 30);
+    assertFalse(repository.replaceByCode(replacement, limits, LocalDateTime.now()));
+    assertThrows(ValidationException.class, () -> repository.replaceByCode(null, limits, LocalDateTime.now()));
+
+    Warehouse original = new Warehouse();
+    original.businessUnitCode = "BU-REPL-BULK";
+    original.location = "REPL-LOC";
+    original.capacity = 10;
+    original.stock = 1;
+    repository.create(original);
+
+    assertTrue(repository.replaceByCode(replacement, limits, LocalDateTime.now()));
+
+    assertEquals(30, repository.findByBusinessUnitCode("BU-REPL-BULK").capacity);
+    LocationAggregate aggregate = repository.getAggregateByLocation("REPL-LOC");
+    assertEquals(1, aggregate.activeCount);
+    assertEquals(30, aggregate.totalCapacity);
+    assertEquals(3, aggregate.totalStock);
+    assertEquals(1, repository.findHistory("BU-REPL-BULK", Long.MIN_VALUE, 10).size());
+  }
+
+  @Test
+  @Transactional
+  void replaceByCode_growingPastTheLimits_isRejectedAndShrinkingIsNot() {
+    Warehouse original = new Warehouse();
+    original.businessUnitCode = "BU-REPL-GROW";
+    original.location = "REPL-GROW-LOC";
+    original.capacity = 40;
+    original.stock = 1;
+    repository.create(original);
+
+    Warehouse grown = new Warehouse();
+    grown.businessUnitCode = "BU-REPL-GROW";
+    grown.location = "REPL-GROW-LOC";
+    grown.capacity = 60;
+    grown.stock = 1;
+    assertThrows(RetryableConflictException.class,
+        () -> repository.replaceByCode(grown, new Location("REPL-GROW-LOC", 1, 50), LocalDateTime.now()));
+  }
+
+  @Test
+  @Transactional
+  void replaceByCode_shrinkingAtALocationOverItsLimits_isAccepted() {
+    Warehouse original = new Warehouse();
+    original.businessUnitCode = "BU-REPL-OVER";
+    original.location = "REPL-OVER-LOC";
+    original.capacity = 80;
+    original.stock = 1;
+    repository.create(original);
+
+    Warehouse shrunk = new Warehouse();
+    shrunk.businessUnitCode = "BU-REPL-OVER";
+    shrunk.location = "REPL-OVER-LOC";
+    shrunk.capacity = 70;
+    shrunk.stock = 1;
+    // limits tightened below what the location already holds
+    assertTrue(repository.replaceByCode(shrunk, new Location("REPL-OVER-LOC", 1, 50), LocalDateTime.now()));
+    assertEquals(70, repository.getAggregateByLocation("REPL-OVER-LOC").totalCapacity);
+  }
+
+  @Test
+  void archiveByCode_concurrentCallers_onlyOneWins() throws Exception {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "BU-ARCH-RACE";
+    w.location = "RACE-LOC";
+    w.capacity = 10;
+    w.stock = 1;
+    QuarkusTransaction.requiringNew().run(() -> repository.create(w));
+
+    int callers = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return QuarkusTransaction.requiringNew()
+              .call(() -> repository.archiveByCode("BU-ARCH-RACE", LocalDateTime.now()));
+        }));
+      }
+      start.countDown();
+
+      int wins = 0;
+      for (Future<Boolean> result : results) {
+        wins += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+      }
+      assertEquals(1, wins);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    QuarkusTransaction.requiringNew().run(() -> {
+      assertEquals(1, repository.findHistory("BU-ARCH-RACE", Long.MIN_VALUE, 10).size());
+      assertEquals(0, repository.getAggregateByLocation("RACE-LOC").activeCount);
+    });
+  }
+
+  @Test
+  @Transactional
+  void replaceAll_movesCapacityBetweenLocations() {
+    repository.create(warehouse("BU-REPL-ALL-1", "REPL-ALL-A", 30, 5));
+    repository.create(warehouse("BU-REPL-ALL-2", "REPL-ALL-B", 20, 5));
+
+    // 1 leaves A for B, 2 shrinks in place; B ends at 2 units / 50 within its 2 / 60
+    Map<String, Location> locations = Map.of(
+        "REPL-ALL-A", new Location("REPL-ALL-A", 2, 60),
+        "REPL-ALL-B", new Location("REPL-ALL-B", 2, 60));
+    repository.replaceAll(List.of(
+        warehouse("BU-REPL-ALL-1", "REPL-ALL-B", 40, 5),
+        warehouse("BU-REPL-ALL-2", "REPL-ALL-B", 10, 5)), locations, LocalDateTime.now());
+
+    assertEquals("REPL-ALL-B", repository.findByBusinessUnitCode("BU-REPL-ALL-1").location);
+    assertEquals(0, repository.getAggregateByLocation("REPL-ALL-A").activeCount);
+    LocationAggregate b = repository.getAggregateByLocation("REPL-ALL-B");
+    assertEquals(2, b.activeCount);
+    assertEquals(50, b.totalCapacity);
+    assertEquals(10, b.totalStock);
+    assertEquals(1, repository.findHistory("BU-REPL-ALL-2", Long.MIN_VALUE, 10).size());
+  }
+
+  @Test
+  void replaceAll_overflowingLocation_writesNothing() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      repository.create(warehouse("BU-REPL-NONE-1", "REPL-NONE-A", 10, 1));
+      repository.create(warehouse("BU-REPL-NONE-2", "REPL-NONE-B", 10, 1));
+      // taken by a concurrent writer after the plan was made
+      repository.create(warehouse("BU-REPL-NONE-3", "REPL-NONE-B", 10, 1));
+    });
+
+    // B would hold 10 + 25 > 30
+    Map<String, Location> locations = Map.of(
+        "REPL-NONE-A", new Location("REPL-NONE-A", 1, 30),
+        "REPL-NONE-B", new Location("REPL-NONE-B", 2, 30));
+    assertThrows(RetryableConflictException.class, () -> QuarkusTransaction.requiringNew().run(() ->
+        repository.replaceAll(List.of(
+            warehouse("BU-REPL-NONE-1", "REPL-NONE-A", 5, 1),
+            warehouse("BU-REPL-NONE-2", "REPL-NONE-B", 25, 1)), locations, LocalDateTime.now())));
+
+    QuarkusTransaction.requiringNew().run(() -> {
+      assertEquals(10, repository.findByBusinessUnitCode("BU-REPL-NONE-1").capacity);
+      assertEquals(10, repository.getAggregateByLocation("REPL-NONE-A").totalCapacity);
+      assertTrue(repository.findHistory("BU-REPL-NONE-1", Long.MIN_VALUE, 10).isEmpty());
+    });
+  }
+
+  private static Warehouse warehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
 }
@@ -4,18 +4,26 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
+import com.fulfilment.application.monolith.common.rest.KeysetPaging;
+import com.fulfilment.application.monolith.common.rest.NdjsonStreaming;
 import com.fulfilment.application.monolith.location.LocationGateway;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehousesInBulkUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers.InMemoryWarehouseStore;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.core.Response;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -68,7 +76,7 @@ public class WarehouseResourceImplTest {
     TestWarehouseRepository repo = new TestWarehouseRepository(store);
     CreateWarehouseUseCase createUseCase = new CreateWarehouseUseCase(store, new LocationGateway());
     ArchiveWarehouseUseCase archiveUseCase = new ArchiveWarehouseUseCase(store);
-    ReplaceWarehouseUseCase replaceUseCase = new ReplaceWarehouseUseCase(store, archiveUseCase, new LocationGateway());
+    ReplaceWarehouseUseCase replaceUseCase = new ReplaceWarehouseUseCase(store, new LocationGateway());
 
     Field f = WarehouseResourceImpl.class.getDeclaredField("warehouseRepository");
     f.setAccessible(true);
@@ -131,12 +139,181 @@ public class WarehouseResourceImplTest {
         containsString("TILBURG-001"));
   }
 
+  @Test
+  public void testKeysetPagingAndStreaming() {
+    final String path = "warehouse";
+
+    String cursor =
+        given()
+            .queryParam(KeysetPaging.PARAM_LIMIT, 1)
+            .when()
+            .get(path)
+            .then()
+            .statusCode(200)
+            .body("size()", is(1))
+            .extract()
+            .header(KeysetPaging.HEADER_NEXT_CURSOR);
+    assertNotNull(cursor);
+
+    List<String> rest =
+        given()
+            .queryParam(KeysetPaging.PARAM_AFTER, cursor)
+            .queryParam(KeysetPaging.PARAM_LIMIT, KeysetPaging.MAX_LIMIT)
+            .when()
+            .get(path)
+            .then()
+            .statusCode(200)
+            .header(KeysetPaging.HEADER_NEXT_CURSOR, nullValue())
+            .extract()
+            .jsonPath()
+            .getList("businessUnitCode", String.class);
+    assertFalse(rest.isEmpty());
+
+    given().queryParam(KeysetPaging.PARAM_LIMIT, -1).when().get(path).then().statusCode(400);
+
+    String body =
+        given()
+            .accept(NdjsonStreaming.MEDIA_TYPE)
+            .when()
+            .get(path + "/stream")
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+    assertTrue(body.lines().anyMatch(line -> line.contains("\"location\":\"TILBURG-001\"")));
+    assertEquals(rest.size() + 1, body.lines().count());
+  }
+
+  @Test
+  public void testHistoryPagesArchivedVersions() {
+    final String path = "warehouse";
+
+    com.warehouse.api.beans.Warehouse api = new com.warehouse.api.beans.Warehouse();
+    api.setBusinessUnitCode("MWH.HIST");
+    api.setLocation("EINDHOVEN-001");
+    api.setCapacity(10);
+    api.setStock(2);
+    given().contentType("application/json").body(api).when().post(path).then().statusCode(200);
+
+    api.setCapacity(20);
+    given().contentType("application/json").body(api)
+        .when().post(path + "/MWH.HIST/replacement").then().statusCode(200);
+    api.setCapacity(30);
+    given().contentType("application/json").body(api)
+        .when().post(path + "/MWH.HIST/replacement").then().statusCode(200);
+
+    String cursor =
+        given()
+            .queryParam(KeysetPaging.PARAM_LIMIT, 1)
+            .when()
+            .get(path + "/MWH.HIST/history")
+            .then()
+            .statusCode(200)
+            .body("capacity", contains(10))
+            .body("[0].archivedAt", notNullValue())
+            .extract()
+            .header(KeysetPaging.HEADER_NEXT_CURSOR);
+
+    given()
+        .queryParam(KeysetPaging.PARAM_AFTER, cursor)
+        .when()
+        .get(path + "/MWH.HIST/history")
+        .then()
+        .statusCode(200)
+        .body("capacity", contains(20));
+
+    given().when().get(path + "/MWH.HIST").then().statusCode(200).body("capacity", is(30));
+  }
+
+  @Test
+  public void testBulkReplacementReportsInfeasibleUnits() {
+    final String path = "warehouse/replacements";
+
+    given()
+        .contentType("application/json")
+        .body("[{\"businessUnitCode\":\"MWH.BULK.MISSING\",\"location\":\"AMSTERDAM-001\",\"capacity\":10,\"stock\":1},"
+            + "{\"businessUnitCode\":\"MWH.012\",\"location\":\"AMSTERDAM-001\",\"capacity\":500,\"stock\":5}]")
+        .when()
+        .post(path)
+        .then()
+        .statusCode(200)
+        .body("size()", is(2))
+        .body("[0].replaced", is(false))
+        .body("[0].error", is(String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, "MWH.BULK.MISSING")))
+        .body("[1].businessUnitCode", is("MWH.012"))
+        .body("[1].replaced", is(false));
+  }
+
+  @Test
+  public void testBulkReplacementOverTheCapIsRejected() {
+    String unit = "{\"businessUnitCode\":\"MWH.012\",\"location\":\"AMSTERDAM-001\",\"capacity\":50,\"stock\":5}";
+    String body = "[" + String.join(",", Collections.nCopies(ReplaceWarehousesInBulkUseCase.MAX_BATCH_SIZE + 1, unit)) + "]";
+
+    given()
+        .contentType("application/json")
+        .body(body)
+        .when()
+        .post("warehouse/replacements")
+        .then()
+        .statusCode(400)
+        .body(containsString(String.format(
+            AppConstants.ERR_WAREHOUSE_REPLACEMENT_BATCH_TOO_LARGE, ReplaceWarehousesInBulkUseCase.MAX_BATCH_SIZE)));
+  }
+
+  @Test
+  public void testBulkImportAnswersEveryLine() {
+    final String path = "warehouse/import";
+
+    String csv = String.join("\n",
+        "businessUnitCode,location,capacity,stock",
+        "MWH.IMP.1,HELMOND-001,40,5",
+        "MWH.IMP.2,HELMOND-001,5,1",
+        "",
+        "MWH.IMP.1,ZWOLLE-002,10,1",
+        "not,a,record");
+    List<JsonPath> results =
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when()
+            .post(path)
+            .then()
+            .statusCode(200)
+            .contentType(NdjsonStreaming.MEDIA_TYPE)
+            .extract()
+            .asString()
+            .lines()
+            .map(JsonPath::from)
+            .toList();
+
+    assertEquals(List.of(2, 3, 5, 6), results.stream().map(r -> r.getInt("line")).toList());
+    assertTrue(results.get(0).getBoolean("created"));
+    assertEquals(AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION, results.get(1).getString("error"));
+    assertEquals(AppConstants.ERR_WAREHOUSE_ALREADY_EXISTS, results.get(2).getString("error"));
+    assertFalse(results.get(3).getBoolean("created"));
+    given().when().get("warehouse/MWH.IMP.1").then().statusCode(200).body("capacity", is(40));
+
+    String ndjson = String.join("\n",
+        "{\"businessUnitCode\":\"MWH.IMP.1\",\"location\":\"HELMOND-001\",\"capacity\":1,\"stock\":0}",
+        "{broken");
+    given()
+        .contentType(NdjsonStreaming.MEDIA_TYPE)
+        .body(ndjson.getBytes(StandardCharsets.UTF_8))
+        .when()
+        .post(path)
+        .then()
+        .statusCode(200)
+        .body(
+            containsString("\"line\":1,\"businessUnitCode\":\"MWH.IMP.1\",\"created\":false"),
+            containsString("\"line\":2,\"businessUnitCode\":null,\"created\":false"));
+  }
+
   // ---------- RESOURCE TESTS ----------
 
   @Test
   public void testListAndCreateAndGet() {
-    List<com.warehouse.api.beans.Warehouse> list = unitResource.listAllWarehousesUnits();
-    assertNotNull(list);
+    Response list = unitResource.listAllWarehousesUnits(null, null);
+    assertNotNull(list.getEntity());
 
     com.warehouse.api.beans.Warehouse api = new com.warehouse.api.beans.Warehouse();
     api.setBusinessUnitCode("B-1");
@@ -162,8 +339,8 @@ public class WarehouseResourceImplTest {
 
     unitResource.archiveAWarehouseUnitByID("B-ARCH");
 
-    List<com.warehouse.api.beans.Warehouse> list = unitResource.listAllWarehousesUnits();
-    assertNotNull(list);
+    Response list = unitResource.listAllWarehousesUnits(null, null);
+    assertNotNull(list.getEntity());
   }
 
   @Test
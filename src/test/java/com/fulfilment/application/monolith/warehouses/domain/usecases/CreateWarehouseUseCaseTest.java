@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fulfilment.application.monolith.common.AppConstants;
 import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
@@ -193,4 +194,32 @@ public class CreateWarehouseUseCaseTest {
 
     assertThrows(ConflictException.class, () -> useCase.create(w));
   }
+
+  @Test
+  public void testCreateLosingTheReservationRaceThrows() {
+    // the snapshot checks pass, but a concurrent create took the last slot before the write
+    InMemoryWarehouseStore racedStore = new InMemoryWarehouseStore() {
+      @Override
+      public boolean createWithinLimits(Warehouse warehouse, int maxNumberOfWarehouses, int maxCapacity) {
+        Warehouse winner = new Warehouse();
+        winner.businessUnitCode = "BU-RACE-WINNER";
+        winner.location = warehouse.location;
+        winner.capacity = 1;
+        winner.stock = 0;
+        create(winner);
+        return super.createWithinLimits(warehouse, maxNumberOfWarehouses, maxCapacity);
+      }
+    };
+    CreateWarehouseUseCase racedUseCase = new CreateWarehouseUseCase(racedStore, new LocationGateway());
+
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = "BU-RACE-LOSER";
+    w.location = "HELMOND-001"; // allows a single warehouse
+    w.capacity = 10;
+    w.stock = 0;
+
+    ConflictException e = assertThrows(ConflictException.class, () -> racedUseCase.create(w));
+    assertEquals(AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION, e.getMessage());
+    assertNull(racedStore.findByBusinessUnitCode("BU-RACE-LOSER"));
+  }
 }
@@ -0,0 +1,138 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.RetryableConflictException;
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportRecord;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseImportResult;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers.InMemoryWarehouseStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ImportWarehousesUseCaseTest {
+
+  InMemoryWarehouseStore store;
+  ImportWarehousesUseCase useCase;
+
+  @BeforeEach
+  public void setup() {
+    store = new InMemoryWarehouseStore();
+    useCase = new ImportWarehousesUseCase(store, new LocationGateway());
+  }
+
+  @Test
+  public void testImportAppliesCreateRulesPerRecord() {
+    Warehouse existing = warehouse("BU-IMP-EXISTING", "AMSTERDAM-001", 10, 0);
+    store.create(existing);
+
+    List<WarehouseImportRecord> records = List.of(
+        WarehouseImportRecord.parsed(1, warehouse("BU-IMP-1", "ZWOLLE-002", 30, 5)),
+        WarehouseImportRecord.parsed(2, warehouse("BU-IMP-2", "ZWOLLE-002", 30, 5)),
+        WarehouseImportRecord.parsed(3, warehouse("BU-IMP-1", "AMSTERDAM-001", 10, 0)),
+        WarehouseImportRecord.parsed(4, warehouse("BU-IMP-EXISTING", "AMSTERDAM-001", 10, 0)),
+        WarehouseImportRecord.parsed(5, warehouse("BU-IMP-3", "UNKNOWN-000", 10, 0)),
+        WarehouseImportRecord.parsed(6, warehouse("BU-IMP-4", "ZWOLLE-002", 5, 9)),
+        WarehouseImportRecord.unparseable(7, "broken"),
+        WarehouseImportRecord.parsed(8, warehouse("BU-IMP-5", "ZWOLLE-002", 20, 5)));
+
+    List<WarehouseImportResult> results = importAll(records);
+
+    assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), results.stream().map(r -> r.line).toList());
+    assertTrue(results.get(0).created);
+    // ZWOLLE-002 holds 50: the running total already has 30 from line 1
+    assertEquals(AppConstants.ERR_WAREHOUSE_LOCATION_CAPACITY_EXCEEDED, results.get(1).error);
+    assertEquals(AppConstants.ERR_WAREHOUSE_ALREADY_EXISTS, results.get(2).error);
+    assertEquals(AppConstants.ERR_WAREHOUSE_ALREADY_EXISTS, results.get(3).error);
+    assertEquals(String.format(AppConstants.ERR_LOCATION_NOT_FOUND, "UNKNOWN-000"), results.get(4).error);
+    assertEquals(AppConstants.ERR_WAREHOUSE_STOCK_EXCEEDS_CAPACITY, results.get(5).error);
+    assertEquals("broken", results.get(6).error);
+    assertTrue(results.get(7).created);
+
+    assertNotNull(store.findByBusinessUnitCode("BU-IMP-1").createdAt);
+    assertNotNull(store.findByBusinessUnitCode("BU-IMP-5"));
+    assertEquals(2, store.countByLocation("ZWOLLE-002"));
+  }
+
+  @Test
+  public void testImportReportsEachChunkOnceWritten() {
+    List<WarehouseImportRecord> records = new ArrayList<>();
+    for (int i = 1; i <= ImportWarehousesUseCase.CHUNK_SIZE * 2 + 1; i++) {
+      records.add(WarehouseImportRecord.parsed(i, warehouse("BU-CHUNK-" + i, "AMSTERDAM-001", 1, 0)));
+    }
+
+    List<Integer> chunkSizes = new ArrayList<>();
+    useCase.importAll(records.iterator(), chunk -> chunkSizes.add(chunk.size()));
+
+    assertEquals(List.of(ImportWarehousesUseCase.CHUNK_SIZE, ImportWarehousesUseCase.CHUNK_SIZE, 1), chunkSizes);
+    // AMSTERDAM-001 allows 5 warehouses, counted across chunks
+    assertEquals(5, store.countByLocation("AMSTERDAM-001"));
+  }
+
+  @Test
+  public void testImportRejectsChunkThatLostAConcurrentWrite() {
+    InMemoryWarehouseStore racedStore = new InMemoryWarehouseStore() {
+      @Override
+      public void createAll(List<Warehouse> warehouses, Map<String, Location> locations) {
+        throw new RetryableConflictException(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE);
+      }
+    };
+    ImportWarehousesUseCase racedUseCase = new ImportWarehousesUseCase(racedStore, new LocationGateway());
+
+    List<WarehouseImportResult> results = new ArrayList<>();
+    racedUseCase.importAll(
+        List.of(WarehouseImportRecord.parsed(1, warehouse("BU-RACED", "AMSTERDAM-001", 10, 0))).iterator(),
+        results::addAll);
+
+    assertFalse(results.get(0).created);
+    assertEquals(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE, results.get(0).error);
+    assertNull(racedStore.findByBusinessUnitCode("BU-RACED"));
+  }
+
+  @Test
+  public void testImportStopsAfterAChunkFailsToWrite() {
+    InMemoryWarehouseStore brokenStore = new InMemoryWarehouseStore() {
+      @Override
+      public void createAll(List<Warehouse> warehouses, Map<String, Location> locations) {
+        throw new IllegalStateException("connection lost");
+      }
+    };
+    ImportWarehousesUseCase brokenUseCase = new ImportWarehousesUseCase(brokenStore, new LocationGateway());
+
+    List<WarehouseImportRecord> records = new ArrayList<>();
+    for (int i = 1; i <= ImportWarehousesUseCase.CHUNK_SIZE + 1; i++) {
+      records.add(WarehouseImportRecord.parsed(i, warehouse("BU-BROKEN-" + i, "AMSTERDAM-001", 1, 0)));
+    }
+    List<List<WarehouseImportResult>> chunks = new ArrayList<>();
+    brokenUseCase.importAll(records.iterator(), chunks::add);
+
+    assertEquals(1, chunks.size());
+    List<WarehouseImportResult> results = chunks.get(0);
+    assertEquals(ImportWarehousesUseCase.CHUNK_SIZE, results.size());
+    assertEquals(AppConstants.ERR_WAREHOUSE_IMPORT_ABORTED, results.get(0).error);
+    // past the location's limit: rejected on its own rule, not by the failed write
+    assertEquals(AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION, results.get(5).error);
+    assertNull(brokenStore.findByBusinessUnitCode("BU-BROKEN-1"));
+  }
+
+  private List<WarehouseImportResult> importAll(List<WarehouseImportRecord> records) {
+    List<WarehouseImportResult> results = new ArrayList<>();
+    useCase.importAll(records.iterator(), results::addAll);
+    return results;
+  }
+
+  private static Warehouse warehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
+}
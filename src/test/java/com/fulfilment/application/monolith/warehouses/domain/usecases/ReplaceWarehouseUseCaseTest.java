@@ -6,7 +6,6 @@ import com.fulfilment.application.monolith.common.exceptions.ConflictException;
 import com.fulfilment.application.monolith.common.exceptions.NotFoundException;
 import com.fulfilment.application.monolith.common.exceptions.ValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
-import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers.InMemoryWarehouseStore;
 import com.fulfilment.application.monolith.location.LocationGateway;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,16 +14,14 @@ import org.junit.jupiter.api.Test;
 public class ReplaceWarehouseUseCaseTest {
 
   InMemoryWarehouseStore store;
-  ArchiveWarehouseOperation archiveOperation;
   LocationGateway locationGateway;
   ReplaceWarehouseUseCase useCase;
 
   @BeforeEach
   public void setup() {
     store = new InMemoryWarehouseStore();
-    archiveOperation = new ArchiveWarehouseUseCase(store);
     locationGateway = new LocationGateway();
-    useCase = new ReplaceWarehouseUseCase(store, archiveOperation, locationGateway);
+    useCase = new ReplaceWarehouseUseCase(store, locationGateway);
   }
 
   @Test
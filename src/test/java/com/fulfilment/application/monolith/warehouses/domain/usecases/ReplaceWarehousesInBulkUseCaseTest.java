@@ -0,0 +1,163 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.common.AppConstants;
+import com.fulfilment.application.monolith.common.exceptions.RetryableConflictException;
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseReplacementResult;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers.InMemoryWarehouseStore;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReplaceWarehousesInBulkUseCaseTest {
+
+  InMemoryWarehouseStore store;
+  ReplaceWarehousesInBulkUseCase useCase;
+
+  @BeforeEach
+  public void setup() {
+    store = new InMemoryWarehouseStore();
+    useCase = new ReplaceWarehousesInBulkUseCase(store, new LocationGateway());
+  }
+
+  @Test
+  public void testSetIsCheckedOnItsCombinedTotals() {
+    // ZWOLLE-002 holds 50: growing B first only fits because A shrinks in the same set
+    store.create(warehouse("BU-BULK-A", "ZWOLLE-002", 30, 5));
+    store.create(warehouse("BU-BULK-B", "ZWOLLE-002", 20, 5));
+
+    List<WarehouseReplacementResult> results = useCase.replaceAll(List.of(
+        warehouse("BU-BULK-B", "ZWOLLE-002", 30, 5),
+        warehouse("BU-BULK-A", "ZWOLLE-002", 20, 5)));
+
+    assertTrue(results.get(0).replaced);
+    assertTrue(results.get(1).replaced);
+    assertEquals(30, store.findByBusinessUnitCode("BU-BULK-B").capacity);
+    assertEquals(50, store.getTotalCapacityByLocation("ZWOLLE-002"));
+  }
+
+  @Test
+  public void testLaterReplacementOverflowingTogetherIsInfeasible() {
+    // AMSTERDAM-002 holds 75: each growth to 40 fits alone, both do not
+    store.create(warehouse("BU-BULK-C", "AMSTERDAM-002", 25, 5));
+    store.create(warehouse("BU-BULK-D", "AMSTERDAM-002", 25, 5));
+
+    List<WarehouseReplacementResult> results = useCase.replaceAll(List.of(
+        warehouse("BU-BULK-C", "AMSTERDAM-002", 40, 5),
+        warehouse("BU-BULK-D", "AMSTERDAM-002", 40, 5)));
+
+    assertTrue(results.get(0).replaced);
+    assertFalse(results.get(1).replaced);
+    assertEquals(AppConstants.ERR_WAREHOUSE_LOCATION_CAPACITY_EXCEEDED, results.get(1).error);
+    assertEquals(25, store.findByBusinessUnitCode("BU-BULK-D").capacity);
+  }
+
+  @Test
+  public void testMoveIntoAFullLocationIsInfeasible() {
+    // TILBURG-001 takes a single unit; the move out of it frees that unit for the move in
+    store.create(warehouse("BU-BULK-E", "TILBURG-001", 10, 1));
+    store.create(warehouse("BU-BULK-F", "AMSTERDAM-001", 10, 1));
+    store.create(warehouse("BU-BULK-G", "AMSTERDAM-001", 10, 1));
+
+    List<WarehouseReplacementResult> results = useCase.replaceAll(List.of(
+        warehouse("BU-BULK-E", "AMSTERDAM-001", 10, 1),
+        warehouse("BU-BULK-F", "TILBURG-001", 10, 1),
+        warehouse("BU-BULK-G", "TILBURG-001", 10, 1)));
+
+    assertTrue(results.get(0).replaced);
+    assertTrue(results.get(1).replaced);
+    assertEquals(AppConstants.ERR_WAREHOUSE_MAX_PER_LOCATION, results.get(2).error);
+    assertEquals(1, store.countByLocation("TILBURG-001"));
+    assertEquals("AMSTERDAM-001", store.findByBusinessUnitCode("BU-BULK-G").location);
+  }
+
+  @Test
+  public void testEachReplacementKeepsTheSingleReplaceRules() {
+    for (String code : List.of("BU-BULK-H", "BU-BULK-I", "BU-BULK-J", "BU-BULK-K")) {
+      store.create(warehouse(code, "AMSTERDAM-001", 10, 5));
+    }
+
+    List<WarehouseReplacementResult> results = useCase.replaceAll(Arrays.asList(
+        warehouse("BU-BULK-MISSING", "AMSTERDAM-001", 10, 5),
+        warehouse("BU-BULK-H", "AMSTERDAM-001", 10, 6),
+        warehouse("BU-BULK-I", "AMSTERDAM-001", 4, 5),
+        warehouse("BU-BULK-J", "UNKNOWN-000", 10, 5),
+        warehouse("BU-BULK-K", "AMSTERDAM-001", 20, 5),
+        warehouse("BU-BULK-K", "AMSTERDAM-001", 30, 5),
+        null));
+
+    assertEquals(String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, "BU-BULK-MISSING"), results.get(0).error);
+    assertEquals(AppConstants.ERR_WAREHOUSE_STOCK_IMMUTABLE, results.get(1).error);
+    assertEquals(AppConstants.ERR_WAREHOUSE_CAPACITY_INSUFFICIENT, results.get(2).error);
+    assertEquals(String.format(AppConstants.ERR_LOCATION_NOT_FOUND, "UNKNOWN-000"), results.get(3).error);
+    assertTrue(results.get(4).replaced);
+    assertEquals(AppConstants.ERR_WAREHOUSE_REPLACEMENT_DUPLICATE, results.get(5).error);
+    assertEquals(AppConstants.ERR_WAREHOUSE_NULL, results.get(6).error);
+    assertEquals(20, store.findByBusinessUnitCode("BU-BULK-K").capacity);
+    assertEquals(10, store.findByBusinessUnitCode("BU-BULK-H").capacity);
+  }
+
+  @Test
+  public void testPlanThatLostAConcurrentWriteIsNotApplied() {
+    InMemoryWarehouseStore racedStore = new InMemoryWarehouseStore() {
+      @Override
+      public void replaceAll(List<Warehouse> replacements, Map<String, Location> locations,
+          LocalDateTime archivedAt) {
+        throw new RetryableConflictException(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE);
+      }
+    };
+    racedStore.create(warehouse("BU-BULK-RACED", "AMSTERDAM-001", 10, 1));
+    ReplaceWarehousesInBulkUseCase racedUseCase = new ReplaceWarehousesInBulkUseCase(racedStore, new LocationGateway());
+
+    List<WarehouseReplacementResult> results =
+        racedUseCase.replaceAll(List.of(warehouse("BU-BULK-RACED", "AMSTERDAM-001", 20, 1)));
+
+    assertFalse(results.get(0).replaced);
+    assertEquals(AppConstants.ERR_WAREHOUSE_CONCURRENT_UPDATE, results.get(0).error);
+    assertEquals(10, racedStore.findByBusinessUnitCode("BU-BULK-RACED").capacity);
+  }
+
+  @Test
+  public void testReplacedVersionsAreReadInOneLookup() {
+    AtomicInteger lookups = new AtomicInteger();
+    InMemoryWarehouseStore countingStore = new InMemoryWarehouseStore() {
+      @Override
+      public Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+        lookups.incrementAndGet();
+        return super.findByBusinessUnitCodes(buCodes);
+      }
+    };
+    countingStore.create(warehouse("BU-BULK-E", "AMSTERDAM-001", 10, 1));
+    countingStore.create(warehouse("BU-BULK-F", "AMSTERDAM-001", 10, 1));
+    ReplaceWarehousesInBulkUseCase countingUseCase =
+        new ReplaceWarehousesInBulkUseCase(countingStore, new LocationGateway());
+
+    List<WarehouseReplacementResult> results = countingUseCase.replaceAll(List.of(
+        warehouse("BU-BULK-E", "AMSTERDAM-001", 12, 1),
+        warehouse("BU-BULK-F", "AMSTERDAM-001", 12, 1),
+        warehouse("BU-BULK-MISSING", "AMSTERDAM-001", 12, 1)));
+
+    assertEquals(1, lookups.get());
+    assertTrue(results.get(0).replaced);
+    assertTrue(results.get(1).replaced);
+    assertEquals(String.format(AppConstants.ERR_WAREHOUSE_NOT_FOUND, "BU-BULK-MISSING"), results.get(2).error);
+  }
+
+  private static Warehouse warehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    return w;
+  }
+}
@@ -1,10 +1,18 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases.testhelpers;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationAggregate;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 public class InMemoryWarehouseStore implements WarehouseStore {
 
@@ -15,11 +23,47 @@ public class InMemoryWarehouseStore implements WarehouseStore {
     return new ArrayList<>(list);
   }
 
+  @Override
+  public List<Warehouse> getAllActive() {
+    return list.stream().filter(w -> w.archivedAt == null).collect(Collectors.toList());
+  }
+
   @Override
   public void create(Warehouse warehouse) {
     list.add(warehouse);
   }
 
+  @Override
+  public synchronized boolean createWithinLimits(Warehouse warehouse, int maxNumberOfWarehouses, int maxCapacity) {
+    LocationAggregate aggregate = getAggregateByLocation(warehouse.location);
+    int capacity = warehouse.capacity != null ? warehouse.capacity : 0;
+    if (aggregate.activeCount >= maxNumberOfWarehouses || aggregate.totalCapacity + capacity > maxCapacity) {
+      return false;
+    }
+    list.add(warehouse);
+    return true;
+  }
+
+  @Override
+  public synchronized void createAll(List<Warehouse> warehouses, Map<String, Location> locations) {
+    list.addAll(warehouses);
+  }
+
+  @Override
+  public Set<String> findExistingCodes(Collection<String> buCodes) {
+    return buCodes.stream()
+        .filter(code -> findByBusinessUnitCode(code) != null)
+        .collect(Collectors.toSet());
+  }
+
+  @Override
+  public Set<String> findArchivedCodes(Collection<String> buCodes) {
+    return buCodes.stream()
+        .filter(code -> findByBusinessUnitCode(code) == null
+            && list.stream().anyMatch(w -> code.equals(w.businessUnitCode)))
+        .collect(Collectors.toSet());
+  }
+
   @Override
   public void update(Warehouse warehouse) {
     for (int i = 0; i < list.size(); i++) {
@@ -50,6 +94,47 @@ public class InMemoryWarehouseStore implements WarehouseStore {
         .orElse(null);
   }
 
+  @Override
+  public Map<String, Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    Map<String, Warehouse> found = new HashMap<>();
+    for (String code : buCodes) {
+      Warehouse warehouse = findByBusinessUnitCode(code);
+      if (warehouse != null) {
+        found.put(code, warehouse);
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public synchronized boolean archiveByCode(String buCode, LocalDateTime archivedAt) {
+    Warehouse active = findByBusinessUnitCode(buCode);
+    if (active == null) {
+      return false;
+    }
+    active.archivedAt = archivedAt;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean replaceByCode(Warehouse replacement, Location location, LocalDateTime archivedAt) {
+    if (!archiveByCode(replacement.businessUnitCode, archivedAt)) {
+      return false;
+    }
+    list.add(replacement);
+    return true;
+  }
+
+  @Override
+  public synchronized void replaceAll(List<Warehouse> replacements, Map<String, Location> locations,
+      LocalDateTime archivedAt) {
+    for (Warehouse replacement : replacements) {
+      if (!replaceByCode(replacement, locations.get(replacement.location), archivedAt)) {
+        throw new IllegalStateException("No active warehouse " + replacement.businessUnitCode);
+      }
+    }
+  }
+
   @Override
   public long countByLocation(String location) {
     if (location == null) {
@@ -70,4 +155,27 @@ public class InMemoryWarehouseStore implements WarehouseStore {
         .mapToInt(w -> w.capacity != null ? w.capacity : 0)
         .sum();
   }
+
+  @Override
+  public LocationAggregate getAggregateByLocation(String location) {
+    if (location == null) {
+      return LocationAggregate.EMPTY;
+    }
+    List<Warehouse> active = list.stream()
+        .filter(w -> w.location != null && w.location.equals(location) && w.archivedAt == null)
+        .toList();
+    return new LocationAggregate(
+        active.size(),
+        active.stream().mapToLong(w -> w.capacity != null ? w.capacity : 0).sum(),
+        active.stream().mapToLong(w -> w.stock != null ? w.stock : 0).sum());
+  }
+
+  @Override
+  public Map<String, LocationAggregate> getAggregatesByLocation() {
+    return list.stream()
+        .filter(w -> w.location != null && w.archivedAt == null)
+        .map(w -> w.location)
+        .distinct()
+        .collect(Collectors.toMap(location -> location, this::getAggregateByLocation));
+  }
 }